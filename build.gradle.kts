@@ -65,7 +65,6 @@ dependencies {
     minecraft(group = "com.mojang", name = "minecraft", version = Constants.MINECRAFT_VERSION)
     mappings(loom.officialMojangMappings())
     modImplementation(group = "net.fabricmc", name = "fabric-loader", version = Constants.FABRIC_LOADER_VERSION)
-    include(implementation(group = "com.lodborg", name = "interval-tree", version = "1.0.0"))
 
     fun addEmbeddedFabricModule(name: String) {
         val module = fabricApi.module(name, Constants.FABRIC_API_VERSION)
@@ -80,6 +79,19 @@ dependencies {
     addEmbeddedFabricModule("fabric-rendering-data-attachment-v1")
     addEmbeddedFabricModule("fabric-rendering-fluids-v1")
     addEmbeddedFabricModule("fabric-resource-loader-v0")
+
+    testImplementation(group = "org.junit.jupiter", name = "junit-jupiter", version = "5.10.2")
+    testRuntimeOnly(group = "org.junit.platform", name = "junit-platform-launcher", version = "1.10.2")
+
+    // Used to stand in for GL objects, which can't be created without a context
+    testImplementation(group = "org.mockito", name = "mockito-core", version = "5.11.0")
+
+    // The benchmarks live next to the tests, so that they can share their fixtures
+    testImplementation(group = "org.openjdk.jmh", name = "jmh-core", version = "1.37")
+    testAnnotationProcessor(group = "org.openjdk.jmh", name = "jmh-generator-annprocess", version = "1.37")
+
+    // The interval tree which the translucency sort triggers used before, as a baseline for their benchmark
+    testImplementation(group = "com.lodborg", name = "interval-tree", version = "1.0.0")
 }
 
 tasks {
@@ -102,6 +114,20 @@ tasks {
         manifest.attributes["Main-Class"] = "net.caffeinemc.mods.sodium.desktop.LaunchWarn"
     }
 
+    test {
+        useJUnitPlatform()
+    }
+
+    register<JavaExec>("jmh") {
+        group = "verification"
+        description = "Runs the JMH benchmarks of the test source set. Arguments are passed with --args."
+
+        dependsOn("testClasses")
+
+        classpath = sourceSets.getByName("test").runtimeClasspath
+        mainClass = "org.openjdk.jmh.Main"
+    }
+
     processResources {
         inputs.property("version", project.version)
 
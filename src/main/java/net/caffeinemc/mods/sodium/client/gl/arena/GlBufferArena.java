@@ -19,29 +19,81 @@ public class GlBufferArena {
 
     private static final GlBufferUsage BUFFER_USAGE = GlBufferUsage.STATIC_DRAW;
 
+    // The arena is only compacted when at least this fraction of the free memory is outside the largest free segment
+    private static final float MIN_COMPACTION_FRAGMENTATION = 0.1f;
+
+    // The maximum number of free segments which are considered as the destination of one compaction step
+    private static final int MAX_COMPACTION_HOLES = 16;
+
+    // The largest buffer object an arena allocates. Many drivers refuse to allocate larger buffers, and it keeps the
+    // offsets of all segments within the range of a signed integer.
+    static final long MAX_BUFFER_SIZE = 1L << 31;
+
+    private final int initialCapacity;
     private final int resizeIncrement;
 
     private final StagingBuffer stagingBuffer;
     private GlMutableBuffer arenaBuffer;
 
     private GlBufferSegment head;
+    private GlBufferSegment tail;
+    private final GlBufferSegmentFreeList freeList = new GlBufferSegmentFreeList();
 
     private int capacity;
     private int used;
 
     private final int stride;
+    private final int alignment;
+    private final int maxCapacity;
 
     public GlBufferArena(CommandList commands, int initialCapacity, int stride, StagingBuffer stagingBuffer) {
+        this(commands, initialCapacity, stride, 1, stagingBuffer);
+    }
+
+    /**
+     * @param alignment The number of elements which the offset and length of every segment are a multiple of, which
+     *                  must be a power of two
+     */
+    public GlBufferArena(CommandList commands, int initialCapacity, int stride, int alignment, StagingBuffer stagingBuffer) {
+        this(commands, initialCapacity, initialCapacity / 16, stride, alignment, stagingBuffer);
+    }
+
+    /**
+     * @param resizeIncrement The minimum number of elements the arena grows by when it runs out of space. Every resize
+     *                        copies the whole buffer, so very large arenas should use a larger increment.
+     * @param alignment The number of elements which the offset and length of every segment are a multiple of, which
+     *                  must be a power of two
+     */
+    public GlBufferArena(CommandList commands, int initialCapacity, int resizeIncrement, int stride, int alignment,
+                         StagingBuffer stagingBuffer) {
+        if (Integer.bitCount(alignment) != 1) {
+            throw new IllegalArgumentException("Alignment must be a power of two");
+        }
+
+        if ((initialCapacity & (alignment - 1)) != 0) {
+            throw new IllegalArgumentException("Initial capacity must be a multiple of the alignment");
+        }
+
         this.capacity = initialCapacity;
-        this.resizeIncrement = initialCapacity / 16;
+        this.initialCapacity = initialCapacity;
+        this.alignment = alignment;
+        this.resizeIncrement = this.alignUp(resizeIncrement);
 
         this.stride = stride;
+        this.maxCapacity = (int) Math.min(Integer.MAX_VALUE, MAX_BUFFER_SIZE / stride) & ~(alignment - 1);
+
+        if (initialCapacity > this.maxCapacity) {
+            throw new IllegalArgumentException("Initial capacity exceeds the maximum buffer size");
+        }
 
         this.head = new GlBufferSegment(this, 0, initialCapacity);
         this.head.setFree(true);
+        this.freeList.add(this.head);
+
+        this.tail = this.head;
 
         this.arenaBuffer = commands.createMutableBuffer();
-        commands.allocateStorage(this.arenaBuffer, this.capacity * stride, BUFFER_USAGE);
+        commands.allocateStorage(this.arenaBuffer, (long) this.capacity * stride, BUFFER_USAGE);
 
         this.stagingBuffer = stagingBuffer;
     }
@@ -53,24 +105,33 @@ public class GlBufferArena {
 
         this.checkAssertions();
 
-        int tail = newCapacity - this.used;
+        int tailLength = newCapacity - this.used;
 
+        // The used segments are packed at the front of the new buffer, so that incremental compaction doesn't
+        // need to move them again
         List<GlBufferSegment> usedSegments = this.getUsedSegments();
-        List<PendingBufferCopyCommand> pendingCopies = this.buildTransferList(usedSegments, tail);
+        List<PendingBufferCopyCommand> pendingCopies = this.buildTransferList(usedSegments, 0);
 
         this.transferSegments(commandList, pendingCopies, newCapacity);
 
-        this.head = new GlBufferSegment(this, 0, tail);
-        this.head.setFree(true);
+        GlBufferSegment free = new GlBufferSegment(this, this.used, tailLength);
+        free.setFree(true);
+
+        this.freeList.clear();
+        this.freeList.add(free);
 
         if (usedSegments.isEmpty()) {
-            this.head.setNext(null);
+            this.head = free;
         } else {
-            this.head.setNext(usedSegments.get(0));
-            this.head.getNext()
-                    .setPrev(this.head);
+            GlBufferSegment last = usedSegments.get(usedSegments.size() - 1);
+            last.setNext(free);
+            free.setPrev(last);
+
+            this.head = usedSegments.get(0);
         }
 
+        this.tail = free;
+
         this.checkAssertions();
     }
 
@@ -121,13 +182,13 @@ public class GlBufferArena {
         GlMutableBuffer srcBufferObj = this.arenaBuffer;
         GlMutableBuffer dstBufferObj = commandList.createMutableBuffer();
 
-        commandList.allocateStorage(dstBufferObj, capacity * this.stride, BUFFER_USAGE);
+        commandList.allocateStorage(dstBufferObj, (long) capacity * this.stride, BUFFER_USAGE);
 
         for (PendingBufferCopyCommand cmd : list) {
             commandList.copyBufferSubData(srcBufferObj, dstBufferObj,
-                    cmd.readOffset * this.stride,
-                    cmd.writeOffset * this.stride,
-                    cmd.length * this.stride);
+                    (long) cmd.readOffset * this.stride,
+                    (long) cmd.writeOffset * this.stride,
+                    (long) cmd.length * this.stride);
         }
 
         commandList.deleteBuffer(srcBufferObj);
@@ -153,16 +214,42 @@ public class GlBufferArena {
         return used;
     }
 
-    public int getDeviceUsedMemory() {
-        return this.used * this.stride;
+    public long getDeviceUsedMemory() {
+        return (long) this.used * this.stride;
+    }
+
+    public long getDeviceAllocatedMemory() {
+        return (long) this.capacity * this.stride;
+    }
+
+    /**
+     * Returns the fraction of free memory which is not part of the largest free segment, where 0.0 means that all
+     * free memory is contiguous. Allocations which are larger than the largest free segment force a resize of
+     * the arena, even if there is enough free memory in total.
+     */
+    public float getFragmentation() {
+        int free = this.freeList.getFreeLength();
+
+        if (free <= 0) {
+            return 0.0f;
+        }
+
+        return 1.0f - ((float) this.freeList.getLargestSegmentLength() / free);
+    }
+
+    public long getDeviceLargestFreeMemory() {
+        return (long) this.freeList.getLargestSegmentLength() * this.stride;
     }
 
-    public int getDeviceAllocatedMemory() {
-        return this.capacity * this.stride;
+    public int getFreeSegmentCount() {
+        return this.freeList.getSegmentCount();
     }
 
-    private GlBufferSegment alloc(int size) {
-        GlBufferSegment a = this.findFree(size);
+    GlBufferSegment alloc(int size) {
+        // Rounding up the length of every segment keeps all offsets aligned, including those of moved segments
+        size = this.alignUp(size);
+
+        GlBufferSegment a = this.freeList.find(size);
 
         if (a == null) {
             return null;
@@ -170,6 +257,8 @@ public class GlBufferArena {
 
         GlBufferSegment result;
 
+        this.freeList.remove(a);
+
         if (a.getLength() == size) {
             a.setFree(false);
 
@@ -187,6 +276,13 @@ public class GlBufferArena {
             a.setLength(a.getLength() - size);
             a.setNext(b);
 
+            if (this.tail == a) {
+                this.tail = b;
+            }
+
+            // The remainder may belong to a smaller size class now
+            this.freeList.add(a);
+
             result = b;
         }
 
@@ -196,27 +292,6 @@ public class GlBufferArena {
         return result;
     }
 
-    private GlBufferSegment findFree(int size) {
-        GlBufferSegment entry = this.head;
-        GlBufferSegment best = null;
-
-        while (entry != null) {
-            if (entry.isFree()) {
-                if (entry.getLength() == size) {
-                    return entry;
-                } else if (entry.getLength() >= size) {
-                    if (best == null || best.getLength() > entry.getLength()) {
-                        best = entry;
-                    }
-                }
-            }
-
-            entry = entry.getNext();
-        }
-
-        return best;
-    }
-
     public void free(GlBufferSegment entry) {
         if (entry.isFree()) {
             throw new IllegalStateException("Already freed");
@@ -226,19 +301,197 @@ public class GlBufferArena {
 
         this.used -= entry.getLength();
 
+        this.addFreeSegment(entry);
+
+        this.checkAssertions();
+    }
+
+    /**
+     * Merges a segment which has just become free with its free neighbours and adds the result to the free list.
+     */
+    private void addFreeSegment(GlBufferSegment entry) {
         GlBufferSegment next = entry.getNext();
 
         if (next != null && next.isFree()) {
+            this.freeList.remove(next);
             entry.mergeInto(next);
+
+            if (this.tail == next) {
+                this.tail = entry;
+            }
         }
 
         GlBufferSegment prev = entry.getPrev();
 
         if (prev != null && prev.isFree()) {
+            this.freeList.remove(prev);
             prev.mergeInto(entry);
+
+            if (this.tail == entry) {
+                this.tail = prev;
+            }
+
+            entry = prev;
+        }
+
+        this.freeList.add(entry);
+    }
+
+    /**
+     * Moves live segments from the back of the arena into free segments closer to the front, copying at most
+     * {@code maxBytes} bytes. Once the live data has been packed, the arena's buffer is shrunk if most of it is unused.
+     * The offsets of moved segments are updated in place, so the caller needs to refresh any offsets it has copied
+     * from them if this returns a non-zero value. If the buffer object was replaced by shrinking it, any state which
+     * refers to it needs to be re-created as well.
+     *
+     * @return The number of bytes which were copied
+     */
+    public int compact(CommandList commandList, int maxBytes) {
+        int maxLength = maxBytes / this.stride;
+        int movedLength = 0;
+
+        if (this.getFragmentation() >= MIN_COMPACTION_FRAGMENTATION) {
+            int length;
+
+            while (movedLength < maxLength && (length = this.compactStep(commandList, maxLength - movedLength)) > 0) {
+                movedLength += length;
+            }
+        }
+
+        if (movedLength < maxLength && this.shrink(commandList, maxLength - movedLength)) {
+            movedLength += this.getLiveEnd();
         }
 
         this.checkAssertions();
+
+        return movedLength * this.stride;
+    }
+
+    private int compactStep(CommandList commandList, int maxLength) {
+        GlBufferSegment tail = this.tail;
+        GlBufferSegment hole = this.head;
+        int holes = 0;
+
+        while (hole != null && holes < MAX_COMPACTION_HOLES) {
+            if (hole.isFree() && hole.getLength() > 0) {
+                // Prefer moving the segments at the very end, since that allows the arena to be shrunk
+                for (GlBufferSegment seg = tail; seg != null && seg.getOffset() > hole.getOffset(); seg = seg.getPrev()) {
+                    if (!seg.isFree() && seg.getLength() <= hole.getLength() && seg.getLength() <= maxLength) {
+                        this.moveSegment(commandList, seg, hole);
+
+                        return seg.getLength();
+                    }
+                }
+
+                holes++;
+            }
+
+            hole = hole.getNext();
+        }
+
+        return 0;
+    }
+
+    private void moveSegment(CommandList commandList, GlBufferSegment src, GlBufferSegment dst) {
+        int length = src.getLength();
+
+        var copy = new PendingBufferCopyCommand(src.getOffset(), dst.getOffset(), length);
+        commandList.copyBufferSubData(this.arenaBuffer, this.arenaBuffer,
+                (long) copy.readOffset * this.stride,
+                (long) copy.writeOffset * this.stride,
+                (long) copy.length * this.stride);
+
+        // Leave a free segment where the moved segment used to be
+        GlBufferSegment vacated = new GlBufferSegment(this, src.getOffset(), length);
+        vacated.setFree(true);
+        this.replaceSegment(src, vacated);
+
+        this.freeList.remove(dst);
+        src.setOffset(dst.getOffset());
+
+        if (dst.getLength() == length) {
+            this.replaceSegment(dst, src);
+        } else {
+            GlBufferSegment prev = dst.getPrev();
+
+            src.setPrev(prev);
+            src.setNext(dst);
+
+            if (prev != null) {
+                prev.setNext(src);
+            } else {
+                this.head = src;
+            }
+
+            dst.setPrev(src);
+            dst.setOffset(dst.getOffset() + length);
+            dst.setLength(dst.getLength() - length);
+
+            this.freeList.add(dst);
+        }
+
+        this.addFreeSegment(vacated);
+    }
+
+    private void replaceSegment(GlBufferSegment prevSegment, GlBufferSegment newSegment) {
+        GlBufferSegment prev = prevSegment.getPrev();
+        GlBufferSegment next = prevSegment.getNext();
+
+        newSegment.setPrev(prev);
+        newSegment.setNext(next);
+
+        if (prev != null) {
+            prev.setNext(newSegment);
+        } else {
+            this.head = newSegment;
+        }
+
+        if (next != null) {
+            next.setPrev(newSegment);
+        } else {
+            this.tail = newSegment;
+        }
+    }
+
+    private boolean shrink(CommandList commandList, int maxLength) {
+        GlBufferSegment tail = this.tail;
+
+        // Only shrink once the free memory at the end of the buffer makes up at least half of the arena
+        if (!tail.isFree() || tail.getLength() < (this.capacity / 2) || this.capacity <= this.initialCapacity) {
+            return false;
+        }
+
+        int liveEnd = tail.getOffset();
+
+        if (liveEnd > maxLength) {
+            return false;
+        }
+
+        int newCapacity = (int) Math.min(this.maxCapacity, Math.max(this.initialCapacity, (long) liveEnd + this.resizeIncrement));
+
+        if (newCapacity >= this.capacity) {
+            return false;
+        }
+
+        List<PendingBufferCopyCommand> copies = new ArrayList<>();
+
+        if (liveEnd > 0) {
+            copies.add(new PendingBufferCopyCommand(0, 0, liveEnd));
+        }
+
+        this.transferSegments(commandList, copies, newCapacity);
+
+        this.freeList.remove(tail);
+        tail.setLength(newCapacity - liveEnd);
+        this.freeList.add(tail);
+
+        return true;
+    }
+
+    private int getLiveEnd() {
+        GlBufferSegment tail = this.tail;
+
+        return tail.isFree() ? tail.getOffset() : tail.getEnd();
     }
 
     public void delete(CommandList commands) {
@@ -268,7 +521,7 @@ public class GlBufferArena {
         if (!queue.isEmpty()) {
             // Calculate the amount of memory needed for the remaining uploads
             int remainingElements = queue.stream()
-                    .mapToInt(upload -> upload.getDataBuffer().getLength())
+                    .mapToInt(PendingUpload::getLength)
                     .sum();
 
             // Ask the arena to grow to accommodate the remaining uploads
@@ -294,10 +547,7 @@ public class GlBufferArena {
     }
 
     private boolean tryUpload(CommandList commandList, PendingUpload upload) {
-        ByteBuffer data = upload.getDataBuffer()
-                .getDirectBuffer();
-
-        int elementCount = data.remaining() / this.stride;
+        int elementCount = upload.getLength() / this.stride;
 
         GlBufferSegment dst = this.alloc(elementCount);
 
@@ -305,8 +555,16 @@ public class GlBufferArena {
             return false;
         }
 
-        // Copy the data into our staging buffer, then copy it into the arena's buffer
-        this.stagingBuffer.enqueueCopy(commandList, data, this.arenaBuffer, dst.getOffset() * this.stride);
+        if (upload.isStaged()) {
+            // The data has already been written into a staging buffer, so it only needs to be copied on the GPU
+            upload.getStagedData().enqueueCopy(commandList, this.arenaBuffer, (long) dst.getOffset() * this.stride);
+        } else {
+            ByteBuffer data = upload.getDataBuffer()
+                    .getDirectBuffer();
+
+            // Copy the data into our staging buffer, then copy it into the arena's buffer
+            this.stagingBuffer.enqueueCopy(commandList, data, this.arenaBuffer, (long) dst.getOffset() * this.stride);
+        }
 
         upload.setResult(dst);
 
@@ -317,10 +575,26 @@ public class GlBufferArena {
         // Re-sizing the arena results in a compaction, so any free space in the arena will be
         // made into one contiguous segment, joined with the new segment of free space we're asking for
         // We calculate the number of free elements in our arena and then subtract that from the total requested
-        int elementsNeeded = elementCount - (this.capacity - this.used);
+        long elementsNeeded = (long) elementCount - (this.capacity - this.used);
+
+        // Try to allocate some extra buffer space unless this is an unusually large allocation, but never grow
+        // past the maximum buffer size
+        long newCapacity = Math.min(this.alignUp(this.capacity + Math.max(this.resizeIncrement, elementsNeeded)), this.maxCapacity);
+
+        if (newCapacity - this.used < elementCount) {
+            throw new OutOfMemoryError("Arena can't grow to %d bytes, the maximum buffer size is %d bytes"
+                    .formatted(((long) this.used + elementCount) * this.stride, (long) this.maxCapacity * this.stride));
+        }
 
-        // Try to allocate some extra buffer space unless this is an unusually large allocation
-        this.resize(commandList, Math.max(this.capacity + this.resizeIncrement, this.capacity + elementsNeeded));
+        this.resize(commandList, (int) newCapacity);
+    }
+
+    private int alignUp(int length) {
+        return (int) this.alignUp((long) length);
+    }
+
+    private long alignUp(long length) {
+        return (length + this.alignment - 1) & -this.alignment;
     }
 
     private void checkAssertions() {
@@ -329,19 +603,26 @@ public class GlBufferArena {
         }
     }
 
-    private void checkAssertions0() {
+    void checkAssertions0() {
         GlBufferSegment seg = this.head;
         int used = 0;
+        int free = 0;
+        int freeSegments = 0;
 
         while (seg != null) {
             if (seg.getOffset() < 0) {
                 throw new IllegalStateException("segment.start < 0: out of bounds");
+            } else if ((seg.getOffset() & (this.alignment - 1)) != 0) {
+                throw new IllegalStateException("segment.start % arena.alignment != 0: misaligned segment");
             } else if (seg.getEnd() > this.capacity) {
                 throw new IllegalStateException("segment.end > arena.capacity: out of bounds");
             }
 
             if (!seg.isFree()) {
                 used += seg.getLength();
+            } else if (seg.getLength() > 0) {
+                free += seg.getLength();
+                freeSegments++;
             }
 
             GlBufferSegment next = seg.getNext();
@@ -376,6 +657,10 @@ public class GlBufferArena {
                 }
             }
 
+            if (next == null && seg != this.tail) {
+                throw new IllegalStateException("arena.tail is not the last segment");
+            }
+
             seg = next;
         }
 
@@ -388,6 +673,10 @@ public class GlBufferArena {
         if (this.used != used) {
             throw new IllegalStateException("arena.used is invalid");
         }
+
+        if (this.freeList.getFreeLength() != free || this.freeList.getSegmentCount() != freeSegments) {
+            throw new IllegalStateException("arena.freeList is out of sync with the free segments");
+        }
     }
 
 }
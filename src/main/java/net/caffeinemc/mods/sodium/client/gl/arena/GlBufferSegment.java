@@ -11,6 +11,11 @@ public class GlBufferSegment {
     private GlBufferSegment next;
     private GlBufferSegment prev;
 
+    // The links within the arena's free list, only valid while the segment is free
+    private GlBufferSegment freeNext;
+    private GlBufferSegment freePrev;
+    private int freeListBin;
+
     public GlBufferSegment(GlBufferArena arena, int offset, int length) {
         this.arena = arena;
         this.offset = offset;
@@ -73,6 +78,30 @@ public class GlBufferSegment {
         this.prev = prev;
     }
 
+    GlBufferSegment getFreeNext() {
+        return this.freeNext;
+    }
+
+    void setFreeNext(GlBufferSegment freeNext) {
+        this.freeNext = freeNext;
+    }
+
+    GlBufferSegment getFreePrev() {
+        return this.freePrev;
+    }
+
+    void setFreePrev(GlBufferSegment freePrev) {
+        this.freePrev = freePrev;
+    }
+
+    int getFreeListBin() {
+        return this.freeListBin;
+    }
+
+    void setFreeListBin(int bin) {
+        this.freeListBin = bin;
+    }
+
     protected void mergeInto(GlBufferSegment entry) {
         this.setLength(this.getLength() + entry.getLength());
         this.setNext(entry.getNext());
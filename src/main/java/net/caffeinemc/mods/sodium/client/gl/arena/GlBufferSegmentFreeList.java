@@ -0,0 +1,155 @@
+package net.caffeinemc.mods.sodium.client.gl.arena;
+
+/**
+ * Tracks the free segments of a {@link GlBufferArena} in segregated size classes, so that a suitable segment can be
+ * found without walking every segment in the arena. Each size class holds the free segments whose length lies within
+ * {@code [2^n, 2^(n+1))}, and a bit mask records which size classes are non-empty.
+ *
+ * <p>Allocations first look at a bounded number of segments in the size class of the requested length (which may or
+ * may not be large enough) to find a close fit. Otherwise, the first segment of the next non-empty larger size class
+ * is used, since every segment in it is guaranteed to be large enough. Both operations, as well as insertion and
+ * removal, take constant time.</p>
+ */
+class GlBufferSegmentFreeList {
+    private static final int BIN_COUNT = Integer.SIZE;
+    private static final int NO_BIN = -1;
+
+    // The maximum number of segments to inspect when searching the size class of the requested length
+    private static final int MAX_BIN_SCAN = 8;
+
+    private final GlBufferSegment[] bins = new GlBufferSegment[BIN_COUNT];
+    private int nonEmptyBins;
+
+    private int segmentCount;
+    private int freeLength;
+
+    public void add(GlBufferSegment segment) {
+        // The arena can be left with an empty free segment at its start after a resize, which can't satisfy any
+        // allocation and isn't tracked
+        if (segment.getLength() <= 0) {
+            segment.setFreeListBin(NO_BIN);
+            return;
+        }
+
+        int bin = getBinForLength(segment.getLength());
+        GlBufferSegment head = this.bins[bin];
+
+        segment.setFreeListBin(bin);
+        segment.setFreePrev(null);
+        segment.setFreeNext(head);
+
+        if (head != null) {
+            head.setFreePrev(segment);
+        }
+
+        this.bins[bin] = segment;
+        this.nonEmptyBins |= 1 << bin;
+
+        this.segmentCount++;
+        this.freeLength += segment.getLength();
+    }
+
+    public void remove(GlBufferSegment segment) {
+        int bin = segment.getFreeListBin();
+
+        if (bin == NO_BIN) {
+            return;
+        }
+
+        GlBufferSegment prev = segment.getFreePrev();
+        GlBufferSegment next = segment.getFreeNext();
+
+        if (prev != null) {
+            prev.setFreeNext(next);
+        } else {
+            this.bins[bin] = next;
+
+            if (next == null) {
+                this.nonEmptyBins &= ~(1 << bin);
+            }
+        }
+
+        if (next != null) {
+            next.setFreePrev(prev);
+        }
+
+        segment.setFreePrev(null);
+        segment.setFreeNext(null);
+
+        this.segmentCount--;
+        this.freeLength -= segment.getLength();
+    }
+
+    public GlBufferSegment find(int length) {
+        int bin = getBinForLength(length);
+
+        if ((this.nonEmptyBins & (1 << bin)) != 0) {
+            GlBufferSegment entry = this.bins[bin];
+            GlBufferSegment best = null;
+
+            for (int i = 0; entry != null && i < MAX_BIN_SCAN; i++) {
+                if (entry.getLength() == length) {
+                    return entry;
+                } else if (entry.getLength() > length) {
+                    if (best == null || best.getLength() > entry.getLength()) {
+                        best = entry;
+                    }
+                }
+
+                entry = entry.getFreeNext();
+            }
+
+            if (best != null) {
+                return best;
+            }
+        }
+
+        // All segments in the larger size classes can satisfy the request, so take the smallest such class
+        int largerBins = this.nonEmptyBins & ~((2 << bin) - 1);
+
+        if (largerBins == 0) {
+            return null;
+        }
+
+        return this.bins[Integer.numberOfTrailingZeros(largerBins)];
+    }
+
+    public void clear() {
+        for (int bin = 0; bin < BIN_COUNT; bin++) {
+            this.bins[bin] = null;
+        }
+
+        this.nonEmptyBins = 0;
+
+        this.segmentCount = 0;
+        this.freeLength = 0;
+    }
+
+    public int getSegmentCount() {
+        return this.segmentCount;
+    }
+
+    public int getFreeLength() {
+        return this.freeLength;
+    }
+
+    public int getLargestSegmentLength() {
+        if (this.nonEmptyBins == 0) {
+            return 0;
+        }
+
+        int largest = 0;
+        GlBufferSegment entry = this.bins[(BIN_COUNT - 1) - Integer.numberOfLeadingZeros(this.nonEmptyBins)];
+
+        while (entry != null) {
+            largest = Math.max(largest, entry.getLength());
+            entry = entry.getFreeNext();
+        }
+
+        return largest;
+    }
+
+    private static int getBinForLength(int length) {
+        return (BIN_COUNT - 1) - Integer.numberOfLeadingZeros(length);
+    }
+}
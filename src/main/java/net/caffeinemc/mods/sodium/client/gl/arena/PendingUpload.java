@@ -1,19 +1,38 @@
 package net.caffeinemc.mods.sodium.client.gl.arena;
 
+import net.caffeinemc.mods.sodium.client.gl.arena.staging.ConcurrentStagingBuffer;
 import net.caffeinemc.mods.sodium.client.util.NativeBuffer;
 
 public class PendingUpload {
     private final NativeBuffer data;
+    private final ConcurrentStagingBuffer.Reservation stagedData;
     private GlBufferSegment result;
 
     public PendingUpload(NativeBuffer data) {
         this.data = data;
+        this.stagedData = null;
+    }
+
+    /**
+     * Creates an upload for data which has already been written into a staging buffer.
+     */
+    public PendingUpload(ConcurrentStagingBuffer.Reservation stagedData) {
+        this.data = null;
+        this.stagedData = stagedData;
     }
 
     public NativeBuffer getDataBuffer() {
         return this.data;
     }
 
+    public ConcurrentStagingBuffer.Reservation getStagedData() {
+        return this.stagedData;
+    }
+
+    public boolean isStaged() {
+        return this.stagedData != null;
+    }
+
     protected void setResult(GlBufferSegment result) {
         if (this.result != null) {
             throw new IllegalStateException("Result already provided");
@@ -31,6 +50,6 @@ public class PendingUpload {
     }
 
     public int getLength() {
-        return this.data.getLength();
+        return this.stagedData != null ? this.stagedData.getLength() : this.data.getLength();
     }
 }
@@ -0,0 +1,214 @@
+package net.caffeinemc.mods.sodium.client.gl.arena.staging;
+
+import it.unimi.dsi.fastutil.PriorityQueue;
+import it.unimi.dsi.fastutil.objects.ObjectArrayFIFOQueue;
+import net.caffeinemc.mods.sodium.client.gl.buffer.*;
+import net.caffeinemc.mods.sodium.client.gl.device.CommandList;
+import net.caffeinemc.mods.sodium.client.gl.sync.GlFence;
+import net.caffeinemc.mods.sodium.client.gl.util.EnumBitField;
+import net.caffeinemc.mods.sodium.client.util.MathUtil;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A persistently mapped ring buffer which other threads can write data into directly. Unlike
+ * {@link MappedStagingBuffer}, where the render thread copies the data into the mapped memory, space is reserved
+ * up-front by the producer of the data (such as a chunk build task) and is then written to by it. The render thread
+ * only needs to issue the copy commands on the GPU.
+ *
+ * <p>Reservations are handed out in ring order, but can be released in any order. A reservation which was copied
+ * from is only released once the GPU has finished the copy, which is tracked with fences. If the ring is full,
+ * {@link #tryReserve(int)} fails and the caller is expected to fall back to a regular allocation.</p>
+ */
+public class ConcurrentStagingBuffer {
+    private static final EnumBitField<GlBufferStorageFlags> STORAGE_FLAGS =
+            EnumBitField.of(GlBufferStorageFlags.PERSISTENT, GlBufferStorageFlags.CLIENT_STORAGE, GlBufferStorageFlags.MAP_WRITE);
+
+    private static final EnumBitField<GlBufferMapFlags> MAP_FLAGS =
+            EnumBitField.of(GlBufferMapFlags.PERSISTENT, GlBufferMapFlags.INVALIDATE_BUFFER, GlBufferMapFlags.WRITE, GlBufferMapFlags.EXPLICIT_FLUSH);
+
+    private final GlImmutableBuffer buffer;
+    private final GlBufferMapping mapping;
+    private final long address;
+
+    private final int capacity;
+
+    // Guarded by the lock on this object, since reservations are made and released from multiple threads
+    private final ArrayDeque<Reservation> reservations = new ArrayDeque<>();
+    private long head;
+    private long tail;
+
+    // Only accessed by the render thread
+    private List<Reservation> copiedReservations = new ArrayList<>();
+    private final PriorityQueue<FencedReservations> fencedReservations = new ObjectArrayFIFOQueue<>();
+
+    public ConcurrentStagingBuffer(CommandList commandList) {
+        this(commandList, 1024 * 1024 * 32 /* 32 MB */);
+    }
+
+    public ConcurrentStagingBuffer(CommandList commandList, int capacity) {
+        this.buffer = commandList.createImmutableBuffer(capacity, STORAGE_FLAGS);
+        this.mapping = commandList.mapBuffer(this.buffer, 0, capacity, MAP_FLAGS);
+        this.address = MemoryUtil.memAddress(this.mapping.getMemoryBuffer());
+
+        this.capacity = capacity;
+    }
+
+    /**
+     * Reserves a contiguous range of the buffer which the caller can write into.
+     *
+     * @return The reservation, or null if there isn't enough free space in the buffer
+     */
+    public synchronized Reservation tryReserve(int length) {
+        if (length <= 0 || length > this.capacity) {
+            return null;
+        }
+
+        long start = this.head;
+        int offset = (int) (start % this.capacity);
+
+        // Reservations can't wrap around the end of the buffer, so skip the remaining space if it's too small
+        if (offset + length > this.capacity) {
+            start += this.capacity - offset;
+            offset = 0;
+        }
+
+        long end = start + length;
+
+        if (end - this.tail > this.capacity) {
+            return null;
+        }
+
+        var reservation = new Reservation(this, offset, length, end);
+
+        this.reservations.addLast(reservation);
+        this.head = end;
+
+        return reservation;
+    }
+
+    private synchronized void release(Reservation reservation) {
+        reservation.state = Reservation.STATE_RELEASED;
+
+        // The space can only be reused once all reservations before it are released as well
+        while (!this.reservations.isEmpty() && this.reservations.peekFirst().state == Reservation.STATE_RELEASED) {
+            this.tail = this.reservations.removeFirst().end;
+        }
+    }
+
+    private void copy(CommandList commandList, Reservation reservation, GlBuffer dst, long writeOffset) {
+        if (reservation.state != Reservation.STATE_WRITABLE) {
+            throw new IllegalStateException("Reservation has already been used");
+        }
+
+        reservation.state = Reservation.STATE_COPIED;
+
+        commandList.flushMappedRange(this.mapping, reservation.offset, reservation.length);
+        commandList.copyBufferSubData(this.buffer, dst, reservation.offset, writeOffset, reservation.length);
+
+        this.copiedReservations.add(reservation);
+    }
+
+    /**
+     * Fences the copies which were issued since the last call, so that their space is released once they complete.
+     */
+    public void flush(CommandList commandList) {
+        if (this.copiedReservations.isEmpty()) {
+            return;
+        }
+
+        this.fencedReservations.enqueue(new FencedReservations(commandList.createFence(), this.copiedReservations));
+        this.copiedReservations = new ArrayList<>();
+    }
+
+    public void flip() {
+        while (!this.fencedReservations.isEmpty()) {
+            var fenced = this.fencedReservations.first();
+            var fence = fenced.fence();
+
+            if (!fence.isCompleted()) {
+                break;
+            }
+
+            fence.delete();
+
+            this.fencedReservations.dequeue();
+
+            for (var reservation : fenced.reservations()) {
+                this.release(reservation);
+            }
+        }
+    }
+
+    public void delete(CommandList commandList) {
+        while (!this.fencedReservations.isEmpty()) {
+            this.fencedReservations.dequeue()
+                    .fence()
+                    .delete();
+        }
+
+        commandList.unmap(this.mapping);
+        commandList.deleteBuffer(this.buffer);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "Shared (%s/%s MiB)".formatted(MathUtil.toMib(this.capacity - (this.head - this.tail)), MathUtil.toMib(this.capacity));
+    }
+
+    /**
+     * A range of the staging buffer which has been reserved for the data of one upload.
+     */
+    public static final class Reservation {
+        private static final int STATE_WRITABLE = 0;
+        private static final int STATE_COPIED = 1;
+        private static final int STATE_RELEASED = 2;
+
+        private final ConcurrentStagingBuffer owner;
+        private final int offset;
+        private final int length;
+        private final long end;
+
+        private volatile int state = STATE_WRITABLE;
+
+        private Reservation(ConcurrentStagingBuffer owner, int offset, int length, long end) {
+            this.owner = owner;
+            this.offset = offset;
+            this.length = length;
+            this.end = end;
+        }
+
+        public ByteBuffer getDirectBuffer() {
+            return MemoryUtil.memByteBuffer(this.owner.address + this.offset, this.length);
+        }
+
+        public int getLength() {
+            return this.length;
+        }
+
+        /**
+         * Enqueues a copy of the reserved data into the given buffer. The reservation is released automatically once
+         * the copy has completed.
+         */
+        public void enqueueCopy(CommandList commandList, GlBuffer dst, long writeOffset) {
+            this.owner.copy(commandList, this, dst, writeOffset);
+        }
+
+        /**
+         * Releases the reservation without copying from it. This does nothing if a copy has already been enqueued.
+         */
+        public void discard() {
+            if (this.state == STATE_WRITABLE) {
+                this.owner.release(this);
+            }
+        }
+    }
+
+    private record FencedReservations(GlFence fence, List<Reservation> reservations) {
+
+    }
+}
@@ -2,14 +2,28 @@ package net.caffeinemc.mods.sodium.client.gl.attribute;
 
 public class GlVertexAttributeBinding extends GlVertexAttribute {
     private final int index;
+    private final int divisor;
 
     public GlVertexAttributeBinding(int index, GlVertexAttribute attribute) {
+        this(index, attribute, 0);
+    }
+
+    /**
+     * @param divisor The number of instances which use the same element of the attribute, or zero if the attribute
+     *                advances with every vertex instead
+     */
+    public GlVertexAttributeBinding(int index, GlVertexAttribute attribute, int divisor) {
         super(attribute.getFormat(), attribute.getSize(), attribute.getCount(), attribute.isNormalized(), attribute.getPointer(), attribute.getStride(), attribute.isIntType());
 
         this.index = index;
+        this.divisor = divisor;
     }
 
     public int getIndex() {
         return this.index;
     }
+
+    public int getDivisor() {
+        return this.divisor;
+    }
 }
@@ -1,6 +1,7 @@
 package net.caffeinemc.mods.sodium.client.gl.attribute;
 
 import java.util.EnumMap;
+import java.util.EnumSet;
 
 /**
  * Provides a generic vertex format which contains the attributes defined by {@param T}. Other code can then retrieve
@@ -38,6 +39,13 @@ public class GlVertexFormat<T extends Enum<T>> {
         return attr;
     }
 
+    /**
+     * @return True if an attribute is bound to the type {@param name} in this vertex format, otherwise false
+     */
+    public boolean hasAttribute(T name) {
+        return this.attributesKeyed.containsKey(name);
+    }
+
     /**
      * @return The stride (or the size of) the vertex format in bytes
      */
@@ -53,12 +61,14 @@ public class GlVertexFormat<T extends Enum<T>> {
 
     public static class Builder<T extends Enum<T>> {
         private final EnumMap<T, GlVertexAttribute> attributes;
+        private final EnumSet<T> skipped;
         private final Class<T> type;
         private final int stride;
 
         public Builder(Class<T> type, int stride) {
             this.type = type;
             this.attributes = new EnumMap<>(type);
+            this.skipped = EnumSet.noneOf(type);
             this.stride = stride;
         }
 
@@ -66,6 +76,23 @@ public class GlVertexFormat<T extends Enum<T>> {
             return this.addElement(type, new GlVertexAttribute(format, count, normalized, pointer, this.stride, intType));
         }
 
+        /**
+         * Declares that the given generic attribute type is intentionally left unbound, since the format encodes the
+         * same data using a different set of attributes, or the shader fetches the vertex data itself.
+         *
+         * @param type The generic attribute type
+         * @throws IllegalStateException If an attribute is already bound to the generic type
+         */
+        public Builder<T> skipElement(T type) {
+            if (this.attributes.containsKey(type)) {
+                throw new IllegalStateException("Generic attribute " + type.name() + " already defined in vertex format");
+            }
+
+            this.skipped.add(type);
+
+            return this;
+        }
+
         /**
          * Adds an vertex attribute which will be bound to the given generic attribute type.
          *
@@ -82,7 +109,7 @@ public class GlVertexFormat<T extends Enum<T>> {
                 throw new IllegalArgumentException("Element extends outside vertex format");
             }
 
-            if (this.attributes.put(type, attribute) != null) {
+            if (this.skipped.contains(type) || this.attributes.put(type, attribute) != null) {
                 throw new IllegalStateException("Generic attribute " + type.name() + " already defined in vertex format");
             }
 
@@ -91,6 +118,8 @@ public class GlVertexFormat<T extends Enum<T>> {
 
         /**
          * Creates a {@link GlVertexFormat} from the current builder.
+         *
+         * @throws NullPointerException If a generic attribute type is neither bound nor skipped
          */
         public GlVertexFormat<T> build() {
             int size = 0;
@@ -99,6 +128,10 @@ public class GlVertexFormat<T extends Enum<T>> {
                 GlVertexAttribute attribute = this.attributes.get(key);
 
                 if (attribute == null) {
+                    if (this.skipped.contains(key)) {
+                        continue;
+                    }
+
                     throw new NullPointerException("Generic attribute not assigned to enumeration " + key.name());
                 }
 
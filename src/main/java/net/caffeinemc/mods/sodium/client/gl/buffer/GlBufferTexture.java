@@ -0,0 +1,22 @@
+package net.caffeinemc.mods.sodium.client.gl.buffer;
+
+import net.caffeinemc.mods.sodium.client.gl.GlObject;
+import org.lwjgl.opengl.GL11C;
+import org.lwjgl.opengl.GL31C;
+
+/**
+ * A texture object which exposes the data store of a buffer to shaders (OpenGL 3.1+). This allows shaders to fetch
+ * arbitrary data from the buffer by index, rather than being limited to the layout of vertex attributes.
+ */
+public class GlBufferTexture extends GlObject {
+    public GlBufferTexture() {
+        this.setHandle(GL11C.glGenTextures());
+    }
+
+    /**
+     * @return The maximum number of texels which can be addressed through a buffer texture on this device
+     */
+    public static int getMaxTexels() {
+        return GL11C.glGetInteger(GL31C.GL_MAX_TEXTURE_BUFFER_SIZE);
+    }
+}
@@ -21,6 +21,8 @@ public interface CommandList extends AutoCloseable {
 
     void uploadData(GlMutableBuffer glBuffer, ByteBuffer byteBuffer, GlBufferUsage usage);
 
+    void uploadSubData(GlMutableBuffer glBuffer, long offset, ByteBuffer byteBuffer);
+
     void copyBufferSubData(GlBuffer src, GlBuffer dst, long readOffset, long writeOffset, long bytes);
 
     void bindBuffer(GlBufferTarget target, GlBuffer buffer);
@@ -33,6 +35,10 @@ public interface CommandList extends AutoCloseable {
 
     void deleteVertexArray(GlVertexArray vertexArray);
 
+    GlBufferTexture createBufferTexture(GlBuffer buffer, int internalFormat);
+
+    void deleteBufferTexture(GlBufferTexture texture);
+
     void flush();
 
     DrawCommandList beginTessellating(GlTessellation tessellation);
@@ -1,9 +1,22 @@
 package net.caffeinemc.mods.sodium.client.gl.device;
 
+import net.caffeinemc.mods.sodium.client.gl.buffer.GlBuffer;
 import net.caffeinemc.mods.sodium.client.gl.tessellation.GlIndexType;
 
 public interface DrawCommandList extends AutoCloseable {
-    void multiDrawElementsBaseVertex(MultiDrawBatch batch, GlIndexType indexType);
+    default void multiDrawElementsBaseVertex(MultiDrawBatch batch, GlIndexType indexType) {
+        this.multiDrawElementsBaseVertex(batch, 0, batch.size(), indexType);
+    }
+
+    /**
+     * Issues the draw commands {@code [start, start + count)} of the batch with the given index type.
+     */
+    void multiDrawElementsBaseVertex(MultiDrawBatch batch, int start, int count, GlIndexType indexType);
+
+    /**
+     * Issues {@code count} draw commands which are sourced from the given buffer, starting at {@code offset} bytes.
+     */
+    void multiDrawElementsIndirect(GlBuffer commandBuffer, long offset, int count, GlIndexType indexType);
 
     void endTessellating();
 
@@ -9,6 +9,7 @@ import net.caffeinemc.mods.sodium.client.gl.tessellation.*;
 import net.caffeinemc.mods.sodium.client.gl.util.EnumBitField;
 import org.lwjgl.opengl.*;
 import com.mojang.blaze3d.vertex.BufferUploader;
+import org.lwjgl.system.Pointer;
 import java.nio.ByteBuffer;
 
 public class GLRenderDevice implements RenderDevice {
@@ -88,6 +89,13 @@ public class GLRenderDevice implements RenderDevice {
             glBuffer.setSize(byteBuffer.remaining());
         }
 
+        @Override
+        public void uploadSubData(GlMutableBuffer glBuffer, long offset, ByteBuffer byteBuffer) {
+            this.bindBuffer(GlBufferTarget.ARRAY_BUFFER, glBuffer);
+
+            GL20C.glBufferSubData(GlBufferTarget.ARRAY_BUFFER.getTargetParameter(), offset, byteBuffer);
+        }
+
         @Override
         public void copyBufferSubData(GlBuffer src, GlBuffer dst, long readOffset, long writeOffset, long bytes) {
             this.bindBuffer(GlBufferTarget.COPY_READ_BUFFER, src);
@@ -142,6 +150,25 @@ public class GLRenderDevice implements RenderDevice {
             GL30C.glDeleteVertexArrays(handle);
         }
 
+        @Override
+        public GlBufferTexture createBufferTexture(GlBuffer buffer, int internalFormat) {
+            GlBufferTexture texture = new GlBufferTexture();
+
+            GL11C.glBindTexture(GL31C.GL_TEXTURE_BUFFER, texture.handle());
+            GL31C.glTexBuffer(GL31C.GL_TEXTURE_BUFFER, internalFormat, buffer.handle());
+            GL11C.glBindTexture(GL31C.GL_TEXTURE_BUFFER, 0);
+
+            return texture;
+        }
+
+        @Override
+        public void deleteBufferTexture(GlBufferTexture texture) {
+            int handle = texture.handle();
+            texture.invalidateHandle();
+
+            GL11C.glDeleteTextures(handle);
+        }
+
         @Override
         public void flush() {
             // NO-OP
@@ -267,15 +294,23 @@ public class GLRenderDevice implements RenderDevice {
         }
 
         @Override
-        public void multiDrawElementsBaseVertex(MultiDrawBatch batch, GlIndexType indexType) {
+        public void multiDrawElementsBaseVertex(MultiDrawBatch batch, int start, int count, GlIndexType indexType) {
             GlPrimitiveType primitiveType = GLRenderDevice.this.activeTessellation.getPrimitiveType();
 
             GL32C.nglMultiDrawElementsBaseVertex(primitiveType.getId(),
-                    batch.pElementCount,
+                    batch.pElementCount + ((long) start * Integer.BYTES),
                     indexType.getFormatId(),
-                    batch.pElementPointer,
-                    batch.size(),
-                    batch.pBaseVertex);
+                    batch.pElementPointer + ((long) start * Pointer.POINTER_SIZE),
+                    count,
+                    batch.pBaseVertex + ((long) start * Integer.BYTES));
+        }
+
+        @Override
+        public void multiDrawElementsIndirect(GlBuffer commandBuffer, long offset, int count, GlIndexType indexType) {
+            GlPrimitiveType primitiveType = GLRenderDevice.this.activeTessellation.getPrimitiveType();
+
+            GLRenderDevice.this.commandList.bindBuffer(GlBufferTarget.DRAW_INDIRECT_BUFFER, commandBuffer);
+            GL43C.glMultiDrawElementsIndirect(primitiveType.getId(), indexType.getFormatId(), offset, count, 0);
         }
 
         @Override
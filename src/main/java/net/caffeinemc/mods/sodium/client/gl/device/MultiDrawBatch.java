@@ -1,5 +1,6 @@
 package net.caffeinemc.mods.sodium.client.gl.device;
 
+import net.caffeinemc.mods.sodium.client.gl.tessellation.GlIndexType;
 import org.lwjgl.PointerBuffer;
 import org.lwjgl.system.MemoryUtil;
 import org.lwjgl.system.Pointer;
@@ -14,6 +15,12 @@ public final class MultiDrawBatch {
     public final long pElementCount;
     public final long pBaseVertex;
 
+    /**
+     * The index type of each command, which is set by every path that adds a command. Commands which source their
+     * indices from a dedicated index buffer may use a different index type for each section.
+     */
+    public final GlIndexType[] indexTypes;
+
     private final int capacity;
 
     public int size;
@@ -25,6 +32,8 @@ public final class MultiDrawBatch {
         this.pElementCount = MemoryUtil.nmemAlignedAlloc(32, (long) capacity * Integer.BYTES);
         this.pBaseVertex = MemoryUtil.nmemAlignedAlloc(32, (long) capacity * Integer.BYTES);
 
+        this.indexTypes = new GlIndexType[capacity];
+
         this.capacity = capacity;
     }
 
@@ -14,6 +14,9 @@ import net.caffeinemc.mods.sodium.client.gui.options.control.TickBoxControl;
 import net.caffeinemc.mods.sodium.client.gui.options.storage.MinecraftOptionsStorage;
 import net.caffeinemc.mods.sodium.client.gui.options.storage.SodiumOptionsStorage;
 import net.caffeinemc.mods.sodium.client.compatibility.workarounds.Workarounds;
+import net.caffeinemc.mods.sodium.client.render.chunk.DefaultChunkRenderer;
+import net.caffeinemc.mods.sodium.client.render.chunk.occlusion.OcclusionRasterizerSettings;
+import net.caffeinemc.mods.sodium.client.render.chunk.vertex.format.impl.QuadRecordChunkVertex;
 import net.minecraft.client.AttackIndicatorStatus;
 import net.minecraft.client.CloudStatus;
 import net.minecraft.client.GraphicsStatus;
@@ -321,6 +324,22 @@ public class SodiumGameOptionPages {
                         .setImpact(OptionImpact.LOW)
                         .setFlags(OptionFlag.REQUIRES_RENDERER_RELOAD)
                         .build())
+                .add(OptionImpl.createBuilder(int.class, sodiumOpts)
+                        .setName(Component.translatable("sodium.options.dynamic_sort_distance.name"))
+                        .setTooltip(Component.translatable("sodium.options.dynamic_sort_distance.tooltip"))
+                        .setControl(option -> new SliderControl(option, 0, 32, 1, ControlValueFormatter.sortDistance()))
+                        .setBinding((opts, value) -> opts.performance.dynamicSortDistance = value, opts -> opts.performance.dynamicSortDistance)
+                        .setImpact(OptionImpact.LOW)
+                        .setFlags(OptionFlag.REQUIRES_RENDERER_RELOAD)
+                        .build())
+                .add(OptionImpl.createBuilder(int.class, sodiumOpts)
+                        .setName(Component.translatable("sodium.options.static_sort_distance.name"))
+                        .setTooltip(Component.translatable("sodium.options.static_sort_distance.tooltip"))
+                        .setControl(option -> new SliderControl(option, 0, 32, 1, ControlValueFormatter.sortDistance()))
+                        .setBinding((opts, value) -> opts.performance.staticSortDistance = value, opts -> opts.performance.staticSortDistance)
+                        .setImpact(OptionImpact.LOW)
+                        .setFlags(OptionFlag.REQUIRES_RENDERER_RELOAD)
+                        .build())
                 .build());
 
         return new OptionPage(Component.translatable("sodium.options.pages.performance"), ImmutableList.copyOf(groups));
@@ -332,6 +351,31 @@ public class SodiumGameOptionPages {
                 && !Workarounds.isWorkaroundEnabled(Workarounds.Reference.NO_ERROR_CONTEXT_UNSUPPORTED);
     }
 
+    // The regions are drawn together through the indirect draw commands, and the geometry texture of the quad record
+    // format can't hold the meshes of all regions
+    private static boolean supportsGlobalGeometryBuffer() {
+        var options = sodiumOpts.getData().advanced;
+        return DefaultChunkRenderer.isGlobalGeometryBufferSupported(RenderDevice.INSTANCE) && options.useIndirectDrawing
+                && options.chunkVertexFormat != SodiumGameOptions.ChunkVertexFormat.QUAD_RECORD;
+    }
+
+    // The incremental and parallel searches don't rasterize occluders, so the rasterizer can't be combined with them
+    private static boolean supportsOcclusionRasterizer() {
+        var options = sodiumOpts.getData().advanced;
+        return !options.useIncrementalOcclusionCulling && !options.useParallelOcclusionCulling;
+    }
+
+    private static SodiumGameOptions.ChunkVertexFormat[] getSupportedVertexFormats() {
+        if (QuadRecordChunkVertex.isSupported()) {
+            return SodiumGameOptions.ChunkVertexFormat.values();
+        }
+
+        return new SodiumGameOptions.ChunkVertexFormat[] {
+                SodiumGameOptions.ChunkVertexFormat.COMPACT,
+                SodiumGameOptions.ChunkVertexFormat.DENSE
+        };
+    }
+
     public static OptionPage advanced() {
         List<OptionGroup> groups = new ArrayList<>();
 
@@ -346,6 +390,121 @@ public class SodiumGameOptionPages {
                         .setFlags(OptionFlag.REQUIRES_RENDERER_RELOAD)
                         .build()
                 )
+                .add(OptionImpl.createBuilder(boolean.class, sodiumOpts)
+                        .setName(Component.translatable("sodium.options.use_direct_mesh_staging.name"))
+                        .setTooltip(Component.translatable("sodium.options.use_direct_mesh_staging.tooltip"))
+                        .setControl(TickBoxControl::new)
+                        .setImpact(OptionImpact.LOW)
+                        .setEnabled(MappedStagingBuffer.isSupported(RenderDevice.INSTANCE))
+                        .setBinding((opts, value) -> opts.advanced.useDirectMeshStaging = value, opts -> opts.advanced.useDirectMeshStaging)
+                        .setFlags(OptionFlag.REQUIRES_RENDERER_RELOAD)
+                        .build()
+                )
+                .add(OptionImpl.createBuilder(boolean.class, sodiumOpts)
+                        .setName(Component.translatable("sodium.options.use_indirect_drawing.name"))
+                        .setTooltip(Component.translatable("sodium.options.use_indirect_drawing.tooltip"))
+                        .setControl(TickBoxControl::new)
+                        .setImpact(OptionImpact.MEDIUM)
+                        .setEnabled(DefaultChunkRenderer.isIndirectDrawingSupported(RenderDevice.INSTANCE))
+                        .setBinding((opts, value) -> opts.advanced.useIndirectDrawing = value, opts -> opts.advanced.useIndirectDrawing)
+                        .setFlags(OptionFlag.REQUIRES_RENDERER_RELOAD)
+                        .build()
+                )
+                .add(OptionImpl.createBuilder(boolean.class, sodiumOpts)
+                        .setName(Component.translatable("sodium.options.use_global_geometry_buffer.name"))
+                        .setTooltip(Component.translatable("sodium.options.use_global_geometry_buffer.tooltip"))
+                        .setControl(TickBoxControl::new)
+                        .setImpact(OptionImpact.MEDIUM)
+                        .setEnabled(supportsGlobalGeometryBuffer())
+                        .setBinding((opts, value) -> opts.advanced.useGlobalGeometryBuffer = value, opts -> opts.advanced.useGlobalGeometryBuffer)
+                        .setFlags(OptionFlag.REQUIRES_RENDERER_RELOAD)
+                        .build()
+                )
+                .add(OptionImpl.createBuilder(boolean.class, sodiumOpts)
+                        .setName(Component.translatable("sodium.options.use_parallel_draw_command_generation.name"))
+                        .setTooltip(Component.translatable("sodium.options.use_parallel_draw_command_generation.tooltip"))
+                        .setControl(TickBoxControl::new)
+                        .setImpact(OptionImpact.LOW)
+                        .setBinding((opts, value) -> opts.advanced.useParallelDrawCommandGeneration = value, opts -> opts.advanced.useParallelDrawCommandGeneration)
+                        .build()
+                )
+                .add(OptionImpl.createBuilder(boolean.class, sodiumOpts)
+                        .setName(Component.translatable("sodium.options.use_incremental_occlusion_culling.name"))
+                        .setTooltip(Component.translatable("sodium.options.use_incremental_occlusion_culling.tooltip"))
+                        .setControl(TickBoxControl::new)
+                        .setImpact(OptionImpact.MEDIUM)
+                        .setBinding((opts, value) -> opts.advanced.useIncrementalOcclusionCulling = value, opts -> opts.advanced.useIncrementalOcclusionCulling)
+                        .setFlags(OptionFlag.REQUIRES_RENDERER_UPDATE)
+                        .build()
+                )
+                .add(OptionImpl.createBuilder(boolean.class, sodiumOpts)
+                        .setName(Component.translatable("sodium.options.use_parallel_occlusion_culling.name"))
+                        .setTooltip(Component.translatable("sodium.options.use_parallel_occlusion_culling.tooltip"))
+                        .setControl(TickBoxControl::new)
+                        .setImpact(OptionImpact.MEDIUM)
+                        .setEnabled(!sodiumOpts.getData().advanced.useIncrementalOcclusionCulling)
+                        .setBinding((opts, value) -> opts.advanced.useParallelOcclusionCulling = value, opts -> opts.advanced.useParallelOcclusionCulling)
+                        .setFlags(OptionFlag.REQUIRES_RENDERER_UPDATE)
+                        .build()
+                )
+                .add(OptionImpl.createBuilder(boolean.class, sodiumOpts)
+                        .setName(Component.translatable("sodium.options.use_occlusion_rasterizer.name"))
+                        .setTooltip(Component.translatable("sodium.options.use_occlusion_rasterizer.tooltip"))
+                        .setControl(TickBoxControl::new)
+                        .setImpact(OptionImpact.MEDIUM)
+                        .setEnabled(supportsOcclusionRasterizer())
+                        .setBinding((opts, value) -> opts.advanced.useOcclusionRasterizer = value, opts -> opts.advanced.useOcclusionRasterizer)
+                        .setFlags(OptionFlag.REQUIRES_RENDERER_UPDATE)
+                        .build()
+                )
+                .add(OptionImpl.createBuilder(int.class, sodiumOpts)
+                        .setName(Component.translatable("sodium.options.occlusion_rasterizer_resolution.name"))
+                        .setTooltip(Component.translatable("sodium.options.occlusion_rasterizer_resolution.tooltip"))
+                        .setControl(option -> new SliderControl(option, OcclusionRasterizerSettings.MIN_RESOLUTION, OcclusionRasterizerSettings.MAX_RESOLUTION, 64, ControlValueFormatter.translateVariable("sodium.options.occlusion_rasterizer_resolution.value")))
+                        .setImpact(OptionImpact.LOW)
+                        .setEnabled(supportsOcclusionRasterizer())
+                        .setBinding((opts, value) -> opts.advanced.occlusionRasterizerResolution = value, opts -> opts.advanced.occlusionRasterizerResolution)
+                        .setFlags(OptionFlag.REQUIRES_RENDERER_UPDATE)
+                        .build()
+                )
+                .add(OptionImpl.createBuilder(int.class, sodiumOpts)
+                        .setName(Component.translatable("sodium.options.occlusion_rasterizer_distance.name"))
+                        .setTooltip(Component.translatable("sodium.options.occlusion_rasterizer_distance.tooltip"))
+                        .setControl(option -> new SliderControl(option, OcclusionRasterizerSettings.MIN_OCCLUDER_DISTANCE, OcclusionRasterizerSettings.MAX_OCCLUDER_DISTANCE, 1, ControlValueFormatter.translateVariable("options.chunks")))
+                        .setImpact(OptionImpact.LOW)
+                        .setEnabled(supportsOcclusionRasterizer())
+                        .setBinding((opts, value) -> opts.advanced.occlusionRasterizerDistance = value, opts -> opts.advanced.occlusionRasterizerDistance)
+                        .setFlags(OptionFlag.REQUIRES_RENDERER_UPDATE)
+                        .build()
+                )
+                .add(OptionImpl.createBuilder(boolean.class, sodiumOpts)
+                        .setName(Component.translatable("sodium.options.use_horizon_culling.name"))
+                        .setTooltip(Component.translatable("sodium.options.use_horizon_culling.tooltip"))
+                        .setControl(TickBoxControl::new)
+                        .setImpact(OptionImpact.MEDIUM)
+                        .setEnabled(!sodiumOpts.getData().advanced.useIncrementalOcclusionCulling)
+                        .setBinding((opts, value) -> opts.advanced.useHorizonCulling = value, opts -> opts.advanced.useHorizonCulling)
+                        .setFlags(OptionFlag.REQUIRES_RENDERER_UPDATE)
+                        .build()
+                )
+                .add(OptionImpl.createBuilder(boolean.class, sodiumOpts)
+                        .setName(Component.translatable("sodium.options.use_async_occlusion_culling.name"))
+                        .setTooltip(Component.translatable("sodium.options.use_async_occlusion_culling.tooltip"))
+                        .setControl(TickBoxControl::new)
+                        .setImpact(OptionImpact.MEDIUM)
+                        .setBinding((opts, value) -> opts.advanced.useAsyncOcclusionCulling = value, opts -> opts.advanced.useAsyncOcclusionCulling)
+                        .setFlags(OptionFlag.REQUIRES_RENDERER_UPDATE)
+                        .build()
+                )
+                .add(OptionImpl.createBuilder(SodiumGameOptions.ChunkVertexFormat.class, sodiumOpts)
+                        .setName(Component.translatable("sodium.options.chunk_vertex_format.name"))
+                        .setTooltip(Component.translatable("sodium.options.chunk_vertex_format.tooltip"))
+                        .setControl(option -> new CyclingControl<>(option, SodiumGameOptions.ChunkVertexFormat.class, getSupportedVertexFormats()))
+                        .setImpact(OptionImpact.MEDIUM)
+                        .setBinding((opts, value) -> opts.advanced.chunkVertexFormat = value, opts -> opts.advanced.chunkVertexFormat)
+                        .setFlags(OptionFlag.REQUIRES_RENDERER_RELOAD)
+                        .build()
+                )
                 .build());
 
         groups.add(OptionGroup.createBuilder()
@@ -356,6 +515,14 @@ public class SodiumGameOptionPages {
                         .setBinding((opts, value) -> opts.advanced.cpuRenderAheadLimit = value, opts -> opts.advanced.cpuRenderAheadLimit)
                         .build()
                 )
+                .add(OptionImpl.createBuilder(int.class, sodiumOpts)
+                        .setName(Component.translatable("sodium.options.chunk_memory_budget.name"))
+                        .setTooltip(Component.translatable("sodium.options.chunk_memory_budget.tooltip"))
+                        .setControl(opt -> new SliderControl(opt, 0, 8192, 256, ControlValueFormatter.memoryBudget()))
+                        .setImpact(OptionImpact.MEDIUM)
+                        .setBinding((opts, value) -> opts.advanced.chunkMemoryBudget = value, opts -> opts.advanced.chunkMemoryBudget)
+                        .build()
+                )
                 .build());
 
         return new OptionPage(Component.translatable("sodium.options.pages.advanced"), ImmutableList.copyOf(groups));
@@ -48,6 +48,11 @@ public class SodiumGameOptions {
 
         public boolean sortingEnabled = true;
 
+        // The distances in chunks beyond which translucent geometry is only sorted statically, or not sorted at all,
+        // or zero for no limit
+        public int dynamicSortDistance = 0;
+        public int staticSortDistance = 0;
+
         public SortBehavior getSortBehavior() {
             return this.sortingEnabled ? SortBehavior.DYNAMIC_DEFER_NEARBY_ZERO_FRAMES : SortBehavior.OFF;
         }
@@ -56,8 +61,23 @@ public class SodiumGameOptions {
     public static class AdvancedSettings {
         public boolean enableMemoryTracing = false;
         public boolean useAdvancedStagingBuffers = true;
+        public boolean useDirectMeshStaging = true;
+        public boolean useIndirectDrawing = false;
+        public boolean useGlobalGeometryBuffer = false;
+        public boolean useParallelDrawCommandGeneration = false;
+        public boolean useIncrementalOcclusionCulling = false;
+        public boolean useParallelOcclusionCulling = false;
+        public boolean useOcclusionRasterizer = false;
+        public int occlusionRasterizerResolution = 256;
+        public int occlusionRasterizerDistance = 8;
+        public boolean useHorizonCulling = false;
+        public boolean useAsyncOcclusionCulling = false;
+        public ChunkVertexFormat chunkVertexFormat = ChunkVertexFormat.COMPACT;
 
         public int cpuRenderAheadLimit = 3;
+
+        // The maximum amount of video memory in MiB used by chunk meshes, or zero for no limit
+        public int chunkMemoryBudget = 0;
     }
 
     public static class QualitySettings {
@@ -93,6 +113,23 @@ public class SodiumGameOptions {
         }
     }
 
+    public enum ChunkVertexFormat implements TextProvider {
+        COMPACT("sodium.options.chunk_vertex_format.compact"),
+        DENSE("sodium.options.chunk_vertex_format.dense"),
+        QUAD_RECORD("sodium.options.chunk_vertex_format.quad_record");
+
+        private final Component name;
+
+        ChunkVertexFormat(String name) {
+            this.name = Component.translatable(name);
+        }
+
+        @Override
+        public Component getLocalizedName() {
+            return this.name;
+        }
+    }
+
     private static final Gson GSON = new GsonBuilder()
             .setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES)
             .setPrettyPrinting()
@@ -45,6 +45,14 @@ public interface ControlValueFormatter {
         return (v) -> Component.literal(v == 0 ? disableText : v + " " + name);
     }
 
+    static ControlValueFormatter sortDistance() {
+        return (v) -> (v == 0) ? Component.translatable("sodium.options.sort_distance.unlimited") : Component.translatable("options.chunks", v);
+    }
+
+    static ControlValueFormatter memoryBudget() {
+        return (v) -> (v == 0) ? Component.translatable("sodium.options.chunk_memory_budget.unlimited") : Component.translatable("sodium.options.chunk_memory_budget.value", v);
+    }
+
     static ControlValueFormatter number() {
         return (v) -> Component.literal(String.valueOf(v));
     }
@@ -160,6 +160,9 @@ public class SodiumWorldRenderer {
                              boolean updateChunksImmediately) {
         NativeBuffer.reclaim(false);
 
+        // the results of asynchronous culling from the last frame must be applied before any sections are modified
+        this.renderSectionManager.finishAsyncUpdate();
+
         this.processChunkEvents();
 
         this.useEntityCulling = SodiumClientMod.options().performance.useEntityCulling;
@@ -226,6 +229,10 @@ public class SodiumWorldRenderer {
 
         this.renderSectionManager.tickVisibleRenders();
 
+        profiler.popPush("chunk_render_lists_dispatch");
+
+        this.renderSectionManager.dispatchAsyncUpdate();
+
         profiler.pop();
 
         Entity.setViewScale(Mth.clamp((double) this.client.options.getEffectiveRenderDistance() / 8.0D, 1.0D, 2.5D) * this.client.options.entityDistanceScaling().get());
@@ -0,0 +1,127 @@
+package net.caffeinemc.mods.sodium.client.render.chunk;
+
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import net.caffeinemc.mods.sodium.client.render.chunk.compile.BuilderTaskOutput;
+import net.caffeinemc.mods.sodium.client.render.chunk.compile.ChunkBuildOutput;
+import net.caffeinemc.mods.sodium.client.util.MathUtil;
+import net.minecraft.core.BlockPos;
+import net.minecraft.util.Mth;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Limits the amount of data which is uploaded per frame, so that a large number of finished build tasks (such as
+ * after teleporting) doesn't cause a single long frame. The budget for each frame is derived from the measured upload
+ * throughput. Outputs which don't fit into the budget are deferred to the next frame.
+ *
+ * <p>Outputs for sections which were visible in the last graph update are uploaded first, and outputs which are
+ * closer to the camera are uploaded before those further away. Sort results and outputs for the sections right around
+ * the camera are always uploaded immediately, since they are small or fix visible errors.</p>
+ *
+ * <p>Deferred outputs are moved out of the concurrent staging buffer, which costs an extra copy on the render thread
+ * but keeps the ring free for the builds which are uploaded in the next frames.</p>
+ */
+public class ChunkUploadScheduler {
+    // The time which should be spent on uploads each frame
+    private static final long TARGET_UPLOAD_TIME_NS = 2_000_000L;
+
+    private static final long MIN_FRAME_BUDGET = 1024L * 1024L;
+    private static final long MAX_FRAME_BUDGET = 64L * 1024L * 1024L;
+
+    // Smaller uploads are dominated by fixed costs and would skew the throughput estimate
+    private static final long MIN_MEASURED_UPLOAD_SIZE = 64L * 1024L;
+    private static final double THROUGHPUT_SMOOTHING = 0.1;
+
+    private static final float ALWAYS_UPLOAD_DISTANCE = Mth.square(16.0f);
+
+    private final ObjectArrayList<BuilderTaskOutput> deferred = new ObjectArrayList<>();
+
+    // The estimated number of bytes which can be uploaded per nanosecond
+    private double throughput = 1.0;
+
+    /**
+     * Removes and returns the outputs which were deferred in a previous frame.
+     */
+    public List<BuilderTaskOutput> takeDeferred() {
+        var list = new ObjectArrayList<>(this.deferred);
+        this.deferred.clear();
+
+        return list;
+    }
+
+    public boolean hasDeferred() {
+        return !this.deferred.isEmpty();
+    }
+
+    /**
+     * Selects the outputs to upload in this frame. All other outputs are deferred and will be returned by the next
+     * call to {@link #takeDeferred()}.
+     *
+     * @param outputs The outputs which are ready to be uploaded, with at most one output per section
+     * @param frame The frame of the last visibility update
+     * @param cameraPos The position of the camera, or null if it isn't known yet
+     */
+    public List<BuilderTaskOutput> schedule(List<BuilderTaskOutput> outputs, int frame, BlockPos cameraPos) {
+        if (cameraPos == null) {
+            return outputs;
+        }
+
+        var sorted = new ObjectArrayList<>(outputs);
+        sorted.sort(Comparator.<BuilderTaskOutput>comparingInt(output -> output.render.getLastVisibleFrame() == frame ? 0 : 1)
+                .thenComparingDouble(output -> output.render.getSquaredDistance(cameraPos)));
+
+        var scheduled = new ObjectArrayList<BuilderTaskOutput>(sorted.size());
+        long remaining = this.getFrameBudget();
+
+        for (var output : sorted) {
+            long size = output.getUploadSize();
+
+            if (size <= remaining || scheduled.isEmpty() || isUrgent(output, cameraPos)) {
+                scheduled.add(output);
+                remaining -= size;
+            } else {
+                // a deferred output could otherwise hold on to its staging buffer space for many frames, which stops
+                // the space of all later builds from being reused as well
+                if (output instanceof ChunkBuildOutput buildOutput) {
+                    buildOutput.unstage();
+                }
+
+                this.deferred.add(output);
+            }
+        }
+
+        return scheduled;
+    }
+
+    private static boolean isUrgent(BuilderTaskOutput output, BlockPos cameraPos) {
+        return !(output instanceof ChunkBuildOutput)
+                || output.render.getSquaredDistance(cameraPos) < ALWAYS_UPLOAD_DISTANCE;
+    }
+
+    public void recordUpload(long bytes, long nanos) {
+        if (bytes < MIN_MEASURED_UPLOAD_SIZE || nanos <= 0) {
+            return;
+        }
+
+        double sample = (double) bytes / nanos;
+        this.throughput += (sample - this.throughput) * THROUGHPUT_SMOOTHING;
+    }
+
+    public long getFrameBudget() {
+        return Mth.clamp((long) (this.throughput * TARGET_UPLOAD_TIME_NS), MIN_FRAME_BUDGET, MAX_FRAME_BUDGET);
+    }
+
+    public void destroy() {
+        for (var output : this.deferred) {
+            output.destroy();
+        }
+
+        this.deferred.clear();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Deferred=%03d, Budget=%d MiB/frame", this.deferred.size(), MathUtil.toMib(this.getFrameBudget()));
+    }
+}
@@ -1,7 +1,13 @@
 package net.caffeinemc.mods.sodium.client.render.chunk;
 
 import net.caffeinemc.mods.sodium.client.SodiumClientMod;
+import net.caffeinemc.mods.sodium.client.gl.attribute.GlVertexAttribute;
 import net.caffeinemc.mods.sodium.client.gl.attribute.GlVertexAttributeBinding;
+import net.caffeinemc.mods.sodium.client.gl.attribute.GlVertexAttributeFormat;
+import net.caffeinemc.mods.sodium.client.gl.buffer.GlBuffer;
+import net.caffeinemc.mods.sodium.client.gl.buffer.GlBufferTexture;
+import net.caffeinemc.mods.sodium.client.gl.buffer.GlBufferUsage;
+import net.caffeinemc.mods.sodium.client.gl.buffer.GlMutableBuffer;
 import net.caffeinemc.mods.sodium.client.gl.device.CommandList;
 import net.caffeinemc.mods.sodium.client.gl.device.DrawCommandList;
 import net.caffeinemc.mods.sodium.client.gl.device.MultiDrawBatch;
@@ -11,6 +17,8 @@ import net.caffeinemc.mods.sodium.client.gl.tessellation.GlPrimitiveType;
 import net.caffeinemc.mods.sodium.client.gl.tessellation.GlTessellation;
 import net.caffeinemc.mods.sodium.client.gl.tessellation.TessellationBinding;
 import net.caffeinemc.mods.sodium.client.model.quad.properties.ModelQuadFacing;
+import net.caffeinemc.mods.sodium.client.render.chunk.data.CombinedDrawCommandBuffer;
+import net.caffeinemc.mods.sodium.client.render.chunk.data.SectionDrawCommandStorage;
 import net.caffeinemc.mods.sodium.client.render.chunk.data.SectionRenderDataStorage;
 import net.caffeinemc.mods.sodium.client.render.chunk.data.SectionRenderDataUnsafe;
 import net.caffeinemc.mods.sodium.client.render.chunk.lists.ChunkRenderListIterable;
@@ -25,25 +33,82 @@ import net.caffeinemc.mods.sodium.client.render.chunk.vertex.format.ChunkMeshAtt
 import net.caffeinemc.mods.sodium.client.render.chunk.vertex.format.ChunkVertexType;
 import net.caffeinemc.mods.sodium.client.render.viewport.CameraTransform;
 import net.caffeinemc.mods.sodium.client.util.BitwiseMath;
+import org.lwjgl.opengl.GL30C;
+import org.lwjgl.opengl.GLCapabilities;
 import org.lwjgl.system.MemoryUtil;
+import java.util.ArrayList;
 import java.util.Iterator;
 
 public class DefaultChunkRenderer extends ShaderChunkRenderer {
-    private final MultiDrawBatch batch;
-
     private final SharedQuadIndexBuffer sharedIndexBuffer;
 
+    private final boolean useIndirectDrawing;
+    private final boolean useGlobalGeometryBuffer;
+
+    private final ParallelDrawBatchBuilder batchBuilder = new ParallelDrawBatchBuilder();
+
+    // Only used when the meshes of all regions are stored in the global geometry buffer
+    private CombinedDrawCommandBuffer combinedDrawCommands;
+    private GlMutableBuffer combinedDrawCommandBuffer;
+    private GlMutableBuffer regionOffsetBuffer;
+
     public DefaultChunkRenderer(RenderDevice device, ChunkVertexType vertexType) {
         super(device, vertexType);
 
-        this.batch = new MultiDrawBatch((ModelQuadFacing.COUNT * RenderRegion.REGION_SIZE) + 1);
-        this.sharedIndexBuffer = new SharedQuadIndexBuffer(device.createCommandList(), SharedQuadIndexBuffer.IndexType.INTEGER);
+        CommandList commandList = device.createCommandList();
+
+        this.sharedIndexBuffer = new SharedQuadIndexBuffer(commandList, SharedQuadIndexBuffer.IndexType.INTEGER);
+
+        this.useIndirectDrawing = SodiumClientMod.options().advanced.useIndirectDrawing && isIndirectDrawingSupported(device);
+        this.useGlobalGeometryBuffer = this.useIndirectDrawing && isGlobalGeometryBufferEnabled(device, vertexType);
+
+        if (this.useGlobalGeometryBuffer) {
+            this.combinedDrawCommands = new CombinedDrawCommandBuffer();
+            this.combinedDrawCommandBuffer = commandList.createMutableBuffer();
+
+            // The tessellation binds the region offset attribute to this buffer, so it needs storage before the first
+            // frame is drawn
+            this.regionOffsetBuffer = commandList.createMutableBuffer();
+            commandList.allocateStorage(this.regionOffsetBuffer, CombinedDrawCommandBuffer.REGION_OFFSET_STRIDE, GlBufferUsage.STREAM_DRAW);
+        }
+    }
+
+    public static boolean isIndirectDrawingSupported(RenderDevice device) {
+        GLCapabilities capabilities = device.getCapabilities();
+        return capabilities.OpenGL43 || capabilities.GL_ARB_multi_draw_indirect;
+    }
+
+    /**
+     * The regions are told apart through the base instance of each draw command, which must be zero unless
+     * {@code ARB_base_instance} is supported.
+     */
+    public static boolean isGlobalGeometryBufferSupported(RenderDevice device) {
+        GLCapabilities capabilities = device.getCapabilities();
+        return capabilities.OpenGL43 || (capabilities.GL_ARB_multi_draw_indirect && capabilities.GL_ARB_base_instance);
+    }
+
+    /**
+     * Returns whether the meshes of all regions should be stored in one geometry buffer. This decides both how the
+     * region manager allocates meshes and how this renderer draws them, so both must use the same result. Vertex
+     * formats which read their geometry through a buffer texture are excluded, as the texture would have to cover
+     * the meshes of every region.
+     */
+    public static boolean isGlobalGeometryBufferEnabled(RenderDevice device, ChunkVertexType vertexType) {
+        var options = SodiumClientMod.options().advanced;
+
+        return options.useGlobalGeometryBuffer && options.useIndirectDrawing
+                && isGlobalGeometryBufferSupported(device) && !vertexType.usesGeometryTexture();
     }
 
     /**
      * Renders the terrain for a particular render pass. Each region is rendered
      * with one draw call. The command buffer for each draw command is filled by
-     * iterating the sections and adding the draw commands for each section.
+     * iterating the sections and adding the draw commands for each section. The
+     * command buffer of each region is kept until the region's render list, its
+     * meshes, or the faces visible from the camera change.
+     *
+     * When the global geometry buffer is used, the opaque passes of all regions are
+     * instead drawn together with a single indirect draw call.
      */
     @Override
     public void render(ChunkRenderMatrices matrices,
@@ -51,15 +116,37 @@ public class DefaultChunkRenderer extends ShaderChunkRenderer {
                        ChunkRenderListIterable renderLists,
                        TerrainRenderPass renderPass,
                        CameraTransform camera) {
-        super.begin(renderPass);
-
         final boolean useBlockFaceCulling = SodiumClientMod.options().performance.useBlockFaceCulling;
         final boolean useIndexedTessellation = isTranslucentRenderPass(renderPass);
 
+        // The order of indirect draw commands is fixed, so they can't be used for translucent geometry
+        final boolean useIndirectDrawing = this.useIndirectDrawing && !renderPass.isTranslucent();
+        final boolean useCombinedDrawing = useIndirectDrawing && this.useGlobalGeometryBuffer;
+        final boolean useParallelBatchBuilding = !useIndirectDrawing && SodiumClientMod.options().advanced.useParallelDrawCommandGeneration;
+
+        super.begin(renderPass, useCombinedDrawing);
+
         ChunkShaderInterface shader = this.activeProgram.getInterface();
         shader.setProjectionMatrix(matrices.projection());
         shader.setModelViewMatrix(matrices.modelView());
 
+        if (useCombinedDrawing) {
+            this.renderCombined(commandList, renderLists, camera, renderPass, useBlockFaceCulling);
+            super.end(renderPass);
+            return;
+        }
+
+        // The visible faces of a section only change when the camera crosses one of the planes tested
+        // by getVisibleFaces, so the cached draw commands stay valid until then
+        final int visibilityKeyX = useBlockFaceCulling ? getVisibleFacesKey(camera.intX) : 0;
+        final int visibilityKeyY = useBlockFaceCulling ? getVisibleFacesKey(camera.intY) : 0;
+        final int visibilityKeyZ = useBlockFaceCulling ? getVisibleFacesKey(camera.intZ) : 0;
+
+        if (useParallelBatchBuilding) {
+            this.scheduleBatchBuilds(renderLists, renderPass, camera, useBlockFaceCulling,
+                    visibilityKeyX, visibilityKeyY, visibilityKeyZ);
+        }
+
         Iterator<ChunkRenderList> iterator = renderLists.iterator(renderPass.isTranslucent());
 
         while (iterator.hasNext()) {
@@ -72,16 +159,31 @@ public class DefaultChunkRenderer extends ShaderChunkRenderer {
                 continue;
             }
 
-            fillCommandBuffer(this.batch, region, storage, renderList, camera, renderPass, useBlockFaceCulling);
+            if (useIndirectDrawing) {
+                this.renderIndirect(commandList, shader, renderList, storage, camera, renderPass, useBlockFaceCulling);
+                continue;
+            }
+
+            var cache = region.getOrCreateDrawBatchCache(renderPass);
+
+            if (useParallelBatchBuilding) {
+                this.batchBuilder.await(cache);
+            } else if (!cache.isValid(storage, renderList, visibilityKeyX, visibilityKeyY, visibilityKeyZ)) {
+                var batch = cache.begin(storage, renderList, visibilityKeyX, visibilityKeyY, visibilityKeyZ);
+                fillCommandBuffer(batch, region, storage, renderList, camera, renderPass, useBlockFaceCulling);
+                cache.end();
+            }
+
+            var batch = cache.getBatch();
 
-            if (this.batch.isEmpty()) {
+            if (batch.isEmpty()) {
                 continue;
             }
 
             // When the shared index buffer is being used, we must ensure the storage has been allocated *before*
             // the tessellation is prepared.
             if (!useIndexedTessellation) {
-                this.sharedIndexBuffer.ensureCapacity(commandList, this.batch.getIndexBufferSize());
+                this.sharedIndexBuffer.ensureCapacity(commandList, cache.getIndexBufferSize());
             }
 
             GlTessellation tessellation;
@@ -92,13 +194,215 @@ public class DefaultChunkRenderer extends ShaderChunkRenderer {
                 tessellation = this.prepareTessellation(commandList, region);
             }
 
+            if (this.vertexType.usesGeometryTexture()) {
+                shader.setGeometryTexture(this.prepareGeometryTexture(commandList, region));
+            }
+
             setModelMatrixUniforms(shader, region, camera);
-            executeDrawBatch(commandList, tessellation, this.batch);
+            executeDrawBatch(commandList, tessellation, batch, useIndexedTessellation);
         }
 
         super.end(renderPass);
     }
 
+    /**
+     * Prepares every region's draw batch which needs to be rebuilt, and starts building them on worker threads. The
+     * regions are scheduled in the order they are drawn in, so the earliest batches are likely to be ready first.
+     */
+    private void scheduleBatchBuilds(ChunkRenderListIterable renderLists,
+                                     TerrainRenderPass renderPass,
+                                     CameraTransform camera,
+                                     boolean useBlockFaceCulling,
+                                     int visibilityKeyX, int visibilityKeyY, int visibilityKeyZ) {
+        Iterator<ChunkRenderList> iterator = renderLists.iterator(renderPass.isTranslucent());
+
+        while (iterator.hasNext()) {
+            ChunkRenderList renderList = iterator.next();
+
+            var region = renderList.getRegion();
+            var storage = region.getStorage(renderPass);
+
+            if (storage == null) {
+                continue;
+            }
+
+            var cache = region.getOrCreateDrawBatchCache(renderPass);
+
+            if (cache.isValid(storage, renderList, visibilityKeyX, visibilityKeyY, visibilityKeyZ)) {
+                continue;
+            }
+
+            var batch = cache.begin(storage, renderList, visibilityKeyX, visibilityKeyY, visibilityKeyZ);
+
+            this.batchBuilder.schedule(() -> {
+                fillCommandBuffer(batch, region, storage, renderList, camera, renderPass, useBlockFaceCulling);
+                cache.end();
+            });
+        }
+
+        this.batchBuilder.start();
+    }
+
+    /**
+     * Renders a region using the persistent indirect draw commands of the region. Instead of building the draw
+     * commands each frame, only the commands of sections whose visibility changed are patched and uploaded.
+     */
+    private void renderIndirect(CommandList commandList,
+                                ChunkShaderInterface shader,
+                                ChunkRenderList renderList,
+                                SectionRenderDataStorage storage,
+                                CameraTransform camera,
+                                TerrainRenderPass renderPass,
+                                boolean useBlockFaceCulling) {
+        var region = renderList.getRegion();
+        var commands = region.getOrCreateDrawCommands(renderPass);
+
+        commands.updateCommands(storage);
+        updateVisibleSlices(commands, region, storage, renderList, camera, renderPass, useBlockFaceCulling);
+
+        if (commands.isEmpty()) {
+            return;
+        }
+
+        this.sharedIndexBuffer.ensureCapacity(commandList, commands.getMaxElementCount());
+
+        GlTessellation tessellation = this.prepareTessellation(commandList, region);
+        GlBuffer commandBuffer = prepareDrawCommandBuffer(commandList, region, renderPass, commands);
+
+        if (this.vertexType.usesGeometryTexture()) {
+            shader.setGeometryTexture(this.prepareGeometryTexture(commandList, region));
+        }
+
+        setModelMatrixUniforms(shader, region, camera);
+
+        try (DrawCommandList drawCommandList = commandList.beginTessellating(tessellation)) {
+            drawCommandList.multiDrawElementsIndirect(commandBuffer, commands.getDrawOffset(), commands.getDrawCount(), GlIndexType.UNSIGNED_INT);
+        }
+    }
+
+    /**
+     * Renders every region with one indirect draw call. The regions share the global geometry buffer, so the commands
+     * of all regions can be combined, with the base instance of each command selecting the offset of its region.
+     */
+    private void renderCombined(CommandList commandList,
+                                ChunkRenderListIterable renderLists,
+                                CameraTransform camera,
+                                TerrainRenderPass renderPass,
+                                boolean useBlockFaceCulling) {
+        var combined = this.combinedDrawCommands;
+        combined.clear();
+
+        RenderRegion drawnRegion = null;
+        int maxElementCount = 0;
+
+        Iterator<ChunkRenderList> iterator = renderLists.iterator(renderPass.isTranslucent());
+
+        while (iterator.hasNext()) {
+            ChunkRenderList renderList = iterator.next();
+
+            var region = renderList.getRegion();
+            var storage = region.getStorage(renderPass);
+
+            if (storage == null) {
+                continue;
+            }
+
+            var commands = region.getOrCreateDrawCommands(renderPass);
+
+            commands.updateCommands(storage);
+            updateVisibleSlices(commands, region, storage, renderList, camera, renderPass, useBlockFaceCulling);
+
+            if (commands.isEmpty()) {
+                continue;
+            }
+
+            combined.addRegion(commands,
+                    getCameraTranslation(region.getOriginX(), camera.intX, camera.fracX),
+                    getCameraTranslation(region.getOriginY(), camera.intY, camera.fracY),
+                    getCameraTranslation(region.getOriginZ(), camera.intZ, camera.fracZ));
+
+            maxElementCount = Math.max(maxElementCount, commands.getMaxElementCount());
+            drawnRegion = region;
+        }
+
+        if (combined.isEmpty()) {
+            return;
+        }
+
+        this.sharedIndexBuffer.ensureCapacity(commandList, maxElementCount);
+
+        commandList.uploadData(this.regionOffsetBuffer,
+                MemoryUtil.memByteBuffer(combined.getRegionOffsetPointer(), combined.getRegionOffsetBytes()), GlBufferUsage.STREAM_DRAW);
+        commandList.uploadData(this.combinedDrawCommandBuffer,
+                MemoryUtil.memByteBuffer(combined.getCommandPointer(), combined.getCommandBytes()), GlBufferUsage.STREAM_DRAW);
+
+        // Every region uses the shared resources, so the tessellation of any region binds the meshes of all of them
+        GlTessellation tessellation = this.prepareTessellation(commandList, drawnRegion);
+
+        try (DrawCommandList drawCommandList = commandList.beginTessellating(tessellation)) {
+            drawCommandList.multiDrawElementsIndirect(this.combinedDrawCommandBuffer, 0, combined.getCommandCount(), GlIndexType.UNSIGNED_INT);
+        }
+    }
+
+    private static void updateVisibleSlices(SectionDrawCommandStorage commands,
+                                            RenderRegion renderRegion,
+                                            SectionRenderDataStorage renderDataStorage,
+                                            ChunkRenderList renderList,
+                                            CameraTransform camera,
+                                            TerrainRenderPass pass,
+                                            boolean useBlockFaceCulling) {
+        commands.beginVisibilityUpdate();
+
+        var iterator = renderList.sectionsWithGeometryIterator(pass.isTranslucent());
+
+        if (iterator != null) {
+            int originX = renderRegion.getChunkX();
+            int originY = renderRegion.getChunkY();
+            int originZ = renderRegion.getChunkZ();
+
+            while (iterator.hasNext()) {
+                int sectionIndex = iterator.nextByteAsInt();
+
+                var pMeshData = renderDataStorage.getDataPointer(sectionIndex);
+
+                int slices;
+
+                if (useBlockFaceCulling) {
+                    slices = getVisibleFaces(camera.intX, camera.intY, camera.intZ,
+                            originX + LocalSectionIndex.unpackX(sectionIndex),
+                            originY + LocalSectionIndex.unpackY(sectionIndex),
+                            originZ + LocalSectionIndex.unpackZ(sectionIndex));
+                } else {
+                    slices = ModelQuadFacing.ALL;
+                }
+
+                commands.setVisibleSlices(sectionIndex, slices & SectionRenderDataUnsafe.getSliceMask(pMeshData));
+            }
+        }
+
+        commands.endVisibilityUpdate();
+    }
+
+    private static GlBuffer prepareDrawCommandBuffer(CommandList commandList, RenderRegion region, TerrainRenderPass pass,
+                                                     SectionDrawCommandStorage commands) {
+        var buffer = region.getDrawCommandBuffer(pass);
+
+        if (buffer == null) {
+            buffer = region.createDrawCommandBuffer(commandList, pass);
+            commands.markAllDirty();
+        }
+
+        if (commands.hasDirtyCommands()) {
+            int offset = commands.getDirtyOffset();
+
+            commandList.uploadSubData(buffer, offset,
+                    MemoryUtil.memByteBuffer(commands.getDataPointer() + offset, commands.getDirtyLength()));
+            commands.clearDirtyCommands();
+        }
+
+        return buffer;
+    }
+
     private static boolean isTranslucentRenderPass(TerrainRenderPass renderPass) {
         return renderPass == DefaultTerrainRenderPasses.TRANSLUCENT
                 && SodiumClientMod.options().performance.getSortBehavior() != SortBehavior.OFF;
@@ -184,10 +488,13 @@ public class DefaultChunkRenderer extends ShaderChunkRenderer {
 
         int size = batch.size;
 
+        final var indexTypes = batch.indexTypes;
+
         for (int facing = 0; facing < ModelQuadFacing.COUNT; facing++) {
             MemoryUtil.memPutInt(pBaseVertex + (size << 2), SectionRenderDataUnsafe.getVertexOffset(pMeshData, facing));
             MemoryUtil.memPutInt(pElementCount + (size << 2), SectionRenderDataUnsafe.getElementCount(pMeshData, facing));
             MemoryUtil.memPutAddress(pElementPointer + (size << 3), 0 /* using a shared index buffer */);
+            indexTypes[size] = GlIndexType.UNSIGNED_INT;
 
             size += (mask >> facing) & 1;
         }
@@ -207,21 +514,29 @@ public class DefaultChunkRenderer extends ShaderChunkRenderer {
 
         int size = batch.size;
 
-        int elementOffset = SectionRenderDataUnsafe.getBaseElement(pMeshData)
-                & ~SectionRenderDataUnsafe.BASE_ELEMENT_MSB;
+        final var indexTypes = batch.indexTypes;
+
+        int baseElement = SectionRenderDataUnsafe.getBaseElement(pMeshData);
+
+        final var indexType = (baseElement & SectionRenderDataUnsafe.BASE_ELEMENT_SHORT_INDICES) != 0
+                ? GlIndexType.UNSIGNED_SHORT
+                : GlIndexType.UNSIGNED_INT;
+        final int indexStride = indexType.getStride();
+
+        // * 4 to convert to bytes (the index arena allocates in units of 32-bit integers)
+        // the section render data storage for the indices stores the offset in these units
+        long elementPointer = (long) (baseElement & ~SectionRenderDataUnsafe.BASE_ELEMENT_FLAGS) << 2;
 
         for (int facing = 0; facing < ModelQuadFacing.COUNT; facing++) {
             final var elementCount = SectionRenderDataUnsafe.getElementCount(pMeshData, facing);
 
             MemoryUtil.memPutInt(pBaseVertex + (size << 2), SectionRenderDataUnsafe.getVertexOffset(pMeshData, facing));
             MemoryUtil.memPutInt(pElementCount + (size << 2), elementCount);
-
-            // * 4 to convert to bytes (the buffer contains 32-bit integers)
-            // the section render data storage for the indices stores the offset in indices (also called elements)
-            MemoryUtil.memPutAddress(pElementPointer + (size << 3), elementOffset << 2);
+            MemoryUtil.memPutAddress(pElementPointer + (size << 3), elementPointer);
+            indexTypes[size] = indexType;
 
             // adding the number of elements works because the index data has one index per element (which are the indices)
-            elementOffset += elementCount;
+            elementPointer += (long) elementCount * indexStride;
             size += (mask >> facing) & 1;
         }
 
@@ -279,6 +594,19 @@ public class DefaultChunkRenderer extends ShaderChunkRenderer {
         return planes;
     }
 
+    /**
+     * Returns a key which is equal for two camera coordinates along one axis if and only if {@link #getVisibleFaces}
+     * produces the same result along that axis for every section. The positive face of a section is visible when
+     * {@code (coord + 2) >> 4} is at least the section coordinate, and the negative face when {@code (coord - 3) >> 4}
+     * is at most the section coordinate, so the key combines both values (which differ by at most one).
+     */
+    private static int getVisibleFacesKey(int coord) {
+        int positive = (coord + 2) >> 4;
+        int negative = (coord - 3) >> 4;
+
+        return (positive << 1) | (positive - negative);
+    }
+
     private static void setModelMatrixUniforms(ChunkShaderInterface shader, RenderRegion region, CameraTransform camera) {
         float x = getCameraTranslation(region.getOriginX(), camera.intX, camera.fracX);
         float y = getCameraTranslation(region.getOriginY(), camera.intY, camera.fracY);
@@ -315,29 +643,101 @@ public class DefaultChunkRenderer extends ShaderChunkRenderer {
         return tessellation;
     }
 
+    private GlBufferTexture prepareGeometryTexture(CommandList commandList, RenderRegion region) {
+        var resources = region.getResources();
+
+        GlBufferTexture texture = resources.getGeometryTexture();
+        if (texture == null) {
+            texture = commandList.createBufferTexture(resources.getGeometryBuffer(), GL30C.GL_R32UI);
+            resources.updateGeometryTexture(commandList, texture);
+        }
+
+        return texture;
+    }
+
     private GlTessellation createRegionTessellation(CommandList commandList, RenderRegion.DeviceResources resources, boolean useSharedIndexBuffer) {
+        var elementBinding = TessellationBinding.forElementBuffer(useSharedIndexBuffer
+                ? this.sharedIndexBuffer.getBufferObject()
+                : resources.getIndexBuffer());
+        var vertexBinding = TessellationBinding.forVertexBuffer(resources.getGeometryBuffer(), this.createAttributeBindings());
+
+        // The combined draw calls only use the shared index buffer
+        if (this.useGlobalGeometryBuffer && useSharedIndexBuffer) {
+            return commandList.createTessellation(GlPrimitiveType.TRIANGLES, new TessellationBinding[] {
+                    vertexBinding,
+                    TessellationBinding.forVertexBuffer(this.regionOffsetBuffer, new GlVertexAttributeBinding[] {
+                            createRegionOffsetBinding()
+                    }),
+                    elementBinding
+            });
+        }
+
         return commandList.createTessellation(GlPrimitiveType.TRIANGLES, new TessellationBinding[] {
-                TessellationBinding.forVertexBuffer(resources.getGeometryBuffer(), new GlVertexAttributeBinding[] {
-                        new GlVertexAttributeBinding(ChunkShaderBindingPoints.ATTRIBUTE_POSITION_HI,
-                                this.vertexFormat.getAttribute(ChunkMeshAttribute.POSITION_HI)),
-                        new GlVertexAttributeBinding(ChunkShaderBindingPoints.ATTRIBUTE_POSITION_LO,
-                                this.vertexFormat.getAttribute(ChunkMeshAttribute.POSITION_LO)),
-                        new GlVertexAttributeBinding(ChunkShaderBindingPoints.ATTRIBUTE_COLOR,
-                                this.vertexFormat.getAttribute(ChunkMeshAttribute.COLOR)),
-                        new GlVertexAttributeBinding(ChunkShaderBindingPoints.ATTRIBUTE_TEXTURE,
-                                this.vertexFormat.getAttribute(ChunkMeshAttribute.TEXTURE)),
-                        new GlVertexAttributeBinding(ChunkShaderBindingPoints.ATTRIBUTE_LIGHT_MATERIAL_INDEX,
-                                this.vertexFormat.getAttribute(ChunkMeshAttribute.LIGHT_MATERIAL_INDEX))
-                }),
-                TessellationBinding.forElementBuffer(useSharedIndexBuffer
-                        ? this.sharedIndexBuffer.getBufferObject()
-                        : resources.getIndexBuffer())
+                vertexBinding,
+                elementBinding
         });
     }
 
-    private static void executeDrawBatch(CommandList commandList, GlTessellation tessellation, MultiDrawBatch batch) {
+    /**
+     * The region offset advances once per instance, and each draw command starts at the instance given by its base
+     * instance, which {@link CombinedDrawCommandBuffer} sets to the slot of the command's region.
+     */
+    private static GlVertexAttributeBinding createRegionOffsetBinding() {
+        var attribute = new GlVertexAttribute(GlVertexAttributeFormat.FLOAT, 3, false, 0,
+                CombinedDrawCommandBuffer.REGION_OFFSET_STRIDE, false);
+
+        return new GlVertexAttributeBinding(ChunkShaderBindingPoints.ATTRIBUTE_REGION_OFFSET, attribute, 1);
+    }
+
+    /**
+     * Creates the attribute bindings for every attribute which is present in the active vertex format. Different
+     * vertex formats use different subsets of {@link ChunkMeshAttribute}, so this can't be a fixed list.
+     */
+    private GlVertexAttributeBinding[] createAttributeBindings() {
+        var bindings = new ArrayList<GlVertexAttributeBinding>();
+
+        for (ChunkMeshAttribute attribute : ChunkMeshAttribute.values()) {
+            if (this.vertexFormat.hasAttribute(attribute)) {
+                bindings.add(new GlVertexAttributeBinding(ChunkShaderBindingPoints.forAttribute(attribute),
+                        this.vertexFormat.getAttribute(attribute)));
+            }
+        }
+
+        return bindings.toArray(GlVertexAttributeBinding[]::new);
+    }
+
+    private static void executeDrawBatch(CommandList commandList, GlTessellation tessellation, MultiDrawBatch batch,
+                                         boolean useIndexedTessellation) {
         try (DrawCommandList drawCommandList = commandList.beginTessellating(tessellation)) {
-            drawCommandList.multiDrawElementsBaseVertex(batch, GlIndexType.UNSIGNED_INT);
+            if (useIndexedTessellation) {
+                executeIndexedDrawBatch(drawCommandList, batch);
+            } else {
+                drawCommandList.multiDrawElementsBaseVertex(batch, GlIndexType.UNSIGNED_INT);
+            }
+        }
+    }
+
+    /**
+     * Sections with dedicated index data may use either 16-bit or 32-bit indices. Since a multi-draw call can only
+     * use one index type, the batch is split into runs of commands with the same index type. The order of the
+     * commands is preserved, as it matters for translucent geometry.
+     */
+    private static void executeIndexedDrawBatch(DrawCommandList drawCommandList, MultiDrawBatch batch) {
+        final var indexTypes = batch.indexTypes;
+        final int size = batch.size();
+
+        int start = 0;
+
+        while (start < size) {
+            var indexType = indexTypes[start];
+            int end = start + 1;
+
+            while (end < size && indexTypes[end] == indexType) {
+                end++;
+            }
+
+            drawCommandList.multiDrawElementsBaseVertex(batch, start, end - start, indexType);
+            start = end;
         }
     }
 
@@ -345,7 +745,13 @@ public class DefaultChunkRenderer extends ShaderChunkRenderer {
     public void delete(CommandList commandList) {
         super.delete(commandList);
 
+        this.batchBuilder.shutdown();
         this.sharedIndexBuffer.delete(commandList);
-        this.batch.delete();
+
+        if (this.combinedDrawCommands != null) {
+            this.combinedDrawCommands.delete();
+            commandList.deleteBuffer(this.combinedDrawCommandBuffer);
+            commandList.deleteBuffer(this.regionOffsetBuffer);
+        }
     }
 }
@@ -0,0 +1,156 @@
+package net.caffeinemc.mods.sodium.client.render.chunk;
+
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import net.caffeinemc.mods.sodium.client.render.chunk.data.SectionDrawBatchCache;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Builds the draw batches of many regions in parallel while the render thread is issuing draw calls. The render
+ * thread schedules a job for every region whose batch needs to be rebuilt, and then waits for the batch of each
+ * region right before drawing it. The jobs are claimed in order through an atomic counter by both the worker threads
+ * and the render thread (which helps out instead of blocking), so no locks are needed and the draw order is the same
+ * as when building the batches serially.
+ *
+ * <p>The jobs run on a small pool of threads which belongs to the renderer, rather than on a shared pool, so that
+ * the render thread never waits for unrelated work queued by other code. The threads are only busy while the render
+ * thread is drawing a pass, so they briefly compete for cores with the chunk builder threads, which have a lower
+ * priority. The pool is started the first time there are enough jobs, and is shut down with the renderer.</p>
+ */
+public class ParallelDrawBatchBuilder {
+    // Building only a few batches isn't worth the cost of waking up other threads
+    private static final int MIN_PARALLEL_JOBS = 8;
+    private static final int MAX_WORKERS = 4;
+
+    // The render thread runs jobs as well, so it doesn't need a core of its own
+    private static final int WORKER_COUNT = Math.min(MAX_WORKERS, Runtime.getRuntime().availableProcessors() - 1);
+
+    private final ObjectArrayList<Runnable> pendingJobs = new ObjectArrayList<>();
+    private JobGroup activeGroup;
+
+    private @Nullable ExecutorService executor;
+
+    /**
+     * Schedules a job which rebuilds a draw batch. The batch's cache must already be prepared with
+     * {@link SectionDrawBatchCache#begin}, and the job must finish it with {@link SectionDrawBatchCache#end()}.
+     */
+    public void schedule(Runnable job) {
+        this.pendingJobs.add(job);
+    }
+
+    /**
+     * Starts running the scheduled jobs.
+     */
+    public void start() {
+        if (this.pendingJobs.isEmpty()) {
+            this.activeGroup = null;
+            return;
+        }
+
+        var group = new JobGroup(this.pendingJobs.toArray(Runnable[]::new));
+        this.pendingJobs.clear();
+        this.activeGroup = group;
+
+        if (group.jobs.length < MIN_PARALLEL_JOBS || WORKER_COUNT <= 0) {
+            group.runAll();
+            return;
+        }
+
+        var executor = this.getOrCreateExecutor();
+        int workers = Math.min(WORKER_COUNT, group.jobs.length - 1);
+
+        for (int i = 0; i < workers; i++) {
+            executor.execute(group::runAll);
+        }
+    }
+
+    private ExecutorService getOrCreateExecutor() {
+        if (this.executor == null) {
+            var threadIndex = new AtomicInteger();
+
+            this.executor = Executors.newFixedThreadPool(WORKER_COUNT, runnable -> {
+                var thread = new Thread(runnable, "Sodium Draw Batch Builder #" + threadIndex.getAndIncrement());
+                thread.setDaemon(true);
+
+                return thread;
+            });
+        }
+
+        return this.executor;
+    }
+
+    /**
+     * Stops the worker threads. Jobs which are still running finish first, but no batch may be awaited afterwards.
+     */
+    public void shutdown() {
+        if (this.executor != null) {
+            this.executor.shutdown();
+            this.executor = null;
+        }
+
+        this.activeGroup = null;
+    }
+
+    /**
+     * Waits until the batch of the given cache is ready, running other pending jobs in the meantime.
+     */
+    public void await(SectionDrawBatchCache cache) {
+        var group = this.activeGroup;
+
+        while (!cache.isReady()) {
+            if (group == null) {
+                throw new IllegalStateException("No job was scheduled for the draw batch");
+            }
+
+            group.checkFailure();
+
+            if (!group.runNext()) {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    private static final class JobGroup {
+        private final Runnable[] jobs;
+        private final AtomicInteger nextJob = new AtomicInteger();
+
+        private volatile Throwable failure;
+
+        private JobGroup(Runnable[] jobs) {
+            this.jobs = jobs;
+        }
+
+        private boolean runNext() {
+            int index = this.nextJob.getAndIncrement();
+
+            if (index >= this.jobs.length) {
+                return false;
+            }
+
+            try {
+                this.jobs[index].run();
+            } catch (Throwable t) {
+                this.failure = t;
+            }
+
+            return true;
+        }
+
+        private void runAll() {
+            while (this.runNext()) {
+                // keep claiming jobs until none are left
+            }
+        }
+
+        private void checkFailure() {
+            var failure = this.failure;
+
+            if (failure != null) {
+                throw new RuntimeException("Failed to build draw batch", failure);
+            }
+        }
+    }
+}
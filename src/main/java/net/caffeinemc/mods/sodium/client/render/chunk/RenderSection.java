@@ -1,10 +1,10 @@
 package net.caffeinemc.mods.sodium.client.render.chunk;
 
 import net.caffeinemc.mods.sodium.client.render.chunk.data.BuiltSectionInfo;
-import net.caffeinemc.mods.sodium.client.render.chunk.occlusion.GraphDirection;
-import net.caffeinemc.mods.sodium.client.render.chunk.occlusion.GraphDirectionSet;
 import net.caffeinemc.mods.sodium.client.render.chunk.occlusion.VisibilityEncoding;
 import net.caffeinemc.mods.sodium.client.render.chunk.region.RenderRegion;
+import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.SortDistanceTier;
+import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.SortType;
 import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.data.TranslucentData;
 import net.caffeinemc.mods.sodium.client.util.task.CancellationToken;
 import net.minecraft.client.renderer.texture.TextureAtlasSprite;
@@ -27,21 +27,11 @@ public class RenderSection {
     private final int chunkX, chunkY, chunkZ;
 
     // Occlusion Culling State
+    // The graph search itself runs over the SectionGraph, which holds a copy of the visibility data
     private long visibilityData = VisibilityEncoding.NULL;
 
-    private int incomingDirections;
     private int lastVisibleFrame = -1;
 
-    private int adjacentMask;
-    public RenderSection
-            adjacentDown,
-            adjacentUp,
-            adjacentNorth,
-            adjacentSouth,
-            adjacentWest,
-            adjacentEast;
-
-
     // Rendering State
     private boolean built = false; // merge with the flags?
     private int flags = RenderSectionFlags.NONE;
@@ -51,6 +41,12 @@ public class RenderSection {
     @Nullable
     private TranslucentData translucentData;
 
+    // The distance tier for translucency sorting the section was built with, or null if its sort type doesn't depend
+    // on the tier, and the sort type it would have had without the tier
+    @Nullable
+    private SortDistanceTier sortTier;
+    private SortType requestedSortType = SortType.NONE;
+
     // Pending Update State
     @Nullable
     private CancellationToken taskCancellationToken = null;
@@ -61,6 +57,9 @@ public class RenderSection {
     private int lastUploadFrame = -1;
     private int lastSubmittedFrame = -1;
 
+    // Whether the uploaded meshes were removed to stay within the memory budget
+    private boolean meshEvicted;
+
     // Lifetime state
     private boolean disposed;
 
@@ -78,38 +77,17 @@ public class RenderSection {
         this.region = region;
     }
 
-    public RenderSection getAdjacent(int direction) {
-        return switch (direction) {
-            case GraphDirection.DOWN -> this.adjacentDown;
-            case GraphDirection.UP -> this.adjacentUp;
-            case GraphDirection.NORTH -> this.adjacentNorth;
-            case GraphDirection.SOUTH -> this.adjacentSouth;
-            case GraphDirection.WEST -> this.adjacentWest;
-            case GraphDirection.EAST -> this.adjacentEast;
-            default -> null;
-        };
+    public @Nullable SortDistanceTier getSortTier() {
+        return this.sortTier;
     }
 
-    public void setAdjacentNode(int direction, RenderSection node) {
-        if (node == null) {
-            this.adjacentMask &= ~GraphDirectionSet.of(direction);
-        } else {
-            this.adjacentMask |= GraphDirectionSet.of(direction);
-        }
-
-        switch (direction) {
-            case GraphDirection.DOWN -> this.adjacentDown = node;
-            case GraphDirection.UP -> this.adjacentUp = node;
-            case GraphDirection.NORTH -> this.adjacentNorth = node;
-            case GraphDirection.SOUTH -> this.adjacentSouth = node;
-            case GraphDirection.WEST -> this.adjacentWest = node;
-            case GraphDirection.EAST -> this.adjacentEast = node;
-            default -> { }
-        }
+    public SortType getRequestedSortType() {
+        return this.requestedSortType;
     }
 
-    public int getAdjacentMask() {
-        return this.adjacentMask;
+    public void setSortTier(@Nullable SortDistanceTier sortTier, SortType requestedSortType) {
+        this.sortTier = sortTier;
+        this.requestedSortType = requestedSortType;
     }
 
     public TranslucentData getTranslucentData() {
@@ -277,18 +255,6 @@ public class RenderSection {
         return this.lastVisibleFrame;
     }
 
-    public int getIncomingDirections() {
-        return this.incomingDirections;
-    }
-
-    public void addIncomingDirections(int directions) {
-        this.incomingDirections |= directions;
-    }
-
-    public void setIncomingDirections(int directions) {
-        this.incomingDirections = directions;
-    }
-
     /**
      * Returns a bitfield containing the {@link RenderSectionFlags} for this built section.
      */
@@ -347,6 +313,14 @@ public class RenderSection {
         }
     }
 
+    public boolean isMeshEvicted() {
+        return this.meshEvicted;
+    }
+
+    public void setMeshEvicted(boolean meshEvicted) {
+        this.meshEvicted = meshEvicted;
+    }
+
     public int getLastUploadFrame() {
         return this.lastUploadFrame;
     }
@@ -1,9 +1,6 @@
 package net.caffeinemc.mods.sodium.client.render.chunk;
 
 import com.mojang.blaze3d.systems.RenderSystem;
-import it.unimi.dsi.fastutil.longs.Long2ReferenceMap;
-import it.unimi.dsi.fastutil.longs.Long2ReferenceMaps;
-import it.unimi.dsi.fastutil.longs.Long2ReferenceOpenHashMap;
 import it.unimi.dsi.fastutil.objects.Reference2ReferenceLinkedOpenHashMap;
 import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
 import it.unimi.dsi.fastutil.objects.ReferenceSet;
@@ -13,24 +10,28 @@ import net.caffeinemc.mods.sodium.client.gl.device.CommandList;
 import net.caffeinemc.mods.sodium.client.gl.device.RenderDevice;
 import net.caffeinemc.mods.sodium.client.render.chunk.compile.BuilderTaskOutput;
 import net.caffeinemc.mods.sodium.client.render.chunk.compile.ChunkBuildOutput;
+import net.caffeinemc.mods.sodium.client.render.chunk.compile.ChunkSortBatchOutput;
 import net.caffeinemc.mods.sodium.client.render.chunk.compile.ChunkSortOutput;
 import net.caffeinemc.mods.sodium.client.render.chunk.compile.executor.ChunkBuilder;
 import net.caffeinemc.mods.sodium.client.render.chunk.compile.executor.ChunkJobResult;
 import net.caffeinemc.mods.sodium.client.render.chunk.compile.executor.ChunkJobCollector;
 import net.caffeinemc.mods.sodium.client.render.chunk.compile.tasks.ChunkBuilderMeshingTask;
+import net.caffeinemc.mods.sodium.client.render.chunk.compile.tasks.ChunkBuilderSortingBatchTask;
 import net.caffeinemc.mods.sodium.client.render.chunk.compile.tasks.ChunkBuilderSortingTask;
-import net.caffeinemc.mods.sodium.client.render.chunk.compile.tasks.ChunkBuilderTask;
 import net.caffeinemc.mods.sodium.client.render.chunk.data.BuiltSectionInfo;
 import net.caffeinemc.mods.sodium.client.render.chunk.lists.ChunkRenderList;
 import net.caffeinemc.mods.sodium.client.render.chunk.lists.SortedRenderLists;
 import net.caffeinemc.mods.sodium.client.render.chunk.lists.VisibleChunkCollector;
-import net.caffeinemc.mods.sodium.client.render.chunk.occlusion.GraphDirection;
 import net.caffeinemc.mods.sodium.client.render.chunk.occlusion.OcclusionCuller;
+import net.caffeinemc.mods.sodium.client.render.chunk.occlusion.OcclusionRasterizerSettings;
+import net.caffeinemc.mods.sodium.client.render.chunk.occlusion.SectionGraph;
 import net.caffeinemc.mods.sodium.client.render.chunk.region.RenderRegion;
 import net.caffeinemc.mods.sodium.client.render.chunk.region.RenderRegionManager;
 import net.caffeinemc.mods.sodium.client.render.chunk.terrain.TerrainRenderPass;
 import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.SortBehavior.DeferMode;
 import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.SortBehavior.PriorityMode;
+import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.SortDistanceTier;
+import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.SortType;
 import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.data.DynamicTopoData;
 import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.data.NoData;
 import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.data.TranslucentData;
@@ -60,7 +61,11 @@ import org.jetbrains.annotations.Nullable;
 import org.joml.Vector3dc;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
 
 public class RenderSectionManager {
     private final ChunkBuilder builder;
@@ -68,7 +73,7 @@ public class RenderSectionManager {
     private final RenderRegionManager regions;
     private final ClonedChunkSectionCache sectionCache;
 
-    private final Long2ReferenceMap<RenderSection> sectionByPosition = new Long2ReferenceOpenHashMap<>();
+    private final SectionIndex sectionByPosition;
 
     private final ConcurrentLinkedDeque<ChunkJobResult<? extends BuilderTaskOutput>> buildResults = new ConcurrentLinkedDeque<>();
 
@@ -78,43 +83,71 @@ public class RenderSectionManager {
 
     private final ReferenceSet<RenderSection> sectionsWithGlobalEntities = new ReferenceOpenHashSet<>();
 
+    // The sections whose sort type depends on their distance tier, which are counted by the sort triggering
+    private final ReferenceSet<RenderSection> tieredSections = new ReferenceOpenHashSet<>();
+
+    private final SectionGraph sectionGraph = new SectionGraph();
     private final OcclusionCuller occlusionCuller;
 
     private final int renderDistance;
 
     private final SortTriggering sortTriggering;
 
+    private final SectionMemoryBudget memoryBudget = new SectionMemoryBudget();
+
+    private final ChunkUploadScheduler uploadScheduler = new ChunkUploadScheduler();
+
     private ChunkJobCollector lastBlockingCollector;
 
     @NotNull
     private SortedRenderLists renderLists;
 
+    // Which of the two render lists of each region the current render lists are made of. A search always fills the
+    // other one, so that the culling thread never modifies the lists which are being drawn.
+    private int renderListBuffer;
+
     @NotNull
     private Map<ChunkUpdateType, ArrayDeque<RenderSection>> taskLists;
 
     private int lastUpdatedFrame;
 
+    // The expansion of the frustum used by asynchronous culling, which covers turning the camera by roughly 10 degrees
+    // at the default field of view before the results are used
+    private static final float ASYNC_FRUSTUM_EXPANSION = 1.25f;
+
+    private @Nullable ExecutorService cullingExecutor;
+    private @Nullable Supplier<VisibleChunkCollector> pendingCullingTask;
+    private @Nullable CompletableFuture<VisibleChunkCollector> cullingTask;
+    private int cullingTaskFrame;
+
     private boolean needsGraphUpdate;
 
     private @Nullable BlockPos cameraBlockPos;
     private @Nullable Vector3dc cameraPosition;
 
+    // The section the camera was in when the distance tiers of the sections were last checked
+    private long sortTierCameraSection = Long.MAX_VALUE;
+
     public RenderSectionManager(ClientLevel level, int renderDistance, CommandList commandList) {
-        this.chunkRenderer = new DefaultChunkRenderer(RenderDevice.INSTANCE, ChunkMeshFormats.COMPACT);
+        var vertexType = ChunkMeshFormats.getSelected();
+
+        this.chunkRenderer = new DefaultChunkRenderer(RenderDevice.INSTANCE, vertexType);
 
         this.level = level;
-        this.builder = new ChunkBuilder(level, ChunkMeshFormats.COMPACT);
+        this.regions = new RenderRegionManager(commandList, vertexType,
+                DefaultChunkRenderer.isGlobalGeometryBufferEnabled(RenderDevice.INSTANCE, vertexType));
+        this.builder = new ChunkBuilder(level, vertexType, this.regions.getMeshStagingBuffer());
 
         this.needsGraphUpdate = true;
         this.renderDistance = renderDistance;
 
         this.sortTriggering = new SortTriggering();
 
-        this.regions = new RenderRegionManager(commandList);
         this.sectionCache = new ClonedChunkSectionCache(this.level);
+        this.sectionByPosition = new SectionIndex(renderDistance, level.getMinSection(), level.getMaxSection());
 
         this.renderLists = SortedRenderLists.empty();
-        this.occlusionCuller = new OcclusionCuller(Long2ReferenceMaps.unmodifiable(this.sectionByPosition), this.level);
+        this.occlusionCuller = new OcclusionCuller(this.sectionGraph, this.level, renderDistance);
 
         this.taskLists = new EnumMap<>(ChunkUpdateType.class);
 
@@ -126,9 +159,61 @@ public class RenderSectionManager {
     public void updateCameraState(Vector3dc cameraPosition, Camera camera) {
         this.cameraBlockPos = camera.getBlockPosition();
         this.cameraPosition = cameraPosition;
+
+        this.updateSortTiers();
+    }
+
+    /**
+     * Schedules a rebuild of the sections whose sort type changes because they moved into a different distance tier.
+     * Since tiers are measured in sections, this only needs to be checked when the camera enters a different section.
+     */
+    private void updateSortTiers() {
+        var options = SodiumClientMod.options().performance;
+        int dynamicSortDistance = options.dynamicSortDistance;
+        int staticSortDistance = options.staticSortDistance;
+
+        if (dynamicSortDistance == 0 && staticSortDistance == 0) {
+            return;
+        }
+
+        long cameraSection = SectionPos.asLong(this.cameraBlockPos);
+
+        if (cameraSection == this.sortTierCameraSection) {
+            return;
+        }
+
+        this.sortTierCameraSection = cameraSection;
+
+        int cameraSectionX = SectionPos.x(cameraSection);
+        int cameraSectionY = SectionPos.y(cameraSection);
+        int cameraSectionZ = SectionPos.z(cameraSection);
+
+        for (var section : this.tieredSections) {
+            int distance = SortDistanceTier.getDistance(section.getChunkX(), section.getChunkY(), section.getChunkZ(),
+                    cameraSectionX, cameraSectionY, cameraSectionZ);
+            var newSortTier = SortDistanceTier.forDistance(distance, dynamicSortDistance, staticSortDistance);
+
+            if (!section.getSortTier().changesSortType(newSortTier, section.getRequestedSortType())) {
+                continue;
+            }
+
+            var pendingUpdate = ChunkUpdateType.getPromotionUpdateType(section.getPendingUpdate(), ChunkUpdateType.REBUILD);
+
+            if (pendingUpdate != null) {
+                section.setPendingUpdate(pendingUpdate);
+                this.needsGraphUpdate = true;
+            }
+        }
     }
 
     public void update(Camera camera, Viewport viewport, int frame, boolean spectator) {
+        if (SodiumClientMod.options().advanced.useAsyncOcclusionCulling) {
+            this.prepareAsyncTerrainRenderList(camera, viewport, frame, spectator);
+            this.needsGraphUpdate = false;
+
+            return;
+        }
+
         this.createTerrainRenderList(camera, viewport, frame, spectator);
 
         this.needsGraphUpdate = false;
@@ -141,14 +226,98 @@ public class RenderSectionManager {
         final var searchDistance = this.getSearchDistance();
         final var useOcclusionCulling = this.shouldUseOcclusionCulling(camera, spectator);
 
-        var visitor = new VisibleChunkCollector(frame);
+        var visitor = new VisibleChunkCollector(frame, this.renderListBuffer ^ 1);
+        this.findVisibleSections(visitor, viewport, searchDistance, useOcclusionCulling, frame);
+
+        this.publishRenderLists(visitor);
+    }
+
+    /**
+     * Prepares a search for the visible sections which is run on the culling thread once all other updates of the
+     * frame have been applied (see {@link #dispatchAsyncUpdate()}). Its results are used from the next frame on, which is
+     * why it uses a wider frustum than the current one.
+     */
+    private void prepareAsyncTerrainRenderList(Camera camera, Viewport viewport, int frame, boolean spectator) {
+        // everything which depends on the state of the game is determined here, on the render thread
+        final var searchDistance = this.getSearchDistance();
+        final var useOcclusionCulling = this.shouldUseOcclusionCulling(camera, spectator);
+        final var expandedViewport = viewport.withExpandedFrustum(ASYNC_FRUSTUM_EXPANSION);
+        final var renderListBuffer = this.renderListBuffer ^ 1;
+
+        this.cullingTaskFrame = frame;
+        this.pendingCullingTask = () -> {
+            var visitor = new VisibleChunkCollector(frame, renderListBuffer);
+            this.findVisibleSections(visitor, expandedViewport, searchDistance, useOcclusionCulling, frame);
 
-        this.occlusionCuller.findVisible(visitor, viewport, searchDistance, useOcclusionCulling, frame);
+            return visitor;
+        };
+    }
+
+    /**
+     * Starts the search prepared by {@link #update} on the culling thread. This must be called after all other updates
+     * of the frame, since the sections and the graph must not be modified until {@link #finishAsyncUpdate()} is called.
+     */
+    public void dispatchAsyncUpdate() {
+        var task = this.pendingCullingTask;
+
+        if (task == null) {
+            return;
+        }
+
+        if (this.cullingExecutor == null) {
+            this.cullingExecutor = Executors.newSingleThreadExecutor(runnable -> {
+                var thread = new Thread(runnable, "Sodium Occlusion Culling Thread");
+                thread.setDaemon(true);
+
+                return thread;
+            });
+        }
+
+        this.pendingCullingTask = null;
+        this.cullingTask = CompletableFuture.supplyAsync(task, this.cullingExecutor);
+    }
+
+    /**
+     * Waits for the search running on the culling thread, if any, and makes its results the current render lists.
+     * This must be called before the sections or the graph are modified.
+     */
+    public void finishAsyncUpdate() {
+        var task = this.cullingTask;
 
+        if (task == null) {
+            return;
+        }
+
+        this.cullingTask = null;
+
+        var visitor = task.join();
+
+        this.publishRenderLists(visitor);
+        this.lastUpdatedFrame = this.cullingTaskFrame;
+    }
+
+    private void publishRenderLists(VisibleChunkCollector visitor) {
         this.renderLists = visitor.createRenderLists();
+        this.renderListBuffer = visitor.getRenderListBuffer();
         this.taskLists = visitor.getRebuildLists();
     }
 
+    private void findVisibleSections(VisibleChunkCollector visitor, Viewport viewport, float searchDistance,
+                                     boolean useOcclusionCulling, int frame) {
+        var options = SodiumClientMod.options().advanced;
+
+        if (options.useIncrementalOcclusionCulling) {
+            this.occlusionCuller.findVisibleCached(visitor, viewport, searchDistance, useOcclusionCulling, frame);
+        } else if (options.useParallelOcclusionCulling) {
+            this.occlusionCuller.findVisibleParallel(visitor, viewport, searchDistance, useOcclusionCulling,
+                    options.useHorizonCulling, frame);
+        } else {
+            this.occlusionCuller.findVisible(visitor, viewport, searchDistance, useOcclusionCulling,
+                    options.useOcclusionRasterizer ? OcclusionRasterizerSettings.fromOptions(options) : null,
+                    options.useHorizonCulling, frame);
+        }
+    }
+
     private float getSearchDistance() {
         float distance;
 
@@ -184,9 +353,7 @@ public class RenderSectionManager {
     }
 
     public void onSectionAdded(int x, int y, int z) {
-        long key = SectionPos.asLong(x, y, z);
-
-        if (this.sectionByPosition.containsKey(key)) {
+        if (this.sectionByPosition.contains(x, y, z)) {
             return;
         }
 
@@ -195,7 +362,7 @@ public class RenderSectionManager {
         RenderSection renderSection = new RenderSection(region, x, y, z);
         region.addSection(renderSection);
 
-        this.sectionByPosition.put(key, renderSection);
+        this.sectionByPosition.add(renderSection);
 
         ChunkAccess chunk = this.level.getChunk(x, z);
         LevelChunkSection section = chunk.getSections()[this.level.getSectionIndexFromSectionY(y)];
@@ -206,30 +373,34 @@ public class RenderSectionManager {
             renderSection.setPendingUpdate(ChunkUpdateType.INITIAL_BUILD);
         }
 
-        this.connectNeighborNodes(renderSection);
+        this.sectionGraph.addSection(renderSection);
+        this.occlusionCuller.onSectionAddedOrRemoved(x, y, z);
 
         this.needsGraphUpdate = true;
     }
 
     public void onSectionRemoved(int x, int y, int z) {
-        long sectionPos = SectionPos.asLong(x, y, z);
-        RenderSection section = this.sectionByPosition.remove(sectionPos);
+        RenderSection section = this.sectionByPosition.remove(x, y, z);
 
         if (section == null) {
             return;
         }
 
         if (section.getTranslucentData() != null) {
-            this.sortTriggering.removeSection(section.getTranslucentData(), sectionPos);
+            this.sortTriggering.removeSection(section.getTranslucentData(), SectionPos.asLong(x, y, z));
         }
 
+        this.sortTriggering.updateSortTier(section.getSortTier(), null);
+        this.tieredSections.remove(section);
+
         RenderRegion region = section.getRegion();
 
         if (region != null) {
             region.removeSection(section);
         }
 
-        this.disconnectNeighborNodes(section);
+        this.sectionGraph.removeSection(section);
+        this.occlusionCuller.onSectionAddedOrRemoved(x, y, z);
         this.updateSectionInfo(section, null);
 
         section.delete();
@@ -286,49 +457,92 @@ public class RenderSectionManager {
             return false;
         }
 
-        return render.getLastVisibleFrame() == this.lastUpdatedFrame;
+        int frame = render.getLastVisibleFrame();
+
+        // While a search is running on the culling thread, sections may already be marked as visible in it. Counting
+        // those as visible too errs on the side of drawing too much.
+        return frame == this.lastUpdatedFrame || (this.cullingTask != null && frame == this.cullingTaskFrame);
     }
 
     public void uploadChunks() {
         var results = this.collectChunkBuildResults();
 
-        if (results.isEmpty()) {
+        if (results.isEmpty() && !this.uploadScheduler.hasDeferred()) {
             return;
         }
 
+        // the outputs which were deferred in previous frames compete with the new ones, and may be superseded by them
+        results.addAll(this.uploadScheduler.takeDeferred());
+
+        var filtered = filterChunkBuildResults(results);
+        var scheduled = this.uploadScheduler.schedule(filtered, this.lastUpdatedFrame, this.cameraBlockPos);
+
         // only mark as needing a graph update if the uploads could have changed the graph
         // (sort results never change the graph)
         // generally there's no sort results without a camera movement, which would also trigger
         // a graph update, but it can sometimes happen because of async task execution
-        this.needsGraphUpdate = this.needsGraphUpdate || this.processChunkBuildResults(results);
+        this.needsGraphUpdate = this.needsGraphUpdate || this.processChunkBuildResults(scheduled);
+
+        // destroy everything except the deferred outputs, which are still owned by the scheduler
+        var deferred = new ReferenceOpenHashSet<>(filtered);
+        deferred.removeAll(scheduled);
 
         for (var result : results) {
-            result.destroy();
+            if (!deferred.contains(result)) {
+                result.destroy();
+            }
         }
     }
 
-    private boolean processChunkBuildResults(ArrayList<BuilderTaskOutput> results) {
-        var filtered = filterChunkBuildResults(results);
+    private boolean processChunkBuildResults(List<BuilderTaskOutput> filtered) {
+        long uploadSize = 0;
 
+        for (var result : filtered) {
+            uploadSize += result.getUploadSize();
+        }
+
+        long uploadStart = System.nanoTime();
         this.regions.uploadResults(RenderDevice.INSTANCE.createCommandList(), filtered);
+        long uploadEnd = System.nanoTime();
+        this.uploadScheduler.recordUpload(uploadSize, uploadEnd - uploadStart);
 
         boolean touchedSectionInfo = false;
         for (var result : filtered) {
             TranslucentData oldData = result.render.getTranslucentData();
             if (result instanceof ChunkBuildOutput chunkBuildOutput) {
+                long oldVisibilityData = result.render.getVisibilityData();
                 this.updateSectionInfo(result.render, chunkBuildOutput.info);
+
+                if (result.render.getVisibilityData() != oldVisibilityData) {
+                    this.occlusionCuller.onSectionVisibilityChanged(result.render);
+                }
                 touchedSectionInfo = true;
 
+                result.render.setMeshEvicted(false);
+
+                var sortTier = SortDistanceTier.isTiered(chunkBuildOutput.requestedSortType) ? chunkBuildOutput.sortTier : null;
+                this.sortTriggering.updateSortTier(result.render.getSortTier(), sortTier);
+                result.render.setSortTier(sortTier, chunkBuildOutput.requestedSortType);
+
+                if (sortTier != null) {
+                    this.tieredSections.add(result.render);
+                } else {
+                    this.tieredSections.remove(result.render);
+                }
+
                 if (chunkBuildOutput.translucentData != null) {
                     this.sortTriggering.integrateTranslucentData(oldData, chunkBuildOutput.translucentData, this.cameraPosition, this::scheduleSort);
 
                     // a rebuild always generates new translucent data which means applyTriggerChanges isn't necessary
                     result.render.setTranslucentData(chunkBuildOutput.translucentData);
                 }
-            } else if (result instanceof ChunkSortOutput sortOutput
-                    && sortOutput.getTopoSorter() != null
-                    && result.render.getTranslucentData() instanceof DynamicTopoData data) {
-                this.sortTriggering.applyTriggerChanges(data, sortOutput.getTopoSorter(), result.render.getPosition(), this.cameraPosition);
+            } else if (result instanceof ChunkSortOutput sortOutput) {
+                this.sortTriggering.recordSortLatency(uploadEnd - sortOutput.getScheduleTime());
+
+                if (sortOutput.getTopoSorter() != null
+                        && result.render.getTranslucentData() instanceof DynamicTopoData data) {
+                    this.sortTriggering.applyTriggerChanges(data, sortOutput.getTopoSorter(), result.render.getPosition(), this.cameraPosition);
+                }
             }
 
             var job = result.render.getTaskCancellationToken();
@@ -347,6 +561,7 @@ public class RenderSectionManager {
 
     private void updateSectionInfo(RenderSection render, BuiltSectionInfo info) {
         render.setInfo(info);
+        this.sectionGraph.setVisibilityData(render, render.getVisibilityData());
 
         if (info == null || ArrayUtils.isEmpty(info.globalBlockEntities)) {
             this.sectionsWithGlobalEntities.remove(render);
@@ -380,7 +595,14 @@ public class RenderSectionManager {
         ChunkJobResult<? extends BuilderTaskOutput> result;
 
         while ((result = this.buildResults.poll()) != null) {
-            results.add(result.unwrap());
+            var output = result.unwrap();
+
+            // the outputs of batched sort tasks are handled individually from here on
+            if (output instanceof ChunkSortBatchOutput batchOutput) {
+                results.addAll(batchOutput.getOutputs());
+            } else {
+                results.add(output);
+            }
         }
 
         return results;
@@ -388,9 +610,17 @@ public class RenderSectionManager {
 
     public void cleanupAndFlip() {
         this.sectionCache.cleanup();
+
+        this.memoryBudget.update(this.regions, this.sectionByPosition.values(),
+                getMemoryBudget(), this.lastUpdatedFrame, this.cameraBlockPos);
+
         this.regions.update();
     }
 
+    private static long getMemoryBudget() {
+        return SodiumClientMod.options().advanced.chunkMemoryBudget * 1024L * 1024L;
+    }
+
     public void updateChunks(boolean updateImmediately) {
         var thisFrameBlockingCollector = this.lastBlockingCollector;
         this.lastBlockingCollector = null;
@@ -432,7 +662,7 @@ public class RenderSectionManager {
         ChunkJobCollector importantCollector,
         ChunkJobCollector semiImportantCollector,
         ChunkJobCollector deferredCollector) {
-            this.submitSectionTasks(importantCollector, ChunkUpdateType.IMPORTANT_SORT, true);
+            this.submitSortTasks(importantCollector, ChunkUpdateType.IMPORTANT_SORT, true);
             this.submitSectionTasks(semiImportantCollector, ChunkUpdateType.IMPORTANT_REBUILD, true);
 
             // since the sort tasks are run last, the effort category can be ignored and
@@ -441,7 +671,7 @@ public class RenderSectionManager {
             // happens to divide evenly.
             this.submitSectionTasks(deferredCollector, ChunkUpdateType.REBUILD, false);
             this.submitSectionTasks(deferredCollector, ChunkUpdateType.INITIAL_BUILD, false);
-            this.submitSectionTasks(deferredCollector, ChunkUpdateType.SORT, true);
+            this.submitSortTasks(deferredCollector, ChunkUpdateType.SORT, true);
     }
 
     private void submitSectionTasks(ChunkJobCollector collector, ChunkUpdateType type, boolean ignoreEffortCategory) {
@@ -461,38 +691,25 @@ public class RenderSectionManager {
             }
 
             int frame = this.lastUpdatedFrame;
-            ChunkBuilderTask<? extends BuilderTaskOutput> task;
-            if (type == ChunkUpdateType.SORT || type == ChunkUpdateType.IMPORTANT_SORT) {
-                task = this.createSortTask(section, frame);
-
-                if (task == null) {
-                    // when a sort task is null it means the render section has no dynamic data and
-                    // doesn't need to be sorted. Nothing needs to be done.
-                    continue;
-                }
+            var task = this.createRebuildTask(section, frame);
+
+            if (task == null) {
+                // if the section is empty or doesn't exist submit this null-task to set the
+                // built flag on the render section.
+                // It's important to use a NoData instead of null translucency data here in
+                // order for it to clear the old data from the translucency sorting system.
+                // This doesn't apply to sorting tasks as that would result in the section being
+                // marked as empty just because it was scheduled to be sorted and its dynamic
+                // data has since been removed. In that case simply nothing is done as the
+                // rebuild that must have happened in the meantime includes new non-dynamic
+                // index data.
+                var result = ChunkJobResult.successfully(new ChunkBuildOutput(
+                        section, frame, NoData.forEmptySection(section.getPosition()),
+                        BuiltSectionInfo.EMPTY, Collections.emptyMap(), SortDistanceTier.NEAR, SortType.EMPTY_SECTION));
+                this.buildResults.add(result);
+
+                section.setTaskCancellationToken(null);
             } else {
-                task = this.createRebuildTask(section, frame);
-
-                if (task == null) {
-                    // if the section is empty or doesn't exist submit this null-task to set the
-                    // built flag on the render section.
-                    // It's important to use a NoData instead of null translucency data here in
-                    // order for it to clear the old data from the translucency sorting system.
-                    // This doesn't apply to sorting tasks as that would result in the section being
-                    // marked as empty just because it was scheduled to be sorted and its dynamic
-                    // data has since been removed. In that case simply nothing is done as the
-                    // rebuild that must have happened in the meantime includes new non-dynamic
-                    // index data.
-                    var result = ChunkJobResult.successfully(new ChunkBuildOutput(
-                            section, frame, NoData.forEmptySection(section.getPosition()),
-                            BuiltSectionInfo.EMPTY, Collections.emptyMap()));
-                    this.buildResults.add(result);
-
-                    section.setTaskCancellationToken(null);
-                }
-            }
-
-            if (task != null) {
                 var job = this.builder.scheduleTask(task, type.isImportant(), collector::onJobFinished);
                 collector.addSubmittedJob(job);
 
@@ -504,6 +721,94 @@ public class RenderSectionManager {
         }
     }
 
+    /**
+     * Submits the sort tasks of the given update type. Consecutive sections are grouped into batches as long as their
+     * total number of quads stays within a limit, and each batch is submitted as a single job. Sections which reach the
+     * limit by themselves are submitted alone. Since a batch is only started while there is budget for another job,
+     * and nothing else is submitted until it's closed, the batches never exceed the budget of the collector.
+     */
+    private void submitSortTasks(ChunkJobCollector collector, ChunkUpdateType type, boolean ignoreEffortCategory) {
+        var queue = this.taskLists.get(type);
+        var batch = new ArrayList<ChunkBuilderSortingTask>();
+        int batchQuadCount = 0;
+
+        while (!queue.isEmpty() && collector.hasBudgetFor(type.getTaskEffort(), ignoreEffortCategory)) {
+            RenderSection section = queue.remove();
+
+            if (section.isDisposed()) {
+                continue;
+            }
+
+            // stop if the section is in this list but doesn't have this update type
+            var pendingUpdate = section.getPendingUpdate();
+            if (pendingUpdate != null && pendingUpdate != type) {
+                continue;
+            }
+
+            int frame = this.lastUpdatedFrame;
+            var task = this.createSortTask(section, frame);
+
+            if (task == null) {
+                // when a sort task is null it means the render section has no dynamic data and
+                // doesn't need to be sorted. Nothing needs to be done.
+                continue;
+            }
+
+            int quadCount = task.getQuadCount();
+
+            // close the current batch before it would exceed the limit, so that a large section ends up in a job
+            // of its own instead of being added to a batch which is already full
+            if (!batch.isEmpty() && batchQuadCount + quadCount > ChunkBuilderSortingBatchTask.MAX_BATCH_QUADS) {
+                this.submitSortBatch(collector, type, batch);
+                batch.clear();
+                batchQuadCount = 0;
+
+                if (!collector.hasBudgetFor(type.getTaskEffort(), ignoreEffortCategory)) {
+                    // the section stays at the front of the queue until there is budget for it
+                    queue.addFirst(section);
+                    break;
+                }
+            }
+
+            batch.add(task);
+            batchQuadCount += quadCount;
+
+            if (batchQuadCount >= ChunkBuilderSortingBatchTask.MAX_BATCH_QUADS ||
+                    batch.size() >= ChunkBuilderSortingBatchTask.MAX_BATCH_SECTIONS) {
+                this.submitSortBatch(collector, type, batch);
+                batch.clear();
+                batchQuadCount = 0;
+            }
+
+            section.setLastSubmittedFrame(frame);
+            section.setPendingUpdate(null);
+        }
+
+        if (!batch.isEmpty()) {
+            this.submitSortBatch(collector, type, batch);
+        }
+    }
+
+    private void submitSortBatch(ChunkJobCollector collector, ChunkUpdateType type, List<ChunkBuilderSortingTask> tasks) {
+        if (tasks.size() == 1) {
+            var task = tasks.get(0);
+            var job = this.builder.scheduleTask(task, type.isImportant(), collector::onJobFinished);
+            collector.addSubmittedJob(job);
+
+            task.getRender().setTaskCancellationToken(job);
+        } else {
+            var batch = new ChunkBuilderSortingBatchTask(tasks, this.lastUpdatedFrame, this.cameraPosition);
+            var job = this.builder.scheduleTask(batch, type.isImportant(), collector::onJobFinished);
+            collector.addSubmittedJob(job);
+
+            for (int i = 0; i < tasks.size(); i++) {
+                tasks.get(i).getRender().setTaskCancellationToken(batch.getCancellationToken(i));
+            }
+        }
+
+        this.sortTriggering.recordSortBatch(tasks.size());
+    }
+
     public @Nullable ChunkBuilderMeshingTask createRebuildTask(RenderSection render, int frame) {
         ChunkRenderContext context = LevelSlice.prepare(this.level, render.getPosition(), this.sectionCache);
 
@@ -535,17 +840,26 @@ public class RenderSectionManager {
     }
 
     public void destroy() {
+        this.finishAsyncUpdate();
+
+        if (this.cullingExecutor != null) {
+            this.cullingExecutor.shutdown();
+        }
+
         this.builder.shutdown(); // stop all the workers, and cancel any tasks
 
         for (var result : this.collectChunkBuildResults()) {
             result.destroy(); // delete resources for any pending tasks (including those that were cancelled)
         }
 
+        this.uploadScheduler.destroy();
+
         for (var section : this.sectionByPosition.values()) {
             section.delete();
         }
 
         this.sectionsWithGlobalEntities.clear();
+        this.tieredSections.clear();
         this.resetRenderLists();
 
         try (CommandList commandList = RenderDevice.INSTANCE.createCommandList()) {
@@ -571,9 +885,10 @@ public class RenderSectionManager {
     }
 
     public void scheduleSort(long sectionPos, boolean isDirectTrigger) {
-        RenderSection section = this.sectionByPosition.get(sectionPos);
+        RenderSection section = this.sectionByPosition.get(SectionPos.x(sectionPos), SectionPos.y(sectionPos), SectionPos.z(sectionPos));
 
-        if (section != null) {
+        // sections with evicted meshes will be sorted when they're rebuilt
+        if (section != null && !section.isMeshEvicted()) {
             var pendingUpdate = ChunkUpdateType.SORT;
             var priorityMode = SodiumClientMod.options().performance.getSortBehavior().getPriorityMode();
             if (priorityMode == PriorityMode.ALL
@@ -591,9 +906,12 @@ public class RenderSectionManager {
     public void scheduleRebuild(int x, int y, int z, boolean important) {
         RenderAsserts.validateCurrentThread();
 
+        // block updates arrive between frames, while the culling thread may still be reading the sections
+        this.finishAsyncUpdate();
+
         this.sectionCache.invalidate(x, y, z);
 
-        RenderSection section = this.sectionByPosition.get(SectionPos.asLong(x, y, z));
+        RenderSection section = this.sectionByPosition.get(x, y, z);
 
         if (section != null && section.isBuilt()) {
             ChunkUpdateType pendingUpdate;
@@ -642,32 +960,8 @@ public class RenderSectionManager {
         return this.renderDistance * 16.0f;
     }
 
-    private void connectNeighborNodes(RenderSection render) {
-        for (int direction = 0; direction < GraphDirection.COUNT; direction++) {
-            RenderSection adj = this.getRenderSection(render.getChunkX() + GraphDirection.x(direction),
-                    render.getChunkY() + GraphDirection.y(direction),
-                    render.getChunkZ() + GraphDirection.z(direction));
-
-            if (adj != null) {
-                adj.setAdjacentNode(GraphDirection.opposite(direction), render);
-                render.setAdjacentNode(direction, adj);
-            }
-        }
-    }
-
-    private void disconnectNeighborNodes(RenderSection render) {
-        for (int direction = 0; direction < GraphDirection.COUNT; direction++) {
-            RenderSection adj = render.getAdjacent(direction);
-
-            if (adj != null) {
-                adj.setAdjacentNode(GraphDirection.opposite(direction), null);
-                render.setAdjacentNode(direction, null);
-            }
-        }
-    }
-
     private RenderSection getRenderSection(int x, int y, int z) {
-        return this.sectionByPosition.get(SectionPos.asLong(x, y, z));
+        return this.sectionByPosition.get(x, y, z);
     }
 
     public Collection<String> getDebugStrings() {
@@ -677,25 +971,36 @@ public class RenderSectionManager {
 
         long deviceUsed = 0;
         long deviceAllocated = 0;
+        long deviceLargestFree = 0;
+        int freeSegments = 0;
 
-        for (var region : this.regions.getLoadedRegions()) {
-            var resources = region.getResources();
-
-            if (resources == null) {
-                continue;
-            }
-
+        for (var resources : this.regions.getDeviceResources()) {
             var buffer = resources.getGeometryArena();
 
             deviceUsed += buffer.getDeviceUsedMemory();
             deviceAllocated += buffer.getDeviceAllocatedMemory();
+            deviceLargestFree += buffer.getDeviceLargestFreeMemory();
+            freeSegments += buffer.getFreeSegmentCount();
 
             count++;
         }
 
+        long deviceFree = deviceAllocated - deviceUsed;
+        int fragmentation = deviceFree > 0 ? (int) (100 - ((deviceLargestFree * 100) / deviceFree)) : 0;
+
         list.add(String.format("Geometry Pool: %d/%d MiB (%d buffers)", MathUtil.toMib(deviceUsed), MathUtil.toMib(deviceAllocated), count));
+        list.add(String.format("Geometry Free List: %d segments (%d%% fragmented)", freeSegments, fragmentation));
+        this.memoryBudget.addDebugStrings(list, getMemoryBudget());
         list.add(String.format("Transfer Queue: %s", this.regions.getStagingBuffer().toString()));
 
+        var meshStagingBuffer = this.regions.getMeshStagingBuffer();
+
+        if (meshStagingBuffer != null) {
+            list.add(String.format("Mesh Staging: %s", meshStagingBuffer));
+        }
+
+        list.add(String.format("Upload Queue: %s", this.uploadScheduler.toString()));
+
         list.add(String.format("Chunk Builder: Permits=%02d (E %03d) | Busy=%02d | Total=%02d",
                 this.builder.getScheduledJobCount(), this.builder.getScheduledEffort(), this.builder.getBusyThreadCount(), this.builder.getTotalThreadCount())
         );
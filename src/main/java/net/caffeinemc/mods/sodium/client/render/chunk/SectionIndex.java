@@ -0,0 +1,213 @@
+package net.caffeinemc.mods.sodium.client.render.chunk;
+
+import it.unimi.dsi.fastutil.longs.Long2ReferenceOpenHashMap;
+import net.minecraft.core.SectionPos;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Maps section coordinates to the render sections which are loaded at them. The sections are stored in a dense array
+ * which wraps around horizontally, and is indexed by the section coordinates modulo its size. This is the same layout
+ * the client chunk cache uses, and as long as the array covers the area in which chunks can be loaded, no two loaded
+ * sections ever share a cell. Moving the camera doesn't require any copying, since the cells of sections which are
+ * unloaded behind the camera are simply reused by the sections which are loaded in front of it.
+ *
+ * <p>Each cell stores the section itself, whose coordinates are checked on lookup. In the unlikely case that a section
+ * is added to a cell which is still occupied (such as when the unloading of old chunks lags behind the loading of new
+ * ones), or lies outside the height of the level, it is put into a small overflow map instead.</p>
+ */
+public class SectionIndex {
+    // The client chunk cache keeps chunks within this many chunks beyond the render distance
+    private static final int CHUNK_CACHE_MARGIN = 3;
+
+    private final int diameter;
+    private final int minSectionY;
+    private final int height;
+
+    private final RenderSection[] sections;
+    private final Long2ReferenceOpenHashMap<RenderSection> overflow = new Long2ReferenceOpenHashMap<>();
+
+    private int size;
+
+    /**
+     * @param renderDistance The render distance in chunks
+     * @param minSectionY The lowest section coordinate of the level (inclusive)
+     * @param maxSectionY The highest section coordinate of the level (exclusive)
+     */
+    public SectionIndex(int renderDistance, int minSectionY, int maxSectionY) {
+        this.diameter = ((Math.max(2, renderDistance) + CHUNK_CACHE_MARGIN) * 2) + 1;
+        this.minSectionY = minSectionY;
+        this.height = maxSectionY - minSectionY;
+
+        this.sections = new RenderSection[this.diameter * this.diameter * this.height];
+    }
+
+    public @Nullable RenderSection get(int x, int y, int z) {
+        int index = this.getIndex(x, y, z);
+
+        if (index != -1) {
+            var section = this.sections[index];
+
+            if (section != null && isAt(section, x, y, z)) {
+                return section;
+            }
+        }
+
+        return this.overflow.isEmpty() ? null : this.overflow.get(SectionPos.asLong(x, y, z));
+    }
+
+    public boolean contains(int x, int y, int z) {
+        return this.get(x, y, z) != null;
+    }
+
+    /**
+     * Adds the section to the index. There must not already be a section at its position.
+     */
+    public void add(RenderSection section) {
+        int index = this.getIndex(section.getChunkX(), section.getChunkY(), section.getChunkZ());
+
+        if (index != -1 && this.sections[index] == null) {
+            this.sections[index] = section;
+        } else {
+            this.overflow.put(SectionPos.asLong(section.getChunkX(), section.getChunkY(), section.getChunkZ()), section);
+        }
+
+        this.size++;
+    }
+
+    /**
+     * Removes the section at the given position from the index.
+     *
+     * @return The section which was removed, or null if there was no section at the position
+     */
+    public @Nullable RenderSection remove(int x, int y, int z) {
+        int index = this.getIndex(x, y, z);
+
+        if (index != -1) {
+            var section = this.sections[index];
+
+            if (section != null && isAt(section, x, y, z)) {
+                this.sections[index] = null;
+                this.size--;
+
+                if (!this.overflow.isEmpty()) {
+                    this.promoteOverflow(index);
+                }
+
+                return section;
+            }
+        }
+
+        if (this.overflow.isEmpty()) {
+            return null;
+        }
+
+        var section = this.overflow.remove(SectionPos.asLong(x, y, z));
+
+        if (section != null) {
+            this.size--;
+        }
+
+        return section;
+    }
+
+    /**
+     * Moves a section from the overflow map into the cell which was freed, if one belongs there.
+     */
+    private void promoteOverflow(int index) {
+        var iterator = this.overflow.values().iterator();
+
+        while (iterator.hasNext()) {
+            var section = iterator.next();
+
+            if (this.getIndex(section.getChunkX(), section.getChunkY(), section.getChunkZ()) == index) {
+                iterator.remove();
+                this.sections[index] = section;
+
+                return;
+            }
+        }
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @return A view of all sections in the index, which iterates over the whole array and should therefore only be
+     * used when necessary
+     */
+    public Collection<RenderSection> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public @NotNull Iterator<RenderSection> iterator() {
+                return new SectionIterator();
+            }
+
+            @Override
+            public int size() {
+                return SectionIndex.this.size;
+            }
+        };
+    }
+
+    private int getIndex(int x, int y, int z) {
+        int localY = y - this.minSectionY;
+
+        if (localY < 0 || localY >= this.height) {
+            return -1;
+        }
+
+        int localX = Math.floorMod(x, this.diameter);
+        int localZ = Math.floorMod(z, this.diameter);
+
+        return (((localY * this.diameter) + localZ) * this.diameter) + localX;
+    }
+
+    private static boolean isAt(RenderSection section, int x, int y, int z) {
+        return section.getChunkX() == x && section.getChunkY() == y && section.getChunkZ() == z;
+    }
+
+    private class SectionIterator implements Iterator<RenderSection> {
+        private final Iterator<RenderSection> overflowIterator = SectionIndex.this.overflow.values().iterator();
+        private int nextIndex = -1;
+
+        private SectionIterator() {
+            this.advance();
+        }
+
+        private void advance() {
+            var sections = SectionIndex.this.sections;
+
+            do {
+                this.nextIndex++;
+            } while (this.nextIndex < sections.length && sections[this.nextIndex] == null);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.nextIndex < SectionIndex.this.sections.length || this.overflowIterator.hasNext();
+        }
+
+        @Override
+        public RenderSection next() {
+            if (this.nextIndex < SectionIndex.this.sections.length) {
+                var section = SectionIndex.this.sections[this.nextIndex];
+                this.advance();
+
+                return section;
+            }
+
+            if (this.overflowIterator.hasNext()) {
+                return this.overflowIterator.next();
+            }
+
+            throw new NoSuchElementException();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package net.caffeinemc.mods.sodium.client.render.chunk;
+
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import net.caffeinemc.mods.sodium.client.render.chunk.region.RenderRegionManager;
+import net.caffeinemc.mods.sodium.client.util.MathUtil;
+import net.minecraft.core.BlockPos;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Enforces an upper bound on the video memory used by the meshes of all render regions. When the meshes use more
+ * memory than allowed, the meshes of the sections which haven't been visible for the longest time are evicted,
+ * starting with the ones farthest away from the camera. Evicted sections keep their other state and are rebuilt once
+ * they become visible again.
+ */
+public class SectionMemoryBudget {
+    // Evicting down to slightly less than the budget avoids evicting a few sections every frame
+    private static final float EVICTION_TARGET = 0.9f;
+
+    private long deviceUsed;
+    private long deviceAllocated;
+    private long peakDeviceUsed;
+
+    private int evictedSections;
+
+    /**
+     * Updates the memory usage statistics and evicts meshes if the usage exceeds the budget.
+     *
+     * @param regions The region manager, whose regions may share their resources
+     * @param sections The currently loaded sections
+     * @param budget The maximum number of bytes the meshes may use, or zero if there is no limit
+     * @param frame The frame of the last visibility update, sections which were visible in it are never evicted
+     * @param cameraPos The position of the camera used to prioritise sections, or null if it isn't known yet
+     */
+    public void update(RenderRegionManager regions, Collection<RenderSection> sections, long budget, int frame,
+                       BlockPos cameraPos) {
+        this.updateUsage(regions);
+
+        if (budget <= 0 || this.deviceUsed <= budget || cameraPos == null) {
+            return;
+        }
+
+        this.evict(sections, (long) (budget * EVICTION_TARGET), frame, cameraPos);
+        this.updateUsage(regions);
+    }
+
+    private void updateUsage(RenderRegionManager regions) {
+        long used = 0;
+        long allocated = 0;
+
+        for (var resources : regions.getDeviceResources()) {
+            used += resources.getGeometryArena().getDeviceUsedMemory() + resources.getIndexArena().getDeviceUsedMemory();
+            allocated += resources.getGeometryArena().getDeviceAllocatedMemory() + resources.getIndexArena().getDeviceAllocatedMemory();
+        }
+
+        this.deviceUsed = used;
+        this.deviceAllocated = allocated;
+        this.peakDeviceUsed = Math.max(this.peakDeviceUsed, used);
+    }
+
+    private void evict(Collection<RenderSection> sections, long target, int frame, BlockPos cameraPos) {
+        var candidates = new ObjectArrayList<RenderSection>();
+
+        for (var section : sections) {
+            if (section.getLastVisibleFrame() != frame && !section.isMeshEvicted()
+                    && section.getRegion().hasSectionData(section.getSectionIndex())) {
+                candidates.add(section);
+            }
+        }
+
+        // Sections which haven't been seen for a long time are the least likely to become visible again soon,
+        // and among those seen at the same time, the farthest ones are the cheapest to lose
+        candidates.sort(Comparator.comparingInt(RenderSection::getLastVisibleFrame)
+                .thenComparing(Comparator.<RenderSection>comparingDouble(section -> section.getSquaredDistance(cameraPos)).reversed()));
+
+        long used = this.deviceUsed;
+
+        for (var section : candidates) {
+            if (used <= target) {
+                break;
+            }
+
+            var region = section.getRegion();
+            long regionUsed = region.getDeviceUsedMemory();
+
+            region.evictSectionData(section.getSectionIndex());
+            section.setMeshEvicted(true);
+
+            var pendingUpdate = ChunkUpdateType.getPromotionUpdateType(section.getPendingUpdate(), ChunkUpdateType.REBUILD);
+
+            if (pendingUpdate != null) {
+                section.setPendingUpdate(pendingUpdate);
+            }
+
+            used -= regionUsed - region.getDeviceUsedMemory();
+            this.evictedSections++;
+        }
+    }
+
+    public void addDebugStrings(List<String> list, long budget) {
+        if (budget > 0) {
+            list.add(String.format("Mesh Memory: %d/%d MiB (Peak %d MiB, Budget %d MiB)",
+                    MathUtil.toMib(this.deviceUsed), MathUtil.toMib(this.deviceAllocated),
+                    MathUtil.toMib(this.peakDeviceUsed), MathUtil.toMib(budget)));
+            list.add(String.format("Mesh Evictions: %d", this.evictedSections));
+        } else {
+            list.add(String.format("Mesh Memory: %d/%d MiB (Peak %d MiB)",
+                    MathUtil.toMib(this.deviceUsed), MathUtil.toMib(this.deviceAllocated),
+                    MathUtil.toMib(this.peakDeviceUsed)));
+        }
+    }
+}
@@ -11,6 +11,13 @@ public abstract class BuilderTaskOutput {
         this.submitTime = buildTime;
     }
 
+    /**
+     * @return The number of bytes which need to be uploaded to the GPU when this output is processed
+     */
+    public long getUploadSize() {
+        return 0;
+    }
+
     public void destroy() {
     }
 }
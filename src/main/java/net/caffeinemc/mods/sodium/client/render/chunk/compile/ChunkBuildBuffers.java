@@ -1,6 +1,7 @@
 package net.caffeinemc.mods.sodium.client.render.chunk.compile;
 
 import it.unimi.dsi.fastutil.objects.Reference2ReferenceOpenHashMap;
+import net.caffeinemc.mods.sodium.client.gl.arena.staging.ConcurrentStagingBuffer;
 import net.caffeinemc.mods.sodium.client.gl.util.VertexRange;
 import net.caffeinemc.mods.sodium.client.model.quad.properties.ModelQuadFacing;
 import net.caffeinemc.mods.sodium.client.render.chunk.compile.buffers.BakedChunkModelBuilder;
@@ -13,6 +14,7 @@ import net.caffeinemc.mods.sodium.client.render.chunk.terrain.material.Material;
 import net.caffeinemc.mods.sodium.client.render.chunk.vertex.builder.ChunkMeshBufferBuilder;
 import net.caffeinemc.mods.sodium.client.render.chunk.vertex.format.ChunkVertexType;
 import net.caffeinemc.mods.sodium.client.util.NativeBuffer;
+import org.jetbrains.annotations.Nullable;
 
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
@@ -27,9 +29,11 @@ public class ChunkBuildBuffers {
     private final Reference2ReferenceOpenHashMap<TerrainRenderPass, BakedChunkModelBuilder> builders = new Reference2ReferenceOpenHashMap<>();
 
     private final ChunkVertexType vertexType;
+    private final @Nullable ConcurrentStagingBuffer stagingBuffer;
 
-    public ChunkBuildBuffers(ChunkVertexType vertexType) {
+    public ChunkBuildBuffers(ChunkVertexType vertexType, @Nullable ConcurrentStagingBuffer stagingBuffer) {
         this.vertexType = vertexType;
+        this.stagingBuffer = stagingBuffer;
 
         for (TerrainRenderPass pass : DefaultTerrainRenderPasses.ALL) {
             var vertexBuffers = new ChunkMeshBufferBuilder[ModelQuadFacing.COUNT];
@@ -88,16 +92,30 @@ public class ChunkBuildBuffers {
             vertexRanges[ModelQuadFacing.UNASSIGNED.ordinal()] = new VertexRange(0, vertexCount);
         }
 
-        var mergedBuffer = new NativeBuffer(vertexCount * this.vertexType.getVertexFormat().getStride());
-        var mergedBufferBuilder = mergedBuffer.getDirectBuffer();
+        int length = vertexCount * this.vertexType.getVertexFormat().getStride();
 
-        for (var buffer : vertexBuffers) {
-            mergedBufferBuilder.put(buffer);
+        // If possible, the mesh is written directly into mapped memory so that the render thread doesn't need to
+        // copy it again when uploading, otherwise (or if the staging buffer is full) it's kept in a native buffer
+        var reservation = this.stagingBuffer != null ? this.stagingBuffer.tryReserve(length) : null;
+
+        if (reservation != null) {
+            mergeVertexBuffers(vertexBuffers, reservation.getDirectBuffer());
+
+            return new BuiltSectionMeshParts(reservation, vertexRanges);
         }
 
+        var mergedBuffer = new NativeBuffer(length);
+        mergeVertexBuffers(vertexBuffers, mergedBuffer.getDirectBuffer());
+
         return new BuiltSectionMeshParts(mergedBuffer, vertexRanges);
     }
 
+    private static void mergeVertexBuffers(List<ByteBuffer> vertexBuffers, ByteBuffer mergedBuffer) {
+        for (var buffer : vertexBuffers) {
+            mergedBuffer.put(buffer);
+        }
+    }
+
     public void destroy() {
         for (var builder : this.builders.values()) {
             builder.destroy();
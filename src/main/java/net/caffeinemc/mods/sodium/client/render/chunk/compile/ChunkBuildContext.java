@@ -1,5 +1,6 @@
 package net.caffeinemc.mods.sodium.client.render.chunk.compile;
 
+import net.caffeinemc.mods.sodium.client.gl.arena.staging.ConcurrentStagingBuffer;
 import net.caffeinemc.mods.sodium.client.render.chunk.vertex.format.ChunkVertexType;
 import net.caffeinemc.mods.sodium.client.render.chunk.compile.pipeline.BlockRenderCache;
 import net.minecraft.client.Minecraft;
@@ -9,8 +10,8 @@ public class ChunkBuildContext {
     public final ChunkBuildBuffers buffers;
     public final BlockRenderCache cache;
 
-    public ChunkBuildContext(ClientLevel level, ChunkVertexType vertexType) {
-        this.buffers = new ChunkBuildBuffers(vertexType);
+    public ChunkBuildContext(ClientLevel level, ChunkVertexType vertexType, ConcurrentStagingBuffer stagingBuffer) {
+        this.buffers = new ChunkBuildBuffers(vertexType, stagingBuffer);
         this.cache = new BlockRenderCache(Minecraft.getInstance(), level);
     }
 
@@ -4,6 +4,8 @@ import net.caffeinemc.mods.sodium.client.render.chunk.RenderSection;
 import net.caffeinemc.mods.sodium.client.render.chunk.data.BuiltSectionInfo;
 import net.caffeinemc.mods.sodium.client.render.chunk.data.BuiltSectionMeshParts;
 import net.caffeinemc.mods.sodium.client.render.chunk.terrain.TerrainRenderPass;
+import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.SortDistanceTier;
+import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.SortType;
 import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.data.TranslucentData;
 
 import java.util.Map;
@@ -19,25 +21,54 @@ public class ChunkBuildOutput extends ChunkSortOutput {
     public final TranslucentData translucentData;
     public final Map<TerrainRenderPass, BuiltSectionMeshParts> meshes;
 
+    /**
+     * The distance tier the section was built with, and the sort type it would
+     * have had without it.
+     */
+    public final SortDistanceTier sortTier;
+    public final SortType requestedSortType;
+
     public ChunkBuildOutput(RenderSection render, int buildTime, TranslucentData translucentData, BuiltSectionInfo info,
-            Map<TerrainRenderPass, BuiltSectionMeshParts> meshes) {
+            Map<TerrainRenderPass, BuiltSectionMeshParts> meshes, SortDistanceTier sortTier, SortType requestedSortType) {
         super(render, buildTime);
 
         this.info = info;
         this.translucentData = translucentData;
         this.meshes = meshes;
+        this.sortTier = sortTier;
+        this.requestedSortType = requestedSortType;
     }
 
     public BuiltSectionMeshParts getMesh(TerrainRenderPass pass) {
         return this.meshes.get(pass);
     }
 
+    /**
+     * Moves the mesh data out of the staging buffer, see {@link BuiltSectionMeshParts#unstage()}.
+     */
+    public void unstage() {
+        for (BuiltSectionMeshParts data : this.meshes.values()) {
+            data.unstage();
+        }
+    }
+
+    @Override
+    public long getUploadSize() {
+        long size = super.getUploadSize();
+
+        for (BuiltSectionMeshParts data : this.meshes.values()) {
+            size += data.getVertexDataLength();
+        }
+
+        return size;
+    }
+
     @Override
     public void destroy() {
         super.destroy();
 
         for (BuiltSectionMeshParts data : this.meshes.values()) {
-            data.getVertexData().free();
+            data.delete();
         }
     }
 }
@@ -0,0 +1,42 @@
+package net.caffeinemc.mods.sodium.client.render.chunk.compile;
+
+import net.caffeinemc.mods.sodium.client.render.chunk.RenderSection;
+
+import java.util.List;
+
+/**
+ * The result of a batch of sort tasks. It's split up into the outputs of the individual sections as soon as it's
+ * collected on the main thread, so that they can be filtered and uploaded just like the outputs of single sort tasks.
+ */
+public class ChunkSortBatchOutput extends BuilderTaskOutput {
+    private final List<ChunkSortOutput> outputs;
+
+    public ChunkSortBatchOutput(RenderSection render, int buildTime, List<ChunkSortOutput> outputs) {
+        super(render, buildTime);
+        this.outputs = outputs;
+    }
+
+    public List<ChunkSortOutput> getOutputs() {
+        return this.outputs;
+    }
+
+    @Override
+    public long getUploadSize() {
+        long size = 0;
+
+        for (var output : this.outputs) {
+            size += output.getUploadSize();
+        }
+
+        return size;
+    }
+
+    @Override
+    public void destroy() {
+        super.destroy();
+
+        for (var output : this.outputs) {
+            output.destroy();
+        }
+    }
+}
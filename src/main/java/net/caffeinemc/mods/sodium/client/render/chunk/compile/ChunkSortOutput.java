@@ -1,5 +1,6 @@
 package net.caffeinemc.mods.sodium.client.render.chunk.compile;
 
+import net.caffeinemc.mods.sodium.client.gl.tessellation.GlIndexType;
 import net.caffeinemc.mods.sodium.client.render.chunk.RenderSection;
 import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.data.DynamicTopoData;
 import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.data.SortData;
@@ -8,20 +9,24 @@ import net.caffeinemc.mods.sodium.client.util.NativeBuffer;
 
 public class ChunkSortOutput extends BuilderTaskOutput implements SortData {
     private NativeBuffer indexBuffer;
+    private GlIndexType indexType = GlIndexType.UNSIGNED_INT;
     private boolean reuseUploadedIndexData;
     private DynamicTopoData.DynamicTopoSorter topoSorter;
+    private long scheduleTime;
 
     public ChunkSortOutput(RenderSection render, int buildTime) {
         super(render, buildTime);
     }
 
-    public ChunkSortOutput(RenderSection render, int buildTime, Sorter data) {
+    public ChunkSortOutput(RenderSection render, int buildTime, Sorter data, long scheduleTime) {
         this(render, buildTime);
         this.copyResultFrom(data);
+        this.scheduleTime = scheduleTime;
     }
 
     public void copyResultFrom(Sorter sorter) {
         this.indexBuffer = sorter.getIndexBuffer();
+        this.indexType = sorter.getIndexType();
         this.reuseUploadedIndexData = false;
         if (sorter instanceof DynamicTopoData.DynamicTopoSorter topoSorterInstance) {
             this.topoSorter = topoSorterInstance;
@@ -37,6 +42,11 @@ public class ChunkSortOutput extends BuilderTaskOutput implements SortData {
         return this.indexBuffer;
     }
 
+    @Override
+    public GlIndexType getIndexType() {
+        return this.indexType;
+    }
+
     @Override
     public boolean isReusingUploadedIndexData() {
         return this.reuseUploadedIndexData;
@@ -46,6 +56,22 @@ public class ChunkSortOutput extends BuilderTaskOutput implements SortData {
         return this.topoSorter;
     }
 
+    /**
+     * @return The time in nanoseconds at which the sort task producing this output was created
+     */
+    public long getScheduleTime() {
+        return this.scheduleTime;
+    }
+
+    @Override
+    public long getUploadSize() {
+        if (this.reuseUploadedIndexData || this.indexBuffer == null) {
+            return 0;
+        }
+
+        return this.indexBuffer.getLength();
+    }
+
     @Override
     public void destroy() {
         super.destroy();
@@ -14,6 +14,7 @@ import net.caffeinemc.mods.sodium.client.render.chunk.data.BuiltSectionMeshParts
 import net.caffeinemc.mods.sodium.client.render.chunk.terrain.DefaultTerrainRenderPasses;
 import net.caffeinemc.mods.sodium.client.render.chunk.terrain.TerrainRenderPass;
 import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.SortBehavior;
+import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.SortDistanceTier;
 import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.SortType;
 import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.TranslucentGeometryCollector;
 import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.data.PresentTranslucentData;
@@ -46,10 +47,12 @@ import org.joml.Vector3dc;
  */
 public class ChunkBuilderMeshingTask extends ChunkBuilderTask<ChunkBuildOutput> {
     private final ChunkRenderContext renderContext;
+    private final SortDistanceTier sortTier;
 
     public ChunkBuilderMeshingTask(RenderSection render, int buildTime, Vector3dc absoluteCameraPos, ChunkRenderContext renderContext) {
         super(render, buildTime, absoluteCameraPos);
         this.renderContext = renderContext;
+        this.sortTier = SortDistanceTier.forSection(render.getChunkX(), render.getChunkY(), render.getChunkZ(), absoluteCameraPos);
     }
 
     @Override
@@ -79,7 +82,7 @@ public class ChunkBuilderMeshingTask extends ChunkBuilderTask<ChunkBuildOutput>
 
         TranslucentGeometryCollector collector = null;
         if (SodiumClientMod.options().performance.getSortBehavior() != SortBehavior.OFF) {
-            collector = new TranslucentGeometryCollector(render.getPosition());
+            collector = new TranslucentGeometryCollector(render.getPosition(), this.sortTier);
         }
         BlockRenderContext context = new BlockRenderContext(slice, collector);
 
@@ -149,47 +152,66 @@ public class ChunkBuilderMeshingTask extends ChunkBuilderTask<ChunkBuildOutput>
         }
 
         Map<TerrainRenderPass, BuiltSectionMeshParts> meshes = new Reference2ReferenceOpenHashMap<>();
+        ChunkBuildOutput output = null;
+        boolean completed = false;
 
-        for (TerrainRenderPass pass : DefaultTerrainRenderPasses.ALL) {
-            // consolidate all translucent geometry into UNASSIGNED so that it's rendered
-            // all together if it needs to share an index buffer between the directions
-            boolean isTranslucent = pass == DefaultTerrainRenderPasses.TRANSLUCENT;
-            BuiltSectionMeshParts mesh = buffers.createMesh(pass, isTranslucent && sortType.needsDirectionMixing);
+        // the meshes may hold reservations in the staging buffer, which block it from being reused until they are
+        // released, so they have to be deleted if the task is cancelled or fails before the output is returned
+        try {
+            for (TerrainRenderPass pass : DefaultTerrainRenderPasses.ALL) {
+                // consolidate all translucent geometry into UNASSIGNED so that it's rendered
+                // all together if it needs to share an index buffer between the directions
+                boolean isTranslucent = pass == DefaultTerrainRenderPasses.TRANSLUCENT;
+                BuiltSectionMeshParts mesh = buffers.createMesh(pass, isTranslucent && sortType.needsDirectionMixing);
+
+                if (mesh != null) {
+                    meshes.put(pass, mesh);
+                    renderData.addRenderPass(pass);
+                }
+            }
 
-            if (mesh != null) {
-                meshes.put(pass, mesh);
-                renderData.addRenderPass(pass);
+            // cancellation opportunity right before translucent sorting
+            if (cancellationToken.isCancelled()) {
+                return null;
             }
-        }
 
-        // cancellation opportunity right before translucent sorting
-        if (cancellationToken.isCancelled()) {
-            return null;
-        }
+            renderData.setOcclusionData(occluder.resolve());
 
-        renderData.setOcclusionData(occluder.resolve());
+            boolean reuseUploadedData = false;
+            TranslucentData translucentData = null;
+            if (collector != null) {
+                var oldData = this.render.getTranslucentData();
+                translucentData = collector.getTranslucentData(
+                        oldData, meshes.get(DefaultTerrainRenderPasses.TRANSLUCENT), this);
+                reuseUploadedData = translucentData == oldData;
+            }
 
-        boolean reuseUploadedData = false;
-        TranslucentData translucentData = null;
-        if (collector != null) {
-            var oldData = this.render.getTranslucentData();
-            translucentData = collector.getTranslucentData(
-                    oldData, meshes.get(DefaultTerrainRenderPasses.TRANSLUCENT), this);
-            reuseUploadedData = translucentData == oldData;
-        }
+            SortType requestedSortType = collector != null ? collector.getRequestedSortType() : SortType.NONE;
+            output = new ChunkBuildOutput(this.render, this.submitTime, translucentData, renderData.build(), meshes,
+                    this.sortTier, requestedSortType);
+            if (collector != null) {
+                if (reuseUploadedData) {
+                    output.markAsReusingUploadedData();
+                } else if (translucentData instanceof PresentTranslucentData present) {
+                    var sorter = present.getSorter();
+                    sorter.writeIndexBuffer(this, true);
+                    output.copyResultFrom(sorter);
+                }
+            }
 
-        var output = new ChunkBuildOutput(this.render, this.submitTime, translucentData, renderData.build(), meshes);
-        if (collector != null) {
-            if (reuseUploadedData) {
-                output.markAsReusingUploadedData();
-            } else if (translucentData instanceof PresentTranslucentData present) {
-                var sorter = present.getSorter();
-                sorter.writeIndexBuffer(this, true);
-                output.copyResultFrom(sorter);
+            completed = true;
+            return output;
+        } finally {
+            if (!completed) {
+                if (output != null) {
+                    output.destroy();
+                } else {
+                    for (BuiltSectionMeshParts mesh : meshes.values()) {
+                        mesh.delete();
+                    }
+                }
             }
         }
-
-        return output;
     }
 
     private ReportedException fillCrashInfo(CrashReport report, LevelSlice slice, BlockPos pos) {
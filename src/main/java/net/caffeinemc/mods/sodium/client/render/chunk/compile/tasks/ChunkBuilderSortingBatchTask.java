@@ -0,0 +1,97 @@
+package net.caffeinemc.mods.sodium.client.render.chunk.compile.tasks;
+
+import net.caffeinemc.mods.sodium.client.render.chunk.compile.ChunkBuildContext;
+import net.caffeinemc.mods.sodium.client.render.chunk.compile.ChunkSortBatchOutput;
+import net.caffeinemc.mods.sodium.client.render.chunk.compile.ChunkSortOutput;
+import net.caffeinemc.mods.sodium.client.render.chunk.compile.executor.ChunkBuilder;
+import net.caffeinemc.mods.sodium.client.util.task.CancellationToken;
+import org.joml.Vector3dc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sorts the translucent geometry of multiple sections in a single job. Sorting a section with few translucent quads
+ * takes about as long as scheduling its job and collecting the result, so when many small sections are triggered at
+ * once, they are grouped into batches which are limited by their total number of quads.
+ *
+ * <p>Cancelling the job of the batch would cancel the sorting of all of its sections, so each section is given its
+ * own cancellation token instead, which is checked before the section is sorted.</p>
+ */
+public class ChunkBuilderSortingBatchTask extends ChunkBuilderTask<ChunkSortBatchOutput> {
+    /**
+     * The number of quads at which a batch is closed. Sections with more quads than this are always sorted on their
+     * own, since the overhead of their job is small compared to the sort itself.
+     */
+    public static final int MAX_BATCH_QUADS = 4096;
+
+    /**
+     * The maximum number of sections in a batch, which keeps sections with very few quads from all ending up in the
+     * same job.
+     */
+    public static final int MAX_BATCH_SECTIONS = 32;
+
+    private final ChunkBuilderSortingTask[] tasks;
+    private final SectionCancellationToken[] tokens;
+
+    public ChunkBuilderSortingBatchTask(List<ChunkBuilderSortingTask> tasks, int frame, Vector3dc absoluteCameraPos) {
+        super(tasks.get(0).getRender(), frame, absoluteCameraPos);
+        this.tasks = tasks.toArray(new ChunkBuilderSortingTask[0]);
+        this.tokens = new SectionCancellationToken[this.tasks.length];
+
+        for (int i = 0; i < this.tokens.length; i++) {
+            this.tokens[i] = new SectionCancellationToken();
+        }
+    }
+
+    /**
+     * @return The token which cancels the sorting of the section of the task at the given index
+     */
+    public CancellationToken getCancellationToken(int index) {
+        return this.tokens[index];
+    }
+
+    @Override
+    public ChunkSortBatchOutput execute(ChunkBuildContext context, CancellationToken cancellationToken) {
+        var outputs = new ArrayList<ChunkSortOutput>(this.tasks.length);
+
+        for (int i = 0; i < this.tasks.length; i++) {
+            if (cancellationToken.isCancelled()) {
+                for (var output : outputs) {
+                    output.destroy();
+                }
+
+                return null;
+            }
+
+            // cancelled sections produce no output
+            var output = this.tasks[i].execute(context, this.tokens[i]);
+
+            if (output != null) {
+                outputs.add(output);
+            }
+        }
+
+        // the batch is returned even if it's empty so that the collector waiting on the job isn't left hanging
+        return new ChunkSortBatchOutput(this.render, this.submitTime, outputs);
+    }
+
+    @Override
+    public int getEffort() {
+        return ChunkBuilder.LOW_EFFORT;
+    }
+
+    private static class SectionCancellationToken implements CancellationToken {
+        private volatile boolean cancelled;
+
+        @Override
+        public boolean isCancelled() {
+            return this.cancelled;
+        }
+
+        @Override
+        public void setCancelled() {
+            this.cancelled = true;
+        }
+    }
+}
@@ -12,10 +12,17 @@ import net.caffeinemc.mods.sodium.client.util.task.CancellationToken;
 
 public class ChunkBuilderSortingTask extends ChunkBuilderTask<ChunkSortOutput> {
     private final Sorter sorter;
+    private final int quadCount;
 
-    public ChunkBuilderSortingTask(RenderSection render, int frame, Vector3dc absoluteCameraPos, Sorter sorter) {
+    /**
+     * The time at which this task was created in nanoseconds, which is used to measure the latency of the sort.
+     */
+    private final long scheduleTime = System.nanoTime();
+
+    public ChunkBuilderSortingTask(RenderSection render, int frame, Vector3dc absoluteCameraPos, Sorter sorter, int quadCount) {
         super(render, frame, absoluteCameraPos);
         this.sorter = sorter;
+        this.quadCount = quadCount;
     }
 
     @Override
@@ -24,16 +31,20 @@ public class ChunkBuilderSortingTask extends ChunkBuilderTask<ChunkSortOutput> {
             return null;
         }
         this.sorter.writeIndexBuffer(this, false);
-        return new ChunkSortOutput(this.render, this.submitTime, this.sorter);
+        return new ChunkSortOutput(this.render, this.submitTime, this.sorter, this.scheduleTime);
     }
 
     public static ChunkBuilderSortingTask createTask(RenderSection render, int frame, Vector3dc absoluteCameraPos) {
         if (render.getTranslucentData() instanceof DynamicData dynamicData) {
-            return new ChunkBuilderSortingTask(render, frame, absoluteCameraPos, dynamicData.getSorter());
+            return new ChunkBuilderSortingTask(render, frame, absoluteCameraPos, dynamicData.getSorter(), dynamicData.getQuadCount());
         }
         return null;
     }
 
+    public int getQuadCount() {
+        return this.quadCount;
+    }
+
     @Override
     public int getEffort() {
         return ChunkBuilder.LOW_EFFORT;
@@ -56,6 +56,10 @@ public abstract class ChunkBuilderTask<OUTPUT extends BuilderTaskOutput> impleme
 
     public abstract int getEffort();
 
+    public RenderSection getRender() {
+        return this.render;
+    }
+
     @Override
     public Vector3fc getRelativeCameraPos() {
         return this.cameraPos;
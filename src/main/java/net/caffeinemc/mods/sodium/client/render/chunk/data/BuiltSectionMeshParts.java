@@ -1,22 +1,66 @@
 package net.caffeinemc.mods.sodium.client.render.chunk.data;
 
+import net.caffeinemc.mods.sodium.client.gl.arena.PendingUpload;
+import net.caffeinemc.mods.sodium.client.gl.arena.staging.ConcurrentStagingBuffer;
 import net.caffeinemc.mods.sodium.client.gl.util.VertexRange;
 import net.caffeinemc.mods.sodium.client.util.NativeBuffer;
+import org.jetbrains.annotations.Nullable;
 
+/**
+ * The vertex data of a built section mesh. The data is either stored in a native buffer, or was written directly into
+ * a reserved range of a {@link ConcurrentStagingBuffer}, in which case no further copy is needed on the CPU.
+ */
 public class BuiltSectionMeshParts {
     private final VertexRange[] ranges;
-    private final NativeBuffer buffer;
+    private @Nullable NativeBuffer buffer;
+    private ConcurrentStagingBuffer.@Nullable Reservation stagedBuffer;
 
     public BuiltSectionMeshParts(NativeBuffer buffer, VertexRange[] ranges) {
         this.ranges = ranges;
         this.buffer = buffer;
+        this.stagedBuffer = null;
     }
 
-    public NativeBuffer getVertexData() {
-        return this.buffer;
+    public BuiltSectionMeshParts(ConcurrentStagingBuffer.Reservation stagedBuffer, VertexRange[] ranges) {
+        this.ranges = ranges;
+        this.buffer = null;
+        this.stagedBuffer = stagedBuffer;
+    }
+
+    public int getVertexDataLength() {
+        return this.stagedBuffer != null ? this.stagedBuffer.getLength() : this.buffer.getLength();
+    }
+
+    public PendingUpload createUpload() {
+        return this.stagedBuffer != null ? new PendingUpload(this.stagedBuffer) : new PendingUpload(this.buffer);
+    }
+
+    /**
+     * Copies the vertex data out of the staging buffer into a native buffer, if it was written into one. The
+     * staging buffer can only reuse its space in order, so data which isn't uploaded soon should be moved out of it
+     * to not block the reservations behind it.
+     */
+    public void unstage() {
+        if (this.stagedBuffer == null) {
+            return;
+        }
+
+        this.buffer = NativeBuffer.copy(this.stagedBuffer.getDirectBuffer());
+
+        this.stagedBuffer.discard();
+        this.stagedBuffer = null;
     }
 
     public VertexRange[] getVertexRanges() {
         return this.ranges;
     }
+
+    public void delete() {
+        if (this.stagedBuffer != null) {
+            // does nothing if the data has already been copied, the staging buffer then releases it by itself
+            this.stagedBuffer.discard();
+        } else {
+            this.buffer.free();
+        }
+    }
 }
@@ -0,0 +1,128 @@
+package net.caffeinemc.mods.sodium.client.render.chunk.data;
+
+import org.lwjgl.system.MemoryUtil;
+
+/**
+ * Combines the visible indirect draw commands of many regions into one buffer, so that the sections of all regions
+ * can be drawn with a single {@code glMultiDrawElementsIndirect} call when the regions share their geometry buffer.
+ *
+ * Each region is assigned a slot in the order it is added. The base instance of every command copied from a region
+ * is set to the region's slot, and the camera-relative offset of the region is stored at the same slot in a second
+ * array. The shader reads the offset through an instanced vertex attribute, which is indexed by the base instance
+ * since every command draws exactly one instance.
+ *
+ * This class only operates on native memory and doesn't issue any OpenGL calls.
+ */
+public class CombinedDrawCommandBuffer {
+    // struct RegionOffset { // 12 bytes
+    //   x: f32,
+    //   y: f32,
+    //   z: f32
+    // }
+    public static final int REGION_OFFSET_STRIDE = 12;
+
+    private static final long OFFSET_BASE_INSTANCE = 16;
+
+    private static final int INITIAL_REGION_CAPACITY = 16;
+
+    private long pCommands;
+    private long pRegionOffsets;
+
+    private int commandCapacity;
+    private int regionCapacity;
+
+    private int commandCount;
+    private int regionCount;
+
+    public CombinedDrawCommandBuffer() {
+        this.commandCapacity = SectionDrawCommandStorage.COMMAND_COUNT * INITIAL_REGION_CAPACITY;
+        this.regionCapacity = INITIAL_REGION_CAPACITY;
+
+        this.pCommands = MemoryUtil.nmemAlloc((long) this.commandCapacity * SectionDrawCommandStorage.COMMAND_STRIDE);
+        this.pRegionOffsets = MemoryUtil.nmemAlloc((long) this.regionCapacity * REGION_OFFSET_STRIDE);
+    }
+
+    public void clear() {
+        this.commandCount = 0;
+        this.regionCount = 0;
+    }
+
+    /**
+     * Appends the commands which need to be drawn for a region, as given by {@link SectionDrawCommandStorage#getDrawOffset()}
+     * and {@link SectionDrawCommandStorage#getDrawCount()}. Regions without any visible commands are skipped, and
+     * don't take up a slot.
+     *
+     * @param x The offset of the region's origin relative to the camera on the x-axis
+     * @param y The offset of the region's origin relative to the camera on the y-axis
+     * @param z The offset of the region's origin relative to the camera on the z-axis
+     */
+    public void addRegion(SectionDrawCommandStorage commands, float x, float y, float z) {
+        if (commands.isEmpty()) {
+            return;
+        }
+
+        int drawCount = commands.getDrawCount();
+        this.ensureCapacity(this.commandCount + drawCount, this.regionCount + 1);
+
+        long pDst = this.pCommands + ((long) this.commandCount * SectionDrawCommandStorage.COMMAND_STRIDE);
+        MemoryUtil.memCopy(commands.getDataPointer() + commands.getDrawOffset(), pDst,
+                (long) drawCount * SectionDrawCommandStorage.COMMAND_STRIDE);
+
+        for (int i = 0; i < drawCount; i++) {
+            MemoryUtil.memPutInt(pDst + ((long) i * SectionDrawCommandStorage.COMMAND_STRIDE) + OFFSET_BASE_INSTANCE, this.regionCount);
+        }
+
+        long pOffset = this.pRegionOffsets + ((long) this.regionCount * REGION_OFFSET_STRIDE);
+        MemoryUtil.memPutFloat(pOffset + 0, x);
+        MemoryUtil.memPutFloat(pOffset + 4, y);
+        MemoryUtil.memPutFloat(pOffset + 8, z);
+
+        this.commandCount += drawCount;
+        this.regionCount++;
+    }
+
+    private void ensureCapacity(int commandCount, int regionCount) {
+        if (commandCount > this.commandCapacity) {
+            this.commandCapacity = Math.max(this.commandCapacity * 2, commandCount);
+            this.pCommands = MemoryUtil.nmemRealloc(this.pCommands, (long) this.commandCapacity * SectionDrawCommandStorage.COMMAND_STRIDE);
+        }
+
+        if (regionCount > this.regionCapacity) {
+            this.regionCapacity = Math.max(this.regionCapacity * 2, regionCount);
+            this.pRegionOffsets = MemoryUtil.nmemRealloc(this.pRegionOffsets, (long) this.regionCapacity * REGION_OFFSET_STRIDE);
+        }
+    }
+
+    public boolean isEmpty() {
+        return this.commandCount == 0;
+    }
+
+    public int getCommandCount() {
+        return this.commandCount;
+    }
+
+    public int getRegionCount() {
+        return this.regionCount;
+    }
+
+    public long getCommandPointer() {
+        return this.pCommands;
+    }
+
+    public int getCommandBytes() {
+        return this.commandCount * SectionDrawCommandStorage.COMMAND_STRIDE;
+    }
+
+    public long getRegionOffsetPointer() {
+        return this.pRegionOffsets;
+    }
+
+    public int getRegionOffsetBytes() {
+        return this.regionCount * REGION_OFFSET_STRIDE;
+    }
+
+    public void delete() {
+        MemoryUtil.nmemFree(this.pCommands);
+        MemoryUtil.nmemFree(this.pRegionOffsets);
+    }
+}
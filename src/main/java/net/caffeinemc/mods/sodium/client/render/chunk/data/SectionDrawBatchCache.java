@@ -0,0 +1,114 @@
+package net.caffeinemc.mods.sodium.client.render.chunk.data;
+
+import net.caffeinemc.mods.sodium.client.gl.device.MultiDrawBatch;
+import net.caffeinemc.mods.sodium.client.model.quad.properties.ModelQuadFacing;
+import net.caffeinemc.mods.sodium.client.render.chunk.lists.ChunkRenderList;
+import net.caffeinemc.mods.sodium.client.render.chunk.region.RenderRegion;
+
+/**
+ * Retains the draw commands of one region and render pass between frames, so that they only need to be rebuilt
+ * when something which affects them has changed. This is the case when the render data storage was modified (which
+ * includes uploads, evictions and changes of the buffer offsets), when the sections in the render list have changed,
+ * or when the camera moved far enough to change the faces which are visible.
+ *
+ * The batch is sized for the number of sections in the render list, so that regions which are only partially
+ * visible don't need storage for every possible command.
+ *
+ * The batch may be filled on another thread after {@link #begin} was called on the render thread. Finishing it with
+ * {@link #end()} publishes its contents to the render thread.
+ */
+public class SectionDrawBatchCache {
+    private static final int MAX_CAPACITY = (ModelQuadFacing.COUNT * RenderRegion.REGION_SIZE) + 1;
+
+    private MultiDrawBatch batch;
+    private volatile boolean valid;
+
+    private SectionRenderDataStorage storage;
+    private int storageRevision;
+
+    private final byte[] sections = new byte[RenderRegion.REGION_SIZE];
+    private int sectionCount;
+
+    private int visibilityKeyX, visibilityKeyY, visibilityKeyZ;
+
+    private int indexBufferSize;
+
+    /**
+     * @return True if the cached batch was built from the same inputs and can be drawn again
+     */
+    public boolean isValid(SectionRenderDataStorage storage, ChunkRenderList renderList,
+                           int visibilityKeyX, int visibilityKeyY, int visibilityKeyZ) {
+        return this.valid &&
+                this.storage == storage &&
+                this.storageRevision == storage.getRevision() &&
+                this.visibilityKeyX == visibilityKeyX &&
+                this.visibilityKeyY == visibilityKeyY &&
+                this.visibilityKeyZ == visibilityKeyZ &&
+                renderList.hasSectionsWithGeometry(this.sections, this.sectionCount);
+    }
+
+    /**
+     * Prepares the batch for being rebuilt from the given inputs.
+     *
+     * @return The cleared batch, which must be filled and then passed to {@link #end()}
+     */
+    public MultiDrawBatch begin(SectionRenderDataStorage storage, ChunkRenderList renderList,
+                                int visibilityKeyX, int visibilityKeyY, int visibilityKeyZ) {
+        this.storage = storage;
+        this.storageRevision = storage.getRevision();
+
+        this.sectionCount = renderList.copySectionsWithGeometry(this.sections);
+
+        this.visibilityKeyX = visibilityKeyX;
+        this.visibilityKeyY = visibilityKeyY;
+        this.visibilityKeyZ = visibilityKeyZ;
+
+        int capacity = (ModelQuadFacing.COUNT * this.sectionCount) + 1;
+
+        if (this.batch == null || this.batch.capacity() < capacity) {
+            if (this.batch != null) {
+                capacity = Math.min(Math.max(capacity, this.batch.capacity() * 2), MAX_CAPACITY);
+                this.batch.delete();
+            }
+
+            this.batch = new MultiDrawBatch(capacity);
+        }
+
+        this.batch.clear();
+        this.valid = false;
+
+        return this.batch;
+    }
+
+    public void end() {
+        this.indexBufferSize = this.batch.getIndexBufferSize();
+        this.valid = true;
+    }
+
+    /**
+     * @return True if the batch was finished with {@link #end()} since the last call to {@link #begin}
+     */
+    public boolean isReady() {
+        return this.valid;
+    }
+
+    public MultiDrawBatch getBatch() {
+        return this.batch;
+    }
+
+    /**
+     * @return The number of elements the shared index buffer needs to contain for the batch
+     */
+    public int getIndexBufferSize() {
+        return this.indexBufferSize;
+    }
+
+    public void delete() {
+        if (this.batch != null) {
+            this.batch.delete();
+            this.batch = null;
+        }
+
+        this.valid = false;
+    }
+}
@@ -0,0 +1,211 @@
+package net.caffeinemc.mods.sodium.client.render.chunk.data;
+
+import net.caffeinemc.mods.sodium.client.model.quad.properties.ModelQuadFacing;
+import net.caffeinemc.mods.sodium.client.render.chunk.region.RenderRegion;
+import org.lwjgl.system.MemoryUtil;
+
+import java.util.Arrays;
+
+/**
+ * Stores the indirect draw commands for the sections of one region and render pass, in the layout expected by
+ * {@code glMultiDrawElementsIndirect}. There is one command for every facing of every section, stored at the index
+ * {@code sectionIndex * ModelQuadFacing.COUNT + facing}.
+ *
+ * The commands are derived from a {@link SectionRenderDataStorage} and are only regenerated when its contents
+ * change. Whether a command is drawn is controlled by setting its instance count to either zero or one, so that
+ * changes to the visible sections only patch the affected commands. The range of commands which were modified since
+ * the last upload is tracked, so that only that range needs to be copied to the graphics card.
+ *
+ * This class only operates on native memory and doesn't issue any OpenGL calls. Only sections using the shared
+ * index buffer are supported, as the draw order of the commands is fixed.
+ */
+public class SectionDrawCommandStorage {
+    // struct DrawElementsIndirectCommand { // 20 bytes
+    //   count: u32,
+    //   instance_count: u32,
+    //   first_index: u32,
+    //   base_vertex: i32,
+    //   base_instance: u32
+    // }
+    public static final int COMMAND_STRIDE = 20;
+    public static final int COMMAND_COUNT = RenderRegion.REGION_SIZE * ModelQuadFacing.COUNT;
+    public static final int BUFFER_SIZE = COMMAND_COUNT * COMMAND_STRIDE;
+
+    private static final long OFFSET_COUNT = 0;
+    private static final long OFFSET_INSTANCE_COUNT = 4;
+    private static final long OFFSET_BASE_VERTEX = 12;
+
+    private final long pCommands;
+
+    // The slices of each section whose commands currently have an instance count of one
+    private byte[] visibleSlices = new byte[RenderRegion.REGION_SIZE];
+    private byte[] nextVisibleSlices = new byte[RenderRegion.REGION_SIZE];
+
+    private SectionRenderDataStorage storage;
+    private int storageRevision;
+
+    private int maxElementCount;
+
+    private int firstVisibleSection = RenderRegion.REGION_SIZE;
+    private int lastVisibleSection = -1;
+
+    // The range of commands [dirtyStart, dirtyEnd) which were modified since the last upload
+    private int dirtyStart = COMMAND_COUNT;
+    private int dirtyEnd = 0;
+
+    public SectionDrawCommandStorage() {
+        this.pCommands = MemoryUtil.nmemAlignedAlloc(64, BUFFER_SIZE);
+        MemoryUtil.memSet(this.pCommands, 0x0, BUFFER_SIZE);
+    }
+
+    /**
+     * Regenerates the commands from the given render data storage if it was modified since the last call.
+     */
+    public void updateCommands(SectionRenderDataStorage storage) {
+        if (this.storage == storage && this.storageRevision == storage.getRevision()) {
+            return;
+        }
+
+        this.storage = storage;
+        this.storageRevision = storage.getRevision();
+
+        int maxElementCount = 0;
+
+        for (int sectionIndex = 0; sectionIndex < RenderRegion.REGION_SIZE; sectionIndex++) {
+            var pMeshData = storage.getDataPointer(sectionIndex);
+            var sliceMask = SectionRenderDataUnsafe.getSliceMask(pMeshData);
+
+            for (int facing = 0; facing < ModelQuadFacing.COUNT; facing++) {
+                int elementCount = ((sliceMask >> facing) & 1) != 0 ? SectionRenderDataUnsafe.getElementCount(pMeshData, facing) : 0;
+                int baseVertex = SectionRenderDataUnsafe.getVertexOffset(pMeshData, facing);
+
+                int commandIndex = getCommandIndex(sectionIndex, facing);
+                long pCommand = this.getCommandPointer(commandIndex);
+
+                if (MemoryUtil.memGetInt(pCommand + OFFSET_COUNT) != elementCount ||
+                        MemoryUtil.memGetInt(pCommand + OFFSET_BASE_VERTEX) != baseVertex) {
+                    MemoryUtil.memPutInt(pCommand + OFFSET_COUNT, elementCount);
+                    MemoryUtil.memPutInt(pCommand + OFFSET_BASE_VERTEX, baseVertex);
+                    this.markDirty(commandIndex);
+                }
+
+                maxElementCount = Math.max(maxElementCount, elementCount);
+            }
+        }
+
+        this.maxElementCount = maxElementCount;
+    }
+
+    public void beginVisibilityUpdate() {
+        Arrays.fill(this.nextVisibleSlices, (byte) 0);
+    }
+
+    public void setVisibleSlices(int sectionIndex, int slices) {
+        this.nextVisibleSlices[sectionIndex] = (byte) slices;
+    }
+
+    /**
+     * Patches the instance count of every command whose visibility changed since the last update.
+     */
+    public void endVisibilityUpdate() {
+        var prev = this.visibleSlices;
+        var next = this.nextVisibleSlices;
+
+        int firstVisibleSection = RenderRegion.REGION_SIZE;
+        int lastVisibleSection = -1;
+
+        for (int sectionIndex = 0; sectionIndex < RenderRegion.REGION_SIZE; sectionIndex++) {
+            int slices = next[sectionIndex];
+            int changed = slices ^ prev[sectionIndex];
+
+            while (changed != 0) {
+                int facing = Integer.numberOfTrailingZeros(changed);
+                int commandIndex = getCommandIndex(sectionIndex, facing);
+
+                MemoryUtil.memPutInt(this.getCommandPointer(commandIndex) + OFFSET_INSTANCE_COUNT, (slices >> facing) & 1);
+                this.markDirty(commandIndex);
+
+                changed &= changed - 1;
+            }
+
+            if (slices != 0) {
+                firstVisibleSection = Math.min(firstVisibleSection, sectionIndex);
+                lastVisibleSection = sectionIndex;
+            }
+        }
+
+        this.visibleSlices = next;
+        this.nextVisibleSlices = prev;
+
+        this.firstVisibleSection = firstVisibleSection;
+        this.lastVisibleSection = lastVisibleSection;
+    }
+
+    public boolean isEmpty() {
+        return this.lastVisibleSection < 0;
+    }
+
+    /**
+     * @return The offset in bytes of the first command which needs to be drawn
+     */
+    public long getDrawOffset() {
+        return (long) getCommandIndex(this.firstVisibleSection, 0) * COMMAND_STRIDE;
+    }
+
+    /**
+     * @return The number of commands starting at {@link #getDrawOffset()} which need to be drawn
+     */
+    public int getDrawCount() {
+        return (this.lastVisibleSection - this.firstVisibleSection + 1) * ModelQuadFacing.COUNT;
+    }
+
+    public int getMaxElementCount() {
+        return this.maxElementCount;
+    }
+
+    public boolean hasDirtyCommands() {
+        return this.dirtyStart < this.dirtyEnd;
+    }
+
+    public int getDirtyOffset() {
+        return this.dirtyStart * COMMAND_STRIDE;
+    }
+
+    public int getDirtyLength() {
+        return (this.dirtyEnd - this.dirtyStart) * COMMAND_STRIDE;
+    }
+
+    public long getDataPointer() {
+        return this.pCommands;
+    }
+
+    /**
+     * Marks every command as modified, such as when the commands need to be copied into a new buffer.
+     */
+    public void markAllDirty() {
+        this.dirtyStart = 0;
+        this.dirtyEnd = COMMAND_COUNT;
+    }
+
+    public void clearDirtyCommands() {
+        this.dirtyStart = COMMAND_COUNT;
+        this.dirtyEnd = 0;
+    }
+
+    private void markDirty(int commandIndex) {
+        this.dirtyStart = Math.min(this.dirtyStart, commandIndex);
+        this.dirtyEnd = Math.max(this.dirtyEnd, commandIndex + 1);
+    }
+
+    private long getCommandPointer(int commandIndex) {
+        return this.pCommands + ((long) commandIndex * COMMAND_STRIDE);
+    }
+
+    private static int getCommandIndex(int sectionIndex, int facing) {
+        return (sectionIndex * ModelQuadFacing.COUNT) + facing;
+    }
+
+    public void delete() {
+        MemoryUtil.nmemAlignedFree(this.pCommands);
+    }
+}
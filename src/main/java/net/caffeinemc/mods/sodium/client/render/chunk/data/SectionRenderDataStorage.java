@@ -1,6 +1,7 @@
 package net.caffeinemc.mods.sodium.client.render.chunk.data;
 
 import net.caffeinemc.mods.sodium.client.gl.arena.GlBufferSegment;
+import net.caffeinemc.mods.sodium.client.gl.tessellation.GlIndexType;
 import net.caffeinemc.mods.sodium.client.gl.util.VertexRange;
 import net.caffeinemc.mods.sodium.client.model.quad.properties.ModelQuadFacing;
 import net.caffeinemc.mods.sodium.client.render.chunk.region.RenderRegion;
@@ -18,15 +19,19 @@ import java.util.Arrays;
  * by {@code pMeshDataArray} and accessed through
  * {@link SectionRenderDataUnsafe}.
  * 
- * When the backing buffer (from the gl buffer arena) is resized, the storage
- * object is notified and then it updates the changed offsets of the buffer
- * segments. Since the index data's size and alignment directly corresponds to
+ * When data in the backing buffer (from the gl buffer arena) is moved, such as
+ * when the arena is resized or compacted, the storage object is notified and
+ * then it updates the offsets of the buffer segments which changed. Since the index data's size and alignment directly corresponds to
  * that of the vertex data except for the vertex/index scaling of two thirds,
  * only an offset to the index data within the index data buffer arena is
- * stored.
+ * stored, together with a flag for sections whose indices are only 16 bits
+ * wide.
  * 
  * Index and vertex data storage can be managed separately since they may be
  * updated independently of each other (in both directions).
+ * 
+ * Every modification of the stored data increments a revision counter, which
+ * allows data derived from the storage to be updated only when needed.
  */
 public class SectionRenderDataStorage {
     private final @Nullable GlBufferSegment[] vertexAllocations;
@@ -34,6 +39,8 @@ public class SectionRenderDataStorage {
 
     private final long pMeshDataArray;
 
+    private int revision;
+
     public SectionRenderDataStorage(boolean storesIndices) {
         this.vertexAllocations = new GlBufferSegment[RenderRegion.REGION_SIZE];
 
@@ -55,6 +62,7 @@ public class SectionRenderDataStorage {
         }
 
         this.vertexAllocations[localSectionIndex] = allocation;
+        this.revision++;
 
         var pMeshData = this.getDataPointer(localSectionIndex);
 
@@ -84,7 +92,7 @@ public class SectionRenderDataStorage {
         SectionRenderDataUnsafe.setSliceMask(pMeshData, sliceMask);
     }
 
-    public void setIndexData(int localSectionIndex, GlBufferSegment allocation) {
+    public void setIndexData(int localSectionIndex, GlBufferSegment allocation, GlIndexType indexType) {
         if (this.elementAllocations == null) {
             throw new IllegalStateException("Cannot set index data when storesIndices is false");
         }
@@ -96,11 +104,24 @@ public class SectionRenderDataStorage {
         }
 
         this.elementAllocations[localSectionIndex] = allocation;
+        this.revision++;
 
         var pMeshData = this.getDataPointer(localSectionIndex);
 
-        SectionRenderDataUnsafe.setBaseElement(pMeshData,
-                allocation.getOffset() | SectionRenderDataUnsafe.BASE_ELEMENT_MSB);
+        int flags = SectionRenderDataUnsafe.BASE_ELEMENT_MSB;
+
+        if (indexType == GlIndexType.UNSIGNED_SHORT) {
+            flags |= SectionRenderDataUnsafe.BASE_ELEMENT_SHORT_INDICES;
+        } else if (indexType != GlIndexType.UNSIGNED_INT) {
+            throw new IllegalArgumentException("Unsupported index type: " + indexType);
+        }
+
+        SectionRenderDataUnsafe.setBaseElement(pMeshData, allocation.getOffset() | flags);
+    }
+
+    public boolean hasData(int localSectionIndex) {
+        return this.vertexAllocations[localSectionIndex] != null
+                || (this.elementAllocations != null && this.elementAllocations[localSectionIndex] != null);
     }
 
     public void removeData(int localSectionIndex) {
@@ -125,6 +146,7 @@ public class SectionRenderDataStorage {
         prev.delete();
 
         this.vertexAllocations[localSectionIndex] = null;
+        this.revision++;
 
         var pMeshData = this.getDataPointer(localSectionIndex);
 
@@ -147,48 +169,90 @@ public class SectionRenderDataStorage {
 
         if (prev != null) {
             prev.delete();
+            this.revision++;
         }
 
         allocations[localSectionIndex] = null;
     }
 
-    public void onBufferResized() {
+    /**
+     * Updates the offsets of the sections whose vertex data was moved within the arena. The revision is only
+     * incremented if any section was affected, so that data derived from other sections stays valid.
+     */
+    public void onVertexDataMoved() {
+        boolean changed = false;
+
         for (int sectionIndex = 0; sectionIndex < RenderRegion.REGION_SIZE; sectionIndex++) {
-            this.updateMeshes(sectionIndex);
+            changed |= this.updateMeshes(sectionIndex);
+        }
+
+        if (changed) {
+            this.revision++;
         }
     }
 
-    private void updateMeshes(int sectionIndex) {
+    private boolean updateMeshes(int sectionIndex) {
         var allocation = this.vertexAllocations[sectionIndex];
 
         if (allocation == null) {
-            return;
+            return false;
         }
 
         var offset = allocation.getOffset();
         var data = this.getDataPointer(sectionIndex);
 
+        // the first facing always starts at the beginning of the allocation
+        if (SectionRenderDataUnsafe.getVertexOffset(data, 0) == offset) {
+            return false;
+        }
+
         for (int facing = 0; facing < ModelQuadFacing.COUNT; facing++) {
             SectionRenderDataUnsafe.setVertexOffset(data, facing, offset);
 
             var count = SectionRenderDataUnsafe.getElementCount(data, facing);
             offset += (count / 6) * 4; // convert elements back into vertices
         }
+
+        return true;
     }
 
-    public void onIndexBufferResized() {
+    /**
+     * Updates the offsets of the sections whose index data was moved within the arena. Like
+     * {@link #onVertexDataMoved()}, the revision is only incremented if any section was affected.
+     */
+    public void onIndexDataMoved() {
         if (this.elementAllocations == null) {
             return;
         }
 
+        boolean changed = false;
+
         for (int sectionIndex = 0; sectionIndex < RenderRegion.REGION_SIZE; sectionIndex++) {
             var allocation = this.elementAllocations[sectionIndex];
 
-            if (allocation != null) {
-                SectionRenderDataUnsafe.setBaseElement(this.getDataPointer(sectionIndex),
-                        allocation.getOffset() | SectionRenderDataUnsafe.BASE_ELEMENT_MSB);
+            if (allocation == null) {
+                continue;
+            }
+
+            var pMeshData = this.getDataPointer(sectionIndex);
+            int baseElement = SectionRenderDataUnsafe.getBaseElement(pMeshData);
+
+            // retain the index type of the section's data, only the offset has changed
+            int flags = baseElement & SectionRenderDataUnsafe.BASE_ELEMENT_FLAGS;
+
+            if ((baseElement & ~SectionRenderDataUnsafe.BASE_ELEMENT_FLAGS) != allocation.getOffset()) {
+                SectionRenderDataUnsafe.setBaseElement(pMeshData, allocation.getOffset() | flags);
+                changed = true;
             }
         }
+
+        if (changed) {
+            this.revision++;
+        }
+    }
+
+    public int getRevision() {
+        return this.revision;
     }
 
     public long getDataPointer(int sectionIndex) {
@@ -29,6 +29,13 @@ import org.lwjgl.system.MemoryUtil;
 public class SectionRenderDataUnsafe {
     public static final int BASE_ELEMENT_MSB = 1 << 31;
 
+    /**
+     * Set in addition to {@link #BASE_ELEMENT_MSB} when the section's index data consists of 16-bit indices.
+     */
+    public static final int BASE_ELEMENT_SHORT_INDICES = 1 << 30;
+
+    public static final int BASE_ELEMENT_FLAGS = BASE_ELEMENT_MSB | BASE_ELEMENT_SHORT_INDICES;
+
     /**
      * When the "base element" field is not specified (indicated by setting the MSB to 0), the indices for the geometry set
      * should be sourced from a monotonic sequence (see {@link net.caffeinemc.mods.sodium.client.render.chunk.SharedQuadIndexBuffer}).
@@ -8,6 +8,8 @@ import net.caffeinemc.mods.sodium.client.util.iterator.ByteArrayIterator;
 import net.caffeinemc.mods.sodium.client.render.chunk.region.RenderRegion;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Arrays;
+
 public class ChunkRenderList {
     private final RenderRegion region;
 
@@ -65,6 +67,25 @@ public class ChunkRenderList {
         return new ReversibleByteArrayIterator(this.sectionsWithGeometry, this.sectionsWithGeometryCount, reverse);
     }
 
+    /**
+     * @return True if the sections with geometry are exactly the given sections, in the same order
+     */
+    public boolean hasSectionsWithGeometry(byte[] sections, int count) {
+        return this.sectionsWithGeometryCount == count &&
+                Arrays.equals(this.sectionsWithGeometry, 0, count, sections, 0, count);
+    }
+
+    /**
+     * Copies the indices of the sections with geometry into the given array.
+     *
+     * @return The number of sections which were copied
+     */
+    public int copySectionsWithGeometry(byte[] dst) {
+        System.arraycopy(this.sectionsWithGeometry, 0, dst, 0, this.sectionsWithGeometryCount);
+
+        return this.sectionsWithGeometryCount;
+    }
+
     public @Nullable ByteIterator sectionsWithSpritesIterator() {
         if (this.sectionsWithSpritesCount == 0) {
             return null;
@@ -31,14 +31,16 @@ public class SortedRenderLists implements ChunkRenderListIterable {
     public static class Builder {
         private final ObjectArrayList<ChunkRenderList> lists = new ObjectArrayList<>();
         private final int frame;
+        private final int renderListBuffer;
 
-        public Builder(int frame) {
+        public Builder(int frame, int renderListBuffer) {
             this.frame = frame;
+            this.renderListBuffer = renderListBuffer;
         }
 
         public void add(RenderSection section) {
             RenderRegion region = section.getRegion();
-            ChunkRenderList list = region.getRenderList();
+            ChunkRenderList list = region.getRenderList(this.renderListBuffer);
 
             // Even if a section does not have render objects, we must ensure the render list is initialized and put
             // into the sorted queue of lists, so that we maintain the correct order of draw calls.
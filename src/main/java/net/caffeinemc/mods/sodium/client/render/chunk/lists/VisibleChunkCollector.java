@@ -17,9 +17,15 @@ public class VisibleChunkCollector implements OcclusionCuller.Visitor {
     private final EnumMap<ChunkUpdateType, ArrayDeque<RenderSection>> sortedRebuildLists;
 
     private final int frame;
+    private final int renderListBuffer;
 
-    public VisibleChunkCollector(int frame) {
+    /**
+     * @param renderListBuffer Which of the render lists of each region are filled, this must not be the one which
+     *                         is being drawn while the search runs
+     */
+    public VisibleChunkCollector(int frame, int renderListBuffer) {
         this.frame = frame;
+        this.renderListBuffer = renderListBuffer;
 
         this.sortedRenderLists = new ObjectArrayList<>();
         this.sortedRebuildLists = new EnumMap<>(ChunkUpdateType.class);
@@ -32,7 +38,7 @@ public class VisibleChunkCollector implements OcclusionCuller.Visitor {
     @Override
     public void visit(RenderSection section, boolean visible) {
         RenderRegion region = section.getRegion();
-        ChunkRenderList renderList = region.getRenderList();
+        ChunkRenderList renderList = region.getRenderList(this.renderListBuffer);
 
         // Even if a section does not have render objects, we must ensure the render list is initialized and put
         // into the sorted queue of lists, so that we maintain the correct order of draw calls.
@@ -46,13 +52,15 @@ public class VisibleChunkCollector implements OcclusionCuller.Visitor {
             renderList.add(section);
         }
 
-        this.addToRebuildLists(section);
+        this.addToRebuildLists(section, visible);
     }
 
-    private void addToRebuildLists(RenderSection section) {
+    private void addToRebuildLists(RenderSection section, boolean visible) {
         ChunkUpdateType type = section.getPendingUpdate();
 
-        if (type != null && section.getTaskCancellationToken() == null) {
+        // sections with evicted meshes are only rebuilt once they're actually visible, otherwise they could be
+        // rebuilt right after being evicted
+        if (type != null && section.getTaskCancellationToken() == null && (visible || !section.isMeshEvicted())) {
             Queue<RenderSection> queue = this.sortedRebuildLists.get(type);
 
             if (queue.size() < type.getMaximumQueueSize()) {
@@ -68,4 +76,8 @@ public class VisibleChunkCollector implements OcclusionCuller.Visitor {
     public Map<ChunkUpdateType, ArrayDeque<RenderSection>> getRebuildLists() {
         return this.sortedRebuildLists;
     }
+
+    public int getRenderListBuffer() {
+        return this.renderListBuffer;
+    }
 }
@@ -0,0 +1,184 @@
+package net.caffeinemc.mods.sodium.client.render.chunk.occlusion;
+
+import net.caffeinemc.mods.sodium.client.render.viewport.CameraTransform;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+
+import java.util.Arrays;
+
+/**
+ * Keeps track of the topmost vertical run of opaque sections in each chunk column, and uses it to find sections which
+ * are hidden below the horizon formed by the terrain between them and the camera. A section is opaque if its
+ * visibility data doesn't connect any two of its faces, which means that no line of sight can pass through it.
+ *
+ * <p>A box is hidden if there is some distance at which every line of sight from the camera to the box passes through
+ * opaque sections. For each chunk column between the camera and the box, the points at which the lines of sight cross
+ * it form a smaller copy of the box, scaled towards the camera. If that copy lies entirely within the opaque runs of
+ * the columns it overlaps, the box can't be seen. Only the columns strictly between the camera and the box are
+ * considered, since a line of sight which ends within an opaque section doesn't need to leave it.</p>
+ *
+ * <p>The runs are stored in a dense array which wraps around horizontally, like the section index of the render
+ * section manager. Columns which don't fit into it are simply not tracked, which only makes the test less effective.</p>
+ */
+class HorizonMap {
+    // The client chunk cache keeps chunks within this many chunks beyond the render distance
+    private static final int CHUNK_CACHE_MARGIN = 3;
+
+    private static final int NO_RUN = Integer.MIN_VALUE;
+
+    private final SectionGraph graph;
+    private final int minSectionY, maxSectionY;
+
+    private final int diameter;
+    private final long[] columnPositions;
+    private final int[] columnRuns;
+
+    HorizonMap(SectionGraph graph, Level level, int renderDistance) {
+        this.graph = graph;
+        this.minSectionY = level.getMinSection();
+        this.maxSectionY = level.getMaxSection();
+
+        this.diameter = ((Math.max(2, renderDistance) + CHUNK_CACHE_MARGIN) * 2) + 1;
+        this.columnPositions = new long[this.diameter * this.diameter];
+        this.columnRuns = new int[this.diameter * this.diameter];
+
+        Arrays.fill(this.columnRuns, NO_RUN);
+    }
+
+    /**
+     * Updates the opaque run of the column containing the given section. This must be called whenever a section is
+     * added to or removed from the graph, or its visibility data changes.
+     */
+    void updateColumn(int x, int z) {
+        int top = this.maxSectionY - 1;
+
+        while (top >= this.minSectionY && !this.isOpaque(x, top, z)) {
+            top--;
+        }
+
+        int bottom = top;
+
+        while (bottom > this.minSectionY && this.isOpaque(x, bottom - 1, z)) {
+            bottom--;
+        }
+
+        int index = this.getIndex(x, z);
+        long position = ChunkPos.asLong(x, z);
+
+        if (top < this.minSectionY) {
+            // only clear the cell if it belongs to this column
+            if (this.columnPositions[index] == position) {
+                this.columnRuns[index] = NO_RUN;
+            }
+
+            return;
+        }
+
+        this.columnPositions[index] = position;
+        this.columnRuns[index] = packRun(bottom, top);
+    }
+
+    private boolean isOpaque(int x, int y, int z) {
+        int node = this.graph.getNode(x, y, z);
+
+        // sections which haven't been built yet have no visibility data, which would otherwise count as opaque
+        return node != SectionGraph.NULL_NODE &&
+                this.graph.getSection(node).isBuilt() &&
+                !VisibilityEncoding.hasConnectionsBetweenFaces(this.graph.getVisibilityData(node));
+    }
+
+    /**
+     * @return True if every line of sight from the camera to the box (in world space) passes through opaque sections
+     */
+    boolean isBoxHidden(CameraTransform camera, double minX, double minY, double minZ,
+                        double maxX, double maxY, double maxZ) {
+        double cameraX = camera.x, cameraY = camera.y, cameraZ = camera.z;
+
+        double centerX = ((minX + maxX) * 0.5) - cameraX;
+        double centerZ = ((minZ + maxZ) * 0.5) - cameraZ;
+
+        // step through the columns along the axis in which the box is farthest away
+        boolean alongX = Math.abs(centerX) >= Math.abs(centerZ);
+        double center = alongX ? centerX : centerZ;
+        double cameraA = alongX ? cameraX : cameraZ;
+
+        int cameraColumn = blockToSection(cameraA);
+        int boxMinColumn = blockToSection(alongX ? minX : minZ);
+        int boxMaxColumn = blockToSection(alongX ? maxX : maxZ);
+        int step = center > 0.0 ? 1 : -1;
+
+        for (int column = cameraColumn + step; step > 0 ? column < boxMinColumn : column > boxMaxColumn; column += step) {
+            // the distance at which the scaled box is centered on this column
+            double t = (((column << 4) + 8.0) - cameraA) / center;
+
+            if (this.isScaledBoxHidden(t, alongX, cameraColumn, boxMinColumn, boxMaxColumn,
+                    cameraX, cameraY, cameraZ, minX, minY, minZ, maxX, maxY, maxZ)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private boolean isScaledBoxHidden(double t, boolean alongX, int cameraColumn, int boxMinColumn, int boxMaxColumn,
+                                      double cameraX, double cameraY, double cameraZ,
+                                      double minX, double minY, double minZ, double maxX, double maxY, double maxZ) {
+        int x0 = blockToSection(cameraX + ((minX - cameraX) * t));
+        int x1 = blockToSection(cameraX + ((maxX - cameraX) * t));
+        int z0 = blockToSection(cameraZ + ((minZ - cameraZ) * t));
+        int z1 = blockToSection(cameraZ + ((maxZ - cameraZ) * t));
+
+        // the scaled box must not reach into the columns of the camera or of the box along the stepping axis
+        int a0 = alongX ? x0 : z0;
+        int a1 = alongX ? x1 : z1;
+
+        if ((a0 <= cameraColumn && cameraColumn <= a1) || (a0 <= boxMaxColumn && boxMinColumn <= a1)) {
+            return false;
+        }
+
+        int y0 = blockToSection(cameraY + ((minY - cameraY) * t));
+        int y1 = blockToSection(cameraY + ((maxY - cameraY) * t));
+
+        for (int x = x0; x <= x1; x++) {
+            for (int z = z0; z <= z1; z++) {
+                int run = this.getRun(x, z);
+
+                if (run == NO_RUN || unpackBottom(run) > y0 || unpackTop(run) < y1) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private int getRun(int x, int z) {
+        int index = this.getIndex(x, z);
+
+        if (this.columnPositions[index] != ChunkPos.asLong(x, z)) {
+            return NO_RUN;
+        }
+
+        return this.columnRuns[index];
+    }
+
+    private int getIndex(int x, int z) {
+        return (Math.floorMod(z, this.diameter) * this.diameter) + Math.floorMod(x, this.diameter);
+    }
+
+    private static int blockToSection(double coord) {
+        return ((int) Math.floor(coord)) >> 4;
+    }
+
+    private static int packRun(int bottom, int top) {
+        return (bottom << 16) | (top & 0xFFFF);
+    }
+
+    private static int unpackBottom(int run) {
+        return run >> 16;
+    }
+
+    private static int unpackTop(int run) {
+        return (short) run;
+    }
+}
@@ -1,160 +1,608 @@
 package net.caffeinemc.mods.sodium.client.render.chunk.occlusion;
 
-import it.unimi.dsi.fastutil.longs.Long2ReferenceMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 import net.caffeinemc.mods.sodium.client.render.chunk.RenderSection;
+import net.caffeinemc.mods.sodium.client.render.chunk.region.RenderRegion;
 import net.caffeinemc.mods.sodium.client.render.viewport.CameraTransform;
 import net.caffeinemc.mods.sodium.client.render.viewport.Viewport;
-import net.caffeinemc.mods.sodium.client.util.collections.DoubleBufferedQueue;
-import net.caffeinemc.mods.sodium.client.util.collections.ReadQueue;
-import net.caffeinemc.mods.sodium.client.util.collections.WriteQueue;
+import net.caffeinemc.mods.sodium.client.render.viewport.frustum.Frustum;
 import net.minecraft.core.SectionPos;
 import net.minecraft.util.Mth;
 import net.minecraft.world.level.Level;
-import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 public class OcclusionCuller {
-    private final Long2ReferenceMap<RenderSection> sections;
+    private final SectionGraph graph;
     private final Level level;
 
-    private final DoubleBufferedQueue<RenderSection> queue = new DoubleBufferedQueue<>();
+    private final WavefrontSearch wavefrontSearch;
 
-    public OcclusionCuller(Long2ReferenceMap<RenderSection> sections, Level level) {
-        this.sections = sections;
+    private OcclusionRasterizer rasterizer;
+    private OcclusionRasterizerSettings rasterizerSettings;
+    private OcclusionRasterizer activeRasterizer;
+
+    private final HorizonMap horizonMap;
+    private HorizonMap activeHorizonMap;
+
+    // The nodes of the current layer of the graph search, and the nodes of the next layer
+    private IntArrayList readQueue = new IntArrayList();
+    private IntArrayList writeQueue = new IntArrayList();
+
+    // The nodes reached by the last cached traversal in the order of the graph search, and the end index of each
+    // layer of the search within that list. This is only valid while the camera stays within the same section.
+    private final IntArrayList traversal = new IntArrayList();
+    private final IntArrayList traversalLayerEnds = new IntArrayList();
+    private final IntArrayList hiddenNodes = new IntArrayList();
+
+    private boolean traversalValid;
+    private boolean traversalLayered;
+    private SectionPos traversalOrigin;
+    private float traversalSearchDistance;
+    private boolean traversalUseOcclusionCulling;
+
+    // The first layer of the cached traversal which needs to be searched again, or NO_DIRTY_LAYER if it is up-to-date
+    private static final int NO_DIRTY_LAYER = Integer.MAX_VALUE;
+    private int traversalDirtyLayer = NO_DIRTY_LAYER;
+
+    public OcclusionCuller(SectionGraph graph, Level level, int renderDistance) {
+        this.graph = graph;
         this.level = level;
+
+        this.wavefrontSearch = new WavefrontSearch(graph);
+        this.horizonMap = new HorizonMap(graph, level, renderDistance);
     }
 
+    /**
+     * @param rasterizerSettings If not null, opaque sections close to the camera are also drawn into a depth buffer on
+     *                           the CPU, and the search stops at sections which are hidden behind them
+     * @param useHorizonCulling Whether to stop the search at sections which are hidden below the opaque terrain
+     *                          between them and the camera
+     */
     public void findVisible(Visitor visitor,
                             Viewport viewport,
                             float searchDistance,
                             boolean useOcclusionCulling,
+                            @Nullable OcclusionRasterizerSettings rasterizerSettings,
+                            boolean useHorizonCulling,
                             int frame)
     {
-        final var queues = this.queue;
-        queues.reset();
+        // this overwrites the state of the graph which the cached traversal depends on
+        this.invalidateTraversal();
+        this.resetQueues();
+
+        this.activeRasterizer = useOcclusionCulling && rasterizerSettings != null ? this.beginRasterizer(viewport, rasterizerSettings) : null;
+        this.activeHorizonMap = useOcclusionCulling && useHorizonCulling ? this.horizonMap : null;
+
+        this.init(visitor, viewport, searchDistance, useOcclusionCulling, frame);
+
+        while (this.flipQueues()) {
+            this.processQueue(visitor, viewport, searchDistance, useOcclusionCulling, frame);
+        }
 
-        this.init(visitor, queues.write(), viewport, searchDistance, useOcclusionCulling, frame);
+        this.activeRasterizer = null;
+        this.activeHorizonMap = null;
+    }
+
+    private OcclusionRasterizer beginRasterizer(Viewport viewport, OcclusionRasterizerSettings settings) {
+        var viewProjection = viewport.getViewProjection();
+
+        if (viewProjection == null) {
+            return null;
+        }
 
-        while (queues.flip()) {
-            processQueue(visitor, viewport, searchDistance, useOcclusionCulling, frame, queues.read(), queues.write());
+        if (this.rasterizer == null || this.rasterizerSettings.width() != settings.width() || this.rasterizerSettings.height() != settings.height()) {
+            this.rasterizer = new OcclusionRasterizer(settings.width(), settings.height());
         }
+
+        this.rasterizerSettings = settings;
+
+        this.rasterizer.begin(viewProjection);
+
+        return this.rasterizer;
     }
 
-    private static void processQueue(Visitor visitor,
-                                     Viewport viewport,
-                                     float searchDistance,
-                                     boolean useOcclusionCulling,
-                                     int frame,
-                                     ReadQueue<RenderSection> readQueue,
-                                     WriteQueue<RenderSection> writeQueue)
+    /**
+     * Finds the visible sections like {@link #findVisible}, but processes large layers of the graph search on
+     * multiple threads. The visitor is still only called on the calling thread, once the layer has been processed.
+     * Within each layer, the sections may be visited in a different order than with {@link #findVisible}.
+     */
+    public void findVisibleParallel(Visitor visitor,
+                                    Viewport viewport,
+                                    float searchDistance,
+                                    boolean useOcclusionCulling,
+                                    boolean useHorizonCulling,
+                                    int frame)
     {
-        RenderSection section;
+        this.invalidateTraversal();
+        this.resetQueues();
 
-        while ((section = readQueue.dequeue()) != null) {
-            boolean visible = isSectionVisible(section, viewport, searchDistance);
-            visitor.visit(section, visible);
+        this.activeHorizonMap = useOcclusionCulling && useHorizonCulling ? this.horizonMap : null;
 
-            if (!visible) {
+        this.init(visitor, viewport, searchDistance, useOcclusionCulling, frame);
+
+        while (this.flipQueues()) {
+            final var readQueue = this.readQueue;
+
+            if (readQueue.size() < WavefrontSearch.MIN_PARALLEL_LAYER_SIZE) {
+                this.processQueue(visitor, viewport, searchDistance, useOcclusionCulling, frame);
                 continue;
             }
 
-            int connections;
-
-            {
-                if (useOcclusionCulling) {
-                    // When using occlusion culling, we can only traverse into neighbors for which there is a path of
-                    // visibility through this chunk. This is determined by taking all the incoming paths to this chunk and
-                    // creating a union of the outgoing paths from those.
-                    connections = VisibilityEncoding.getConnections(section.getVisibilityData(), section.getIncomingDirections());
-                } else {
-                    // Not using any occlusion culling, so traversing in any direction is legal.
-                    connections = GraphDirectionSet.ALL;
-                }
+            boolean[] visible = this.wavefrontSearch.processLayer(readQueue, this.writeQueue, viewport, searchDistance,
+                    useOcclusionCulling, this.activeHorizonMap, frame);
 
-                // We can only traverse *outwards* from the center of the graph search, so mask off any invalid
-                // directions.
-                connections &= getOutwardDirections(viewport.getChunkCoord(), section);
+            for (int i = 0; i < readQueue.size(); i++) {
+                visit(visitor, this.graph, readQueue.getInt(i), visible[i], frame);
             }
+        }
+
+        this.activeHorizonMap = null;
+    }
+
+    /**
+     * Finds the visible sections like {@link #findVisible}, but re-uses the graph search of previous calls while the
+     * camera stays within the same section. To make this possible, the cached search doesn't stop at sections outside
+     * the frustum, and the sections it reached are only tested against the frustum afterward. This means that sections
+     * which are only reachable through sections outside the frustum are considered visible as well.
+     *
+     * <p>Changes to the graph which were reported with {@link #onSectionAddedOrRemoved} and
+     * {@link #onSectionVisibilityChanged} only cause the part of the search after the earliest affected layer to be
+     * repeated.</p>
+     */
+    public void findVisibleCached(Visitor visitor,
+                                  Viewport viewport,
+                                  float searchDistance,
+                                  boolean useOcclusionCulling,
+                                  int frame)
+    {
+        if (!this.canReuseTraversal(viewport.getChunkCoord(), searchDistance, useOcclusionCulling)) {
+            this.createTraversal(viewport, searchDistance, useOcclusionCulling, frame);
+        } else if (this.traversalDirtyLayer < this.traversalLayerEnds.size()) {
+            this.patchTraversal(this.traversalDirtyLayer, frame);
+        }
+
+        this.traversalDirtyLayer = NO_DIRTY_LAYER;
+
+        final var graph = this.graph;
+        final var traversal = this.traversal;
+        final var hidden = this.hiddenNodes;
+
+        // Visible sections are passed to the visitor first, so that the sections which are only reachable through
+        // sections outside the frustum don't change the order of the render lists, or take up the rebuild queues
+        for (int i = 0; i < traversal.size(); i++) {
+            int node = traversal.getInt(i);
+
+            // the section containing the camera is always visible
+            if ((i == 0 && this.traversalLayered) || isSectionVisible(graph, node, viewport, searchDistance, frame)) {
+                visit(visitor, graph, node, true, frame);
+            } else {
+                hidden.add(node);
+            }
+        }
 
-            visitNeighbors(writeQueue, section, connections, frame);
+        for (int i = 0; i < hidden.size(); i++) {
+            visit(visitor, graph, hidden.getInt(i), false, frame);
         }
+
+        hidden.clear();
+    }
+
+    /**
+     * Notifies the culler that a section was added to or removed from the graph.
+     */
+    public void onSectionAddedOrRemoved(int x, int y, int z) {
+        // the neighbors in the previous layer of the search can now reach a different set of sections
+        this.markTraversalDirty(this.getTraversalLayer(x, y, z) - 1);
+        this.horizonMap.updateColumn(x, z);
     }
 
-    private static boolean isSectionVisible(RenderSection section, Viewport viewport, float maxDistance) {
-        return isWithinRenderDistance(viewport.getTransform(), section, maxDistance) && isWithinFrustum(viewport, section);
+    /**
+     * Notifies the culler that the visibility data of a section changed.
+     */
+    public void onSectionVisibilityChanged(RenderSection section) {
+        // the layer of the section itself is unaffected, since only its outgoing connections changed
+        this.markTraversalDirty(this.getTraversalLayer(section.getChunkX(), section.getChunkY(), section.getChunkZ()));
+        this.horizonMap.updateColumn(section.getChunkX(), section.getChunkZ());
     }
 
-    private static void visitNeighbors(final WriteQueue<RenderSection> queue, RenderSection section, int outgoing, int frame) {
-        // Only traverse into neighbors which are actually present.
-        // This avoids a null-check on each invocation to enqueue, and since the compiler will see that a null
-        // is never encountered (after profiling), it will optimize it away.
-        outgoing &= section.getAdjacentMask();
+    private int getTraversalLayer(int x, int y, int z) {
+        var origin = this.traversalOrigin;
 
-        // Check if there are any valid connections left, and if not, early-exit.
-        if (outgoing == GraphDirectionSet.NONE) {
+        if (origin == null) {
+            return 0;
+        }
+
+        // every step of the search moves away from the origin, so the layers are the manhattan distance to it
+        return Math.abs(x - origin.getX()) + Math.abs(y - origin.getY()) + Math.abs(z - origin.getZ());
+    }
+
+    private void markTraversalDirty(int layer) {
+        this.traversalDirtyLayer = Math.min(this.traversalDirtyLayer, layer);
+    }
+
+    private void invalidateTraversal() {
+        this.traversalValid = false;
+        this.traversalOrigin = null;
+        this.traversal.clear();
+        this.traversalLayerEnds.clear();
+        this.traversalDirtyLayer = NO_DIRTY_LAYER;
+    }
+
+    private boolean canReuseTraversal(SectionPos origin, float searchDistance, boolean useOcclusionCulling) {
+        if (!this.traversalValid || !origin.equals(this.traversalOrigin) ||
+                searchDistance != this.traversalSearchDistance || useOcclusionCulling != this.traversalUseOcclusionCulling) {
+            return false;
+        }
+
+        // when the search doesn't start from a single section, the layers can't be used to patch it
+        return this.traversalDirtyLayer == NO_DIRTY_LAYER || (this.traversalLayered && this.traversalDirtyLayer >= 0);
+    }
+
+    private void createTraversal(Viewport viewport, float searchDistance, boolean useOcclusionCulling, int frame) {
+        var origin = viewport.getChunkCoord();
+
+        this.traversal.clear();
+        this.traversalLayerEnds.clear();
+
+        this.traversalValid = true;
+        this.traversalOrigin = origin;
+        this.traversalSearchDistance = searchDistance;
+        this.traversalUseOcclusionCulling = useOcclusionCulling;
+
+        this.resetQueues();
+
+        if (origin.getY() < this.level.getMinSection()) {
+            this.traversalLayered = false;
+            this.initOutsideWorldHeight(viewport, searchDistance, frame,
+                    this.level.getMinSection(), GraphDirection.DOWN, false);
+        } else if (origin.getY() >= this.level.getMaxSection()) {
+            this.traversalLayered = false;
+            this.initOutsideWorldHeight(viewport, searchDistance, frame,
+                    this.level.getMaxSection() - 1, GraphDirection.UP, false);
+        } else {
+            this.traversalLayered = true;
+
+            int node = this.graph.getNode(origin.getX(), origin.getY(), origin.getZ());
+
+            if (node == SectionGraph.NULL_NODE) {
+                return;
+            }
+
+            this.graph.setLastVisibleFrame(node, frame);
+            this.graph.setIncomingDirections(node, GraphDirectionSet.NONE);
+
+            this.traversal.add(node);
+            this.traversalLayerEnds.add(this.traversal.size());
+
+            this.expandTraversal(node, true, frame);
+        }
+
+        this.continueTraversal(frame);
+    }
+
+    private void patchTraversal(int layer, int frame) {
+        final var traversal = this.traversal;
+
+        int start = layer == 0 ? 0 : this.traversalLayerEnds.getInt(layer - 1);
+        int end = this.traversalLayerEnds.getInt(layer);
+
+        // The sections up to and including the given layer are kept, and must be marked as visited so that they
+        // aren't enqueued again. Their incoming directions are still valid from when they were last searched.
+        for (int i = 0; i < end; i++) {
+            this.graph.setLastVisibleFrame(traversal.getInt(i), frame);
+        }
+
+        traversal.size(end);
+        this.traversalLayerEnds.size(layer + 1);
+
+        this.resetQueues();
+
+        for (int i = start; i < end; i++) {
+            this.expandTraversal(traversal.getInt(i), layer == 0, frame);
+        }
+
+        this.continueTraversal(frame);
+    }
+
+    private void continueTraversal(int frame) {
+        while (this.flipQueues()) {
+            final var readQueue = this.readQueue;
+
+            for (int i = 0; i < readQueue.size(); i++) {
+                int node = readQueue.getInt(i);
+
+                this.traversal.add(node);
+                this.expandTraversal(node, false, frame);
+            }
+
+            this.traversalLayerEnds.add(this.traversal.size());
+        }
+    }
+
+    private void expandTraversal(int node, boolean isOrigin, int frame) {
+        final var graph = this.graph;
+        var origin = this.traversalOrigin;
+
+        // The exact position of the camera within its section can change without invalidating the traversal, so
+        // sections are searched through if they are within the search distance of any point in the camera's section.
+        if (!isOrigin && !isWithinSearchRadius(origin, graph, node, this.traversalSearchDistance)) {
             return;
         }
 
-        // This helps the compiler move the checks for some invariants upwards.
-        queue.ensureCapacity(6);
+        int connections;
 
-        if (GraphDirectionSet.contains(outgoing, GraphDirection.DOWN)) {
-            visitNode(queue, section.adjacentDown, GraphDirectionSet.of(GraphDirection.UP), frame);
+        if (!this.traversalUseOcclusionCulling) {
+            connections = GraphDirectionSet.ALL;
+        } else if (isOrigin) {
+            connections = VisibilityEncoding.getConnections(graph.getVisibilityData(node));
+        } else {
+            connections = VisibilityEncoding.getConnections(graph.getVisibilityData(node), graph.getIncomingDirections(node));
+        }
+
+        if (!isOrigin) {
+            connections &= getOutwardDirections(origin, graph, node);
+        }
+
+        this.visitNeighbors(node, connections, frame);
+    }
+
+    private void processQueue(Visitor visitor,
+                              Viewport viewport,
+                              float searchDistance,
+                              boolean useOcclusionCulling,
+                              int frame)
+    {
+        final var graph = this.graph;
+        final var readQueue = this.readQueue;
+        final var origin = viewport.getChunkCoord();
+
+        for (int i = 0; i < readQueue.size(); i++) {
+            int node = readQueue.getInt(i);
+
+            boolean visible = isSectionVisible(graph, node, viewport, searchDistance, frame);
+
+            // Sections hidden behind occluders are treated like sections outside the frustum. Everything which could
+            // only be reached through them is hidden as well, since a line of sight to it would pass through
+            // sections which aren't hidden.
+            if (visible && this.activeHorizonMap != null && isBelowHorizon(this.activeHorizonMap, graph, node, viewport)) {
+                visible = false;
+            }
+
+            if (visible && this.activeRasterizer != null && this.isOccluded(this.activeRasterizer, node, viewport)) {
+                visible = false;
+            }
+
+            visit(visitor, graph, node, visible, frame);
+
+            if (!visible) {
+                continue;
+            }
+
+            int connections = getOutgoingConnections(graph, node, origin, useOcclusionCulling);
+
+            this.visitNeighbors(node, connections, frame);
         }
+    }
 
-        if (GraphDirectionSet.contains(outgoing, GraphDirection.UP)) {
-            visitNode(queue, section.adjacentUp, GraphDirectionSet.of(GraphDirection.DOWN), frame);
+    private boolean isOccluded(OcclusionRasterizer rasterizer, int node, Viewport viewport) {
+        final var graph = this.graph;
+        final var camera = viewport.getTransform();
+        final var origin = viewport.getChunkCoord();
+
+        int x = graph.getSectionX(node);
+        int y = graph.getSectionY(node);
+        int z = graph.getSectionZ(node);
+
+        // the section's bounding box (in view space)
+        float minX = ((x << 4) - camera.intX) - camera.fracX;
+        float minY = ((y << 4) - camera.intY) - camera.fracY;
+        float minZ = ((z << 4) - camera.intZ) - camera.fracZ;
+
+        int distance = Math.max(Math.abs(x - origin.getX()), Math.max(Math.abs(y - origin.getY()), Math.abs(z - origin.getZ())));
+
+        // The sections right next to the camera are never hidden, as they are too close to be projected reliably.
+        // The tested box is grown by the same margin as in the frustum check, to account for block models extending
+        // outside the section.
+        if (distance > 1 && rasterizer.isBoxOccluded(
+                minX - CHUNK_SECTION_MARGIN, minY - CHUNK_SECTION_MARGIN, minZ - CHUNK_SECTION_MARGIN,
+                minX + 16.0f + CHUNK_SECTION_MARGIN, minY + 16.0f + CHUNK_SECTION_MARGIN, minZ + 16.0f + CHUNK_SECTION_MARGIN)) {
+            return true;
         }
 
-        if (GraphDirectionSet.contains(outgoing, GraphDirection.NORTH)) {
-            visitNode(queue, section.adjacentNorth, GraphDirectionSet.of(GraphDirection.SOUTH), frame);
+        // Only sections through which no line of sight can pass are used as occluders. This is also the case for
+        // sections which haven't been built yet, so those must be excluded.
+        if (distance <= this.rasterizerSettings.maxOccluderDistance() &&
+                !VisibilityEncoding.hasConnectionsBetweenFaces(graph.getVisibilityData(node)) &&
+                graph.getSection(node).isBuilt()) {
+            rasterizer.drawOccluder(minX, minY, minZ, minX + 16.0f, minY + 16.0f, minZ + 16.0f);
         }
 
-        if (GraphDirectionSet.contains(outgoing, GraphDirection.SOUTH)) {
-            visitNode(queue, section.adjacentSouth, GraphDirectionSet.of(GraphDirection.NORTH), frame);
+        return false;
+    }
+
+    static boolean isBelowHorizon(HorizonMap horizonMap, SectionGraph graph, int node, Viewport viewport) {
+        double minX = graph.getSectionX(node) << 4;
+        double minY = graph.getSectionY(node) << 4;
+        double minZ = graph.getSectionZ(node) << 4;
+
+        // the box is grown by the same margin as in the frustum check, to account for block models extending outside
+        // the section
+        return horizonMap.isBoxHidden(viewport.getTransform(),
+                minX - CHUNK_SECTION_MARGIN, minY - CHUNK_SECTION_MARGIN, minZ - CHUNK_SECTION_MARGIN,
+                minX + 16.0 + CHUNK_SECTION_MARGIN, minY + 16.0 + CHUNK_SECTION_MARGIN, minZ + 16.0 + CHUNK_SECTION_MARGIN);
+    }
+
+    static int getOutgoingConnections(SectionGraph graph, int node, SectionPos origin, boolean useOcclusionCulling) {
+        int connections;
+
+        if (useOcclusionCulling) {
+            // When using occlusion culling, we can only traverse into neighbors for which there is a path of
+            // visibility through this chunk. This is determined by taking all the incoming paths to this chunk and
+            // creating a union of the outgoing paths from those.
+            connections = VisibilityEncoding.getConnections(graph.getVisibilityData(node), graph.getIncomingDirections(node));
+        } else {
+            // Not using any occlusion culling, so traversing in any direction is legal.
+            connections = GraphDirectionSet.ALL;
         }
 
-        if (GraphDirectionSet.contains(outgoing, GraphDirection.WEST)) {
-            visitNode(queue, section.adjacentWest, GraphDirectionSet.of(GraphDirection.EAST), frame);
+        // We can only traverse *outwards* from the center of the graph search, so mask off any invalid
+        // directions.
+        return connections & getOutwardDirections(origin, graph, node);
+    }
+
+    static void visit(Visitor visitor, SectionGraph graph, int node, boolean visible, int frame) {
+        // The frame stamp in the graph is only used to track the progress of the search, so the section object
+        // itself is only touched once it has been reached.
+        RenderSection section = graph.getSection(node);
+        section.setLastVisibleFrame(frame);
+
+        visitor.visit(section, visible);
+    }
+
+    static boolean isSectionVisible(SectionGraph graph, int node, Viewport viewport, float maxDistance, int frame) {
+        int x = graph.getSectionX(node);
+        int y = graph.getSectionY(node);
+        int z = graph.getSectionZ(node);
+
+        // Whole regions which are outside the frustum or render distance are rejected, and whole regions which are
+        // inside of both are accepted, before testing each section individually. The result for each region is
+        // only computed once per search.
+        int region = graph.getRegionCullResult(node, frame);
+
+        if (region == SectionGraph.REGION_CULL_UNKNOWN) {
+            region = getRegionCullResult(viewport, x, y, z, maxDistance);
+            graph.setRegionCullResult(node, frame, region);
         }
 
-        if (GraphDirectionSet.contains(outgoing, GraphDirection.EAST)) {
-            visitNode(queue, section.adjacentEast, GraphDirectionSet.of(GraphDirection.WEST), frame);
+        if (region != REGION_PARTIAL) {
+            return region == REGION_INSIDE;
         }
+
+        return isWithinRenderDistance(viewport.getTransform(), x, y, z, maxDistance) && isWithinFrustum(viewport, x, y, z);
     }
 
-    private static void visitNode(final WriteQueue<RenderSection> queue, @NotNull RenderSection render, int incoming, int frame) {
-        if (render.getLastVisibleFrame() != frame) {
-            // This is the first time we are visiting this section during the given frame, so we must
-            // reset the state.
-            render.setLastVisibleFrame(frame);
-            render.setIncomingDirections(GraphDirectionSet.NONE);
+    private static int getRegionCullResult(Viewport viewport, int x, int y, int z, float maxDistance) {
+        // origin point of the region's bounding box (in block coordinates)
+        int ox = (x & ~(RenderRegion.REGION_WIDTH - 1)) << 4;
+        int oy = (y & ~(RenderRegion.REGION_HEIGHT - 1)) << 4;
+        int oz = (z & ~(RenderRegion.REGION_LENGTH - 1)) << 4;
 
-            queue.enqueue(render);
+        int distance = getRegionDistanceResult(viewport.getTransform(), ox, oy, oz, maxDistance);
+
+        if (distance == REGION_OUTSIDE) {
+            return REGION_OUTSIDE;
         }
 
-        render.addIncomingDirections(incoming);
+        // The region's box is grown by the same margin as the boxes of the sections, so that it contains all of them
+        int frustum = viewport.getBoxIntersection(
+                ox + REGION_HALF_WIDTH, oy + REGION_HALF_HEIGHT, oz + REGION_HALF_LENGTH,
+                REGION_HALF_WIDTH + CHUNK_SECTION_MARGIN, REGION_HALF_HEIGHT + CHUNK_SECTION_MARGIN, REGION_HALF_LENGTH + CHUNK_SECTION_MARGIN);
+
+        if (frustum == Frustum.OUTSIDE) {
+            return REGION_OUTSIDE;
+        } else if (frustum == Frustum.INSIDE && distance == REGION_INSIDE) {
+            return REGION_INSIDE;
+        }
+
+        return REGION_PARTIAL;
     }
 
-    private static int getOutwardDirections(SectionPos origin, RenderSection section) {
+    private static int getRegionDistanceResult(CameraTransform camera, int originX, int originY, int originZ, float maxDistance) {
+        // the region's bounding box (in view space)
+        int minX = originX - camera.intX, maxX = minX + (RenderRegion.REGION_WIDTH << 4);
+        int minY = originY - camera.intY, maxY = minY + (RenderRegion.REGION_HEIGHT << 4);
+        int minZ = originZ - camera.intZ, maxZ = minZ + (RenderRegion.REGION_LENGTH << 4);
+
+        // If even the closest point of the region is too far away, none of its sections are within the distance
+        float nearX = nearestToZero(minX, maxX) - camera.fracX;
+        float nearY = nearestToZero(minY, maxY) - camera.fracY;
+        float nearZ = nearestToZero(minZ, maxZ) - camera.fracZ;
+
+        if (!(((nearX * nearX) + (nearZ * nearZ)) < (maxDistance * maxDistance)) || !(Math.abs(nearY) < maxDistance)) {
+            return REGION_OUTSIDE;
+        }
+
+        // If even the farthest point of the region is close enough, the closest points of all its sections are too
+        float farX = Math.max(Math.abs(minX - camera.fracX), Math.abs(maxX - camera.fracX));
+        float farY = Math.max(Math.abs(minY - camera.fracY), Math.abs(maxY - camera.fracY));
+        float farZ = Math.max(Math.abs(minZ - camera.fracZ), Math.abs(maxZ - camera.fracZ));
+
+        if ((((farX * farX) + (farZ * farZ)) < (maxDistance * maxDistance)) && (farY < maxDistance)) {
+            return REGION_INSIDE;
+        }
+
+        return REGION_PARTIAL;
+    }
+
+    private void visitNeighbors(int node, int outgoing, int frame) {
+        // Check if there are any valid connections left, and if not, early-exit.
+        if (outgoing == GraphDirectionSet.NONE) {
+            return;
+        }
+
+        // Neighbors which aren't loaded are returned as NULL_NODE, and are skipped.
+        for (int direction = 0; direction < GraphDirection.COUNT; direction++) {
+            if (GraphDirectionSet.contains(outgoing, direction)) {
+                int adjacent = this.graph.getAdjacent(node, direction);
+
+                if (adjacent != SectionGraph.NULL_NODE) {
+                    this.visitNode(adjacent, GraphDirectionSet.of(GraphDirection.opposite(direction)), frame);
+                }
+            }
+        }
+    }
+
+    private void visitNode(int node, int incoming, int frame) {
+        // When this is the first time we are visiting this section during the given frame, the graph resets its
+        // incoming directions, and the section must be enqueued.
+        if (this.graph.visit(node, incoming, frame)) {
+            this.writeQueue.add(node);
+        }
+    }
+
+    private void resetQueues() {
+        this.readQueue.clear();
+        this.writeQueue.clear();
+    }
+
+    private boolean flipQueues() {
+        if (this.writeQueue.isEmpty()) {
+            return false;
+        }
+
+        var tmp = this.readQueue;
+        this.readQueue = this.writeQueue;
+        this.writeQueue = tmp;
+
+        this.writeQueue.clear();
+
+        return true;
+    }
+
+    private static int getOutwardDirections(SectionPos origin, SectionGraph graph, int node) {
         int planes = 0;
 
-        planes |= section.getChunkX() <= origin.getX() ? 1 << GraphDirection.WEST  : 0;
-        planes |= section.getChunkX() >= origin.getX() ? 1 << GraphDirection.EAST  : 0;
+        int x = graph.getSectionX(node);
+        int y = graph.getSectionY(node);
+        int z = graph.getSectionZ(node);
+
+        planes |= x <= origin.getX() ? 1 << GraphDirection.WEST  : 0;
+        planes |= x >= origin.getX() ? 1 << GraphDirection.EAST  : 0;
 
-        planes |= section.getChunkY() <= origin.getY() ? 1 << GraphDirection.DOWN  : 0;
-        planes |= section.getChunkY() >= origin.getY() ? 1 << GraphDirection.UP    : 0;
+        planes |= y <= origin.getY() ? 1 << GraphDirection.DOWN  : 0;
+        planes |= y >= origin.getY() ? 1 << GraphDirection.UP    : 0;
 
-        planes |= section.getChunkZ() <= origin.getZ() ? 1 << GraphDirection.NORTH : 0;
-        planes |= section.getChunkZ() >= origin.getZ() ? 1 << GraphDirection.SOUTH : 0;
+        planes |= z <= origin.getZ() ? 1 << GraphDirection.NORTH : 0;
+        planes |= z >= origin.getZ() ? 1 << GraphDirection.SOUTH : 0;
 
         return planes;
     }
 
-    private static boolean isWithinRenderDistance(CameraTransform camera, RenderSection section, float maxDistance) {
+    private static boolean isWithinRenderDistance(CameraTransform camera, int x, int y, int z, float maxDistance) {
         // origin point of the chunk's bounding box (in view space)
-        int ox = section.getOriginX() - camera.intX;
-        int oy = section.getOriginY() - camera.intY;
-        int oz = section.getOriginZ() - camera.intZ;
+        int ox = (x << 4) - camera.intX;
+        int oy = (y << 4) - camera.intY;
+        int oz = (z << 4) - camera.intZ;
 
         // coordinates of the point to compare (in view space)
         // this is the closest point within the bounding box to the center (0, 0, 0)
@@ -167,6 +615,19 @@ public class OcclusionCuller {
         return (((dx * dx) + (dz * dz)) < (maxDistance * maxDistance)) && (Math.abs(dy) < maxDistance);
     }
 
+    private static boolean isWithinSearchRadius(SectionPos origin, SectionGraph graph, int node, float maxDistance) {
+        // the range of offsets between any point in the origin section and any point in the given section
+        int ox = (graph.getSectionX(node) - origin.getX()) << 4;
+        int oy = (graph.getSectionY(node) - origin.getY()) << 4;
+        int oz = (graph.getSectionZ(node) - origin.getZ()) << 4;
+
+        float dx = nearestToZero(ox - 16, ox + 16);
+        float dy = nearestToZero(oy - 16, oy + 16);
+        float dz = nearestToZero(oz - 16, oz + 16);
+
+        return (((dx * dx) + (dz * dz)) < (maxDistance * maxDistance)) && (Math.abs(dy) < maxDistance);
+    }
+
     @SuppressWarnings("ManualMinMaxCalculation") // we know what we are doing.
     private static int nearestToZero(int min, int max) {
         // this compiles to slightly better code than Math.min(Math.max(0, min), max)
@@ -179,15 +640,27 @@ public class OcclusionCuller {
     // The bounding box of a chunk section must be large enough to contain all possible geometry within it. Block models
     // can extend outside a block volume by +/- 1.0 blocks on all axis. Additionally, we make use of a small epsilon
     // to deal with floating point imprecision during a frustum check (see GH#2132).
-    private static final float CHUNK_SECTION_SIZE = 8.0f /* chunk bounds */ + 1.0f /* maximum model extent */ + 0.125f /* epsilon */;
+    private static final float CHUNK_SECTION_MARGIN = 1.0f /* maximum model extent */ + 0.125f /* epsilon */;
+    private static final float CHUNK_SECTION_SIZE = 8.0f /* chunk bounds */ + CHUNK_SECTION_MARGIN;
+
+    private static final int REGION_HALF_WIDTH = RenderRegion.REGION_WIDTH << 3;
+    private static final int REGION_HALF_HEIGHT = RenderRegion.REGION_HEIGHT << 3;
+    private static final int REGION_HALF_LENGTH = RenderRegion.REGION_LENGTH << 3;
+
+    private static final int REGION_OUTSIDE = 0;
+    private static final int REGION_INSIDE = 1;
+    private static final int REGION_PARTIAL = 2;
 
     public static boolean isWithinFrustum(Viewport viewport, RenderSection section) {
-        return viewport.isBoxVisible(section.getCenterX(), section.getCenterY(), section.getCenterZ(),
+        return isWithinFrustum(viewport, section.getChunkX(), section.getChunkY(), section.getChunkZ());
+    }
+
+    private static boolean isWithinFrustum(Viewport viewport, int x, int y, int z) {
+        return viewport.isBoxVisible((x << 4) + 8, (y << 4) + 8, (z << 4) + 8,
                 CHUNK_SECTION_SIZE, CHUNK_SECTION_SIZE, CHUNK_SECTION_SIZE);
     }
 
     private void init(Visitor visitor,
-                      WriteQueue<RenderSection> queue,
                       Viewport viewport,
                       float searchDistance,
                       boolean useOcclusionCulling,
@@ -197,70 +670,70 @@ public class OcclusionCuller {
 
         if (origin.getY() < this.level.getMinSection()) {
             // below the level
-            this.initOutsideWorldHeight(queue, viewport, searchDistance, frame,
-                    this.level.getMinSection(), GraphDirection.DOWN);
+            this.initOutsideWorldHeight(viewport, searchDistance, frame,
+                    this.level.getMinSection(), GraphDirection.DOWN, true);
         } else if (origin.getY() >= this.level.getMaxSection()) {
             // above the level
-            this.initOutsideWorldHeight(queue, viewport, searchDistance, frame,
-                    this.level.getMaxSection() - 1, GraphDirection.UP);
+            this.initOutsideWorldHeight(viewport, searchDistance, frame,
+                    this.level.getMaxSection() - 1, GraphDirection.UP, true);
         } else {
-            this.initWithinWorld(visitor, queue, viewport, useOcclusionCulling, frame);
+            this.initWithinWorld(visitor, viewport, useOcclusionCulling, frame);
         }
     }
 
-    private void initWithinWorld(Visitor visitor, WriteQueue<RenderSection> queue, Viewport viewport, boolean useOcclusionCulling, int frame) {
+    private void initWithinWorld(Visitor visitor, Viewport viewport, boolean useOcclusionCulling, int frame) {
         var origin = viewport.getChunkCoord();
-        var section = this.getRenderSection(origin.getX(), origin.getY(), origin.getZ());
+        var node = this.graph.getNode(origin.getX(), origin.getY(), origin.getZ());
 
-        if (section == null) {
+        if (node == SectionGraph.NULL_NODE) {
             return;
         }
 
-        section.setLastVisibleFrame(frame);
-        section.setIncomingDirections(GraphDirectionSet.NONE);
+        this.graph.setLastVisibleFrame(node, frame);
+        this.graph.setIncomingDirections(node, GraphDirectionSet.NONE);
 
-        visitor.visit(section, true);
+        visit(visitor, this.graph, node, true, frame);
 
         int outgoing;
 
         if (useOcclusionCulling) {
             // Since the camera is located inside this chunk, there are no "incoming" directions. So we need to instead
             // find any possible paths out of this chunk and enqueue those neighbors.
-            outgoing = VisibilityEncoding.getConnections(section.getVisibilityData());
+            outgoing = VisibilityEncoding.getConnections(this.graph.getVisibilityData(node));
         } else {
             // Occlusion culling is disabled, so we can traverse into any neighbor.
             outgoing = GraphDirectionSet.ALL;
         }
 
-        visitNeighbors(queue, section, outgoing, frame);
+        this.visitNeighbors(node, outgoing, frame);
     }
 
     // Enqueues sections that are inside the viewport using diamond spiral iteration to avoid sorting and ensure a
     // consistent order. Innermost layers are enqueued first. Within each layer, iteration starts at the northernmost
     // section and proceeds counterclockwise (N->W->S->E).
-    private void initOutsideWorldHeight(WriteQueue<RenderSection> queue,
-                                        Viewport viewport,
+    private void initOutsideWorldHeight(Viewport viewport,
                                         float searchDistance,
                                         int frame,
                                         int height,
-                                        int direction)
+                                        int direction,
+                                        boolean useFrustum)
     {
         var origin = viewport.getChunkCoord();
         var radius = Mth.floor(searchDistance / 16.0f);
 
         // Layer 0
-        this.tryVisitNode(queue, origin.getX(), height, origin.getZ(), direction, frame, viewport);
+        this.tryVisitNode(origin.getX(), height, origin.getZ(), direction, frame, viewport, useFrustum);
 
         // Complete layers, excluding layer 0
         for (int layer = 1; layer <= radius; layer++) {
             for (int z = -layer; z < layer; z++) {
                 int x = Math.abs(z) - layer;
-                this.tryVisitNode(queue, origin.getX() + x, height, origin.getZ() + z, direction, frame, viewport);
+                this.tryVisitNode(origin.getX() + x, height, origin.getZ() + z, direction, frame, viewport, useFrustum);
             }
 
             for (int z = layer; z > -layer; z--) {
                 int x = layer - Math.abs(z);
-                this.tryVisitNode(queue, origin.getX() + x, height, origin.getZ() + z, direction, frame, viewport);
+                this.tryVisitNode(origin.getX() + x, height, origin.getZ() + z, direction, frame, viewport, useFrustum);
             }
         }
 
@@ -270,38 +743,34 @@ public class OcclusionCuller {
 
             for (int z = -radius; z <= -l; z++) {
                 int x = -z - layer;
-                this.tryVisitNode(queue, origin.getX() + x, height, origin.getZ() + z, direction, frame, viewport);
+                this.tryVisitNode(origin.getX() + x, height, origin.getZ() + z, direction, frame, viewport, useFrustum);
             }
 
             for (int z = l; z <= radius; z++) {
                 int x = z - layer;
-                this.tryVisitNode(queue, origin.getX() + x, height, origin.getZ() + z, direction, frame, viewport);
+                this.tryVisitNode(origin.getX() + x, height, origin.getZ() + z, direction, frame, viewport, useFrustum);
             }
 
             for (int z = radius; z >= l; z--) {
                 int x = layer - z;
-                this.tryVisitNode(queue, origin.getX() + x, height, origin.getZ() + z, direction, frame, viewport);
+                this.tryVisitNode(origin.getX() + x, height, origin.getZ() + z, direction, frame, viewport, useFrustum);
             }
 
             for (int z = -l; z >= -radius; z--) {
                 int x = layer + z;
-                this.tryVisitNode(queue, origin.getX() + x, height, origin.getZ() + z, direction, frame, viewport);
+                this.tryVisitNode(origin.getX() + x, height, origin.getZ() + z, direction, frame, viewport, useFrustum);
             }
         }
     }
 
-    private void tryVisitNode(WriteQueue<RenderSection> queue, int x, int y, int z, int direction, int frame, Viewport viewport) {
-        RenderSection section = this.getRenderSection(x, y, z);
+    private void tryVisitNode(int x, int y, int z, int direction, int frame, Viewport viewport, boolean useFrustum) {
+        int node = this.graph.getNode(x, y, z);
 
-        if (section == null || !isWithinFrustum(viewport, section)) {
+        if (node == SectionGraph.NULL_NODE || (useFrustum && !isWithinFrustum(viewport, x, y, z))) {
             return;
         }
 
-        visitNode(queue, section, GraphDirectionSet.of(direction), frame);
-    }
-
-    private RenderSection getRenderSection(int x, int y, int z) {
-        return this.sections.get(SectionPos.asLong(x, y, z));
+        this.visitNode(node, GraphDirectionSet.of(direction), frame);
     }
 
     public interface Visitor {
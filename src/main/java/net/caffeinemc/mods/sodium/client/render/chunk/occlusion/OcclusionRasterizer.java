@@ -0,0 +1,307 @@
+package net.caffeinemc.mods.sodium.client.render.chunk.occlusion;
+
+import org.joml.Matrix4fc;
+
+import java.util.Arrays;
+
+/**
+ * A low resolution depth buffer on the CPU, into which the bounding boxes of opaque sections are drawn as occluders,
+ * and against which the bounding boxes of other sections can be tested. All coordinates are relative to the camera.
+ *
+ * <p>Both operations are conservative: an occluder only covers the pixels which lie completely inside of its
+ * silhouette, and writes the depth of its farthest corner, while a tested box covers every pixel its bounds touch, and
+ * is compared using the depth of its nearest corner. Boxes which cross the near plane are never drawn and never
+ * considered occluded. The depth buffer stores the clip-space w coordinate, which is the linear distance along the
+ * view direction.</p>
+ *
+ * <p>To speed up the tests, the maximum depth of each tile of pixels is tracked as well, so that tiles which are
+ * fully covered by closer occluders can be skipped as a whole.</p>
+ */
+class OcclusionRasterizer {
+    private static final int TILE_SIZE = 8;
+    private static final float NEAR_PLANE = 0.05f;
+
+    private final int width, height;
+    private final int tilesX, tilesY;
+
+    private final float[] depth;
+    private final float[] tileMaxDepth;
+
+    // The rows of the view-projection matrix which produce the clip-space x, y, and w coordinates
+    private float m00, m10, m20, m30;
+    private float m01, m11, m21, m31;
+    private float m03, m13, m23, m33;
+
+    // The projected corners of the box which is currently being processed
+    private final float[] cornerX = new float[8];
+    private final float[] cornerY = new float[8];
+    private final float[] cornerW = new float[8];
+
+    private final int[] order = new int[8];
+    private final float[] hullX = new float[16];
+    private final float[] hullY = new float[16];
+
+    /**
+     * @param width The width of the depth buffer in pixels, which must be a multiple of 8
+     * @param height The height of the depth buffer in pixels, which must be a multiple of 8
+     */
+    OcclusionRasterizer(int width, int height) {
+        if ((width % TILE_SIZE) != 0 || (height % TILE_SIZE) != 0) {
+            throw new IllegalArgumentException("Size of depth buffer must be a multiple of the tile size");
+        }
+
+        this.width = width;
+        this.height = height;
+
+        this.tilesX = width / TILE_SIZE;
+        this.tilesY = height / TILE_SIZE;
+
+        this.depth = new float[width * height];
+        this.tileMaxDepth = new float[this.tilesX * this.tilesY];
+    }
+
+    /**
+     * Clears the depth buffer, and sets up the projection for the following operations.
+     *
+     * @param viewProjection The combined projection and view matrix, relative to the camera position
+     */
+    void begin(Matrix4fc viewProjection) {
+        this.m00 = viewProjection.m00(); this.m10 = viewProjection.m10(); this.m20 = viewProjection.m20(); this.m30 = viewProjection.m30();
+        this.m01 = viewProjection.m01(); this.m11 = viewProjection.m11(); this.m21 = viewProjection.m21(); this.m31 = viewProjection.m31();
+        this.m03 = viewProjection.m03(); this.m13 = viewProjection.m13(); this.m23 = viewProjection.m23(); this.m33 = viewProjection.m33();
+
+        Arrays.fill(this.depth, Float.POSITIVE_INFINITY);
+        Arrays.fill(this.tileMaxDepth, Float.POSITIVE_INFINITY);
+    }
+
+    /**
+     * @return True if the box is hidden behind the occluders which were drawn so far
+     */
+    boolean isBoxOccluded(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        if (!this.projectCorners(minX, minY, minZ, maxX, maxY, maxZ)) {
+            return false;
+        }
+
+        float minScreenX = Float.POSITIVE_INFINITY, maxScreenX = Float.NEGATIVE_INFINITY;
+        float minScreenY = Float.POSITIVE_INFINITY, maxScreenY = Float.NEGATIVE_INFINITY;
+        float nearestW = Float.POSITIVE_INFINITY;
+
+        for (int i = 0; i < 8; i++) {
+            minScreenX = Math.min(minScreenX, this.cornerX[i]);
+            maxScreenX = Math.max(maxScreenX, this.cornerX[i]);
+            minScreenY = Math.min(minScreenY, this.cornerY[i]);
+            maxScreenY = Math.max(maxScreenY, this.cornerY[i]);
+            nearestW = Math.min(nearestW, this.cornerW[i]);
+        }
+
+        int x0 = Math.max(0, (int) Math.floor(minScreenX));
+        int y0 = Math.max(0, (int) Math.floor(minScreenY));
+        int x1 = Math.min(this.width - 1, (int) Math.floor(maxScreenX));
+        int y1 = Math.min(this.height - 1, (int) Math.floor(maxScreenY));
+
+        if (x0 > x1 || y0 > y1) {
+            // the box is off-screen, which is for the frustum check to decide
+            return false;
+        }
+
+        for (int tileY = y0 / TILE_SIZE; tileY <= y1 / TILE_SIZE; tileY++) {
+            for (int tileX = x0 / TILE_SIZE; tileX <= x1 / TILE_SIZE; tileX++) {
+                if (this.tileMaxDepth[(tileY * this.tilesX) + tileX] < nearestW) {
+                    // every pixel of the tile is closer than the box
+                    continue;
+                }
+
+                int px0 = Math.max(x0, tileX * TILE_SIZE), px1 = Math.min(x1, (tileX * TILE_SIZE) + TILE_SIZE - 1);
+                int py0 = Math.max(y0, tileY * TILE_SIZE), py1 = Math.min(y1, (tileY * TILE_SIZE) + TILE_SIZE - 1);
+
+                for (int y = py0; y <= py1; y++) {
+                    int row = y * this.width;
+
+                    for (int x = px0; x <= px1; x++) {
+                        if (this.depth[row + x] >= nearestW) {
+                            return false;
+                        }
+                    }
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Draws the box as an occluder. The caller must make sure that the box is entirely opaque when looked through
+     * from any side.
+     */
+    void drawOccluder(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        if (!this.projectCorners(minX, minY, minZ, maxX, maxY, maxZ)) {
+            return;
+        }
+
+        int hullSize = this.computeConvexHull();
+
+        if (hullSize < 3) {
+            return;
+        }
+
+        float minScreenX = Float.POSITIVE_INFINITY, maxScreenX = Float.NEGATIVE_INFINITY;
+        float minScreenY = Float.POSITIVE_INFINITY, maxScreenY = Float.NEGATIVE_INFINITY;
+        float farthestW = 0.0f;
+
+        for (int i = 0; i < 8; i++) {
+            minScreenX = Math.min(minScreenX, this.cornerX[i]);
+            maxScreenX = Math.max(maxScreenX, this.cornerX[i]);
+            minScreenY = Math.min(minScreenY, this.cornerY[i]);
+            maxScreenY = Math.max(maxScreenY, this.cornerY[i]);
+            farthestW = Math.max(farthestW, this.cornerW[i]);
+        }
+
+        int x0 = Math.max(0, (int) Math.floor(minScreenX));
+        int y0 = Math.max(0, (int) Math.floor(minScreenY));
+        int x1 = Math.min(this.width - 1, (int) Math.floor(maxScreenX));
+        int y1 = Math.min(this.height - 1, (int) Math.floor(maxScreenY));
+
+        if (x0 > x1 || y0 > y1) {
+            return;
+        }
+
+        for (int y = y0; y <= y1; y++) {
+            int row = y * this.width;
+
+            for (int x = x0; x <= x1; x++) {
+                if (this.isPixelInsideHull(hullSize, x + 0.5f, y + 0.5f) && farthestW < this.depth[row + x]) {
+                    this.depth[row + x] = farthestW;
+                }
+            }
+        }
+
+        this.updateTiles(x0, y0, x1, y1);
+    }
+
+    private boolean isPixelInsideHull(int hullSize, float centerX, float centerY) {
+        for (int i = 0; i < hullSize; i++) {
+            int j = (i + 1) % hullSize;
+
+            float edgeX = this.hullX[j] - this.hullX[i];
+            float edgeY = this.hullY[j] - this.hullY[i];
+
+            // The edge function changes by at most this much between the center and the corners of the pixel, so
+            // the whole pixel is inside the edge if the center is at least this far inside
+            float margin = 0.5f * (Math.abs(edgeX) + Math.abs(edgeY));
+
+            if ((edgeX * (centerY - this.hullY[i])) - (edgeY * (centerX - this.hullX[i])) < margin) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private void updateTiles(int x0, int y0, int x1, int y1) {
+        for (int tileY = y0 / TILE_SIZE; tileY <= y1 / TILE_SIZE; tileY++) {
+            for (int tileX = x0 / TILE_SIZE; tileX <= x1 / TILE_SIZE; tileX++) {
+                float max = 0.0f;
+
+                for (int y = tileY * TILE_SIZE; y < (tileY + 1) * TILE_SIZE; y++) {
+                    int row = y * this.width;
+
+                    for (int x = tileX * TILE_SIZE; x < (tileX + 1) * TILE_SIZE; x++) {
+                        max = Math.max(max, this.depth[row + x]);
+                    }
+                }
+
+                this.tileMaxDepth[(tileY * this.tilesX) + tileX] = max;
+            }
+        }
+    }
+
+    /**
+     * Projects the corners of the box into screen space.
+     *
+     * @return False if any corner is in front of the near plane, in which case the box can't be projected
+     */
+    private boolean projectCorners(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        for (int i = 0; i < 8; i++) {
+            float x = (i & 1) != 0 ? maxX : minX;
+            float y = (i & 2) != 0 ? maxY : minY;
+            float z = (i & 4) != 0 ? maxZ : minZ;
+
+            float w = (this.m03 * x) + (this.m13 * y) + (this.m23 * z) + this.m33;
+
+            if (w < NEAR_PLANE) {
+                return false;
+            }
+
+            float clipX = (this.m00 * x) + (this.m10 * y) + (this.m20 * z) + this.m30;
+            float clipY = (this.m01 * x) + (this.m11 * y) + (this.m21 * z) + this.m31;
+
+            this.cornerX[i] = ((clipX / w) * 0.5f + 0.5f) * this.width;
+            this.cornerY[i] = ((clipY / w) * 0.5f + 0.5f) * this.height;
+            this.cornerW[i] = w;
+        }
+
+        return true;
+    }
+
+    /**
+     * Computes the convex hull of the projected corners in counter-clockwise order, using the monotone chain
+     * algorithm.
+     *
+     * @return The number of points in the hull
+     */
+    private int computeConvexHull() {
+        final int[] order = this.order;
+
+        for (int i = 0; i < 8; i++) {
+            int index = i;
+            int j = i - 1;
+
+            // insertion sort by x, then by y
+            while (j >= 0 && this.isBefore(index, order[j])) {
+                order[j + 1] = order[j];
+                j--;
+            }
+
+            order[j + 1] = index;
+        }
+
+        int size = 0;
+
+        // lower hull
+        for (int i = 0; i < 8; i++) {
+            size = this.addHullPoint(size, 2, order[i]);
+        }
+
+        // upper hull
+        int lowerSize = size + 1;
+
+        for (int i = 6; i >= 0; i--) {
+            size = this.addHullPoint(size, lowerSize, order[i]);
+        }
+
+        // the last point is the same as the first
+        return size - 1;
+    }
+
+    private int addHullPoint(int size, int minSize, int corner) {
+        float x = this.cornerX[corner];
+        float y = this.cornerY[corner];
+
+        while (size >= minSize && cross(this.hullX[size - 2], this.hullY[size - 2], this.hullX[size - 1], this.hullY[size - 1], x, y) <= 0.0f) {
+            size--;
+        }
+
+        this.hullX[size] = x;
+        this.hullY[size] = y;
+
+        return size + 1;
+    }
+
+    private boolean isBefore(int a, int b) {
+        return this.cornerX[a] < this.cornerX[b] || (this.cornerX[a] == this.cornerX[b] && this.cornerY[a] < this.cornerY[b]);
+    }
+
+    private static float cross(float ox, float oy, float ax, float ay, float bx, float by) {
+        return ((ax - ox) * (by - oy)) - ((ay - oy) * (bx - ox));
+    }
+}
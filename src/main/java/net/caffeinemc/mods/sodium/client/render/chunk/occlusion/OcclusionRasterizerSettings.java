@@ -0,0 +1,28 @@
+package net.caffeinemc.mods.sodium.client.render.chunk.occlusion;
+
+import net.caffeinemc.mods.sodium.client.gui.SodiumGameOptions;
+import net.minecraft.util.Mth;
+
+/**
+ * The configuration of the occlusion rasterizer which is used by {@link OcclusionCuller#findVisible}.
+ *
+ * @param width The width of the depth buffer in pixels, which must be a multiple of 8
+ * @param height The height of the depth buffer in pixels, which must be a multiple of 8
+ * @param maxOccluderDistance The maximum distance (in sections) of the sections which are drawn into the depth buffer.
+ *                            Occluders further away are small on the screen and rarely hide anything.
+ */
+public record OcclusionRasterizerSettings(int width, int height, int maxOccluderDistance) {
+    public static final int MIN_RESOLUTION = 128;
+    public static final int MAX_RESOLUTION = 512;
+
+    public static final int MIN_OCCLUDER_DISTANCE = 2;
+    public static final int MAX_OCCLUDER_DISTANCE = 16;
+
+    public static OcclusionRasterizerSettings fromOptions(SodiumGameOptions.AdvancedSettings options) {
+        // The depth buffer is half as high as it is wide, and both must be a multiple of the tile size
+        int width = Mth.clamp(options.occlusionRasterizerResolution, MIN_RESOLUTION, MAX_RESOLUTION) & ~15;
+        int distance = Mth.clamp(options.occlusionRasterizerDistance, MIN_OCCLUDER_DISTANCE, MAX_OCCLUDER_DISTANCE);
+
+        return new OcclusionRasterizerSettings(width, width / 2, distance);
+    }
+}
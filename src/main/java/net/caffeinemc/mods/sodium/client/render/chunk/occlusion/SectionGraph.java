@@ -0,0 +1,369 @@
+package net.caffeinemc.mods.sodium.client.render.chunk.occlusion;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import net.caffeinemc.mods.sodium.client.render.chunk.LocalSectionIndex;
+import net.caffeinemc.mods.sodium.client.render.chunk.RenderSection;
+import net.caffeinemc.mods.sodium.client.render.chunk.region.RenderRegion;
+import net.minecraft.core.SectionPos;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * Stores the state of the visibility graph which the {@link OcclusionCuller} needs in flat primitive arrays, so that
+ * the graph search doesn't need to chase references between {@link RenderSection} objects spread across the heap.
+ *
+ * <p>Each render region which contains loaded sections is assigned a slot, and each section is identified by a node
+ * index which combines the slot of its region with its local index in the region. The neighbors of a node within the
+ * same region are found with arithmetic on the local index, and only stepping into another region needs to look up
+ * the slot of the adjacent region.</p>
+ *
+ * <p>The frame in which a node was last reached and the directions it was entered from are packed into a single
+ * value, so that the graph search can update both atomically when it runs on multiple threads.</p>
+ */
+public class SectionGraph {
+    public static final int NULL_NODE = -1;
+
+    private static final int SLOT_SHIFT = Integer.numberOfTrailingZeros(RenderRegion.REGION_SIZE);
+    private static final int LOCAL_INDEX_MASK = RenderRegion.REGION_SIZE - 1;
+
+    private static final int INITIAL_SLOT_CAPACITY = 64;
+
+    private static final VarHandle TRAVERSAL_STATE = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle REGION_CULL_STATE = MethodHandles.arrayElementVarHandle(long[].class);
+
+    public static final int REGION_CULL_UNKNOWN = -1;
+
+    private final Long2IntOpenHashMap slotByRegion = new Long2IntOpenHashMap();
+    private final IntArrayList freeSlots = new IntArrayList();
+    private int slotCount;
+
+    // Per-slot state: the position of the first section of the region (in section coordinates), the number of
+    // sections in it, and the slots of the adjacent regions in each direction
+    private int[] regionX, regionY, regionZ;
+    private int[] regionSectionCount;
+    private int[] adjacentRegions;
+    private long[] regionCullState;
+
+    // Per-node state
+    private RenderSection[] sections;
+    private long[] visibilityData;
+    private long[] traversalState;
+
+    public SectionGraph() {
+        this.slotByRegion.defaultReturnValue(NULL_NODE);
+        this.allocate(INITIAL_SLOT_CAPACITY);
+    }
+
+    public int addSection(RenderSection section) {
+        int slot = this.getOrCreateSlot(section.getChunkX(), section.getChunkY(), section.getChunkZ());
+        int node = (slot << SLOT_SHIFT) | section.getSectionIndex();
+
+        if (this.sections[node] != null) {
+            throw new IllegalStateException("Section has already been added to the graph");
+        }
+
+        this.sections[node] = section;
+        this.visibilityData[node] = section.getVisibilityData();
+        this.traversalState[node] = packTraversalState(-1, GraphDirectionSet.NONE);
+
+        this.regionSectionCount[slot]++;
+
+        return node;
+    }
+
+    public void removeSection(RenderSection section) {
+        int node = this.getNode(section);
+
+        if (node == NULL_NODE) {
+            throw new IllegalStateException("Section was not added to the graph");
+        }
+
+        this.sections[node] = null;
+        this.visibilityData[node] = VisibilityEncoding.NULL;
+
+        int slot = node >>> SLOT_SHIFT;
+
+        if (--this.regionSectionCount[slot] == 0) {
+            this.releaseSlot(slot);
+        }
+    }
+
+    public void setVisibilityData(RenderSection section, long data) {
+        int node = this.getNode(section);
+
+        if (node != NULL_NODE) {
+            this.visibilityData[node] = data;
+        }
+    }
+
+    public int getNode(RenderSection section) {
+        return this.getNode(section.getChunkX(), section.getChunkY(), section.getChunkZ());
+    }
+
+    /**
+     * @return The node of the section at the given position, or {@link #NULL_NODE} if the section isn't loaded
+     */
+    public int getNode(int x, int y, int z) {
+        int slot = this.slotByRegion.get(getRegionKey(x, y, z));
+
+        if (slot == NULL_NODE) {
+            return NULL_NODE;
+        }
+
+        int node = (slot << SLOT_SHIFT) | LocalSectionIndex.pack(x, y, z);
+
+        return this.sections[node] != null ? node : NULL_NODE;
+    }
+
+    /**
+     * @return The node of the neighbor in the given direction, or {@link #NULL_NODE} if it isn't loaded
+     */
+    public int getAdjacent(int node, int direction) {
+        int slot = node >>> SLOT_SHIFT;
+        int index = node & LOCAL_INDEX_MASK;
+
+        // When the local index wraps around, the neighbor is in the adjacent region
+        switch (direction) {
+            case GraphDirection.DOWN -> {
+                if (LocalSectionIndex.unpackY(index) == 0) slot = this.adjacentRegions[(slot * GraphDirection.COUNT) + direction];
+                index = LocalSectionIndex.decY(index);
+            }
+            case GraphDirection.UP -> {
+                if (LocalSectionIndex.unpackY(index) == RenderRegion.REGION_HEIGHT - 1) slot = this.adjacentRegions[(slot * GraphDirection.COUNT) + direction];
+                index = LocalSectionIndex.incY(index);
+            }
+            case GraphDirection.NORTH -> {
+                if (LocalSectionIndex.unpackZ(index) == 0) slot = this.adjacentRegions[(slot * GraphDirection.COUNT) + direction];
+                index = LocalSectionIndex.decZ(index);
+            }
+            case GraphDirection.SOUTH -> {
+                if (LocalSectionIndex.unpackZ(index) == RenderRegion.REGION_LENGTH - 1) slot = this.adjacentRegions[(slot * GraphDirection.COUNT) + direction];
+                index = LocalSectionIndex.incZ(index);
+            }
+            case GraphDirection.WEST -> {
+                if (LocalSectionIndex.unpackX(index) == 0) slot = this.adjacentRegions[(slot * GraphDirection.COUNT) + direction];
+                index = LocalSectionIndex.decX(index);
+            }
+            case GraphDirection.EAST -> {
+                if (LocalSectionIndex.unpackX(index) == RenderRegion.REGION_WIDTH - 1) slot = this.adjacentRegions[(slot * GraphDirection.COUNT) + direction];
+                index = LocalSectionIndex.incX(index);
+            }
+            default -> throw new IllegalArgumentException("Invalid direction: " + direction);
+        }
+
+        if (slot == NULL_NODE) {
+            return NULL_NODE;
+        }
+
+        int adjacent = (slot << SLOT_SHIFT) | index;
+
+        return this.sections[adjacent] != null ? adjacent : NULL_NODE;
+    }
+
+    public RenderSection getSection(int node) {
+        return this.sections[node];
+    }
+
+    public long getVisibilityData(int node) {
+        return this.visibilityData[node];
+    }
+
+    public int getLastVisibleFrame(int node) {
+        return unpackFrame(this.traversalState[node]);
+    }
+
+    public void setLastVisibleFrame(int node, int frame) {
+        this.traversalState[node] = packTraversalState(frame, unpackIncomingDirections(this.traversalState[node]));
+    }
+
+    public int getIncomingDirections(int node) {
+        return unpackIncomingDirections(this.traversalState[node]);
+    }
+
+    public void setIncomingDirections(int node, int directions) {
+        this.traversalState[node] = packTraversalState(unpackFrame(this.traversalState[node]), directions);
+    }
+
+    /**
+     * Records that the graph search entered the node from the given directions in the given frame. If the node
+     * hadn't been reached in that frame yet, the directions it was entered from before are discarded.
+     *
+     * @return True if this is the first time the node was reached in the frame
+     */
+    public boolean visit(int node, int incoming, int frame) {
+        long state = this.traversalState[node];
+
+        if (unpackFrame(state) != frame) {
+            this.traversalState[node] = packTraversalState(frame, incoming);
+            return true;
+        }
+
+        this.traversalState[node] = state | incoming;
+        return false;
+    }
+
+    /**
+     * Same as {@link #visit(int, int, int)}, but can be called for the same node from multiple threads at once.
+     * Exactly one of the callers which reach the node in a frame is told that it was the first.
+     */
+    public boolean visitConcurrently(int node, int incoming, int frame) {
+        final long[] states = this.traversalState;
+
+        while (true) {
+            long prev = (long) TRAVERSAL_STATE.getVolatile(states, node);
+            boolean first = unpackFrame(prev) != frame;
+            long next = first ? packTraversalState(frame, incoming) : (prev | incoming);
+
+            if (next == prev) {
+                return false;
+            }
+
+            if (TRAVERSAL_STATE.compareAndSet(states, node, prev, next)) {
+                return first;
+            }
+        }
+    }
+
+    /**
+     * Returns the culling result which was stored for the region of the node in the given frame.
+     *
+     * @return The result, or {@link #REGION_CULL_UNKNOWN} if none was stored in the frame
+     */
+    public int getRegionCullResult(int node, int frame) {
+        long state = (long) REGION_CULL_STATE.getOpaque(this.regionCullState, node >>> SLOT_SHIFT);
+
+        return unpackFrame(state) == frame ? (int) state : REGION_CULL_UNKNOWN;
+    }
+
+    /**
+     * Stores the culling result for the region of the node. Threads which compute the result for the same region at
+     * the same time will compute the same result, so either of them can win.
+     */
+    public void setRegionCullResult(int node, int frame, int result) {
+        REGION_CULL_STATE.setOpaque(this.regionCullState, node >>> SLOT_SHIFT, packRegionCullState(frame, result));
+    }
+
+    private static long packRegionCullState(int frame, int result) {
+        return ((long) frame << 32) | (result & 0xFFFFFFFFL);
+    }
+
+    private static long packTraversalState(int frame, int incoming) {
+        return ((long) frame << 32) | (incoming & 0xFFFFFFFFL);
+    }
+
+    private static int unpackFrame(long state) {
+        return (int) (state >>> 32);
+    }
+
+    private static int unpackIncomingDirections(long state) {
+        return (int) state;
+    }
+
+    public int getSectionX(int node) {
+        return this.regionX[node >>> SLOT_SHIFT] + LocalSectionIndex.unpackX(node & LOCAL_INDEX_MASK);
+    }
+
+    public int getSectionY(int node) {
+        return this.regionY[node >>> SLOT_SHIFT] + LocalSectionIndex.unpackY(node & LOCAL_INDEX_MASK);
+    }
+
+    public int getSectionZ(int node) {
+        return this.regionZ[node >>> SLOT_SHIFT] + LocalSectionIndex.unpackZ(node & LOCAL_INDEX_MASK);
+    }
+
+    private int getOrCreateSlot(int x, int y, int z) {
+        long key = getRegionKey(x, y, z);
+        int slot = this.slotByRegion.get(key);
+
+        if (slot != NULL_NODE) {
+            return slot;
+        }
+
+        if (!this.freeSlots.isEmpty()) {
+            slot = this.freeSlots.popInt();
+        } else {
+            slot = this.slotCount++;
+
+            if (slot >= this.regionSectionCount.length) {
+                this.allocate(this.regionSectionCount.length * 2);
+            }
+        }
+
+        int rx = x & ~(RenderRegion.REGION_WIDTH - 1);
+        int ry = y & ~(RenderRegion.REGION_HEIGHT - 1);
+        int rz = z & ~(RenderRegion.REGION_LENGTH - 1);
+
+        this.regionX[slot] = rx;
+        this.regionY[slot] = ry;
+        this.regionZ[slot] = rz;
+        this.regionSectionCount[slot] = 0;
+        this.regionCullState[slot] = packRegionCullState(-1, REGION_CULL_UNKNOWN);
+
+        this.slotByRegion.put(key, slot);
+
+        for (int direction = 0; direction < GraphDirection.COUNT; direction++) {
+            int adjacent = this.slotByRegion.get(getRegionKey(
+                    rx + (GraphDirection.x(direction) * RenderRegion.REGION_WIDTH),
+                    ry + (GraphDirection.y(direction) * RenderRegion.REGION_HEIGHT),
+                    rz + (GraphDirection.z(direction) * RenderRegion.REGION_LENGTH)));
+
+            this.adjacentRegions[(slot * GraphDirection.COUNT) + direction] = adjacent;
+
+            if (adjacent != NULL_NODE) {
+                this.adjacentRegions[(adjacent * GraphDirection.COUNT) + GraphDirection.opposite(direction)] = slot;
+            }
+        }
+
+        return slot;
+    }
+
+    private void releaseSlot(int slot) {
+        for (int direction = 0; direction < GraphDirection.COUNT; direction++) {
+            int adjacent = this.adjacentRegions[(slot * GraphDirection.COUNT) + direction];
+
+            if (adjacent != NULL_NODE) {
+                this.adjacentRegions[(adjacent * GraphDirection.COUNT) + GraphDirection.opposite(direction)] = NULL_NODE;
+            }
+
+            this.adjacentRegions[(slot * GraphDirection.COUNT) + direction] = NULL_NODE;
+        }
+
+        this.slotByRegion.remove(getRegionKey(this.regionX[slot], this.regionY[slot], this.regionZ[slot]));
+        this.freeSlots.add(slot);
+    }
+
+    private void allocate(int slots) {
+        int nodes = slots << SLOT_SHIFT;
+
+        if (this.regionSectionCount == null) {
+            this.regionX = new int[slots];
+            this.regionY = new int[slots];
+            this.regionZ = new int[slots];
+            this.regionSectionCount = new int[slots];
+            this.adjacentRegions = new int[slots * GraphDirection.COUNT];
+            this.regionCullState = new long[slots];
+
+            this.sections = new RenderSection[nodes];
+            this.visibilityData = new long[nodes];
+            this.traversalState = new long[nodes];
+        } else {
+            this.regionX = Arrays.copyOf(this.regionX, slots);
+            this.regionY = Arrays.copyOf(this.regionY, slots);
+            this.regionZ = Arrays.copyOf(this.regionZ, slots);
+            this.regionSectionCount = Arrays.copyOf(this.regionSectionCount, slots);
+            this.adjacentRegions = Arrays.copyOf(this.adjacentRegions, slots * GraphDirection.COUNT);
+            this.regionCullState = Arrays.copyOf(this.regionCullState, slots);
+
+            this.sections = Arrays.copyOf(this.sections, nodes);
+            this.visibilityData = Arrays.copyOf(this.visibilityData, nodes);
+            this.traversalState = Arrays.copyOf(this.traversalState, nodes);
+        }
+    }
+
+    private static long getRegionKey(int x, int y, int z) {
+        return SectionPos.asLong(x & ~(RenderRegion.REGION_WIDTH - 1), y & ~(RenderRegion.REGION_HEIGHT - 1), z & ~(RenderRegion.REGION_LENGTH - 1));
+    }
+}
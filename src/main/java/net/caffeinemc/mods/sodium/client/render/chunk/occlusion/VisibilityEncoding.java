@@ -21,6 +21,31 @@ public class VisibilityEncoding {
         return visibilityData;
     }
 
+    /**
+     * Returns whether any two different faces of the section are connected, which is false if no line of sight can
+     * pass through the section. The result is meaningless for sections which haven't been built yet, as their
+     * visibility data is {@link #NULL}.
+     */
+    public static boolean hasConnectionsBetweenFaces(long visibilityData) {
+        return (visibilityData & CONNECTIONS_BETWEEN_FACES) != 0;
+    }
+
+    private static final long CONNECTIONS_BETWEEN_FACES = createConnectionsBetweenFacesMask();
+
+    private static long createConnectionsBetweenFacesMask() {
+        long mask = 0;
+
+        for (int from = 0; from < GraphDirection.COUNT; from++) {
+            for (int to = 0; to < GraphDirection.COUNT; to++) {
+                if (from != to) {
+                    mask |= 1L << bit(from, to);
+                }
+            }
+        }
+
+        return mask;
+    }
+
     private static int bit(int from, int to) {
         return (from * 8) + to;
     }
@@ -0,0 +1,202 @@
+package net.caffeinemc.mods.sodium.client.render.chunk.occlusion;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+import net.caffeinemc.mods.sodium.client.render.viewport.Viewport;
+import net.minecraft.core.SectionPos;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Processes the layers of the occlusion graph search on multiple threads. The nodes of a layer are split into fixed
+ * partitions, which are claimed through an atomic counter by both the worker threads and the render thread (which
+ * helps out instead of blocking). The first thread to reach a node of the next layer is determined by
+ * {@link SectionGraph#visitConcurrently}, and adds the node to the output of its partition.
+ *
+ * <p>Which partition reaches a node first depends on the timing of the threads, so the next layer is sorted after it
+ * has been merged. This makes the order of the search, and therefore the order in which the visitor receives the
+ * sections, only depend on the graph and the camera.</p>
+ */
+class WavefrontSearch {
+    // Layers smaller than this are processed on the render thread alone, as waking up other threads takes longer
+    static final int MIN_PARALLEL_LAYER_SIZE = 1024;
+
+    private static final int PARTITION_SIZE = 256;
+    private static final int MAX_WORKERS = 8;
+
+    private final SectionGraph graph;
+
+    private IntArrayList[] partitionOutputs = new IntArrayList[0];
+    private boolean[] visible = new boolean[0];
+
+    WavefrontSearch(SectionGraph graph) {
+        this.graph = graph;
+    }
+
+    /**
+     * Determines the visibility of each node in the layer and finds the nodes of the next layer.
+     *
+     * @param layer The nodes of the current layer
+     * @param next The list to which the nodes of the next layer are added
+     * @param horizonMap The horizon map against which visible sections are tested, or null if it isn't used
+     * @return The visibility of each node of the layer, indexed by its position in the layer
+     */
+    boolean[] processLayer(IntArrayList layer, IntArrayList next, Viewport viewport, float searchDistance,
+                           boolean useOcclusionCulling, HorizonMap horizonMap, int frame) {
+        int size = layer.size();
+        int partitionCount = (size + PARTITION_SIZE - 1) / PARTITION_SIZE;
+
+        this.ensureCapacity(size, partitionCount);
+
+        var task = new LayerTask(this.graph, layer.elements(), size, partitionCount, this.partitionOutputs, this.visible,
+                viewport, searchDistance, useOcclusionCulling, horizonMap, frame);
+
+        int workers = Math.min(Math.min(ForkJoinPool.getCommonPoolParallelism(), MAX_WORKERS), partitionCount - 1);
+
+        for (int i = 0; i < workers; i++) {
+            ForkJoinPool.commonPool()
+                    .execute(task::runAll);
+        }
+
+        task.runAll();
+        task.await();
+
+        int start = next.size();
+
+        for (int i = 0; i < partitionCount; i++) {
+            var output = this.partitionOutputs[i];
+            next.addAll(output);
+            output.clear();
+        }
+
+        IntArrays.quickSort(next.elements(), start, next.size());
+
+        return this.visible;
+    }
+
+    private void ensureCapacity(int size, int partitionCount) {
+        if (this.visible.length < size) {
+            this.visible = new boolean[Math.max(size, this.visible.length * 2)];
+        }
+
+        if (this.partitionOutputs.length < partitionCount) {
+            var outputs = new IntArrayList[Math.max(partitionCount, this.partitionOutputs.length * 2)];
+
+            for (int i = 0; i < outputs.length; i++) {
+                outputs[i] = i < this.partitionOutputs.length ? this.partitionOutputs[i] : new IntArrayList();
+            }
+
+            this.partitionOutputs = outputs;
+        }
+    }
+
+    private static final class LayerTask {
+        private final SectionGraph graph;
+        private final int[] nodes;
+        private final int size;
+        private final int partitionCount;
+        private final IntArrayList[] outputs;
+        private final boolean[] visible;
+
+        private final Viewport viewport;
+        private final SectionPos origin;
+        private final float searchDistance;
+        private final boolean useOcclusionCulling;
+        private final HorizonMap horizonMap;
+        private final int frame;
+
+        private final AtomicInteger nextPartition = new AtomicInteger();
+        private final AtomicInteger completedPartitions = new AtomicInteger();
+
+        private volatile Throwable failure;
+
+        private LayerTask(SectionGraph graph, int[] nodes, int size, int partitionCount, IntArrayList[] outputs,
+                          boolean[] visible, Viewport viewport, float searchDistance, boolean useOcclusionCulling,
+                          HorizonMap horizonMap, int frame) {
+            this.graph = graph;
+            this.nodes = nodes;
+            this.size = size;
+            this.partitionCount = partitionCount;
+            this.outputs = outputs;
+            this.visible = visible;
+            this.viewport = viewport;
+            this.origin = viewport.getChunkCoord();
+            this.searchDistance = searchDistance;
+            this.useOcclusionCulling = useOcclusionCulling;
+            this.horizonMap = horizonMap;
+            this.frame = frame;
+        }
+
+        private void runAll() {
+            int partition;
+
+            while ((partition = this.nextPartition.getAndIncrement()) < this.partitionCount) {
+                try {
+                    this.processPartition(partition);
+                } catch (Throwable t) {
+                    this.failure = t;
+                } finally {
+                    this.completedPartitions.incrementAndGet();
+                }
+            }
+        }
+
+        private void processPartition(int partition) {
+            final var graph = this.graph;
+            final var output = this.outputs[partition];
+
+            int start = partition * PARTITION_SIZE;
+            int end = Math.min(start + PARTITION_SIZE, this.size);
+
+            for (int i = start; i < end; i++) {
+                int node = this.nodes[i];
+
+                boolean visible = OcclusionCuller.isSectionVisible(graph, node, this.viewport, this.searchDistance, this.frame);
+
+                if (visible && this.horizonMap != null && OcclusionCuller.isBelowHorizon(this.horizonMap, graph, node, this.viewport)) {
+                    visible = false;
+                }
+
+                this.visible[i] = visible;
+
+                if (!visible) {
+                    continue;
+                }
+
+                int connections = OcclusionCuller.getOutgoingConnections(graph, node, this.origin, this.useOcclusionCulling);
+
+                if (connections == GraphDirectionSet.NONE) {
+                    continue;
+                }
+
+                for (int direction = 0; direction < GraphDirection.COUNT; direction++) {
+                    if (!GraphDirectionSet.contains(connections, direction)) {
+                        continue;
+                    }
+
+                    int adjacent = graph.getAdjacent(node, direction);
+
+                    if (adjacent != SectionGraph.NULL_NODE &&
+                            graph.visitConcurrently(adjacent, GraphDirectionSet.of(GraphDirection.opposite(direction)), this.frame)) {
+                        output.add(adjacent);
+                    }
+                }
+            }
+        }
+
+        private void await() {
+            // The render thread only gets here once all partitions have been claimed, so this only waits for the
+            // partitions which are still being processed by other threads
+            while (this.completedPartitions.get() < this.partitionCount) {
+                Thread.onSpinWait();
+            }
+
+            var failure = this.failure;
+
+            if (failure != null) {
+                throw new RuntimeException("Failed to process layer of the occlusion graph search", failure);
+            }
+        }
+    }
+}
@@ -4,17 +4,23 @@ import it.unimi.dsi.fastutil.objects.Reference2ReferenceOpenHashMap;
 import net.caffeinemc.mods.sodium.client.gl.arena.GlBufferArena;
 import net.caffeinemc.mods.sodium.client.gl.arena.staging.StagingBuffer;
 import net.caffeinemc.mods.sodium.client.gl.buffer.GlBuffer;
+import net.caffeinemc.mods.sodium.client.gl.buffer.GlBufferTexture;
+import net.caffeinemc.mods.sodium.client.gl.buffer.GlBufferUsage;
+import net.caffeinemc.mods.sodium.client.gl.buffer.GlMutableBuffer;
 import net.caffeinemc.mods.sodium.client.gl.device.CommandList;
 import net.caffeinemc.mods.sodium.client.gl.tessellation.GlTessellation;
 import net.caffeinemc.mods.sodium.client.render.chunk.RenderSection;
+import net.caffeinemc.mods.sodium.client.render.chunk.data.SectionDrawBatchCache;
+import net.caffeinemc.mods.sodium.client.render.chunk.data.SectionDrawCommandStorage;
 import net.caffeinemc.mods.sodium.client.render.chunk.data.SectionRenderDataStorage;
 import net.caffeinemc.mods.sodium.client.render.chunk.lists.ChunkRenderList;
 import net.caffeinemc.mods.sodium.client.render.chunk.terrain.DefaultTerrainRenderPasses;
 import net.caffeinemc.mods.sodium.client.render.chunk.terrain.TerrainRenderPass;
-import net.caffeinemc.mods.sodium.client.render.chunk.vertex.format.ChunkMeshFormats;
+import net.caffeinemc.mods.sodium.client.render.chunk.vertex.format.ChunkVertexType;
 import net.caffeinemc.mods.sodium.client.util.MathUtil;
 import net.minecraft.core.SectionPos;
 import org.apache.commons.lang3.Validate;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.Arrays;
 import java.util.Map;
@@ -41,23 +47,43 @@ public class RenderRegion {
     }
 
     private final StagingBuffer stagingBuffer;
+    private final ChunkVertexType vertexType;
+    private final @Nullable DeviceResources sharedResources;
     private final int x, y, z;
 
-    private final ChunkRenderList renderList;
+    // A search for the visible sections fills one of the render lists while the other one may still be drawn
+    private final ChunkRenderList[] renderLists = new ChunkRenderList[2];
 
     private final RenderSection[] sections = new RenderSection[RenderRegion.REGION_SIZE];
     private int sectionCount;
 
     private final Map<TerrainRenderPass, SectionRenderDataStorage> sectionRenderData = new Reference2ReferenceOpenHashMap<>();
+    private final Map<TerrainRenderPass, SectionDrawCommandStorage> drawCommands = new Reference2ReferenceOpenHashMap<>();
+    private final Map<TerrainRenderPass, SectionDrawBatchCache> drawBatches = new Reference2ReferenceOpenHashMap<>();
+    private final Map<TerrainRenderPass, GlMutableBuffer> drawCommandBuffers = new Reference2ReferenceOpenHashMap<>();
     private DeviceResources resources;
 
-    public RenderRegion(int x, int y, int z, StagingBuffer stagingBuffer) {
+    public RenderRegion(int x, int y, int z, StagingBuffer stagingBuffer, ChunkVertexType vertexType) {
+        this(x, y, z, stagingBuffer, vertexType, null);
+    }
+
+    /**
+     * @param sharedResources The device resources which all regions allocate their meshes from, or null if the region
+     *                        should create its own resources
+     */
+    public RenderRegion(int x, int y, int z, StagingBuffer stagingBuffer, ChunkVertexType vertexType,
+                        @Nullable DeviceResources sharedResources) {
         this.x = x;
         this.y = y;
         this.z = z;
 
         this.stagingBuffer = stagingBuffer;
-        this.renderList = new ChunkRenderList(this);
+        this.vertexType = vertexType;
+        this.sharedResources = sharedResources;
+
+        for (int i = 0; i < this.renderLists.length; i++) {
+            this.renderLists[i] = new ChunkRenderList(this);
+        }
     }
 
     public static long key(int x, int y, int z) {
@@ -95,11 +121,31 @@ public class RenderRegion {
 
         this.sectionRenderData.clear();
 
-        if (this.resources != null) {
+        for (var commands : this.drawCommands.values()) {
+            commands.delete();
+        }
+
+        this.drawCommands.clear();
+
+        for (var batch : this.drawBatches.values()) {
+            batch.delete();
+        }
+
+        this.drawBatches.clear();
+
+        for (var buffer : this.drawCommandBuffers.values()) {
+            commandList.deleteBuffer(buffer);
+        }
+
+        this.drawCommandBuffers.clear();
+
+        // The shared resources belong to the region manager
+        if (this.resources != null && this.resources != this.sharedResources) {
             this.resources.delete(commandList);
-            this.resources = null;
         }
 
+        this.resources = null;
+
         Arrays.fill(this.sections, null);
     }
 
@@ -122,14 +168,50 @@ public class RenderRegion {
         return storage;
     }
 
+    public SectionDrawCommandStorage getOrCreateDrawCommands(TerrainRenderPass pass) {
+        var commands = this.drawCommands.get(pass);
+
+        if (commands == null) {
+            commands = new SectionDrawCommandStorage();
+            this.drawCommands.put(pass, commands);
+        }
+
+        return commands;
+    }
+
+    public SectionDrawBatchCache getOrCreateDrawBatchCache(TerrainRenderPass pass) {
+        var cache = this.drawBatches.get(pass);
+
+        if (cache == null) {
+            cache = new SectionDrawBatchCache();
+            this.drawBatches.put(pass, cache);
+        }
+
+        return cache;
+    }
+
+    public GlMutableBuffer getDrawCommandBuffer(TerrainRenderPass pass) {
+        return this.drawCommandBuffers.get(pass);
+    }
+
+    public GlMutableBuffer createDrawCommandBuffer(CommandList commandList, TerrainRenderPass pass) {
+        var buffer = commandList.createMutableBuffer();
+        commandList.allocateStorage(buffer, SectionDrawCommandStorage.BUFFER_SIZE, GlBufferUsage.DYNAMIC_DRAW);
+
+        this.drawCommandBuffers.put(pass, buffer);
+
+        return buffer;
+    }
+
     public void refreshTesselation(CommandList commandList) {
         if (this.resources != null) {
             this.resources.deleteTessellation(commandList);
             this.resources.deleteIndexedTessellation(commandList);
+            this.resources.deleteGeometryTexture(commandList);
         }
 
         for (var storage : this.sectionRenderData.values()) {
-            storage.onBufferResized();
+            storage.onVertexDataMoved();
         }
     }
 
@@ -138,7 +220,115 @@ public class RenderRegion {
             this.resources.deleteIndexedTessellation(commandList);
         }
 
-        this.sectionRenderData.get(DefaultTerrainRenderPasses.TRANSLUCENT).onIndexBufferResized();
+        var storage = this.sectionRenderData.get(DefaultTerrainRenderPasses.TRANSLUCENT);
+
+        if (storage != null) {
+            storage.onIndexDataMoved();
+        }
+    }
+
+    /**
+     * Updates the region after data in the geometry arena was moved.
+     *
+     * @param bufferChanged Whether the arena's buffer object was replaced
+     */
+    public void onGeometryMoved(CommandList commandList, boolean bufferChanged) {
+        if (bufferChanged) {
+            this.refreshTesselation(commandList);
+        } else {
+            for (var storage : this.sectionRenderData.values()) {
+                storage.onVertexDataMoved();
+            }
+        }
+    }
+
+    /**
+     * Updates the region after data in the index arena was moved.
+     *
+     * @param bufferChanged Whether the arena's buffer object was replaced
+     */
+    public void onIndicesMoved(CommandList commandList, boolean bufferChanged) {
+        if (bufferChanged) {
+            this.refreshIndexedTesselation(commandList);
+        } else {
+            var storage = this.sectionRenderData.get(DefaultTerrainRenderPasses.TRANSLUCENT);
+
+            if (storage != null) {
+                storage.onIndexDataMoved();
+            }
+        }
+    }
+
+    /**
+     * Incrementally compacts the region's arenas, copying at most {@code maxBytes} bytes.
+     *
+     * @return The number of bytes which were copied
+     */
+    public int compact(CommandList commandList, int maxBytes) {
+        if (this.resources == null || this.isUsingSharedResources()) {
+            return 0;
+        }
+
+        var geometryArena = this.resources.getGeometryArena();
+        var geometryBuffer = geometryArena.getBufferObject();
+        int geometryBytes = geometryArena.compact(commandList, maxBytes);
+
+        if (geometryArena.getBufferObject() != geometryBuffer || geometryBytes > 0) {
+            this.onGeometryMoved(commandList, geometryArena.getBufferObject() != geometryBuffer);
+        }
+
+        var indexArena = this.resources.getIndexArena();
+        var indexBuffer = indexArena.getBufferObject();
+        int indexBytes = indexArena.compact(commandList, maxBytes - geometryBytes);
+
+        if (indexArena.getBufferObject() != indexBuffer || indexBytes > 0) {
+            this.onIndicesMoved(commandList, indexArena.getBufferObject() != indexBuffer);
+        }
+
+        return geometryBytes + indexBytes;
+    }
+
+    public boolean isUsingSharedResources() {
+        return this.sharedResources != null;
+    }
+
+    public boolean hasSectionData(int sectionIndex) {
+        for (var storage : this.sectionRenderData.values()) {
+            if (storage.hasData(sectionIndex)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Removes the uploaded meshes of a section without removing the section from the region.
+     */
+    public void evictSectionData(int sectionIndex) {
+        for (var storage : this.sectionRenderData.values()) {
+            storage.removeData(sectionIndex);
+        }
+    }
+
+    /**
+     * @return The memory used by the region's resources, which includes the meshes of all other regions if
+     * {@link #isUsingSharedResources()} is true
+     */
+    public long getDeviceUsedMemory() {
+        if (this.resources == null) {
+            return 0;
+        }
+
+        return this.resources.getGeometryArena().getDeviceUsedMemory() + this.resources.getIndexArena().getDeviceUsedMemory();
+    }
+
+    public long getDeviceAllocatedMemory() {
+        if (this.resources == null) {
+            return 0;
+        }
+
+        return this.resources.getGeometryArena().getDeviceAllocatedMemory() + this.resources.getIndexArena().getDeviceAllocatedMemory();
     }
 
     public void addSection(RenderSection section) {
@@ -163,9 +353,7 @@ public class RenderRegion {
             throw new IllegalStateException("Tried to remove the wrong section");
         }
 
-        for (var storage : this.sectionRenderData.values()) {
-            storage.removeData(sectionIndex);
-        }
+        this.evictSectionData(sectionIndex);
 
         this.sections[sectionIndex] = null;
         this.sectionCount--;
@@ -181,21 +369,25 @@ public class RenderRegion {
 
     public DeviceResources createResources(CommandList commandList) {
         if (this.resources == null) {
-            this.resources = new DeviceResources(commandList, this.stagingBuffer);
+            if (this.sharedResources != null) {
+                this.resources = this.sharedResources;
+            } else {
+                this.resources = new DeviceResources(commandList, this.stagingBuffer, this.vertexType);
+            }
         }
 
         return this.resources;
     }
 
     public void update(CommandList commandList) {
-        if (this.resources != null && this.resources.shouldDelete()) {
+        if (this.resources != null && this.resources != this.sharedResources && this.resources.shouldDelete()) {
             this.resources.delete(commandList);
             this.resources = null;
         }
     }
 
-    public ChunkRenderList getRenderList() {
-        return this.renderList;
+    public ChunkRenderList getRenderList(int buffer) {
+        return this.renderLists[buffer];
     }
 
     public static class DeviceResources {
@@ -203,6 +395,7 @@ public class RenderRegion {
         private final GlBufferArena indexArena;
         private GlTessellation tessellation;
         private GlTessellation indexedTessellation;
+        private GlBufferTexture geometryTexture;
 
         /**
          * The buffer arenas return offsets in terms of how many stride units big things
@@ -212,16 +405,33 @@ public class RenderRegion {
          * two can't easily be combined because integers and vertices require different
          * amounts of data which makes the returned offsets incompatible.
          */
-        public DeviceResources(CommandList commandList, StagingBuffer stagingBuffer) {
-            int stride = ChunkMeshFormats.COMPACT.getVertexFormat().getStride();
+        public DeviceResources(CommandList commandList, StagingBuffer stagingBuffer, ChunkVertexType vertexType) {
+            int stride = vertexType.getVertexFormat().getStride();
 
             // the magic number 756 for the initial size is arbitrary, it was made up.
             var initialVertices = 756;
-            this.geometryArena = new GlBufferArena(commandList, REGION_SIZE * initialVertices, stride, stagingBuffer);
+            // Keep every mesh aligned to a whole quad, since the shader of the quad record format locates the
+            // record of a vertex by dividing its index by four
+            this.geometryArena = new GlBufferArena(commandList, REGION_SIZE * initialVertices, stride, 4, stagingBuffer);
             var initialIndices = (initialVertices / 4) * 6;
             this.indexArena = new GlBufferArena(commandList, REGION_SIZE * initialIndices, Integer.BYTES, stagingBuffer);
         }
 
+        /**
+         * Creates the resources which the meshes of all regions are allocated from. The arenas start out with space
+         * for {@code regionIncrement} regions and grow by that amount, since every resize copies the whole buffer.
+         */
+        public DeviceResources(CommandList commandList, StagingBuffer stagingBuffer, ChunkVertexType vertexType,
+                               int regionIncrement) {
+            int stride = vertexType.getVertexFormat().getStride();
+
+            var initialVertices = REGION_SIZE * 756 * regionIncrement;
+            this.geometryArena = new GlBufferArena(commandList, initialVertices, initialVertices, stride, 4, stagingBuffer);
+            // only translucent meshes have index data, so a fraction of the space is enough to start with
+            var initialIndices = ((initialVertices / 4) * 6) / 4;
+            this.indexArena = new GlBufferArena(commandList, initialIndices, initialIndices, Integer.BYTES, 1, stagingBuffer);
+        }
+
         public void updateTessellation(CommandList commandList, GlTessellation tessellation) {
             if (this.tessellation != null) {
                 this.tessellation.delete(commandList);
@@ -238,6 +448,23 @@ public class RenderRegion {
             this.indexedTessellation = tessellation;
         }
 
+        public void updateGeometryTexture(CommandList commandList, GlBufferTexture texture) {
+            this.deleteGeometryTexture(commandList);
+
+            this.geometryTexture = texture;
+        }
+
+        public GlBufferTexture getGeometryTexture() {
+            return this.geometryTexture;
+        }
+
+        public void deleteGeometryTexture(CommandList commandList) {
+            if (this.geometryTexture != null) {
+                commandList.deleteBufferTexture(this.geometryTexture);
+                this.geometryTexture = null;
+            }
+        }
+
         public GlTessellation getTessellation() {
             return this.tessellation;
         }
@@ -271,6 +498,7 @@ public class RenderRegion {
         public void delete(CommandList commandList) {
             this.deleteTessellation(commandList);
             this.deleteIndexedTessellation(commandList);
+            this.deleteGeometryTexture(commandList);
             this.geometryArena.delete(commandList);
             this.indexArena.delete(commandList);
         }
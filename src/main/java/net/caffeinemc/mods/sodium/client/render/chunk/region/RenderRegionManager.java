@@ -5,11 +5,13 @@ import it.unimi.dsi.fastutil.objects.Reference2ReferenceMap;
 import it.unimi.dsi.fastutil.objects.Reference2ReferenceOpenHashMap;
 import net.caffeinemc.mods.sodium.client.SodiumClientMod;
 import net.caffeinemc.mods.sodium.client.gl.arena.PendingUpload;
+import net.caffeinemc.mods.sodium.client.gl.arena.staging.ConcurrentStagingBuffer;
 import net.caffeinemc.mods.sodium.client.gl.arena.staging.FallbackStagingBuffer;
 import net.caffeinemc.mods.sodium.client.gl.arena.staging.MappedStagingBuffer;
 import net.caffeinemc.mods.sodium.client.gl.arena.staging.StagingBuffer;
 import net.caffeinemc.mods.sodium.client.gl.device.CommandList;
 import net.caffeinemc.mods.sodium.client.gl.device.RenderDevice;
+import net.caffeinemc.mods.sodium.client.gl.tessellation.GlIndexType;
 import net.caffeinemc.mods.sodium.client.render.chunk.RenderSection;
 import net.caffeinemc.mods.sodium.client.render.chunk.compile.BuilderTaskOutput;
 import net.caffeinemc.mods.sodium.client.render.chunk.compile.ChunkBuildOutput;
@@ -17,23 +19,52 @@ import net.caffeinemc.mods.sodium.client.render.chunk.compile.ChunkSortOutput;
 import net.caffeinemc.mods.sodium.client.render.chunk.data.BuiltSectionMeshParts;
 import net.caffeinemc.mods.sodium.client.render.chunk.terrain.DefaultTerrainRenderPasses;
 import net.caffeinemc.mods.sodium.client.render.chunk.terrain.TerrainRenderPass;
+import net.caffeinemc.mods.sodium.client.render.chunk.vertex.format.ChunkVertexType;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
 
 public class RenderRegionManager {
+    // The maximum number of bytes which are moved within region arenas to compact them each frame
+    private static final int MAX_COMPACTION_BYTES_PER_FRAME = 4 * 1024 * 1024;
+
+    // The number of regions the shared resources initially have space for, and grow by
+    private static final int SHARED_RESOURCES_REGION_INCREMENT = 16;
+
     private final Long2ReferenceOpenHashMap<RenderRegion> regions = new Long2ReferenceOpenHashMap<>();
 
     private final StagingBuffer stagingBuffer;
+    private final @Nullable ConcurrentStagingBuffer meshStagingBuffer;
+    private final ChunkVertexType vertexType;
 
-    public RenderRegionManager(CommandList commandList) {
+    // The resources which all regions allocate their meshes from, or null if each region owns its resources
+    private final RenderRegion.@Nullable DeviceResources sharedResources;
+
+    /**
+     * @param useSharedResources Whether the meshes of all regions are allocated from one set of buffers
+     */
+    public RenderRegionManager(CommandList commandList, ChunkVertexType vertexType, boolean useSharedResources) {
         this.stagingBuffer = createStagingBuffer(commandList);
+        this.meshStagingBuffer = createMeshStagingBuffer(commandList);
+        this.vertexType = vertexType;
+
+        if (useSharedResources) {
+            this.sharedResources = new RenderRegion.DeviceResources(commandList, this.stagingBuffer, vertexType,
+                    SHARED_RESOURCES_REGION_INCREMENT);
+        } else {
+            this.sharedResources = null;
+        }
     }
 
     public void update() {
         this.stagingBuffer.flip();
 
+        if (this.meshStagingBuffer != null) {
+            this.meshStagingBuffer.flip();
+        }
+
         try (CommandList commandList = RenderDevice.INSTANCE.createCommandList()) {
             Iterator<RenderRegion> it = this.regions.values()
                     .iterator();
@@ -48,6 +79,66 @@ public class RenderRegionManager {
                     it.remove();
                 }
             }
+
+            this.compactRegions(commandList);
+        }
+    }
+
+    private void compactRegions(CommandList commandList) {
+        if (this.sharedResources != null) {
+            this.compactSharedResources(commandList);
+            return;
+        }
+
+        int remainingBytes = MAX_COMPACTION_BYTES_PER_FRAME;
+
+        for (RenderRegion region : this.regions.values()) {
+            if (remainingBytes <= 0) {
+                break;
+            }
+
+            remainingBytes -= region.compact(commandList, remainingBytes);
+        }
+    }
+
+    private void compactSharedResources(CommandList commandList) {
+        var geometryArena = this.sharedResources.getGeometryArena();
+        var geometryBuffer = geometryArena.getBufferObject();
+        int geometryBytes = geometryArena.compact(commandList, MAX_COMPACTION_BYTES_PER_FRAME);
+
+        if (geometryArena.getBufferObject() != geometryBuffer || geometryBytes > 0) {
+            this.onSharedGeometryMoved(commandList, geometryArena.getBufferObject() != geometryBuffer);
+        }
+
+        var indexArena = this.sharedResources.getIndexArena();
+        var indexBuffer = indexArena.getBufferObject();
+        int indexBytes = indexArena.compact(commandList, MAX_COMPACTION_BYTES_PER_FRAME - geometryBytes);
+
+        if (indexArena.getBufferObject() != indexBuffer || indexBytes > 0) {
+            this.onSharedIndicesMoved(commandList, indexArena.getBufferObject() != indexBuffer);
+        }
+    }
+
+    // When the shared arenas move data, the meshes of any region may have been moved
+    private void onSharedGeometryMoved(CommandList commandList, boolean bufferChanged) {
+        if (bufferChanged) {
+            this.sharedResources.deleteTessellation(commandList);
+            this.sharedResources.deleteIndexedTessellation(commandList);
+            this.sharedResources.deleteGeometryTexture(commandList);
+        }
+
+        for (RenderRegion region : this.regions.values()) {
+            region.onGeometryMoved(commandList, bufferChanged);
+        }
+    }
+
+    private void onSharedIndicesMoved(CommandList commandList, boolean bufferChanged) {
+        if (bufferChanged) {
+            this.sharedResources.deleteIndexedTessellation(commandList);
+        }
+
+        for (RenderRegion region : this.regions.values()) {
+            region.onIndicesMoved(commandList, bufferChanged);
         }
     }
 
@@ -55,6 +146,10 @@ public class RenderRegionManager {
         for (var entry : this.createMeshUploadQueues(results)) {
             this.uploadResults(commandList, entry.getKey(), entry.getValue());
         }
+
+        if (this.meshStagingBuffer != null) {
+            this.meshStagingBuffer.flush(commandList);
+        }
     }
 
     private void uploadResults(CommandList commandList, RenderRegion region, Collection<BuilderTaskOutput> results) {
@@ -80,7 +175,7 @@ public class RenderRegionManager {
 
                     if (mesh != null) {
                         uploads.add(new PendingSectionMeshUpload(result.render, mesh, pass,
-                        new PendingUpload(mesh.getVertexData())));
+                        mesh.createUpload()));
                     }
                 }
             }
@@ -93,7 +188,7 @@ public class RenderRegionManager {
                     continue;
                 }
 
-                indexUploads.add(new PendingSectionIndexBufferUpload(result.render, new PendingUpload(buffer)));
+                indexUploads.add(new PendingSectionIndexBufferUpload(result.render, new PendingUpload(buffer), indexDataOutput.getIndexType()));
 
                 var storage = region.getStorage(DefaultTerrainRenderPasses.TRANSLUCENT);
                 if (storage != null) {
@@ -117,7 +212,11 @@ public class RenderRegionManager {
             // If any of the buffers changed, the tessellation will need to be updated
             // Once invalidated the tessellation will be re-created on the next attempted use
             if (bufferChanged) {
-                region.refreshTesselation(commandList);
+                if (region.isUsingSharedResources()) {
+                    this.onSharedGeometryMoved(commandList, true);
+                } else {
+                    region.refreshTesselation(commandList);
+                }
             }
 
             // Collect the upload results
@@ -134,12 +233,16 @@ public class RenderRegionManager {
                     .map(upload -> upload.indexBufferUpload));
 
             if (bufferChanged) {
-                region.refreshIndexedTesselation(commandList);
+                if (region.isUsingSharedResources()) {
+                    this.onSharedIndicesMoved(commandList, true);
+                } else {
+                    region.refreshIndexedTesselation(commandList);
+                }
             }
 
             for (PendingSectionIndexBufferUpload upload : indexUploads) {
                 var storage = region.createStorage(DefaultTerrainRenderPasses.TRANSLUCENT);
-                storage.setIndexData(upload.section.getSectionIndex(), upload.indexBufferUpload.getResult());
+                storage.setIndexData(upload.section.getSectionIndex(), upload.indexBufferUpload.getResult(), upload.indexType);
             }
         }
     }
@@ -161,17 +264,55 @@ public class RenderRegionManager {
         }
 
         this.regions.clear();
+
+        if (this.sharedResources != null) {
+            this.sharedResources.delete(commandList);
+        }
+
         this.stagingBuffer.delete(commandList);
+
+        if (this.meshStagingBuffer != null) {
+            this.meshStagingBuffer.delete(commandList);
+        }
     }
 
     public Collection<RenderRegion> getLoadedRegions() {
         return this.regions.values();
     }
 
+    /**
+     * @return The distinct device resources used by the loaded regions
+     */
+    public Collection<RenderRegion.DeviceResources> getDeviceResources() {
+        if (this.sharedResources != null) {
+            return List.of(this.sharedResources);
+        }
+
+        var list = new ArrayList<RenderRegion.DeviceResources>();
+
+        for (RenderRegion region : this.regions.values()) {
+            var resources = region.getResources();
+
+            if (resources != null) {
+                list.add(resources);
+            }
+        }
+
+        return list;
+    }
+
     public StagingBuffer getStagingBuffer() {
         return this.stagingBuffer;
     }
 
+    /**
+     * @return The staging buffer which chunk build tasks write their meshes into, or null if meshes are staged by
+     * the render thread instead
+     */
+    public @Nullable ConcurrentStagingBuffer getMeshStagingBuffer() {
+        return this.meshStagingBuffer;
+    }
+
     public RenderRegion createForChunk(int chunkX, int chunkY, int chunkZ) {
         return this.create(chunkX >> RenderRegion.REGION_WIDTH_SH,
                 chunkY >> RenderRegion.REGION_HEIGHT_SH,
@@ -184,7 +325,7 @@ public class RenderRegionManager {
         var instance = this.regions.get(key);
 
         if (instance == null) {
-            this.regions.put(key, instance = new RenderRegion(x, y, z, this.stagingBuffer));
+            this.regions.put(key, instance = new RenderRegion(x, y, z, this.stagingBuffer, this.vertexType, this.sharedResources));
         }
 
         return instance;
@@ -193,7 +334,7 @@ public class RenderRegionManager {
     private record PendingSectionMeshUpload(RenderSection section, BuiltSectionMeshParts meshData, TerrainRenderPass pass, PendingUpload vertexUpload) {
     }
 
-    private record PendingSectionIndexBufferUpload(RenderSection section, PendingUpload indexBufferUpload) {
+    private record PendingSectionIndexBufferUpload(RenderSection section, PendingUpload indexBufferUpload, GlIndexType indexType) {
     }
 
 
@@ -204,4 +345,14 @@ public class RenderRegionManager {
 
         return new FallbackStagingBuffer(commandList);
     }
+
+    private static ConcurrentStagingBuffer createMeshStagingBuffer(CommandList commandList) {
+        var options = SodiumClientMod.options().advanced;
+
+        if (options.useAdvancedStagingBuffers && options.useDirectMeshStaging && MappedStagingBuffer.isSupported(RenderDevice.INSTANCE)) {
+            return new ConcurrentStagingBuffer(commandList);
+        }
+
+        return null;
+    }
 }
@@ -1,11 +1,26 @@
 package net.caffeinemc.mods.sodium.client.render.chunk.shader;
 
+import net.caffeinemc.mods.sodium.client.render.chunk.vertex.format.ChunkMeshAttribute;
+
 public class ChunkShaderBindingPoints {
     public static final int ATTRIBUTE_POSITION_HI = 0;
     public static final int ATTRIBUTE_POSITION_LO = 1;
     public static final int ATTRIBUTE_COLOR = 2;
     public static final int ATTRIBUTE_TEXTURE = 3;
     public static final int ATTRIBUTE_LIGHT_MATERIAL_INDEX = 4;
+    public static final int ATTRIBUTE_POSITION = 5;
+    public static final int ATTRIBUTE_REGION_OFFSET = 6;
 
     public static final int FRAG_COLOR = 0;
+
+    public static int forAttribute(ChunkMeshAttribute attribute) {
+        return switch (attribute) {
+            case POSITION -> ATTRIBUTE_POSITION;
+            case POSITION_HI -> ATTRIBUTE_POSITION_HI;
+            case POSITION_LO -> ATTRIBUTE_POSITION_LO;
+            case COLOR -> ATTRIBUTE_COLOR;
+            case TEXTURE -> ATTRIBUTE_TEXTURE;
+            case LIGHT_MATERIAL_INDEX -> ATTRIBUTE_LIGHT_MATERIAL_INDEX;
+        };
+    }
 }
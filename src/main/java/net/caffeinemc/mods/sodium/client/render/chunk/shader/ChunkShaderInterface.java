@@ -1,6 +1,7 @@
 package net.caffeinemc.mods.sodium.client.render.chunk.shader;
 
 import com.mojang.blaze3d.platform.GlStateManager;
+import net.caffeinemc.mods.sodium.client.gl.buffer.GlBufferTexture;
 import net.caffeinemc.mods.sodium.client.gl.shader.uniform.GlUniformFloat3v;
 import net.caffeinemc.mods.sodium.client.gl.shader.uniform.GlUniformInt;
 import net.caffeinemc.mods.sodium.client.gl.shader.uniform.GlUniformMatrix4f;
@@ -27,12 +28,22 @@ public class ChunkShaderInterface {
     public ChunkShaderInterface(ShaderBindingContext context, ChunkShaderOptions options) {
         this.uniformModelViewMatrix = context.bindUniform("u_ModelViewMatrix", GlUniformMatrix4f::new);
         this.uniformProjectionMatrix = context.bindUniform("u_ProjectionMatrix", GlUniformMatrix4f::new);
-        this.uniformRegionOffset = context.bindUniform("u_RegionOffset", GlUniformFloat3v::new);
+
+        // The region offset is provided by a vertex attribute instead when drawing many regions at once
+        if (!options.useRegionOffsetAttribute()) {
+            this.uniformRegionOffset = context.bindUniform("u_RegionOffset", GlUniformFloat3v::new);
+        } else {
+            this.uniformRegionOffset = null;
+        }
 
         this.uniformTextures = new EnumMap<>(ChunkShaderTextureSlot.class);
         this.uniformTextures.put(ChunkShaderTextureSlot.BLOCK, context.bindUniform("u_BlockTex", GlUniformInt::new));
         this.uniformTextures.put(ChunkShaderTextureSlot.LIGHT, context.bindUniform("u_LightTex", GlUniformInt::new));
 
+        if (options.vertexType().usesGeometryTexture()) {
+            this.uniformTextures.put(ChunkShaderTextureSlot.GEOMETRY, context.bindUniform("u_GeometryTex", GlUniformInt::new));
+        }
+
         this.fogShader = options.fog().getFactory().apply(context);
     }
 
@@ -53,6 +64,14 @@ public class ChunkShaderInterface {
         uniform.setInt(slot.ordinal());
     }
 
+    public void setGeometryTexture(GlBufferTexture texture) {
+        GlStateManager._activeTexture(GL32C.GL_TEXTURE0 + ChunkShaderTextureSlot.GEOMETRY.ordinal());
+        GL32C.glBindTexture(GL32C.GL_TEXTURE_BUFFER, texture.handle());
+
+        var uniform = this.uniformTextures.get(ChunkShaderTextureSlot.GEOMETRY);
+        uniform.setInt(ChunkShaderTextureSlot.GEOMETRY.ordinal());
+    }
+
     public void setProjectionMatrix(Matrix4fc matrix) {
         this.uniformProjectionMatrix.set(matrix);
     }
@@ -4,7 +4,12 @@ import net.caffeinemc.mods.sodium.client.gl.shader.ShaderConstants;
 import net.caffeinemc.mods.sodium.client.render.chunk.terrain.TerrainRenderPass;
 import net.caffeinemc.mods.sodium.client.render.chunk.vertex.format.ChunkVertexType;
 
-public record ChunkShaderOptions(ChunkFogMode fog, TerrainRenderPass pass, ChunkVertexType vertexType) {
+/**
+ * @param useRegionOffsetAttribute Whether the region offset is read from a per-draw vertex attribute instead of a
+ *                                 uniform, which allows the sections of many regions to be drawn with one call
+ */
+public record ChunkShaderOptions(ChunkFogMode fog, TerrainRenderPass pass, ChunkVertexType vertexType,
+                                 boolean useRegionOffsetAttribute) {
     public ShaderConstants constants() {
         ShaderConstants.Builder constants = ShaderConstants.builder();
         constants.addAll(this.fog.getDefines());
@@ -13,7 +18,12 @@ public record ChunkShaderOptions(ChunkFogMode fog, TerrainRenderPass pass, Chunk
             constants.add("USE_FRAGMENT_DISCARD");
         }
 
-        constants.add("USE_VERTEX_COMPRESSION"); // TODO: allow compact vertex format to be disabled
+        constants.add("USE_VERTEX_COMPRESSION");
+        constants.addAll(this.vertexType.getDefines());
+
+        if (this.useRegionOffsetAttribute) {
+            constants.add("USE_REGION_OFFSET_ATTRIBUTE");
+        }
 
         return constants.build();
     }
@@ -2,7 +2,8 @@ package net.caffeinemc.mods.sodium.client.render.chunk.shader;
 
 public enum ChunkShaderTextureSlot {
     BLOCK,
-    LIGHT;
+    LIGHT,
+    GEOMETRY;
 
     public static final ChunkShaderTextureSlot[] VALUES = ChunkShaderTextureSlot.values();
 }
@@ -0,0 +1,103 @@
+package net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting;
+
+import net.caffeinemc.mods.sodium.client.SodiumClientMod;
+import net.minecraft.core.SectionPos;
+import org.joml.Vector3dc;
+
+/**
+ * Distance tiers reduce the accuracy of translucency sorting for sections that
+ * are far away from the camera, where sorting errors are hard to see. Sections
+ * in the near tier are sorted as usual, sections in the mid tier only get a
+ * static normal-relative sort and are never triggered, and sections in the far
+ * tier aren't sorted at all.
+ *
+ * The tier of a section is determined when it's built, since the sort type
+ * also determines the layout of its mesh. When the camera moves, sections whose
+ * tier changed in a way that affects their sort type are rebuilt.
+ */
+public enum SortDistanceTier {
+    NEAR,
+    MID,
+    FAR;
+
+    /**
+     * Reduces the given sort type to what this tier allows.
+     *
+     * @param sortType the sort type the section would have without distance tiers
+     */
+    public SortType filterSortType(SortType sortType) {
+        if (!isTiered(sortType)) {
+            return sortType;
+        }
+
+        return switch (this) {
+            case NEAR -> sortType;
+            case MID -> SortType.STATIC_NORMAL_RELATIVE;
+            case FAR -> SortType.NONE;
+        };
+    }
+
+    /**
+     * @return whether the given sort type may be changed by the distance tier
+     */
+    public static boolean isTiered(SortType sortType) {
+        return sortType == SortType.STATIC_NORMAL_RELATIVE
+                || sortType == SortType.STATIC_TOPO
+                || sortType == SortType.DYNAMIC;
+    }
+
+    /**
+     * @return whether sections with the given sort type need to be rebuilt when
+     *         their tier changes from this tier to the given one
+     */
+    public boolean changesSortType(SortDistanceTier newTier, SortType sortType) {
+        return this.filterSortType(sortType) != newTier.filterSortType(sortType);
+    }
+
+    public static boolean isEnabled() {
+        var options = SodiumClientMod.options().performance;
+        return options.dynamicSortDistance != 0 || options.staticSortDistance != 0;
+    }
+
+    /**
+     * Determines the tier of a section from its distance to the camera in
+     * sections, measured along the axis on which it's the farthest away.
+     */
+    public static SortDistanceTier forSection(int sectionX, int sectionY, int sectionZ, Vector3dc cameraPos) {
+        var options = SodiumClientMod.options().performance;
+
+        int distance = getDistance(sectionX, sectionY, sectionZ,
+                SectionPos.posToSectionCoord(cameraPos.x()),
+                SectionPos.posToSectionCoord(cameraPos.y()),
+                SectionPos.posToSectionCoord(cameraPos.z()));
+
+        return forDistance(distance, options.dynamicSortDistance, options.staticSortDistance);
+    }
+
+    /**
+     * Determines the tier of a section at the given distance, for callers which
+     * check many sections and read the sort distances from the options once.
+     * A sort distance of 0 disables the respective tier.
+     */
+    public static SortDistanceTier forDistance(int distance, int dynamicSortDistance, int staticSortDistance) {
+        if (staticSortDistance != 0 && distance > staticSortDistance) {
+            return FAR;
+        }
+
+        if (dynamicSortDistance != 0 && distance > dynamicSortDistance) {
+            return MID;
+        }
+
+        return NEAR;
+    }
+
+    /**
+     * @return the distance between the two sections in sections, along the
+     *         axis on which they're the farthest apart
+     */
+    public static int getDistance(int sectionX, int sectionY, int sectionZ,
+            int cameraSectionX, int cameraSectionY, int cameraSectionZ) {
+        return Math.max(Math.abs(sectionX - cameraSectionX),
+                Math.max(Math.abs(sectionY - cameraSectionY), Math.abs(sectionZ - cameraSectionZ)));
+    }
+}
@@ -85,13 +85,16 @@ public class TranslucentGeometryCollector {
     private ReferenceArrayList<TQuad>[] quadLists = new ReferenceArrayList[ModelQuadFacing.COUNT];
     private TQuad[] quads;
 
+    private final SortDistanceTier sortTier;
+    private SortType requestedSortType;
     private SortType sortType;
 
     private boolean quadHashPresent = false;
     private int quadHash = 0;
 
-    public TranslucentGeometryCollector(SectionPos sectionPos) {
+    public TranslucentGeometryCollector(SectionPos sectionPos, SortDistanceTier sortTier) {
         this.sectionPos = sectionPos;
+        this.sortTier = sortTier;
     }
 
     private static final float INV_QUANTIZE_EPSILON = 256f;
@@ -457,10 +460,29 @@ public class TranslucentGeometryCollector {
         }
         this.quadLists = null; // they're not needed anymore
 
-        this.sortType = filterSortType(sortTypeHeuristic());
+        this.requestedSortType = filterSortType(sortTypeHeuristic());
+        this.sortType = this.sortTier.filterSortType(this.requestedSortType);
         return this.sortType;
     }
 
+    /**
+     * @return the sort type the section would have had without its distance tier
+     */
+    public SortType getRequestedSortType() {
+        return this.requestedSortType;
+    }
+
+    /**
+     * Checks if existing translucent data of the given sort type can be reused.
+     * The sort type of the section can change without any change to its geometry
+     * when it moves into a different distance tier. Static topo sorting falls back
+     * to dynamic sorting when it fails, which produces the same result again.
+     */
+    private boolean isReusableSortType(SortType oldSortType) {
+        return oldSortType == this.sortType
+                || (this.sortType == SortType.STATIC_TOPO && oldSortType == SortType.DYNAMIC);
+    }
+
     private TranslucentData makeNewTranslucentData(BuiltSectionMeshParts translucentMesh, CombinedCameraPos cameraPos,
                                                    TranslucentData oldData) {
         if (this.sortType == SortType.NONE) {
@@ -540,7 +562,8 @@ public class TranslucentGeometryCollector {
 
             // for the other sort types the geometry needs to be the same (checked with
             // length and hash)
-            if (oldData instanceof PresentTranslucentData oldPresentData) {
+            if (oldData instanceof PresentTranslucentData oldPresentData
+                    && this.isReusableSortType(oldPresentData.getSortType())) {
                 if (oldPresentData.getQuadCount() == this.quads.length
                         && oldPresentData.getQuadHash() == getQuadHash(this.quads)) {
                     return oldPresentData;
@@ -12,13 +12,27 @@ import net.caffeinemc.mods.sodium.client.util.NativeBuffer;
  * The sort state is passed around the tree (similar to visitor pattern) and
  * contains the index buffer being written to alongside additional state for
  * remapping indexes when traversing the subtree of a reused node.
+ * <p>
+ * Reused nodes can contain other nodes which were reused in an earlier build.
+ * The indexes of such an inner node are first remapped to the indexes of the
+ * build in which the outer node was created, and then by the outer node to the
+ * current indexes. The active modifications are therefore kept on a stack, and
+ * applied from the innermost to the outermost.
  */
 class BSPSortState {
     static final int NO_FIXED_OFFSET = Integer.MIN_VALUE;
 
+    // each reused node on the stack is at a different depth at which node reuse is prepared
+    private static final int MAX_MODIFICATION_DEPTH = InnerPartitionBSPNode.MAX_NODE_REUSE_DEPTH + 1;
+
     private IntBuffer indexBuffer;
 
-    private int indexModificationsRemaining;
+    private int modificationDepth;
+    private final int[] indexModificationsRemaining = new int[MAX_MODIFICATION_DEPTH];
+    private final int[][] indexMaps = new int[MAX_MODIFICATION_DEPTH][];
+    private final int[] fixedIndexOffsets = new int[MAX_MODIFICATION_DEPTH];
+
+    // the modification at the top of the stack, only used if it's the only one
     private int[] indexMap;
     private int fixedIndexOffset = NO_FIXED_OFFSET;
 
@@ -27,37 +41,60 @@ class BSPSortState {
     }
 
     void startNode(InnerPartitionBSPNode node) {
-        if (node.indexMap != null) {
-            if (this.indexMap != null || this.fixedIndexOffset != NO_FIXED_OFFSET) {
-                throw new IllegalStateException("Index modification already in progress");
-            }
-
-            this.indexMap = node.indexMap;
-            this.indexModificationsRemaining = node.reuseData.indexCount();
-        } else if (node.fixedIndexOffset != NO_FIXED_OFFSET) {
-            if (this.indexMap != null || this.fixedIndexOffset != NO_FIXED_OFFSET) {
-                throw new IllegalStateException("Index modification already in progress");
-            }
+        if (node.indexMap == null && node.fixedIndexOffset == NO_FIXED_OFFSET) {
+            return;
+        }
 
-            this.fixedIndexOffset = node.fixedIndexOffset;
-            this.indexModificationsRemaining = node.reuseData.indexCount();
+        if (this.modificationDepth == MAX_MODIFICATION_DEPTH) {
+            throw new IllegalStateException("Too many nested index modifications");
         }
+
+        int level = this.modificationDepth++;
+        this.indexMaps[level] = node.indexMap;
+        this.fixedIndexOffsets[level] = node.fixedIndexOffset;
+        this.indexModificationsRemaining[level] = node.reuseData.indexCount();
+
+        this.updateTopModification();
     }
 
-    private void checkModificationCounter(int reduceBy) {
-        this.indexModificationsRemaining -= reduceBy;
-        if (this.indexModificationsRemaining <= 0) {
+    private void updateTopModification() {
+        if (this.modificationDepth == 1) {
+            this.indexMap = this.indexMaps[0];
+            this.fixedIndexOffset = this.indexMap == null ? this.fixedIndexOffsets[0] : NO_FIXED_OFFSET;
+        } else {
             this.indexMap = null;
             this.fixedIndexOffset = NO_FIXED_OFFSET;
         }
     }
 
+    private void checkModificationCounter(int reduceBy) {
+        for (int level = 0; level < this.modificationDepth; level++) {
+            this.indexModificationsRemaining[level] -= reduceBy;
+        }
+
+        // the innermost modifications always end first, since their indexes are part of the outer ones
+        boolean ended = false;
+        while (this.modificationDepth > 0 && this.indexModificationsRemaining[this.modificationDepth - 1] <= 0) {
+            this.indexMaps[--this.modificationDepth] = null;
+            ended = true;
+        }
+
+        if (ended) {
+            this.updateTopModification();
+        }
+    }
+
+    private int modifyIndex(int index) {
+        for (int level = this.modificationDepth - 1; level >= 0; level--) {
+            var map = this.indexMaps[level];
+            index = map != null ? map[index] : index + this.fixedIndexOffsets[level];
+        }
+        return index;
+    }
+
     void writeIndex(int index) {
-        if (this.indexMap != null) {
-            TranslucentData.writeQuadVertexIndexes(this.indexBuffer, this.indexMap[index]);
-            checkModificationCounter(1);
-        } else if (this.fixedIndexOffset != NO_FIXED_OFFSET) {
-            TranslucentData.writeQuadVertexIndexes(this.indexBuffer, this.fixedIndexOffset + index);
+        if (this.modificationDepth > 0) {
+            TranslucentData.writeQuadVertexIndexes(this.indexBuffer, this.modifyIndex(index));
             checkModificationCounter(1);
         } else {
             TranslucentData.writeQuadVertexIndexes(this.indexBuffer, index);
@@ -229,7 +266,7 @@ class BSPSortState {
         // read compression header
         int header = indexes[0];
         int widthIndex = (header >> 27) & 0b1111;
-        int currentValue = header & 0b11111111111111111 + fixedIndexOffset;
+        int currentValue = (header & 0b11111111111111111) + fixedIndexOffset;
         int valueCount = ((header >> 17) & 0b1111111111) + 1;
         int baseDelta = indexes[1]; // second piece of the header
 
@@ -284,7 +321,16 @@ class BSPSortState {
     private IntConsumer indexMapConsumer = (int index) -> TranslucentData.writeQuadVertexIndexes(
             this.indexBuffer, this.indexMap[index]);
 
+    private IntConsumer nestedModificationConsumer = (int index) -> TranslucentData.writeQuadVertexIndexes(
+            this.indexBuffer, this.modifyIndex(index));
+
     void writeIndexes(int[] indexes) {
+        if (this.modificationDepth > 1) {
+            // nested modifications are applied one by one
+            checkModificationCounter(decompressOrRead(indexes, this.nestedModificationConsumer));
+            return;
+        }
+
         boolean useIndexMap = this.indexMap != null;
         boolean useFixedIndexOffset = this.fixedIndexOffset != NO_FIXED_OFFSET;
 
@@ -23,7 +23,13 @@ public class InnerFixedDoubleBSPNode extends InnerPartitionBSPNode {
 
     @Override
     void addPartitionPlanes(BSPWorkspace workspace) {
-        // no-op
+        // this node has no plane itself, but its children might when it's reused
+        if (this.first instanceof InnerPartitionBSPNode firstChild) {
+            firstChild.addPartitionPlanes(workspace);
+        }
+        if (this.second instanceof InnerPartitionBSPNode secondChild) {
+            secondChild.addPartitionPlanes(workspace);
+        }
     }
 
     static BSPNode buildFromParts(BSPWorkspace workspace, IntArrayList indexes, int depth, BSPNode oldNode, IntArrayList first, IntArrayList second) {
@@ -12,6 +12,7 @@ import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.Transl
 import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.data.TopoGraphSorting;
 import net.caffeinemc.mods.sodium.client.util.MathUtil;
 import net.caffeinemc.mods.sodium.client.util.sorting.RadixSort;
+import net.caffeinemc.mods.sodium.client.util.sorting.RadixSortWorkspace;
 import net.minecraft.util.Mth;
 import org.joml.Vector3fc;
 
@@ -51,6 +52,16 @@ import java.util.Random;
  */
 abstract class InnerPartitionBSPNode extends BSPNode {
     private static final int NODE_REUSE_THRESHOLD = 30;
+
+    /**
+     * The deepest level of the tree at which nodes are prepared for reuse. The
+     * root is at depth zero, and reusing it means that nothing about the
+     * geometry that the BSP cares about has changed. Below it, untouched
+     * subtrees can be reused while the partitions containing the changed
+     * quads are rebuilt. Deeper levels have too few quads to be worth the
+     * memory of storing their extents.
+     */
+    static final int MAX_NODE_REUSE_DEPTH = 3;
     private static final int MAX_INTERSECTION_ATTEMPTS = 500;
 
     final Vector3fc planeNormal;
@@ -83,9 +94,8 @@ abstract class InnerPartitionBSPNode extends BSPNode {
     abstract void addPartitionPlanes(BSPWorkspace workspace);
 
     static NodeReuseData prepareNodeReuse(BSPWorkspace workspace, IntArrayList indexes, int depth) {
-        // if node reuse is enabled, only enable on the first level of children (not the
-        // root node and not anything deeper than its children)
-        if (workspace.prepareNodeReuse && depth == 1 && indexes.size() > NODE_REUSE_THRESHOLD) {
+        // if node reuse is enabled, only enable on the first few levels of the tree
+        if (workspace.prepareNodeReuse && depth <= MAX_NODE_REUSE_DEPTH && indexes.size() > NODE_REUSE_THRESHOLD) {
             // collect the extents of the indexed quads and hash them
             var quadExtents = new float[indexes.size()][];
             int maxIndex = -1;
@@ -531,17 +541,19 @@ abstract class InnerPartitionBSPNode extends BSPNode {
 
         // adapted from SNR sorting code
         if (RadixSort.useRadixSort(indexes.size())) {
-            final var keys = new int[indexes.size()];
+            final var sortWorkspace = RadixSortWorkspace.get();
+            final var keys = sortWorkspace.getKeys(indexes.size());
 
             for (int i = 0; i < indexes.size(); i++) {
                 var quadIndex = indexes.getInt(i);
                 keys[i] = MathUtil.floatToComparableInt(workspace.quads[quadIndex].getDotProduct());
             }
 
-            quadIndexes = RadixSort.sort(keys);
+            var sortedIndexes = sortWorkspace.sort(indexes.size());
+            quadIndexes = new int[indexes.size()];
 
             for (int i = 0; i < indexes.size(); i++) {
-                quadIndexes[i] = indexes.getInt(quadIndexes[i]);
+                quadIndexes[i] = indexes.getInt(sortedIndexes[i]);
             }
         } else {
             final var sortData = points.elements();
@@ -13,5 +13,6 @@ abstract class DynamicSorter extends Sorter {
     public void writeIndexBuffer(CombinedCameraPos cameraPos, boolean initial) {
         this.initBufferWithQuadLength(this.quadCount);
         this.writeSort(cameraPos, initial);
+        this.finishIndexBuffer(this.quadCount);
     }
 }
@@ -6,6 +6,7 @@ import net.caffeinemc.mods.sodium.client.render.chunk.data.BuiltSectionMeshParts
 import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.TQuad;
 import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.trigger.GeometryPlanes;
 import net.caffeinemc.mods.sodium.client.util.sorting.RadixSort;
+import net.caffeinemc.mods.sodium.client.util.sorting.RadixSortWorkspace;
 import net.minecraft.core.SectionPos;
 import org.joml.Vector3dc;
 import org.joml.Vector3fc;
@@ -225,13 +226,14 @@ public class DynamicTopoData extends DynamicData {
         if (quads.length <= 1) {
             TranslucentData.writeQuadVertexIndexes(indexBuffer, 0);
         } else if (RadixSort.useRadixSort(quads.length)) {
-            final var keys = new int[quads.length];
+            final var workspace = RadixSortWorkspace.get();
+            final var keys = workspace.getKeys(quads.length);
 
             for (int q = 0; q < quads.length; q++) {
                 keys[q] = ~Float.floatToRawIntBits(quads[q].getCenter().distanceSquared(cameraPos));
             }
 
-            var indices = RadixSort.sort(keys);
+            var indices = workspace.sort(quads.length);
 
             for (int i = 0; i < quads.length; i++) {
                 TranslucentData.writeQuadVertexIndexes(indexBuffer, indices[i]);
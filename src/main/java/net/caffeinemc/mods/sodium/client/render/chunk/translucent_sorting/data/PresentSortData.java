@@ -1,5 +1,6 @@
 package net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.data;
 
+import net.caffeinemc.mods.sodium.client.gl.tessellation.GlIndexType;
 import net.caffeinemc.mods.sodium.client.util.NativeBuffer;
 
 import java.nio.IntBuffer;
@@ -7,6 +8,8 @@ import java.nio.IntBuffer;
 public interface PresentSortData {
     NativeBuffer getIndexBuffer();
 
+    GlIndexType getIndexType();
+
     default IntBuffer getIntBuffer() {
         return this.getIndexBuffer().getDirectBuffer().asIntBuffer();
     }
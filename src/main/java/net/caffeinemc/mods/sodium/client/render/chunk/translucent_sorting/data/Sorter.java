@@ -1,9 +1,12 @@
 package net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.data;
 
+import net.caffeinemc.mods.sodium.client.gl.tessellation.GlIndexType;
 import net.caffeinemc.mods.sodium.client.util.NativeBuffer;
+import org.lwjgl.system.MemoryUtil;
 
 public abstract class Sorter implements PresentSortData {
     private NativeBuffer indexBuffer;
+    private GlIndexType indexType = GlIndexType.UNSIGNED_INT;
 
     public abstract void writeIndexBuffer(CombinedCameraPos cameraPos, boolean initial);
 
@@ -12,7 +15,41 @@ public abstract class Sorter implements PresentSortData {
         return this.indexBuffer;
     }
 
+    @Override
+    public GlIndexType getIndexType() {
+        return this.indexType;
+    }
+
     void initBufferWithQuadLength(int quadCount) {
         this.indexBuffer = new NativeBuffer(TranslucentData.quadCountToIndexBytes(quadCount));
+        this.indexType = GlIndexType.UNSIGNED_INT;
+    }
+
+    /**
+     * Narrows the written indices to 16 bits if every vertex of the section can be addressed with them, which halves
+     * the size of the index data that is uploaded. The sorting algorithms always write 32-bit indices, since the
+     * narrowing pass is much cheaper than the sort itself and keeps them independent of the index type.
+     *
+     * The indices are narrowed in place into the front half of the buffer. Each short is written at or before the
+     * position of the int it's read from, so no index is overwritten before it has been read.
+     */
+    void finishIndexBuffer(int quadCount) {
+        if (quadCount <= 0 || this.indexType == GlIndexType.UNSIGNED_SHORT ||
+                TranslucentData.getIndexType(quadCount) != GlIndexType.UNSIGNED_SHORT) {
+            return;
+        }
+
+        var buffer = this.indexBuffer;
+        var indexCount = quadCount * TranslucentData.INDICES_PER_QUAD;
+
+        long ptr = MemoryUtil.memAddress(buffer.getDirectBuffer());
+
+        for (int i = 0; i < indexCount; i++) {
+            MemoryUtil.memPutShort(ptr + (i * 2L), (short) MemoryUtil.memGetInt(ptr + (i * 4L)));
+        }
+
+        buffer.truncate(indexCount * GlIndexType.UNSIGNED_SHORT.getStride());
+
+        this.indexType = GlIndexType.UNSIGNED_SHORT;
     }
 }
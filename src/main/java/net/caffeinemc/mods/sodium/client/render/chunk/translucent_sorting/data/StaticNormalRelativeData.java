@@ -6,6 +6,7 @@ import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.SortTy
 import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.TQuad;
 import net.caffeinemc.mods.sodium.client.util.MathUtil;
 import net.caffeinemc.mods.sodium.client.util.sorting.RadixSort;
+import net.caffeinemc.mods.sodium.client.util.sorting.RadixSortWorkspace;
 import net.minecraft.core.SectionPos;
 
 import java.util.Arrays;
@@ -48,13 +49,14 @@ public class StaticNormalRelativeData extends SplitDirectionData {
         if (quads.length <= 1) {
             TranslucentData.writeQuadVertexIndexes(indexBuffer, 0);
         } else if (RadixSort.useRadixSort(quads.length)) {
-            final var keys = new int[quads.length];
+            final var workspace = RadixSortWorkspace.get();
+            final var keys = workspace.getKeys(quads.length);
 
             for (int q = 0; q < quads.length; q++) {
                 keys[q] = MathUtil.floatToComparableInt(quads[q].getDotProduct());
             }
 
-            var indices = RadixSort.sort(keys);
+            var indices = workspace.sort(quads.length);
 
             for (int i = 0; i < quads.length; i++) {
                 TranslucentData.writeQuadVertexIndexes(indexBuffer, indices[i]);
@@ -120,13 +122,14 @@ public class StaticNormalRelativeData extends SplitDirectionData {
                 TranslucentData.writeQuadVertexIndexes(indexBuffer, 0);
                 quadIndex++;
             } else if (RadixSort.useRadixSort(count)) {
-                final var keys = new int[count];
+                final var workspace = RadixSortWorkspace.get();
+                final var keys = workspace.getKeys(count);
 
                 for (int q = 0; q < count; q++) {
                     keys[q] = MathUtil.floatToComparableInt(quads[quadIndex++].getDotProduct());
                 }
 
-                var indices = RadixSort.sort(keys);
+                var indices = workspace.sort(count);
 
                 for (int i = 0; i < count; i++) {
                     TranslucentData.writeQuadVertexIndexes(indexBuffer, indices[i]);
@@ -1,12 +1,16 @@
 package net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.data;
 
 class StaticSorter extends Sorter {
+    private final int quadCount;
+
     StaticSorter(int quadCount) {
+        this.quadCount = quadCount;
         this.initBufferWithQuadLength(quadCount);
     }
 
     @Override
     public void writeIndexBuffer(CombinedCameraPos cameraPos, boolean initial) {
-        // no-op
+        // the indices were already written when the sorter was created
+        this.finishIndexBuffer(this.quadCount);
     }
 }
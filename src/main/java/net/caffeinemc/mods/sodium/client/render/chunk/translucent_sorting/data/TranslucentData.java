@@ -4,6 +4,7 @@ import java.nio.IntBuffer;
 
 import org.joml.Vector3fc;
 
+import net.caffeinemc.mods.sodium.client.gl.tessellation.GlIndexType;
 import net.caffeinemc.mods.sodium.client.gl.util.VertexRange;
 import net.caffeinemc.mods.sodium.client.model.quad.properties.ModelQuadFacing;
 import net.caffeinemc.mods.sodium.client.render.chunk.data.BuiltSectionMeshParts;
@@ -20,6 +21,11 @@ public abstract class TranslucentData {
     public static final int BYTES_PER_INDEX = 4;
     public static final int BYTES_PER_QUAD = INDICES_PER_QUAD * BYTES_PER_INDEX;
 
+    /**
+     * The largest number of vertices that can be addressed by 16-bit indices.
+     */
+    public static final int MAX_SHORT_INDEX_VERTICES = 1 << 16;
+
     public final SectionPos sectionPos;
 
     TranslucentData(SectionPos sectionPos) {
@@ -50,6 +56,17 @@ public abstract class TranslucentData {
         return indexBytes / BYTES_PER_QUAD;
     }
 
+    /**
+     * Returns the smallest index type which can address all vertices of a section with the given number of quads.
+     * Indices are relative to the start of the section's geometry (or to each facing), so the section's total
+     * vertex count is a conservative bound.
+     */
+    public static GlIndexType getIndexType(int quadCount) {
+        return quadCount * VERTICES_PER_QUAD <= MAX_SHORT_INDEX_VERTICES
+                ? GlIndexType.UNSIGNED_SHORT
+                : GlIndexType.UNSIGNED_INT;
+    }
+
     public static void writeQuadVertexIndexes(IntBuffer intBuffer, int quadIndex) {
         int vertexOffset = quadIndex * VERTICES_PER_QUAD;
 
@@ -1,7 +1,5 @@
 package net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.trigger;
 
-import com.lodborg.intervaltree.DoubleInterval;
-
 import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.AlignableNormal;
 
 /**
@@ -29,7 +27,8 @@ class Group {
      * The closed (inclusive of both boundaries) minimum and maximum distances.
      * Absolute values, not relative to the base distance.
      */
-    DoubleInterval distances;
+    double minDistance;
+    double maxDistance;
 
     double baseDistance;
 
@@ -41,7 +40,8 @@ class Group {
 
     void replaceWith(NormalPlanes normalPlanes) {
         this.sectionPos = normalPlanes.sectionPos.asLong();
-        this.distances = normalPlanes.distanceRange;
+        this.minDistance = normalPlanes.minDistance;
+        this.maxDistance = normalPlanes.maxDistance;
         this.relDistanceHash = normalPlanes.relDistanceHash;
         this.facePlaneDistances = normalPlanes.relativeDistances;
         this.baseDistance = normalPlanes.baseDistance;
@@ -49,7 +49,7 @@ class Group {
     }
 
     private boolean planeTriggered(double start, double end) {
-        return start < this.distances.getEnd() && end > this.distances.getStart()
+        return start < this.maxDistance && end > this.minDistance
                 && AlignableNormal.queryRange(this.facePlaneDistances,
                         (float) (start - this.baseDistance), (float) (end - this.baseDistance));
     }
@@ -75,7 +75,8 @@ class Group {
      */
     boolean normalPlanesEquals(NormalPlanes normalPlanes) {
         return this.facePlaneDistances.length == normalPlanes.relativeDistancesSet.size()
-                && this.distances.equals(normalPlanes.distanceRange)
+                && this.minDistance == normalPlanes.minDistance
+                && this.maxDistance == normalPlanes.maxDistance
                 && this.relDistanceHash == normalPlanes.relDistanceHash;
     }
 }
@@ -0,0 +1,149 @@
+package net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.trigger;
+
+import java.util.Arrays;
+
+/**
+ * An index of the distance intervals of groups that finds the groups
+ * overlapping a query interval without allocating. The groups are stored in
+ * arrays sorted by the start of their intervals, which are treated as an
+ * implicit balanced binary tree: the middle element of each range is the root
+ * of the subtree spanning that range. Each node additionally stores the largest
+ * end of the intervals in its subtree. Queries skip subtrees whose intervals all
+ * end before the query interval using these maxima, and stop at nodes that start
+ * after it using the sort order.
+ *
+ * Inserting and removing a group shifts the elements after it, which is cheap
+ * for the number of groups in a normal list. The subtree maxima are only
+ * recomputed before the next query after a change.
+ */
+class GroupIntervalIndex {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private Group[] groups = new Group[INITIAL_CAPACITY];
+    private double[] starts = new double[INITIAL_CAPACITY];
+    private double[] ends = new double[INITIAL_CAPACITY];
+    private double[] subtreeMaxEnds = new double[INITIAL_CAPACITY];
+
+    private int size = 0;
+    private boolean maxEndsDirty = false;
+
+    /**
+     * Adds a group to the index. The interval of the group must not change while
+     * it's in the index.
+     */
+    void add(Group group) {
+        if (this.size == this.groups.length) {
+            int capacity = this.groups.length * 2;
+            this.groups = Arrays.copyOf(this.groups, capacity);
+            this.starts = Arrays.copyOf(this.starts, capacity);
+            this.ends = Arrays.copyOf(this.ends, capacity);
+            this.subtreeMaxEnds = new double[capacity];
+        }
+
+        // insert after all groups with the same start
+        int index = this.findFirstAfter(group.minDistance);
+        int moved = this.size - index;
+        System.arraycopy(this.groups, index, this.groups, index + 1, moved);
+        System.arraycopy(this.starts, index, this.starts, index + 1, moved);
+        System.arraycopy(this.ends, index, this.ends, index + 1, moved);
+
+        this.groups[index] = group;
+        this.starts[index] = group.minDistance;
+        this.ends[index] = group.maxDistance;
+
+        this.size++;
+        this.maxEndsDirty = true;
+    }
+
+    void remove(Group group) {
+        // find the first group with the same start and search for the group among those
+        int index = this.findFirstAfter(Math.nextDown(group.minDistance));
+
+        for (; index < this.size && this.starts[index] == group.minDistance; index++) {
+            if (this.groups[index] == group) {
+                int moved = this.size - index - 1;
+                System.arraycopy(this.groups, index + 1, this.groups, index, moved);
+                System.arraycopy(this.starts, index + 1, this.starts, index, moved);
+                System.arraycopy(this.ends, index + 1, this.ends, index, moved);
+
+                this.size--;
+                this.groups[this.size] = null;
+                this.maxEndsDirty = true;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Calls {@link Group#triggerRange} on all groups whose closed interval
+     * overlaps the given closed interval.
+     */
+    void triggerOverlapping(SortTriggering ts, double start, double end) {
+        if (this.size == 0) {
+            return;
+        }
+
+        if (this.maxEndsDirty) {
+            this.updateSubtreeMaxEnds(0, this.size);
+            this.maxEndsDirty = false;
+        }
+
+        this.triggerSubtree(ts, 0, this.size, start, end);
+    }
+
+    private void triggerSubtree(SortTriggering ts, int from, int to, double start, double end) {
+        // the right subtree is visited iteratively to keep the recursion shallow
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+
+            if (this.subtreeMaxEnds[mid] < start) {
+                return;
+            }
+
+            this.triggerSubtree(ts, from, mid, start, end);
+
+            // this node and all nodes in its right subtree start after the query interval
+            if (this.starts[mid] > end) {
+                return;
+            }
+
+            if (this.ends[mid] >= start) {
+                this.groups[mid].triggerRange(ts, start, end);
+            }
+
+            from = mid + 1;
+        }
+    }
+
+    private double updateSubtreeMaxEnds(int from, int to) {
+        if (from >= to) {
+            return Double.NEGATIVE_INFINITY;
+        }
+
+        int mid = (from + to) >>> 1;
+        double maxEnd = Math.max(this.ends[mid],
+                Math.max(this.updateSubtreeMaxEnds(from, mid), this.updateSubtreeMaxEnds(mid + 1, to)));
+        this.subtreeMaxEnds[mid] = maxEnd;
+        return maxEnd;
+    }
+
+    /**
+     * Finds the index of the first group that starts after the given distance.
+     */
+    private int findFirstAfter(double distance) {
+        int low = 0;
+        int high = this.size;
+
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+
+            if (this.starts[mid] <= distance) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        return low;
+    }
+}
@@ -1,52 +1,24 @@
 package net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.trigger;
 
-import java.util.Collection;
-
 import org.joml.Vector3dc;
 
-import com.lodborg.intervaltree.DoubleInterval;
-import com.lodborg.intervaltree.Interval;
-import com.lodborg.intervaltree.Interval.Bounded;
-import com.lodborg.intervaltree.IntervalTree;
-
 import it.unimi.dsi.fastutil.longs.Long2ReferenceOpenHashMap;
-import it.unimi.dsi.fastutil.objects.Object2ReferenceOpenHashMap;
-import it.unimi.dsi.fastutil.objects.ReferenceArraySet;
-import it.unimi.dsi.fastutil.objects.ReferenceLinkedOpenHashSet;
 import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.AlignableNormal;
 
 /**
  * A normal list contains all the face planes that have the same normal.
  */
 public class NormalList {
-    /**
-     * Size threshold after which group sets in {@link #groupsByInterval} are
-     * replaced with hash sets to improve update performance.
-     */
-    private static final int HASH_SET_THRESHOLD = 20;
-
-    /**
-     * Size threshold under which group sets in {@link #groupsByInterval} are
-     * downgraded to array sets to reduce memory usage.
-     */
-    private static final int ARRAY_SET_THRESHOLD = 10;
-
     /**
      * The normal of this normal list.
      */
     private final AlignableNormal normal;
 
     /**
-     * An interval tree of group intervals. Since this only stores intervals, the
-     * stored intervals are mapped to groups in a separate hashmap.
-     */
-    private final IntervalTree<Double> intervalTree = new IntervalTree<>();
-
-    /**
-     * A separate hashmap of groups. This is what actually stores the groups since
-     * the interval tree just contains intervals.
+     * An index of the distance intervals of the groups, which is queried with the
+     * distance range of each camera movement.
      */
-    private final Object2ReferenceOpenHashMap<DoubleInterval, Collection<Group>> groupsByInterval = new Object2ReferenceOpenHashMap<>();
+    private final GroupIntervalIndex groupIntervals = new GroupIntervalIndex();
 
     /**
      * A hashmap from chunk sections to groups. This is for finding groups during
@@ -85,14 +57,8 @@ public class NormalList {
             return;
         }
 
-        // perform the interval query on the group intervals and resolve each interval
-        // to the collection of groups it maps to
-        var interval = new DoubleInterval(start, end, Bounded.CLOSED);
-        for (Interval<Double> groupInterval : intervalTree.query(interval)) {
-            for (Group group : groupsByInterval.get(groupInterval)) {
-                group.triggerRange(ts, start, end);
-            }
-        }
+        // perform the interval query on the group intervals and trigger the groups
+        this.groupIntervals.triggerOverlapping(ts, start, end);
     }
 
     void processCatchup(SortTriggering ts, CameraMovement movement, long sectionPos) {
@@ -107,37 +73,6 @@ public class NormalList {
         }
     }
 
-    private void removeGroupInterval(Group group) {
-        var groups = this.groupsByInterval.get(group.distances);
-        if (groups != null) {
-            groups.remove(group);
-            if (groups.isEmpty()) {
-                this.groupsByInterval.remove(group.distances);
-
-                // only remove from the interval tree if no other sections are also using it
-                this.intervalTree.remove(group.distances);
-            } else if (groups.size() <= ARRAY_SET_THRESHOLD) {
-                groups = new ReferenceArraySet<>(groups);
-                this.groupsByInterval.put(group.distances, groups);
-            }
-        }
-    }
-
-    private void addGroupInterval(Group group) {
-        var groups = this.groupsByInterval.get(group.distances);
-        if (groups == null) {
-            groups = new ReferenceArraySet<>();
-            this.groupsByInterval.put(group.distances, groups);
-
-            // only add to the interval tree if it's a new interval
-            this.intervalTree.add(group.distances);
-        } else if (groups.size() >= HASH_SET_THRESHOLD) {
-            groups = new ReferenceLinkedOpenHashSet<>(groups);
-            this.groupsByInterval.put(group.distances, groups);
-        }
-        groups.add(group);
-    }
-
     boolean hasSection(long sectionPos) {
         return this.groupsBySection.containsKey(sectionPos);
     }
@@ -150,13 +85,13 @@ public class NormalList {
         var group = new Group(normalPlanes);
 
         this.groupsBySection.put(sectionPos, group);
-        this.addGroupInterval(group);
+        this.groupIntervals.add(group);
     }
 
     void removeSection(long sectionPos) {
         Group group = this.groupsBySection.remove(sectionPos);
         if (group != null) {
-            this.removeGroupInterval(group);
+            this.groupIntervals.remove(group);
         }
     }
 
@@ -169,8 +104,8 @@ public class NormalList {
             return;
         }
 
-        this.removeGroupInterval(group);
+        this.groupIntervals.remove(group);
         group.replaceWith(normalPlanes);
-        this.addGroupInterval(group);
+        this.groupIntervals.add(group);
     }
 }
@@ -3,9 +3,6 @@ package net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.trigg
 import org.joml.Vector3fc;
 import java.util.Arrays;
 
-import com.lodborg.intervaltree.DoubleInterval;
-import com.lodborg.intervaltree.Interval.Bounded;
-
 import it.unimi.dsi.fastutil.floats.FloatOpenHashSet;
 import it.unimi.dsi.fastutil.objects.Object2ReferenceOpenHashMap;
 import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.AlignableNormal;
@@ -21,7 +18,8 @@ public class NormalPlanes {
     final SectionPos sectionPos;
 
     float[] relativeDistances; // relative to the base distance
-    DoubleInterval distanceRange;
+    double minDistance;
+    double maxDistance;
     long relDistanceHash;
     double baseDistance;
 
@@ -68,10 +66,8 @@ public class NormalPlanes {
 
         this.baseDistance = this.normal.dot(
                 sectionPos.minBlockX(), sectionPos.minBlockY(), sectionPos.minBlockZ());
-        this.distanceRange = new DoubleInterval(
-                this.relativeDistances[0] + this.baseDistance,
-                this.relativeDistances[size - 1] + this.baseDistance,
-                Bounded.CLOSED);
+        this.minDistance = this.relativeDistances[0] + this.baseDistance;
+        this.maxDistance = this.relativeDistances[size - 1] + this.baseDistance;
     }
 
     public void prepareAndInsert(Object2ReferenceOpenHashMap<Vector3fc, float[]> distancesByNormal) {
@@ -4,6 +4,7 @@ import java.util.List;
 import java.util.function.BiConsumer;
 
 import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.SortBehavior;
+import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.SortDistanceTier;
 import net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.data.DynamicData;
 import org.joml.Vector3dc;
 
@@ -57,6 +58,31 @@ public class SortTriggering {
      */
     private final int[] sortTypeCounters = new int[SortType.values().length];
 
+    /**
+     * The number of sections in each distance tier, only counting sections whose
+     * sort type depends on their tier.
+     */
+    private final int[] sortTierCounters = new int[SortDistanceTier.values().length];
+
+    /**
+     * Statistics about the latency of sort tasks, from the creation of the task to
+     * the upload of its result, and about the batches they're submitted in. They
+     * are collected over windows of one second, and the last complete window is
+     * shown on the debug screen.
+     */
+    private static final long STATS_WINDOW_NANOS = 1_000_000_000L;
+    private long statsWindowStart = System.nanoTime();
+    private int windowSortCount = 0;
+    private long windowLatencySum = 0;
+    private long windowLatencyMax = 0;
+    private int windowBatchCount = 0;
+    private int windowBatchedSectionCount = 0;
+
+    private int lastSortCount = 0;
+    private double lastAverageLatencyMs = 0;
+    private double lastMaxLatencyMs = 0;
+    private double lastAverageBatchSize = 0;
+
     private final GFNITriggers gfni = new GFNITriggers();
     private final DirectTriggers direct = new DirectTriggers();
 
@@ -223,6 +249,69 @@ public class SortTriggering {
         }
     }
 
+    /**
+     * Updates the distance tier counters when the tier of a section changes.
+     * 
+     * @param oldTier the previous tier of the section, or null if it wasn't counted
+     * @param newTier the new tier of the section, or null if it isn't counted
+     */
+    public void updateSortTier(SortDistanceTier oldTier, SortDistanceTier newTier) {
+        if (oldTier != null) {
+            this.sortTierCounters[oldTier.ordinal()]--;
+        }
+        if (newTier != null) {
+            this.sortTierCounters[newTier.ordinal()]++;
+        }
+    }
+
+    /**
+     * Records the latency of a sort, measured from the creation of its task until
+     * its result was uploaded.
+     * 
+     * @param latencyNanos the latency in nanoseconds
+     */
+    public void recordSortLatency(long latencyNanos) {
+        this.updateStatsWindow();
+
+        this.windowSortCount++;
+        this.windowLatencySum += latencyNanos;
+        this.windowLatencyMax = Math.max(this.windowLatencyMax, latencyNanos);
+    }
+
+    /**
+     * Records the submission of a batch of sort tasks.
+     * 
+     * @param sectionCount the number of sections in the batch
+     */
+    public void recordSortBatch(int sectionCount) {
+        this.updateStatsWindow();
+
+        this.windowBatchCount++;
+        this.windowBatchedSectionCount += sectionCount;
+    }
+
+    private void updateStatsWindow() {
+        long now = System.nanoTime();
+
+        if (now - this.statsWindowStart < STATS_WINDOW_NANOS) {
+            return;
+        }
+
+        this.lastSortCount = this.windowSortCount;
+        this.lastAverageLatencyMs = this.windowSortCount == 0 ? 0
+                : (double) this.windowLatencySum / this.windowSortCount / 1_000_000.0;
+        this.lastMaxLatencyMs = this.windowLatencyMax / 1_000_000.0;
+        this.lastAverageBatchSize = this.windowBatchCount == 0 ? 0
+                : (double) this.windowBatchedSectionCount / this.windowBatchCount;
+
+        this.statsWindowStart = now;
+        this.windowSortCount = 0;
+        this.windowLatencySum = 0;
+        this.windowLatencyMax = 0;
+        this.windowBatchCount = 0;
+        this.windowBatchedSectionCount = 0;
+    }
+
     public void addDebugStrings(List<String> list) {
         var sortBehavior = SodiumClientMod.options().performance.getSortBehavior();
         if (sortBehavior.getSortMode() == SortBehavior.SortMode.NONE) {
@@ -240,6 +329,20 @@ public class SortTriggering {
                     this.sortTypeCounters[SortType.STATIC_TOPO.ordinal()],
                     this.sortTypeCounters[SortType.DYNAMIC.ordinal()],
                     this.direct.getDirectTriggerCount()));
+
+            if (SortDistanceTier.isEnabled()) {
+                list.add("TS Tiers Near=%05d Mid=%05d Far=%05d".formatted(
+                        this.sortTierCounters[SortDistanceTier.NEAR.ordinal()],
+                        this.sortTierCounters[SortDistanceTier.MID.ordinal()],
+                        this.sortTierCounters[SortDistanceTier.FAR.ordinal()]));
+            }
+
+            this.updateStatsWindow();
+            list.add("TS Lat avg=%.2fms max=%.2fms S=%04d B=%.1f".formatted(
+                    this.lastAverageLatencyMs,
+                    this.lastMaxLatencyMs,
+                    this.lastSortCount,
+                    this.lastAverageBatchSize));
         }
     }
 }
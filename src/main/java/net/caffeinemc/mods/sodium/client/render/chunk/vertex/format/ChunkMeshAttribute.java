@@ -1,6 +1,7 @@
 package net.caffeinemc.mods.sodium.client.render.chunk.vertex.format;
 
 public enum ChunkMeshAttribute {
+    POSITION,
     POSITION_HI,
     POSITION_LO,
 
@@ -1,7 +1,23 @@
 package net.caffeinemc.mods.sodium.client.render.chunk.vertex.format;
 
+import net.caffeinemc.mods.sodium.client.SodiumClientMod;
 import net.caffeinemc.mods.sodium.client.render.chunk.vertex.format.impl.CompactChunkVertex;
+import net.caffeinemc.mods.sodium.client.render.chunk.vertex.format.impl.DenseChunkVertex;
+import net.caffeinemc.mods.sodium.client.render.chunk.vertex.format.impl.QuadRecordChunkVertex;
 
 public class ChunkMeshFormats {
     public static final ChunkVertexType COMPACT = new CompactChunkVertex();
+    public static final ChunkVertexType DENSE = new DenseChunkVertex();
+    public static final ChunkVertexType QUAD_RECORD = new QuadRecordChunkVertex();
+
+    /**
+     * @return The vertex format which should be used for chunk meshes, as selected by the user's options
+     */
+    public static ChunkVertexType getSelected() {
+        return switch (SodiumClientMod.options().advanced.chunkVertexFormat) {
+            case COMPACT -> COMPACT;
+            case DENSE -> DENSE;
+            case QUAD_RECORD -> QuadRecordChunkVertex.isSupported() ? QUAD_RECORD : COMPACT;
+        };
+    }
 }
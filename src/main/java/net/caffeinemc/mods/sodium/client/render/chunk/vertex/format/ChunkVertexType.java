@@ -2,8 +2,23 @@ package net.caffeinemc.mods.sodium.client.render.chunk.vertex.format;
 
 import net.caffeinemc.mods.sodium.client.gl.attribute.GlVertexFormat;
 
+import java.util.List;
+
 public interface ChunkVertexType {
     GlVertexFormat<ChunkMeshAttribute> getVertexFormat();
 
     ChunkVertexEncoder getEncoder();
+
+    /**
+     * @return The shader defines which select the matching vertex decoder in the chunk shaders
+     */
+    List<String> getDefines();
+
+    /**
+     * @return True if the shader fetches vertex data from the geometry buffer through a buffer texture, rather than
+     * through vertex attributes
+     */
+    default boolean usesGeometryTexture() {
+        return false;
+    }
 }
@@ -8,6 +8,8 @@ import net.caffeinemc.mods.sodium.client.render.chunk.vertex.format.ChunkVertexT
 import net.minecraft.util.Mth;
 import org.lwjgl.system.MemoryUtil;
 
+import java.util.List;
+
 public class CompactChunkVertex implements ChunkVertexType {
     public static final int STRIDE = 20;
 
@@ -17,6 +19,7 @@ public class CompactChunkVertex implements ChunkVertexType {
             .addElement(ChunkMeshAttribute.COLOR, 8, GlVertexAttributeFormat.UNSIGNED_BYTE, 4, true, false)
             .addElement(ChunkMeshAttribute.TEXTURE, 12, GlVertexAttributeFormat.UNSIGNED_SHORT, 2, false, true)
             .addElement(ChunkMeshAttribute.LIGHT_MATERIAL_INDEX, 16, GlVertexAttributeFormat.UNSIGNED_BYTE, 4, false, true)
+            .skipElement(ChunkMeshAttribute.POSITION)
             .build();
 
     private static final int POSITION_MAX_VALUE = 1 << 20;
@@ -30,6 +33,11 @@ public class CompactChunkVertex implements ChunkVertexType {
         return VERTEX_FORMAT;
     }
 
+    @Override
+    public List<String> getDefines() {
+        return List.of("USE_VERTEX_FORMAT_COMPACT");
+    }
+
     @Override
     public ChunkVertexEncoder getEncoder() {
         return (ptr, material, vertices, section) -> {
@@ -86,11 +94,11 @@ public class CompactChunkVertex implements ChunkVertexType {
         return Math.round((position + MODEL_TRANSLATION) * (POSITION_MAX_VALUE / MODEL_SCALE));
     }
 
-    private static int packTexture(int u, int v) {
+    static int packTexture(int u, int v) {
         return ((u & 0xFFFF) << 0) | ((v & 0xFFFF) << 16);
     }
 
-    private static int encodeTexture(float center, float x) {
+    static int encodeTexture(float center, float x) {
         // Normally, the UV coordinates are shrunk towards the center of the texture by a very small epsilon to avoid
         // texture bleeding between sprites in the atlas. When compressing to smaller integer formats, this creates a
         // problem, since the very small offsets can not be encoded without using a significant number of bits.
@@ -0,0 +1,134 @@
+package net.caffeinemc.mods.sodium.client.render.chunk.vertex.format.impl;
+
+import net.caffeinemc.mods.sodium.client.gl.attribute.GlVertexAttributeFormat;
+import net.caffeinemc.mods.sodium.client.gl.attribute.GlVertexFormat;
+import net.caffeinemc.mods.sodium.client.render.chunk.vertex.format.ChunkMeshAttribute;
+import net.caffeinemc.mods.sodium.client.render.chunk.vertex.format.ChunkVertexEncoder;
+import net.caffeinemc.mods.sodium.client.render.chunk.vertex.format.ChunkVertexType;
+import net.minecraft.util.Mth;
+import org.lwjgl.system.MemoryUtil;
+
+import java.util.List;
+
+/**
+ * A 16-byte variant of {@link CompactChunkVertex} which trades some precision in the position, color, and light
+ * attributes for a 20% reduction in vertex memory and upload bandwidth.
+ *
+ * <pre>
+ *  0: u16 x, u16 y, u16 z      (5-bit block coordinate + 11-bit offset within the block)
+ *  6: u16 color                (RGB565)
+ *  8: u16 u, u16 v             (same encoding as {@link CompactChunkVertex})
+ * 12: u32 light/material       (5-bit block light, 5-bit sky light, 6-bit shade, 8-bit material, 8-bit section)
+ * </pre>
+ */
+public class DenseChunkVertex implements ChunkVertexType {
+    public static final int STRIDE = 16;
+
+    public static final GlVertexFormat<ChunkMeshAttribute> VERTEX_FORMAT = GlVertexFormat.builder(ChunkMeshAttribute.class, STRIDE)
+            .addElement(ChunkMeshAttribute.POSITION, 0, GlVertexAttributeFormat.UNSIGNED_SHORT, 3, false, false)
+            .addElement(ChunkMeshAttribute.COLOR, 6, GlVertexAttributeFormat.UNSIGNED_SHORT, 1, false, true)
+            .addElement(ChunkMeshAttribute.TEXTURE, 8, GlVertexAttributeFormat.UNSIGNED_SHORT, 2, false, true)
+            .addElement(ChunkMeshAttribute.LIGHT_MATERIAL_INDEX, 12, GlVertexAttributeFormat.UNSIGNED_INT, 1, false, true)
+            .skipElement(ChunkMeshAttribute.POSITION_HI)
+            .skipElement(ChunkMeshAttribute.POSITION_LO)
+            .build();
+
+    public static final int POSITION_OFFSET_BITS = 11;
+    public static final int LIGHT_BITS = 5;
+    public static final int SHADE_BITS = 6;
+
+    private static final int POSITION_MAX_VALUE = 0xFFFF;
+    private static final int LIGHT_MAX_VALUE = (1 << LIGHT_BITS) - 1;
+    private static final int SHADE_MAX_VALUE = (1 << SHADE_BITS) - 1;
+
+    // The maximum coordinate of the vanilla light map (level 15, scaled by 16)
+    private static final int LIGHT_MAP_MAX_COORD = 240;
+
+    private static final float MODEL_TRANSLATION = 8.0f;
+    private static final float MODEL_SCALE = 1 << POSITION_OFFSET_BITS;
+
+    @Override
+    public GlVertexFormat<ChunkMeshAttribute> getVertexFormat() {
+        return VERTEX_FORMAT;
+    }
+
+    @Override
+    public List<String> getDefines() {
+        return List.of("USE_VERTEX_FORMAT_DENSE");
+    }
+
+    @Override
+    public ChunkVertexEncoder getEncoder() {
+        return (ptr, material, vertices, section) -> {
+            // Calculate the center point of the texture region which is mapped to the quad
+            float texCentroidU = 0.0f;
+            float texCentroidV = 0.0f;
+
+            for (var vertex : vertices) {
+                texCentroidU += vertex.u;
+                texCentroidV += vertex.v;
+            }
+
+            texCentroidU *= (1.0f / 4.0f);
+            texCentroidV *= (1.0f / 4.0f);
+
+            for (int i = 0; i < 4; i++) {
+                var vertex = vertices[i];
+
+                int u = CompactChunkVertex.encodeTexture(texCentroidU, vertex.u);
+                int v = CompactChunkVertex.encodeTexture(texCentroidV, vertex.v);
+
+                MemoryUtil.memPutShort(ptr +  0L, (short) encodePosition(vertex.x));
+                MemoryUtil.memPutShort(ptr +  2L, (short) encodePosition(vertex.y));
+                MemoryUtil.memPutShort(ptr +  4L, (short) encodePosition(vertex.z));
+                MemoryUtil.memPutShort(ptr +  6L, (short) encodeColor(vertex.color));
+                MemoryUtil.memPutInt(ptr +  8L, CompactChunkVertex.packTexture(u, v));
+                MemoryUtil.memPutInt(ptr + 12L, packLightAndData(encodeLight(vertex.light), encodeShade(vertex.color), material.bits(), section));
+
+                ptr += STRIDE;
+            }
+
+            return ptr;
+        };
+    }
+
+    static int encodePosition(float position) {
+        // The integer part selects the block within the [-8, 24) range around the section origin, and the
+        // fractional part is stored as an 11-bit offset within that block.
+        return Mth.clamp(Math.round((position + MODEL_TRANSLATION) * MODEL_SCALE), 0, POSITION_MAX_VALUE);
+    }
+
+    static int encodeColor(int color) {
+        // The vertex color is stored in ABGR order, where the alpha component holds the shade
+        int r = (color >>>  0) & 0xFF;
+        int g = (color >>>  8) & 0xFF;
+        int b = (color >>> 16) & 0xFF;
+
+        return (quantize(r, 31) << 11) | (quantize(g, 63) << 5) | (quantize(b, 31) << 0);
+    }
+
+    static int encodeShade(int color) {
+        return quantize((color >>> 24) & 0xFF, SHADE_MAX_VALUE);
+    }
+
+    static int encodeLight(int light) {
+        int block = Mth.clamp((light >>>  0) & 0xFF, 0, LIGHT_MAP_MAX_COORD);
+        int sky = Mth.clamp((light >>> 16) & 0xFF, 0, LIGHT_MAP_MAX_COORD);
+
+        int blockQuantized = ((block * LIGHT_MAX_VALUE) + (LIGHT_MAP_MAX_COORD / 2)) / LIGHT_MAP_MAX_COORD;
+        int skyQuantized = ((sky * LIGHT_MAX_VALUE) + (LIGHT_MAP_MAX_COORD / 2)) / LIGHT_MAP_MAX_COORD;
+
+        return (blockQuantized << 0) | (skyQuantized << LIGHT_BITS);
+    }
+
+    private static int packLightAndData(int light, int shade, int material, int section) {
+        return ((light & 0x3FF) << 0) |
+                ((shade & SHADE_MAX_VALUE) << 10) |
+                ((material & 0xFF) << 16) |
+                ((section & 0xFF) << 24);
+    }
+
+    private static int quantize(int value, int max) {
+        return ((value * max) + 127) / 255;
+    }
+}
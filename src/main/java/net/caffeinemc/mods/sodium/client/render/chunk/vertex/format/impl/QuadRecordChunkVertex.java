@@ -0,0 +1,142 @@
+package net.caffeinemc.mods.sodium.client.render.chunk.vertex.format.impl;
+
+import net.caffeinemc.mods.sodium.client.gl.attribute.GlVertexFormat;
+import net.caffeinemc.mods.sodium.client.gl.buffer.GlBufferTexture;
+import net.caffeinemc.mods.sodium.client.render.chunk.vertex.format.ChunkMeshAttribute;
+import net.caffeinemc.mods.sodium.client.render.chunk.vertex.format.ChunkVertexEncoder;
+import net.caffeinemc.mods.sodium.client.render.chunk.vertex.format.ChunkVertexType;
+import org.lwjgl.system.MemoryUtil;
+
+import java.util.List;
+
+/**
+ * A geometry format which stores the attributes shared by all corners of a quad (material, section index, and the
+ * bounds of the sprite region) once per quad, instead of duplicating them into every vertex. Since the data no
+ * longer has a fixed per-vertex layout, the shader fetches it from the geometry buffer through a buffer texture
+ * using {@code gl_VertexID}.
+ *
+ * <p>Each quad is stored as a block of 13 words (52 bytes, compared to 80 bytes for {@link CompactChunkVertex}):</p>
+ *
+ * <pre>
+ *  0: 4x corner        u16 x, u16 y, u16 z, 5-bit block light, 5-bit sky light, 6-bit shade
+ * 32: u32 record       8-bit material, 8-bit section, 4x 2-bit sprite corner selectors
+ * 36: u16 u, u16 v     (minimum corner of the sprite region)
+ * 40: u16 u, u16 v     (maximum corner of the sprite region)
+ * 44: 4x u16 color     (RGB565)
+ * </pre>
+ *
+ * <p>The arena allocates geometry in units of one quarter of a quad, so the stride of this format is reported as
+ * 13 bytes. Positions, colors, and light values use the same encoding as {@link DenseChunkVertex}. The texture
+ * coordinates of each corner are selected from the minimum and maximum of the sprite region, which is exact for
+ * all rectangular texture mappings.</p>
+ */
+public class QuadRecordChunkVertex implements ChunkVertexType {
+    public static final int QUAD_STRIDE = 52;
+    public static final int STRIDE = QUAD_STRIDE / 4;
+
+    // All attributes are fetched through the geometry texture
+    public static final GlVertexFormat<ChunkMeshAttribute> VERTEX_FORMAT = GlVertexFormat.builder(ChunkMeshAttribute.class, STRIDE)
+            .skipElement(ChunkMeshAttribute.POSITION)
+            .skipElement(ChunkMeshAttribute.POSITION_HI)
+            .skipElement(ChunkMeshAttribute.POSITION_LO)
+            .skipElement(ChunkMeshAttribute.COLOR)
+            .skipElement(ChunkMeshAttribute.TEXTURE)
+            .skipElement(ChunkMeshAttribute.LIGHT_MATERIAL_INDEX)
+            .build();
+
+    public static final int CORNER_STRIDE = 8;
+
+    public static final int RECORD_OFFSET = 32;
+    public static final int TEXTURE_MIN_OFFSET = 36;
+    public static final int TEXTURE_MAX_OFFSET = 40;
+    public static final int COLOR_OFFSET = 44;
+
+    // The smallest buffer texture which can address the geometry of a fully populated region at 64 MiB
+    private static final int MIN_TEXTURE_BUFFER_TEXELS = (64 * 1024 * 1024) / Integer.BYTES;
+
+    @Override
+    public GlVertexFormat<ChunkMeshAttribute> getVertexFormat() {
+        return VERTEX_FORMAT;
+    }
+
+    @Override
+    public List<String> getDefines() {
+        return List.of("USE_VERTEX_FORMAT_QUAD_RECORD");
+    }
+
+    @Override
+    public boolean usesGeometryTexture() {
+        return true;
+    }
+
+    @Override
+    public ChunkVertexEncoder getEncoder() {
+        return (ptr, material, vertices, section) -> {
+            float minU = Float.POSITIVE_INFINITY, maxU = Float.NEGATIVE_INFINITY;
+            float minV = Float.POSITIVE_INFINITY, maxV = Float.NEGATIVE_INFINITY;
+
+            for (var vertex : vertices) {
+                minU = Math.min(minU, vertex.u);
+                maxU = Math.max(maxU, vertex.u);
+                minV = Math.min(minV, vertex.v);
+                maxV = Math.max(maxV, vertex.v);
+            }
+
+            float centerU = (minU + maxU) * 0.5f;
+            float centerV = (minV + maxV) * 0.5f;
+
+            int corners = 0;
+
+            for (int i = 0; i < 4; i++) {
+                var vertex = vertices[i];
+
+                int x = DenseChunkVertex.encodePosition(vertex.x);
+                int y = DenseChunkVertex.encodePosition(vertex.y);
+                int z = DenseChunkVertex.encodePosition(vertex.z);
+
+                int light = DenseChunkVertex.encodeLight(vertex.light);
+                int shade = DenseChunkVertex.encodeShade(vertex.color);
+
+                long pCorner = ptr + ((long) i * CORNER_STRIDE);
+                MemoryUtil.memPutInt(pCorner + 0L, packPosition(x, y));
+                MemoryUtil.memPutInt(pCorner + 4L, packPositionAndLight(z, light, shade));
+
+                MemoryUtil.memPutShort(ptr + COLOR_OFFSET + (i * 2L), (short) DenseChunkVertex.encodeColor(vertex.color));
+
+                corners |= encodeCorner(vertex.u >= centerU, vertex.v >= centerV) << (i * 2);
+            }
+
+            MemoryUtil.memPutInt(ptr + RECORD_OFFSET, packRecord(material.bits(), section, corners));
+            MemoryUtil.memPutInt(ptr + TEXTURE_MIN_OFFSET, CompactChunkVertex.packTexture(
+                    CompactChunkVertex.encodeTexture(centerU, minU), CompactChunkVertex.encodeTexture(centerV, minV)));
+            MemoryUtil.memPutInt(ptr + TEXTURE_MAX_OFFSET, CompactChunkVertex.packTexture(
+                    CompactChunkVertex.encodeTexture(centerU, maxU), CompactChunkVertex.encodeTexture(centerV, maxV)));
+
+            return ptr + QUAD_STRIDE;
+        };
+    }
+
+    private static int packPosition(int x, int y) {
+        return ((x & 0xFFFF) << 0) | ((y & 0xFFFF) << 16);
+    }
+
+    private static int packPositionAndLight(int z, int light, int shade) {
+        return ((z & 0xFFFF) << 0) |
+                ((light & 0x3FF) << 16) |
+                ((shade & 0x3F) << 26);
+    }
+
+    private static int packRecord(int material, int section, int corners) {
+        return ((material & 0xFF) << 0) |
+                ((section & 0xFF) << 8) |
+                ((corners & 0xFF) << 16);
+    }
+
+    private static int encodeCorner(boolean maxU, boolean maxV) {
+        return (maxU ? 1 : 0) | (maxV ? 2 : 0);
+    }
+
+    public static boolean isSupported() {
+        return GlBufferTexture.getMaxTexels() >= MIN_TEXTURE_BUFFER_TEXELS;
+    }
+}
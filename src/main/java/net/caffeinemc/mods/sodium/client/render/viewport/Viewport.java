@@ -1,19 +1,33 @@
 package net.caffeinemc.mods.sodium.client.render.viewport;
 
 import net.caffeinemc.mods.sodium.client.render.viewport.frustum.Frustum;
+import net.caffeinemc.mods.sodium.client.render.viewport.frustum.SimpleFrustum;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.SectionPos;
+import org.jetbrains.annotations.Nullable;
+import org.joml.FrustumIntersection;
+import org.joml.Matrix4f;
+import org.joml.Matrix4fc;
 import org.joml.Vector3d;
 
 public final class Viewport {
     private final Frustum frustum;
     private final CameraTransform transform;
+    private final @Nullable Matrix4fc viewProjection;
 
     private final SectionPos sectionCoords;
     private final BlockPos blockCoords;
 
     public Viewport(Frustum frustum, Vector3d position) {
+        this(frustum, position, null);
+    }
+
+    /**
+     * @param viewProjection The combined projection and view matrix relative to the camera position, if known
+     */
+    public Viewport(Frustum frustum, Vector3d position, @Nullable Matrix4fc viewProjection) {
         this.frustum = frustum;
+        this.viewProjection = viewProjection;
         this.transform = new CameraTransform(position.x, position.y, position.z);
 
         this.sectionCoords = SectionPos.of(
@@ -41,10 +55,58 @@ public final class Viewport {
         );
     }
 
+    /**
+     * Same as {@link #isBoxVisible}, but also distinguishes boxes which are fully inside the frustum.
+     *
+     * @return One of {@link Frustum#OUTSIDE}, {@link Frustum#INTERSECT} or {@link Frustum#INSIDE}
+     */
+    public int getBoxIntersection(int intOriginX, int intOriginY, int intOriginZ, float floatSizeX, float floatSizeY, float floatSizeZ) {
+        float floatOriginX = (intOriginX - this.transform.intX) - this.transform.fracX;
+        float floatOriginY = (intOriginY - this.transform.intY) - this.transform.fracY;
+        float floatOriginZ = (intOriginZ - this.transform.intZ) - this.transform.fracZ;
+
+        return this.frustum.intersectAab(
+                floatOriginX - floatSizeX,
+                floatOriginY - floatSizeY,
+                floatOriginZ - floatSizeZ,
+
+                floatOriginX + floatSizeX,
+                floatOriginY + floatSizeY,
+                floatOriginZ + floatSizeZ
+        );
+    }
+
     public CameraTransform getTransform() {
         return this.transform;
     }
 
+    public @Nullable Matrix4fc getViewProjection() {
+        return this.viewProjection;
+    }
+
+    /**
+     * Creates a viewport at the same position whose frustum is wider and taller by the given factor, so that it also
+     * contains everything which becomes visible when the camera is turned slightly. If the view-projection matrix isn't
+     * known, this viewport is returned unchanged.
+     *
+     * @param scale The factor by which the tangents of the horizontal and vertical field of view are multiplied
+     */
+    public Viewport withExpandedFrustum(float scale) {
+        if (this.viewProjection == null) {
+            return this;
+        }
+
+        // Scaling down the clip-space x and y coordinates widens the range of directions which map into the clip volume
+        var expanded = new Matrix4f()
+                .scaling(1.0f / scale, 1.0f / scale, 1.0f)
+                .mul(this.viewProjection);
+
+        var transform = this.transform;
+
+        return new Viewport(new SimpleFrustum(new FrustumIntersection(expanded)),
+                new Vector3d(transform.x, transform.y, transform.z), expanded);
+    }
+
     public SectionPos getChunkCoord() {
         return this.sectionCoords;
     }
@@ -1,5 +1,18 @@
 package net.caffeinemc.mods.sodium.client.render.viewport.frustum;
 
 public interface Frustum {
+    int OUTSIDE = 0;
+    int INTERSECT = 1;
+    int INSIDE = 2;
+
     boolean testAab(float minX, float minY, float minZ, float maxX, float maxY, float maxZ);
+
+    /**
+     * Determines whether the box is fully outside, partially inside, or fully inside the frustum.
+     *
+     * @return One of {@link #OUTSIDE}, {@link #INTERSECT} or {@link #INSIDE}
+     */
+    default int intersectAab(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        return this.testAab(minX, minY, minZ, maxX, maxY, maxZ) ? INTERSECT : OUTSIDE;
+    }
 }
@@ -25,9 +25,11 @@ public class NativeBuffer {
     private static long ALLOCATED = 0L;
 
     private final BufferReference ref;
+    private int length;
 
     public NativeBuffer(int capacity) {
         this.ref = allocate(capacity);
+        this.length = capacity;
 
         ACTIVE_BUFFERS.put(new PhantomReference<>(this, RECLAIM_QUEUE), this.ref);
     }
@@ -41,7 +43,21 @@ public class NativeBuffer {
     public ByteBuffer getDirectBuffer() {
         this.ref.checkFreed();
 
-        return MemoryUtil.memByteBuffer(this.ref.address, this.ref.length);
+        return MemoryUtil.memByteBuffer(this.ref.address, this.length);
+    }
+
+    /**
+     * Shrinks the visible length of this buffer to the given number of bytes, without reallocating it. The whole
+     * allocation is still released when the buffer is freed.
+     */
+    public void truncate(int length) {
+        this.ref.checkFreed();
+
+        if (length < 0 || length > this.length) {
+            throw new IllegalArgumentException("Length %s is outside of buffer with length %s".formatted(length, this.length));
+        }
+
+        this.length = length;
     }
 
     public void free() {
@@ -49,7 +65,7 @@ public class NativeBuffer {
     }
 
     public int getLength() {
-        return this.ref.length;
+        return this.length;
     }
 
     public static void reclaim(boolean forceGc) {
@@ -0,0 +1,117 @@
+package net.caffeinemc.mods.sodium.client.util.sorting;
+
+import java.util.Arrays;
+
+/**
+ * A radix sort of 32-bit keys with index payloads, which doesn't allocate once its buffers have grown to the size of
+ * the input. Each thread has its own workspace, since sorting happens on the chunk builder threads.
+ *
+ * <p>The keys are sorted as unsigned integers in four passes of 8 bits each. Every sort has to clear and sum the
+ * histograms, and with 256 buckets per pass this costs little compared to the passes themselves, even for the smallest
+ * inputs that are sorted with a radix sort. Passes in which all keys have the same digit are skipped, which is common
+ * for the upper bits of floats with similar magnitudes. The sort is stable, so keys which are
+ * equal stay in the order of their indices.</p>
+ */
+public class RadixSortWorkspace {
+    private static final int DIGIT_BITS = 8;
+    private static final int DIGIT_COUNT = (Integer.SIZE + DIGIT_BITS - 1) / DIGIT_BITS;
+    private static final int BUCKET_COUNT = 1 << DIGIT_BITS;
+    private static final int DIGIT_MASK = BUCKET_COUNT - 1;
+
+    private static final ThreadLocal<RadixSortWorkspace> WORKSPACES = ThreadLocal.withInitial(RadixSortWorkspace::new);
+
+    private final int[] histograms = new int[DIGIT_COUNT * BUCKET_COUNT];
+
+    private int[] keys = new int[0];
+    private int[] indices = new int[0];
+    private int[] scratch = new int[0];
+
+    private RadixSortWorkspace() {
+    }
+
+    public static RadixSortWorkspace get() {
+        return WORKSPACES.get();
+    }
+
+    /**
+     * Returns the key buffer of this workspace, into which the keys to sort are written before calling
+     * {@link #sort(int)}. The buffer may be larger than requested and is reused by the next sort on this thread.
+     */
+    public int[] getKeys(int length) {
+        if (this.keys.length < length) {
+            int capacity = Math.max(length, this.keys.length * 2);
+
+            this.keys = new int[capacity];
+            this.indices = new int[capacity];
+            this.scratch = new int[capacity];
+        }
+
+        return this.keys;
+    }
+
+    /**
+     * Sorts the first {@code length} keys of the key buffer in ascending unsigned order.
+     *
+     * @return A buffer whose first {@code length} elements are the indices of the keys in sorted order, which is only
+     * valid until the next sort on this thread
+     */
+    public int[] sort(int length) {
+        final int[] keys = this.keys;
+        int[] current = this.indices;
+        int[] next = this.scratch;
+
+        for (int i = 0; i < length; i++) {
+            current[i] = i;
+        }
+
+        if (length <= 1) {
+            return current;
+        }
+
+        final int[] histograms = this.histograms;
+        Arrays.fill(histograms, 0);
+
+        for (int i = 0; i < length; i++) {
+            int key = keys[i];
+
+            for (int digit = 0; digit < DIGIT_COUNT; digit++) {
+                histograms[(digit * BUCKET_COUNT) + extractDigit(key, digit)]++;
+            }
+        }
+
+        for (int digit = 0; digit < DIGIT_COUNT; digit++) {
+            int offset = digit * BUCKET_COUNT;
+
+            // the pass wouldn't change the order if all keys have the same digit
+            if (histograms[offset + extractDigit(keys[0], digit)] == length) {
+                continue;
+            }
+
+            int sum = 0;
+
+            for (int bucket = offset; bucket < offset + BUCKET_COUNT; bucket++) {
+                int count = histograms[bucket];
+                histograms[bucket] = sum;
+                sum += count;
+            }
+
+            for (int i = 0; i < length; i++) {
+                int index = current[i];
+                next[histograms[offset + extractDigit(keys[index], digit)]++] = index;
+            }
+
+            int[] temp = current;
+            current = next;
+            next = temp;
+        }
+
+        this.indices = current;
+        this.scratch = next;
+
+        return current;
+    }
+
+    private static int extractDigit(int key, int digit) {
+        return (key >>> (digit * DIGIT_BITS)) & DIGIT_MASK;
+    }
+}
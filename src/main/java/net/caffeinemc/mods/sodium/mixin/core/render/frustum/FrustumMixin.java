@@ -5,6 +5,7 @@ import net.minecraft.client.renderer.culling.Frustum;
 import net.caffeinemc.mods.sodium.client.render.viewport.Viewport;
 import net.caffeinemc.mods.sodium.client.render.viewport.ViewportProvider;
 import org.joml.FrustumIntersection;
+import org.joml.Matrix4f;
 import org.joml.Vector3d;
 import org.spongepowered.asm.mixin.Final;
 import org.spongepowered.asm.mixin.Mixin;
@@ -25,8 +26,13 @@ public class FrustumMixin implements ViewportProvider {
     @Final
     private FrustumIntersection intersection;
 
+    @Shadow
+    @Final
+    private Matrix4f matrix;
+
     @Override
     public Viewport sodium$createViewport() {
-        return new Viewport(new SimpleFrustum(this.intersection), new Vector3d(this.camX, this.camY, this.camZ));
+        return new Viewport(new SimpleFrustum(this.intersection), new Vector3d(this.camX, this.camY, this.camZ),
+                new Matrix4f(this.matrix));
     }
 }
@@ -16,6 +16,121 @@ uint _draw_id;
 // The material bits for the primitive
 uint _material_params;
 
+#if defined(USE_VERTEX_FORMAT_DENSE) || defined(USE_VERTEX_FORMAT_QUAD_RECORD)
+
+const int POSITION_OFFSET_BITS  = 11;
+const int TEXTURE_BITS          = 15;
+const int LIGHT_BITS            = 5;
+const int SHADE_BITS            = 6;
+
+const float TEXTURE_MAX_COORD   = 1 << TEXTURE_BITS;
+const float LIGHT_MAX_VALUE     = (1 << LIGHT_BITS) - 1;
+const float SHADE_MAX_VALUE     = (1 << SHADE_BITS) - 1;
+
+const float MODEL_SCALE        = 1.0 / (1 << POSITION_OFFSET_BITS);
+const float MODEL_TRANSLATION  = -8.0;
+
+const float TEXTURE_FUZZ_AMOUNT = 1.0 / 64.0;
+const float TEXTURE_GROW_FACTOR = (1.0 - TEXTURE_FUZZ_AMOUNT) / TEXTURE_MAX_COORD;
+
+vec3 _decode_position(vec3 position) {
+    // The block coordinate occupies the high bits, so scaling the whole value also produces the offset within it
+    return (position * MODEL_SCALE) + MODEL_TRANSLATION;
+}
+
+vec4 _decode_color(uint color, uint shade) {
+    vec3 rgb = vec3(uvec3(color) >> uvec3(11u, 5u, 0u) & uvec3(31u, 63u, 31u)) / vec3(31.0, 63.0, 31.0);
+
+    return vec4(rgb, float(shade) / SHADE_MAX_VALUE);
+}
+
+vec2 _decode_texcoord(uvec2 value) {
+    // Normalize the texture coordinate, shifting out the LSB which stores the bias value.
+    vec2 coord = vec2(value >> 1) / TEXTURE_MAX_COORD;
+
+    // Using the LSB, identify the sign of the bias (-1.0 or +1.0)
+    vec2 bias = mix(vec2(-TEXTURE_GROW_FACTOR), vec2(+TEXTURE_GROW_FACTOR), bvec2(value & 1u));
+
+    return coord + bias;
+}
+
+vec2 _decode_light(uint value) {
+    // Scale back into the [0, 240] range of the light map, then clamp to the texel centers like the compact format
+    vec2 coord = vec2(uvec2(value) >> uvec2(0u, 5u) & uvec2(31u)) * (240.0 / LIGHT_MAX_VALUE);
+
+    return clamp(coord, vec2(8.0), vec2(248.0)) * (1.0 / 256.0);
+}
+
+#endif
+
+#if defined(USE_VERTEX_FORMAT_DENSE)
+
+in vec3 a_Position;             // 3x Unsigned 16-bit integer (5-bit block + 11-bit offset)
+in uint a_Color;                // RGB565
+in uvec2 a_TexCoord;            // 2x Unsigned 16-bit integer
+in uint a_LightAndData;         // Block light, sky light, shade, material, section
+
+void _vert_init() {
+    _vert_position = _decode_position(a_Position);
+    _vert_color = _decode_color(a_Color, (a_LightAndData >> 10u) & 63u);
+    _vert_tex_diffuse_coord = _decode_texcoord(a_TexCoord);
+
+    _vert_tex_light_coord = _decode_light(a_LightAndData);
+
+    _material_params = (a_LightAndData >> 16u) & 0xFFu;
+    _draw_id = (a_LightAndData >> 24u) & 0xFFu;
+}
+
+#elif defined(USE_VERTEX_FORMAT_QUAD_RECORD)
+
+// The layout of each quad is defined by QuadRecordChunkVertex, in units of 32-bit words
+const int QUAD_STRIDE           = 13;
+const int CORNER_STRIDE         = 2;
+const int RECORD_OFFSET         = 8;
+const int TEXTURE_MIN_OFFSET    = 9;
+const int TEXTURE_MAX_OFFSET    = 10;
+const int COLOR_OFFSET          = 11;
+
+uniform usamplerBuffer u_GeometryTex; // The geometry buffer of the region
+
+uint _fetch_word(int index) {
+    return texelFetch(u_GeometryTex, index).r;
+}
+
+uvec2 _unpack_shorts(uint value) {
+    return uvec2(value & 0xFFFFu, value >> 16u);
+}
+
+void _vert_init() {
+    // The base vertex is included in gl_VertexID, so this is the index of the quad within the whole buffer
+    int quad = gl_VertexID >> 2;
+    int corner = gl_VertexID & 3;
+
+    int base = quad * QUAD_STRIDE;
+
+    uint positionXY = _fetch_word(base + (corner * CORNER_STRIDE) + 0);
+    uint positionZAndLight = _fetch_word(base + (corner * CORNER_STRIDE) + 1);
+
+    uint record = _fetch_word(base + RECORD_OFFSET);
+    uint color = _fetch_word(base + COLOR_OFFSET + (corner >> 1)) >> uint((corner & 1) * 16);
+
+    uvec2 texMin = _unpack_shorts(_fetch_word(base + TEXTURE_MIN_OFFSET));
+    uvec2 texMax = _unpack_shorts(_fetch_word(base + TEXTURE_MAX_OFFSET));
+    uint texCorner = (record >> uint(16 + (corner * 2))) & 3u;
+
+    _vert_position = _decode_position(vec3(_unpack_shorts(positionXY), positionZAndLight & 0xFFFFu));
+    _vert_color = _decode_color(color & 0xFFFFu, (positionZAndLight >> 26u) & 63u);
+    _vert_tex_diffuse_coord = _decode_texcoord(uvec2((texCorner & 1u) != 0u ? texMax.x : texMin.x,
+                                                     (texCorner & 2u) != 0u ? texMax.y : texMin.y));
+
+    _vert_tex_light_coord = _decode_light(positionZAndLight >> 16u);
+
+    _material_params = (record >> 0u) & 0xFFu;
+    _draw_id = (record >> 8u) & 0xFFu;
+}
+
+#else
+
 const int POSITION_BITS         = 20;
 const int TEXTURE_BITS          = 15;
 const int LIGHT_BITS            = 8;
@@ -71,4 +186,6 @@ void _vert_init() {
 
     _material_params = a_LightAndData[2];
     _draw_id = a_LightAndData[3];
-}
\ No newline at end of file
+}
+
+#endif
@@ -0,0 +1,84 @@
+package net.caffeinemc.mods.sodium.client.gl.arena;
+
+import net.caffeinemc.mods.sodium.client.gl.device.CommandList;
+
+import java.util.Random;
+
+/**
+ * A synthetic trace of the allocations which the sections of a region make in its arena. Each step rebuilds one
+ * section, freeing its previous allocation and making a new one. Like terrain meshes, most allocations are small, a
+ * few are large, and some sections become empty.
+ */
+final class AllocationTrace {
+    private static final float EMPTY_PROBABILITY = 0.25f;
+
+    private static final int MIN_LENGTH = 64;
+    private static final int MEAN_LENGTH = 2048;
+    private static final int MAX_LENGTH = 32768;
+
+    private final int sectionCount;
+    private final int[] sections;
+    private final int[] lengths;
+
+    private AllocationTrace(int sectionCount, int[] sections, int[] lengths) {
+        this.sectionCount = sectionCount;
+        this.sections = sections;
+        this.lengths = lengths;
+    }
+
+    static AllocationTrace generate(long seed, int sectionCount, int steps) {
+        var random = new Random(seed);
+
+        int[] sections = new int[steps];
+        int[] lengths = new int[steps];
+
+        for (int i = 0; i < steps; i++) {
+            sections[i] = random.nextInt(sectionCount);
+
+            if (random.nextFloat() >= EMPTY_PROBABILITY) {
+                int length = MIN_LENGTH + (int) (-Math.log(1.0 - random.nextDouble()) * MEAN_LENGTH);
+                lengths[i] = Math.min(length, MAX_LENGTH);
+            }
+        }
+
+        return new AllocationTrace(sectionCount, sections, lengths);
+    }
+
+    /**
+     * Replays the trace against the arena, growing it whenever an allocation doesn't fit, as
+     * {@link GlBufferArena#upload} does.
+     *
+     * @return The allocation of each section at the end of the trace, or null for empty sections
+     */
+    GlBufferSegment[] replay(GlBufferArena arena, CommandList commandList) {
+        var allocations = new GlBufferSegment[this.sectionCount];
+
+        for (int i = 0; i < this.sections.length; i++) {
+            int section = this.sections[i];
+
+            if (allocations[section] != null) {
+                allocations[section].delete();
+                allocations[section] = null;
+            }
+
+            int length = this.lengths[i];
+
+            if (length > 0) {
+                GlBufferSegment segment = arena.alloc(length);
+
+                if (segment == null) {
+                    arena.ensureCapacity(commandList, length);
+                    segment = arena.alloc(length);
+                }
+
+                allocations[section] = segment;
+            }
+        }
+
+        return allocations;
+    }
+
+    int getStepCount() {
+        return this.sections.length;
+    }
+}
@@ -0,0 +1,41 @@
+package net.caffeinemc.mods.sodium.client.gl.arena;
+
+import net.caffeinemc.mods.sodium.client.gl.device.HeadlessCommandList;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays allocation traces of a region's sections against the arena's allocator, without a GPU. Run with
+ * {@code gradlew jmh --args="GlBufferArenaBenchmark"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GlBufferArenaBenchmark {
+    private static final int STRIDE = 20;
+
+    @Param({ "256", "4096" })
+    public int sectionCount;
+
+    private HeadlessCommandList commandList;
+    private AllocationTrace trace;
+
+    @Setup
+    public void setup() {
+        this.commandList = new HeadlessCommandList();
+        this.trace = AllocationTrace.generate(42L, this.sectionCount, 50_000);
+    }
+
+    @Benchmark
+    public void replayTrace(Blackhole blackhole) {
+        var arena = new GlBufferArena(this.commandList, this.sectionCount * 756, STRIDE, null);
+
+        blackhole.consume(this.trace.replay(arena, this.commandList));
+        blackhole.consume(arena.getFragmentation());
+    }
+}
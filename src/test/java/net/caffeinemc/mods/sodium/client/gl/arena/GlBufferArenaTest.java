@@ -0,0 +1,251 @@
+package net.caffeinemc.mods.sodium.client.gl.arena;
+
+import net.caffeinemc.mods.sodium.client.gl.device.HeadlessCommandList;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GlBufferArenaTest {
+    private static final int STRIDE = 16;
+
+    @Test
+    void freedNeighboursAreCoalesced() {
+        var commandList = new HeadlessCommandList();
+        var arena = new GlBufferArena(commandList, 1024, STRIDE, null);
+
+        var a = arena.alloc(100);
+        var b = arena.alloc(100);
+        var c = arena.alloc(100);
+
+        assertEquals(1, arena.getFreeSegmentCount());
+
+        b.delete();
+        assertEquals(2, arena.getFreeSegmentCount());
+        assertTrue(arena.getFragmentation() > 0.0f);
+
+        a.delete();
+        c.delete();
+
+        assertEquals(1, arena.getFreeSegmentCount());
+        assertEquals(0.0f, arena.getFragmentation());
+        assertEquals(1024L * STRIDE, arena.getDeviceLargestFreeMemory());
+        assertTrue(arena.isEmpty());
+
+        arena.checkAssertions0();
+    }
+
+    @Test
+    void allocationFailsWhenNoSegmentFits() {
+        var commandList = new HeadlessCommandList();
+        var arena = new GlBufferArena(commandList, 1024, STRIDE, null);
+
+        var a = arena.alloc(400);
+        arena.alloc(400);
+        a.delete();
+
+        // there is enough free space in total, but not in one segment
+        assertNull(arena.alloc(500));
+
+        arena.ensureCapacity(commandList, 500);
+        assertNotNull(arena.alloc(500));
+
+        arena.checkAssertions0();
+    }
+
+    @Test
+    void compactionRemovesFragmentation() {
+        var commandList = new HeadlessCommandList();
+        var arena = new GlBufferArena(commandList, 4096, STRIDE, null);
+
+        var segments = new GlBufferSegment[32];
+
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = arena.alloc(64);
+        }
+
+        for (int i = 0; i < segments.length; i += 2) {
+            segments[i].delete();
+        }
+
+        float fragmentation = arena.getFragmentation();
+        assertTrue(fragmentation > 0.0f);
+
+        int moved = arena.compact(commandList, Integer.MAX_VALUE);
+
+        assertTrue(moved > 0);
+        assertEquals(moved, commandList.getCopiedBytes());
+        assertTrue(arena.getFragmentation() < fragmentation);
+        assertEquals(16L * 64 * STRIDE, arena.getDeviceUsedMemory());
+
+        arena.checkAssertions0();
+    }
+
+    @Test
+    void compactionRespectsByteBudget() {
+        var commandList = new HeadlessCommandList();
+        var arena = new GlBufferArena(commandList, 4096, STRIDE, null);
+
+        var segments = new GlBufferSegment[32];
+
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = arena.alloc(64);
+        }
+
+        for (int i = 0; i < segments.length; i += 2) {
+            segments[i].delete();
+        }
+
+        // only one segment fits into the budget
+        int moved = arena.compact(commandList, 64 * STRIDE);
+
+        assertEquals(64 * STRIDE, moved);
+        arena.checkAssertions0();
+    }
+
+    @Test
+    void replayedTraceKeepsArenaConsistent() {
+        var commandList = new HeadlessCommandList();
+        var arena = new GlBufferArena(commandList, 256 * 756, STRIDE, null);
+
+        var allocations = AllocationTrace.generate(1234L, 256, 20_000)
+                .replay(arena, commandList);
+
+        arena.checkAssertions0();
+
+        long used = 0;
+
+        for (var allocation : allocations) {
+            if (allocation != null) {
+                used += allocation.getLength();
+            }
+        }
+
+        assertEquals(used * STRIDE, arena.getDeviceUsedMemory());
+        assertTrue(arena.getFragmentation() >= 0.0f && arena.getFragmentation() <= 1.0f);
+    }
+
+    @Test
+    void byteSizesPastTwoGigabytesDontOverflow() {
+        var commandList = new HeadlessCommandList();
+
+        // 64-byte elements, so that a full arena is exactly as large as the maximum buffer size
+        int stride = 64;
+        int maxCapacity = (int) (GlBufferArena.MAX_BUFFER_SIZE / stride);
+        var arena = new GlBufferArena(commandList, maxCapacity / 2, stride, null);
+
+        assertNotNull(arena.alloc(maxCapacity / 2));
+
+        // the new buffer is larger than Integer.MAX_VALUE bytes, which the headless command list rejects if negative
+        arena.ensureCapacity(commandList, maxCapacity / 2);
+        assertNotNull(arena.alloc(maxCapacity / 2));
+
+        assertEquals(GlBufferArena.MAX_BUFFER_SIZE, arena.getDeviceAllocatedMemory());
+        assertEquals(GlBufferArena.MAX_BUFFER_SIZE, arena.getDeviceUsedMemory());
+
+        arena.checkAssertions0();
+    }
+
+    @Test
+    void growthIsCappedAtTheMaximumBufferSize() {
+        var commandList = new HeadlessCommandList();
+
+        int stride = 64;
+        int maxCapacity = (int) (GlBufferArena.MAX_BUFFER_SIZE / stride);
+
+        // the regular resize increment would take the arena past the maximum size
+        var arena = new GlBufferArena(commandList, maxCapacity - 1024, stride, null);
+        assertNotNull(arena.alloc(maxCapacity - 1024));
+
+        arena.ensureCapacity(commandList, 1024);
+
+        assertEquals(GlBufferArena.MAX_BUFFER_SIZE, arena.getDeviceAllocatedMemory());
+        assertNotNull(arena.alloc(1024));
+
+        assertThrows(OutOfMemoryError.class, () -> arena.ensureCapacity(commandList, 1));
+        arena.checkAssertions0();
+    }
+
+    @Test
+    void segmentsStayAlignedThroughCompactionAndGrowth() {
+        var commandList = new HeadlessCommandList();
+
+        // the quad record format stores a quarter of a quad per element, and its meshes must start at whole quads
+        int stride = 13;
+        var arena = new GlBufferArena(commandList, 1024, stride, 4, null);
+
+        var segments = new GlBufferSegment[48];
+
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = arena.alloc(1 + (i % 7));
+            assertEquals(0, segments[i].getOffset() % 4);
+        }
+
+        for (int i = 0; i < segments.length; i += 3) {
+            segments[i].delete();
+        }
+
+        arena.compact(commandList, Integer.MAX_VALUE);
+        arena.ensureCapacity(commandList, 2001);
+        arena.checkAssertions0();
+
+        for (int i = 0; i < segments.length; i++) {
+            if (i % 3 != 0) {
+                assertEquals(0, segments[i].getOffset() % 4);
+            }
+        }
+
+        assertEquals(0, arena.getDeviceAllocatedMemory() / stride % 4);
+        assertEquals(0, arena.alloc(2001).getOffset() % 4);
+    }
+
+    @Test
+    void maximumCapacityIsAligned() {
+        var commandList = new HeadlessCommandList();
+
+        int stride = 13;
+        int maxCapacity = (int) (GlBufferArena.MAX_BUFFER_SIZE / stride) & ~3;
+        var arena = new GlBufferArena(commandList, maxCapacity - 1024, stride, 4, null);
+        assertNotNull(arena.alloc(maxCapacity - 1024));
+
+        arena.ensureCapacity(commandList, 1024);
+
+        assertEquals((long) maxCapacity * stride, arena.getDeviceAllocatedMemory());
+        assertThrows(OutOfMemoryError.class, () -> arena.ensureCapacity(commandList, 1));
+    }
+
+    @Test
+    void resizeIncrementControlsGrowth() {
+        var commandList = new HeadlessCommandList();
+
+        // by default the arena grows by a sixteenth of its initial capacity
+        var arena = new GlBufferArena(commandList, 1024, STRIDE, null);
+        assertNotNull(arena.alloc(1024));
+        arena.ensureCapacity(commandList, 1);
+        assertEquals((1024L + 64) * STRIDE, arena.getDeviceAllocatedMemory());
+
+        // an arena shared by many regions grows by a larger step to avoid copying the whole buffer frequently
+        var shared = new GlBufferArena(commandList, 1024, 1024, STRIDE, 4, null);
+        assertNotNull(shared.alloc(1024));
+        shared.ensureCapacity(commandList, 1);
+        assertEquals(2048L * STRIDE, shared.getDeviceAllocatedMemory());
+        assertNotNull(shared.alloc(1024));
+
+        shared.checkAssertions0();
+    }
+
+    @Test
+    void unalignedInitialCapacityIsRejected() {
+        var commandList = new HeadlessCommandList();
+
+        assertThrows(IllegalArgumentException.class, () -> new GlBufferArena(commandList, 1022, 13, 4, null));
+        assertThrows(IllegalArgumentException.class, () -> new GlBufferArena(commandList, 1024, 13, 3, null));
+    }
+
+    @Test
+    void initialCapacityPastTheMaximumBufferSizeIsRejected() {
+        var commandList = new HeadlessCommandList();
+        int capacity = (int) (GlBufferArena.MAX_BUFFER_SIZE / STRIDE) + 1;
+
+        assertThrows(IllegalArgumentException.class, () -> new GlBufferArena(commandList, capacity, STRIDE, null));
+    }
+}
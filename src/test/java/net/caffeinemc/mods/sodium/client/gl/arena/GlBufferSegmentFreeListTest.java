@@ -0,0 +1,103 @@
+package net.caffeinemc.mods.sodium.client.gl.arena;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GlBufferSegmentFreeListTest {
+    private static GlBufferSegment segment(int offset, int length) {
+        var segment = new GlBufferSegment(null, offset, length);
+        segment.setFree(true);
+
+        return segment;
+    }
+
+    @Test
+    void findPrefersExactFit() {
+        var list = new GlBufferSegmentFreeList();
+        var larger = segment(0, 120);
+        var exact = segment(200, 100);
+
+        list.add(larger);
+        list.add(exact);
+
+        assertSame(exact, list.find(100));
+    }
+
+    @Test
+    void findPrefersClosestFitWithinSizeClass() {
+        var list = new GlBufferSegmentFreeList();
+        var loose = segment(0, 127);
+        var close = segment(200, 70);
+
+        list.add(loose);
+        list.add(close);
+
+        assertSame(close, list.find(65));
+    }
+
+    @Test
+    void findFallsBackToLargerSizeClass() {
+        var list = new GlBufferSegmentFreeList();
+        var small = segment(0, 65);
+        var large = segment(100, 1000);
+
+        list.add(small);
+        list.add(large);
+
+        // the segment in the size class of the request is too small
+        assertSame(large, list.find(100));
+    }
+
+    @Test
+    void findReturnsNullWhenNothingFits() {
+        var list = new GlBufferSegmentFreeList();
+        list.add(segment(0, 100));
+
+        assertNull(list.find(101));
+        assertNull(new GlBufferSegmentFreeList().find(1));
+    }
+
+    @Test
+    void removeUpdatesStatistics() {
+        var list = new GlBufferSegmentFreeList();
+        var a = segment(0, 100);
+        var b = segment(200, 300);
+        var c = segment(600, 50);
+
+        list.add(a);
+        list.add(b);
+        list.add(c);
+
+        assertEquals(3, list.getSegmentCount());
+        assertEquals(450, list.getFreeLength());
+        assertEquals(300, list.getLargestSegmentLength());
+
+        list.remove(b);
+
+        assertEquals(2, list.getSegmentCount());
+        assertEquals(150, list.getFreeLength());
+        assertEquals(100, list.getLargestSegmentLength());
+        assertNull(list.find(101));
+
+        list.remove(a);
+        list.remove(c);
+
+        assertEquals(0, list.getSegmentCount());
+        assertEquals(0, list.getLargestSegmentLength());
+        assertNull(list.find(1));
+    }
+
+    @Test
+    void emptySegmentsAreNotTracked() {
+        var list = new GlBufferSegmentFreeList();
+        var empty = segment(0, 0);
+
+        list.add(empty);
+        assertEquals(0, list.getSegmentCount());
+
+        // removing an untracked segment must not corrupt the list
+        list.remove(empty);
+        assertEquals(0, list.getSegmentCount());
+    }
+}
@@ -0,0 +1,78 @@
+package net.caffeinemc.mods.sodium.client.gl.arena.staging;
+
+import net.caffeinemc.mods.sodium.client.gl.buffer.GlBuffer;
+import net.caffeinemc.mods.sodium.client.gl.device.HeadlessCommandList;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentStagingBufferTest {
+    private static final int CAPACITY = 1024;
+
+    @Test
+    void discardedReservationsDrainOutOfOrder() {
+        var commandList = new HeadlessCommandList();
+        var staging = new ConcurrentStagingBuffer(commandList, CAPACITY);
+
+        var a = staging.tryReserve(300);
+        var b = staging.tryReserve(300);
+        var c = staging.tryReserve(300);
+
+        assertNotNull(a);
+        assertNotNull(b);
+        assertNotNull(c);
+        assertNull(staging.tryReserve(300));
+
+        b.discard();
+        c.discard();
+
+        // the space behind the oldest reservation can't be reused until it is released as well
+        assertNull(staging.tryReserve(300));
+
+        a.discard();
+
+        assertNotNull(staging.tryReserve(CAPACITY));
+    }
+
+    @Test
+    void copiedReservationsDrainOnceFenced() {
+        var commandList = new HeadlessCommandList();
+        var staging = new ConcurrentStagingBuffer(commandList, CAPACITY);
+        var dst = Mockito.mock(GlBuffer.class);
+
+        var a = staging.tryReserve(CAPACITY / 2);
+        var b = staging.tryReserve(CAPACITY / 2);
+
+        a.enqueueCopy(commandList, dst, 0);
+        b.enqueueCopy(commandList, dst, CAPACITY / 2);
+
+        // discarding after the copy has been enqueued must not release the space early
+        a.discard();
+        staging.flip();
+        assertNull(staging.tryReserve(CAPACITY / 2));
+
+        staging.flush(commandList);
+        staging.flip();
+
+        assertNotNull(staging.tryReserve(CAPACITY));
+        assertEquals(CAPACITY, commandList.getCopiedBytes());
+    }
+
+    @Test
+    void reservationsDoNotWrapAroundTheEnd() {
+        var commandList = new HeadlessCommandList();
+        var staging = new ConcurrentStagingBuffer(commandList, CAPACITY);
+
+        var a = staging.tryReserve(600);
+        a.discard();
+
+        // the 424 bytes at the end are too small and are skipped, the reservation starts at the beginning again
+        var b = staging.tryReserve(600);
+        assertNotNull(b);
+        assertNull(staging.tryReserve(500));
+
+        b.discard();
+        assertNotNull(staging.tryReserve(CAPACITY));
+    }
+}
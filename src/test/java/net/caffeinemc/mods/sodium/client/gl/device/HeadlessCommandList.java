@@ -0,0 +1,155 @@
+package net.caffeinemc.mods.sodium.client.gl.device;
+
+import net.caffeinemc.mods.sodium.client.gl.array.GlVertexArray;
+import net.caffeinemc.mods.sodium.client.gl.buffer.*;
+import net.caffeinemc.mods.sodium.client.gl.sync.GlFence;
+import net.caffeinemc.mods.sodium.client.gl.tessellation.GlPrimitiveType;
+import net.caffeinemc.mods.sodium.client.gl.tessellation.GlTessellation;
+import net.caffeinemc.mods.sodium.client.gl.tessellation.TessellationBinding;
+import net.caffeinemc.mods.sodium.client.gl.util.EnumBitField;
+import org.mockito.Mockito;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A command list which doesn't need an OpenGL context, so that code which manages GPU resources can be tested on the
+ * CPU. Buffers and fences are stand-ins without any storage, except for mappings, which are backed by direct memory.
+ * Fences are always signalled, as if the GPU had finished all commands immediately.
+ */
+public class HeadlessCommandList implements CommandList {
+    private long copiedBytes;
+    private int bufferCount;
+
+    @Override
+    public GlMutableBuffer createMutableBuffer() {
+        this.bufferCount++;
+
+        return Mockito.mock(GlMutableBuffer.class);
+    }
+
+    @Override
+    public GlImmutableBuffer createImmutableBuffer(long bufferSize, EnumBitField<GlBufferStorageFlags> flags) {
+        this.bufferCount++;
+
+        return Mockito.mock(GlImmutableBuffer.class);
+    }
+
+    @Override
+    public GlTessellation createTessellation(GlPrimitiveType primitiveType, TessellationBinding[] bindings) {
+        return Mockito.mock(GlTessellation.class);
+    }
+
+    @Override
+    public void bindVertexArray(GlVertexArray array) {
+
+    }
+
+    @Override
+    public void uploadData(GlMutableBuffer glBuffer, ByteBuffer byteBuffer, GlBufferUsage usage) {
+
+    }
+
+    @Override
+    public void uploadSubData(GlMutableBuffer glBuffer, long offset, ByteBuffer byteBuffer) {
+
+    }
+
+    @Override
+    public void copyBufferSubData(GlBuffer src, GlBuffer dst, long readOffset, long writeOffset, long bytes) {
+        if (readOffset < 0 || writeOffset < 0 || bytes < 0) {
+            throw new IllegalArgumentException("Negative copy range (read=%s, write=%s, length=%s)"
+                    .formatted(readOffset, writeOffset, bytes));
+        }
+
+        this.copiedBytes += bytes;
+    }
+
+    @Override
+    public void bindBuffer(GlBufferTarget target, GlBuffer buffer) {
+
+    }
+
+    @Override
+    public void unbindVertexArray() {
+
+    }
+
+    @Override
+    public void allocateStorage(GlMutableBuffer buffer, long bufferSize, GlBufferUsage usage) {
+        if (bufferSize < 0) {
+            throw new IllegalArgumentException("Negative buffer size: " + bufferSize);
+        }
+    }
+
+    @Override
+    public void deleteBuffer(GlBuffer buffer) {
+        this.bufferCount--;
+    }
+
+    @Override
+    public void deleteVertexArray(GlVertexArray vertexArray) {
+
+    }
+
+    @Override
+    public GlBufferTexture createBufferTexture(GlBuffer buffer, int internalFormat) {
+        return Mockito.mock(GlBufferTexture.class);
+    }
+
+    @Override
+    public void deleteBufferTexture(GlBufferTexture texture) {
+
+    }
+
+    @Override
+    public void flush() {
+
+    }
+
+    @Override
+    public DrawCommandList beginTessellating(GlTessellation tessellation) {
+        return Mockito.mock(DrawCommandList.class);
+    }
+
+    @Override
+    public void deleteTessellation(GlTessellation tessellation) {
+
+    }
+
+    @Override
+    public GlBufferMapping mapBuffer(GlBuffer buffer, long offset, long length, EnumBitField<GlBufferMapFlags> flags) {
+        return new GlBufferMapping(buffer, ByteBuffer.allocateDirect(Math.toIntExact(length)));
+    }
+
+    @Override
+    public void unmap(GlBufferMapping map) {
+        map.dispose();
+    }
+
+    @Override
+    public void flushMappedRange(GlBufferMapping map, int offset, int length) {
+
+    }
+
+    @Override
+    public GlFence createFence() {
+        GlFence fence = Mockito.mock(GlFence.class);
+        Mockito.when(fence.isCompleted()).thenReturn(true);
+
+        return fence;
+    }
+
+    /**
+     * @return The total number of bytes which were copied between buffers
+     */
+    public long getCopiedBytes() {
+        return this.copiedBytes;
+    }
+
+    /**
+     * @return The number of buffers which were created and not deleted yet
+     */
+    public int getBufferCount() {
+        return this.bufferCount;
+    }
+}
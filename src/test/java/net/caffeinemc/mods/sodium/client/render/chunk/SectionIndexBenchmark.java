@@ -0,0 +1,107 @@
+package net.caffeinemc.mods.sodium.client.render.chunk;
+
+import it.unimi.dsi.fastutil.longs.Long2ReferenceOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import net.caffeinemc.mods.sodium.client.render.chunk.region.RenderRegion;
+import net.minecraft.core.SectionPos;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link SectionIndex} with the hash map which was used to look up sections before. Every loaded section
+ * is looked up once in a random order, along with the positions just beyond the render distance, which aren't loaded.
+ * Run with {@code gradlew jmh --args="SectionIndexBenchmark"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SectionIndexBenchmark {
+    private static final int MIN_SECTION_Y = -4;
+    private static final int MAX_SECTION_Y = 20;
+
+    // The camera is far away from the origin, so that negative and large coordinates are covered
+    private static final int CENTER_X = 12_345;
+    private static final int CENTER_Z = -6_789;
+
+    @Param({ "12", "32", "64" })
+    public int renderDistance;
+
+    private SectionIndex index;
+    private Long2ReferenceOpenHashMap<RenderSection> map;
+
+    private int[] positions;
+
+    @Setup
+    public void setup() {
+        this.index = new SectionIndex(this.renderDistance, MIN_SECTION_Y, MAX_SECTION_Y);
+        this.map = new Long2ReferenceOpenHashMap<>();
+
+        // the index and the map only use the positions of the sections, so they can all refer to the same region
+        var region = new RenderRegion(0, 0, 0, null, null);
+        var positions = new ObjectArrayList<int[]>();
+
+        int radius = this.renderDistance + 1;
+
+        for (int x = -radius; x <= radius; x++) {
+            for (int z = -radius; z <= radius; z++) {
+                boolean loaded = Math.abs(x) <= this.renderDistance && Math.abs(z) <= this.renderDistance;
+
+                for (int y = MIN_SECTION_Y; y < MAX_SECTION_Y; y++) {
+                    int chunkX = CENTER_X + x, chunkZ = CENTER_Z + z;
+
+                    if (loaded) {
+                        var section = new RenderSection(region, chunkX, y, chunkZ);
+                        this.index.add(section);
+                        this.map.put(SectionPos.asLong(chunkX, y, chunkZ), section);
+                    }
+
+                    positions.add(new int[] { chunkX, y, chunkZ });
+                }
+            }
+        }
+
+        Collections.shuffle(positions, new Random(42L));
+
+        this.positions = new int[positions.size() * 3];
+
+        for (int i = 0; i < positions.size(); i++) {
+            System.arraycopy(positions.get(i), 0, this.positions, i * 3, 3);
+        }
+    }
+
+    @Benchmark
+    public int lookupSectionIndex() {
+        var index = this.index;
+        var positions = this.positions;
+        int found = 0;
+
+        for (int i = 0; i < positions.length; i += 3) {
+            if (index.get(positions[i], positions[i + 1], positions[i + 2]) != null) {
+                found++;
+            }
+        }
+
+        return found;
+    }
+
+    @Benchmark
+    public int lookupHashMap() {
+        var map = this.map;
+        var positions = this.positions;
+        int found = 0;
+
+        for (int i = 0; i < positions.length; i += 3) {
+            if (map.get(SectionPos.asLong(positions[i], positions[i + 1], positions[i + 2])) != null) {
+                found++;
+            }
+        }
+
+        return found;
+    }
+}
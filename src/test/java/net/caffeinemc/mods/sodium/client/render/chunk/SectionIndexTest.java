@@ -0,0 +1,123 @@
+package net.caffeinemc.mods.sodium.client.render.chunk;
+
+import net.caffeinemc.mods.sodium.client.render.chunk.region.RenderRegion;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SectionIndexTest {
+    private static final int MIN_SECTION_Y = -4;
+    private static final int MAX_SECTION_Y = 20;
+
+    // The diameter of an index with a render distance of 2, including the margin of the chunk cache
+    private static final int DIAMETER = 11;
+
+    // the index only uses the positions of the sections, so they can all refer to the same region
+    private static final RenderRegion REGION = new RenderRegion(0, 0, 0, null, null);
+
+    private final SectionIndex index = new SectionIndex(2, MIN_SECTION_Y, MAX_SECTION_Y);
+
+    @Test
+    void sectionsCanBeFoundAfterTheyWereAdded() {
+        var a = this.add(0, 0, 0);
+        var b = this.add(-3, MIN_SECTION_Y, 5);
+        var c = this.add(1000, MAX_SECTION_Y - 1, -1000);
+
+        assertSame(a, this.index.get(0, 0, 0));
+        assertSame(b, this.index.get(-3, MIN_SECTION_Y, 5));
+        assertSame(c, this.index.get(1000, MAX_SECTION_Y - 1, -1000));
+        assertTrue(this.index.contains(-3, MIN_SECTION_Y, 5));
+        assertEquals(3, this.index.size());
+
+        assertNull(this.index.get(0, 1, 0));
+        assertFalse(this.index.contains(1, 0, 0));
+    }
+
+    @Test
+    void lookupsDontReturnSectionsWhichShareACell() {
+        this.add(0, 0, 0);
+
+        assertNull(this.index.get(DIAMETER, 0, 0));
+        assertNull(this.index.get(0, 0, -DIAMETER));
+    }
+
+    @Test
+    void removedSectionsCanNoLongerBeFound() {
+        var section = this.add(2, 3, 4);
+
+        assertNull(this.index.remove(2, 3, 5));
+        assertSame(section, this.index.remove(2, 3, 4));
+        assertNull(this.index.get(2, 3, 4));
+        assertNull(this.index.remove(2, 3, 4));
+        assertEquals(0, this.index.size());
+    }
+
+    @Test
+    void sectionsOutsideTheLevelHeightAreStored() {
+        var below = this.add(0, MIN_SECTION_Y - 1, 0);
+        var above = this.add(0, MAX_SECTION_Y, 0);
+
+        assertSame(below, this.index.get(0, MIN_SECTION_Y - 1, 0));
+        assertSame(above, this.index.get(0, MAX_SECTION_Y, 0));
+        assertEquals(2, this.index.size());
+
+        assertSame(below, this.index.remove(0, MIN_SECTION_Y - 1, 0));
+        assertEquals(1, this.index.size());
+    }
+
+    @Test
+    void sectionsWhichShareACellAreBothStored() {
+        var first = this.add(1, 0, 1);
+        var second = this.add(1 + DIAMETER, 0, 1 - DIAMETER);
+
+        assertSame(first, this.index.get(1, 0, 1));
+        assertSame(second, this.index.get(1 + DIAMETER, 0, 1 - DIAMETER));
+        assertEquals(2, this.index.size());
+
+        // the overflowing section takes over the cell once it's free
+        assertSame(first, this.index.remove(1, 0, 1));
+        assertSame(second, this.index.get(1 + DIAMETER, 0, 1 - DIAMETER));
+
+        // which means the cell isn't free for the next section
+        var third = this.add(1 - DIAMETER, 0, 1);
+        assertSame(third, this.index.get(1 - DIAMETER, 0, 1));
+        assertSame(second, this.index.get(1 + DIAMETER, 0, 1 - DIAMETER));
+
+        assertSame(second, this.index.remove(1 + DIAMETER, 0, 1 - DIAMETER));
+        assertSame(third, this.index.remove(1 - DIAMETER, 0, 1));
+        assertEquals(0, this.index.size());
+    }
+
+    @Test
+    void valuesContainsEverySection() {
+        Set<RenderSection> expected = new HashSet<>();
+
+        for (int x = -4; x <= 4; x++) {
+            for (int z = -4; z <= 4; z++) {
+                expected.add(this.add(x, x & 7, z));
+            }
+        }
+
+        expected.add(this.add(DIAMETER, 0, 0));
+        expected.add(this.add(0, MAX_SECTION_Y + 5, 0));
+
+        var values = this.index.values();
+        assertEquals(expected.size(), values.size());
+        assertEquals(expected, new HashSet<>(values));
+    }
+
+    @Test
+    void valuesOfAnEmptyIndexIsEmpty() {
+        assertFalse(this.index.values().iterator().hasNext());
+    }
+
+    private RenderSection add(int x, int y, int z) {
+        var section = new RenderSection(REGION, x, y, z);
+        this.index.add(section);
+
+        return section;
+    }
+}
@@ -0,0 +1,71 @@
+package net.caffeinemc.mods.sodium.client.render.chunk.data;
+
+import net.caffeinemc.mods.sodium.client.gl.arena.staging.ConcurrentStagingBuffer;
+import net.caffeinemc.mods.sodium.client.gl.device.HeadlessCommandList;
+import net.caffeinemc.mods.sodium.client.gl.util.VertexRange;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BuiltSectionMeshPartsTest {
+    private static final int CAPACITY = 4096;
+    private static final VertexRange[] RANGES = new VertexRange[] { new VertexRange(0, 4) };
+
+    @Test
+    void deletingMeshesOfCancelledBuildsDrainsTheRing() {
+        var commandList = new HeadlessCommandList();
+        var staging = new ConcurrentStagingBuffer(commandList, CAPACITY);
+
+        // the meshes of a build which is cancelled after meshing, as the meshing task deletes them
+        var meshes = new ArrayList<BuiltSectionMeshParts>();
+
+        for (int i = 0; i < 4; i++) {
+            meshes.add(new BuiltSectionMeshParts(staging.tryReserve(CAPACITY / 4), RANGES));
+        }
+
+        assertNull(staging.tryReserve(1));
+
+        for (int i = meshes.size() - 1; i >= 0; i--) {
+            meshes.get(i).delete();
+        }
+
+        assertNotNull(staging.tryReserve(CAPACITY));
+    }
+
+    @Test
+    void unstagedMeshesKeepTheirDataAndReleaseTheRing() {
+        var commandList = new HeadlessCommandList();
+        var staging = new ConcurrentStagingBuffer(commandList, CAPACITY);
+
+        var reservation = staging.tryReserve(CAPACITY);
+        var data = reservation.getDirectBuffer();
+
+        for (int i = 0; i < CAPACITY; i++) {
+            data.put(i, (byte) i);
+        }
+
+        var mesh = new BuiltSectionMeshParts(reservation, RANGES);
+        mesh.unstage();
+
+        // the ring is free for other builds while the mesh is deferred
+        var next = staging.tryReserve(CAPACITY);
+        assertNotNull(next);
+        next.getDirectBuffer().put(0, (byte) 0x7F);
+
+        assertEquals(CAPACITY, mesh.getVertexDataLength());
+
+        var upload = mesh.createUpload();
+        assertFalse(upload.isStaged());
+
+        var copy = upload.getDataBuffer().getDirectBuffer();
+
+        for (int i = 0; i < CAPACITY; i++) {
+            assertEquals((byte) i, copy.get(i));
+        }
+
+        mesh.delete();
+        next.discard();
+    }
+}
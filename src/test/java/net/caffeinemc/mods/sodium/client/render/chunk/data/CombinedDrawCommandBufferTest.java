@@ -0,0 +1,181 @@
+package net.caffeinemc.mods.sodium.client.render.chunk.data;
+
+import net.caffeinemc.mods.sodium.client.gl.arena.GlBufferArena;
+import net.caffeinemc.mods.sodium.client.gl.arena.GlBufferSegment;
+import net.caffeinemc.mods.sodium.client.gl.util.VertexRange;
+import net.caffeinemc.mods.sodium.client.model.quad.properties.ModelQuadFacing;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.lwjgl.system.MemoryUtil;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CombinedDrawCommandBufferTest {
+    private static final int STRIDE = SectionDrawCommandStorage.COMMAND_STRIDE;
+
+    private final List<SectionRenderDataStorage> data = new ArrayList<>();
+    private final List<SectionDrawCommandStorage> commands = new ArrayList<>();
+
+    private CombinedDrawCommandBuffer combined;
+
+    @BeforeEach
+    void setUp() {
+        this.combined = new CombinedDrawCommandBuffer();
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.combined.delete();
+        this.commands.forEach(SectionDrawCommandStorage::delete);
+        this.data.forEach(SectionRenderDataStorage::delete);
+    }
+
+    @Test
+    void commandsOfEachRegionReferenceItsOffset() {
+        // the base vertices are offsets into the shared geometry buffer, so the regions' meshes don't overlap
+        var a = this.createRegion(3, 0, 8);
+        var b = this.createRegion(10, 800, 4);
+
+        this.combined.addRegion(a, 1.0f, 2.0f, 3.0f);
+        this.combined.addRegion(b, -4.0f, -5.0f, -6.0f);
+
+        assertEquals(2, this.combined.getRegionCount());
+        assertEquals(2 * ModelQuadFacing.COUNT, this.combined.getCommandCount());
+        assertEquals(2 * ModelQuadFacing.COUNT * STRIDE, this.combined.getCommandBytes());
+        assertEquals(2 * CombinedDrawCommandBuffer.REGION_OFFSET_STRIDE, this.combined.getRegionOffsetBytes());
+
+        int up = ModelQuadFacing.POS_Y.ordinal();
+
+        // the visible ranges are copied as they are, except for the base instance
+        assertEquals(12, this.getCommandInt(up, 0));
+        assertEquals(1, this.getCommandInt(up, 4));
+        assertEquals(0, this.getCommandInt(up, 12));
+        assertEquals(0, this.getCommandInt(up, 16));
+
+        assertEquals(6, this.getCommandInt(ModelQuadFacing.COUNT + up, 0));
+        assertEquals(800, this.getCommandInt(ModelQuadFacing.COUNT + up, 12));
+        assertEquals(1, this.getCommandInt(ModelQuadFacing.COUNT + up, 16));
+
+        for (int i = 0; i < this.combined.getCommandCount(); i++) {
+            assertEquals(i / ModelQuadFacing.COUNT, this.getCommandInt(i, 16));
+        }
+
+        assertArrayEquals(new float[] { 1.0f, 2.0f, 3.0f }, this.getRegionOffset(0));
+        assertArrayEquals(new float[] { -4.0f, -5.0f, -6.0f }, this.getRegionOffset(1));
+    }
+
+    @Test
+    void regionsWithoutVisibleSectionsDontTakeASlot() {
+        var hidden = this.createRegion(3, 0, 8);
+        var visible = this.createRegion(5, 100, 8);
+
+        hidden.beginVisibilityUpdate();
+        hidden.endVisibilityUpdate();
+
+        this.combined.addRegion(hidden, 1.0f, 1.0f, 1.0f);
+        assertTrue(this.combined.isEmpty());
+
+        this.combined.addRegion(visible, 2.0f, 2.0f, 2.0f);
+
+        assertEquals(1, this.combined.getRegionCount());
+        assertEquals(0, this.getCommandInt(0, 16));
+        assertArrayEquals(new float[] { 2.0f, 2.0f, 2.0f }, this.getRegionOffset(0));
+    }
+
+    @Test
+    void clearingStartsAnEmptyFrame() {
+        this.combined.addRegion(this.createRegion(3, 0, 8), 1.0f, 1.0f, 1.0f);
+        this.combined.clear();
+
+        assertTrue(this.combined.isEmpty());
+        assertEquals(0, this.combined.getRegionCount());
+
+        this.combined.addRegion(this.createRegion(7, 0, 4), 3.0f, 3.0f, 3.0f);
+
+        assertEquals(0, this.getCommandInt(0, 16));
+        assertArrayEquals(new float[] { 3.0f, 3.0f, 3.0f }, this.getRegionOffset(0));
+    }
+
+    @Test
+    void bufferGrowsPastItsInitialCapacity() {
+        // every section of every region is visible, which exceeds the capacity reserved for the first regions
+        int regionCount = 40;
+
+        for (int i = 0; i < regionCount; i++) {
+            var data = new SectionRenderDataStorage(false);
+            this.data.add(data);
+
+            for (int section = 0; section < 256; section++) {
+                setVertexData(data, section, (i * 256 + section) * 4, 4);
+            }
+
+            var commands = new SectionDrawCommandStorage();
+            this.commands.add(commands);
+
+            commands.updateCommands(data);
+            commands.beginVisibilityUpdate();
+
+            for (int section = 0; section < 256; section++) {
+                commands.setVisibleSlices(section, ModelQuadFacing.ALL);
+            }
+
+            commands.endVisibilityUpdate();
+
+            this.combined.addRegion(commands, i, i, i);
+        }
+
+        assertEquals(regionCount, this.combined.getRegionCount());
+        assertEquals(regionCount * SectionDrawCommandStorage.COMMAND_COUNT, this.combined.getCommandCount());
+
+        // the last command of the last region was copied intact
+        int last = this.combined.getCommandCount() - 1;
+        assertEquals(((regionCount * 256) - 1) * 4 + 4, this.getCommandInt(last, 12));
+        assertEquals(regionCount - 1, this.getCommandInt(last, 16));
+        assertArrayEquals(new float[] { regionCount - 1, regionCount - 1, regionCount - 1 }, this.getRegionOffset(regionCount - 1));
+    }
+
+    // Creates the commands of a region with one visible section facing up
+    private SectionDrawCommandStorage createRegion(int sectionIndex, int vertexOffset, int vertexCount) {
+        var data = new SectionRenderDataStorage(false);
+        this.data.add(data);
+
+        setVertexData(data, sectionIndex, vertexOffset, vertexCount);
+
+        var commands = new SectionDrawCommandStorage();
+        this.commands.add(commands);
+
+        commands.updateCommands(data);
+        commands.beginVisibilityUpdate();
+        commands.setVisibleSlices(sectionIndex, 1 << ModelQuadFacing.POS_Y.ordinal());
+        commands.endVisibilityUpdate();
+
+        return commands;
+    }
+
+    private static void setVertexData(SectionRenderDataStorage data, int sectionIndex, int offset, int count) {
+        var ranges = new VertexRange[ModelQuadFacing.COUNT];
+        ranges[ModelQuadFacing.POS_Y.ordinal()] = new VertexRange(0, count);
+
+        var segment = new GlBufferSegment(Mockito.mock(GlBufferArena.class), offset, count);
+        data.setVertexData(sectionIndex, segment, ranges);
+    }
+
+    private int getCommandInt(int commandIndex, int offset) {
+        return MemoryUtil.memGetInt(this.combined.getCommandPointer() + (long) commandIndex * STRIDE + offset);
+    }
+
+    private float[] getRegionOffset(int slot) {
+        long pOffset = this.combined.getRegionOffsetPointer() + (long) slot * CombinedDrawCommandBuffer.REGION_OFFSET_STRIDE;
+
+        return new float[] {
+                MemoryUtil.memGetFloat(pOffset),
+                MemoryUtil.memGetFloat(pOffset + 4),
+                MemoryUtil.memGetFloat(pOffset + 8)
+        };
+    }
+}
@@ -0,0 +1,177 @@
+package net.caffeinemc.mods.sodium.client.render.chunk.data;
+
+import net.caffeinemc.mods.sodium.client.gl.arena.GlBufferArena;
+import net.caffeinemc.mods.sodium.client.gl.arena.GlBufferSegment;
+import net.caffeinemc.mods.sodium.client.gl.util.VertexRange;
+import net.caffeinemc.mods.sodium.client.model.quad.properties.ModelQuadFacing;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.lwjgl.system.MemoryUtil;
+import org.mockito.Mockito;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SectionDrawCommandStorageTest {
+    private static final int STRIDE = SectionDrawCommandStorage.COMMAND_STRIDE;
+
+    private SectionRenderDataStorage data;
+    private SectionDrawCommandStorage commands;
+
+    @BeforeEach
+    void setUp() {
+        this.data = new SectionRenderDataStorage(false);
+        this.commands = new SectionDrawCommandStorage();
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.commands.delete();
+        this.data.delete();
+    }
+
+    @Test
+    void commandsAreDerivedFromRenderData() {
+        // 8 vertices facing up, 4 facing down, nothing else
+        this.setVertexData(3, 100, ModelQuadFacing.POS_Y, 8, ModelQuadFacing.NEG_Y, 4);
+
+        this.commands.updateCommands(this.data);
+
+        int up = commandIndex(3, ModelQuadFacing.POS_Y);
+        int down = commandIndex(3, ModelQuadFacing.NEG_Y);
+
+        assertEquals(12, this.getCount(up));
+        assertEquals(6, this.getCount(down));
+        assertEquals(0, this.getCount(commandIndex(3, ModelQuadFacing.UNASSIGNED)));
+        assertEquals(12, this.commands.getMaxElementCount());
+
+        // the vertex ranges are stored back to back in facing order
+        assertEquals(100, this.getBaseVertex(up));
+        assertEquals(108, this.getBaseVertex(down));
+
+        // the commands aren't drawn until they are made visible
+        assertEquals(0, this.getInstanceCount(up));
+    }
+
+    @Test
+    void onlyModifiedCommandsAreMarkedDirty() {
+        this.setVertexData(3, 0, ModelQuadFacing.POS_Y, 8);
+        this.setVertexData(40, 8, ModelQuadFacing.NEG_X, 4);
+
+        this.commands.updateCommands(this.data);
+        assertTrue(this.commands.hasDirtyCommands());
+        assertEquals(commandIndex(3, ModelQuadFacing.POS_Y) * STRIDE, this.commands.getDirtyOffset());
+        // the empty facings after the last range still store the vertex offset past its end
+        assertEquals((commandIndex(40, ModelQuadFacing.UNASSIGNED) + 1) * STRIDE,
+                this.commands.getDirtyOffset() + this.commands.getDirtyLength());
+
+        this.commands.clearDirtyCommands();
+
+        // nothing changed, so there is nothing to upload
+        this.commands.updateCommands(this.data);
+        assertFalse(this.commands.hasDirtyCommands());
+
+        this.setVertexData(40, 8, ModelQuadFacing.NEG_X, 12);
+        this.commands.updateCommands(this.data);
+
+        // the commands before the modified range are unchanged
+        assertEquals(commandIndex(40, ModelQuadFacing.NEG_X) * STRIDE, this.commands.getDirtyOffset());
+        assertEquals((ModelQuadFacing.COUNT - ModelQuadFacing.NEG_X.ordinal()) * STRIDE, this.commands.getDirtyLength());
+    }
+
+    @Test
+    void visibilityChangesPatchInstanceCounts() {
+        this.setVertexData(3, 0, ModelQuadFacing.POS_Y, 8, ModelQuadFacing.NEG_Y, 4);
+        this.setVertexData(40, 12, ModelQuadFacing.NEG_X, 4);
+
+        this.commands.updateCommands(this.data);
+        this.commands.clearDirtyCommands();
+
+        this.commands.beginVisibilityUpdate();
+        this.commands.setVisibleSlices(3, 1 << ModelQuadFacing.POS_Y.ordinal());
+        this.commands.setVisibleSlices(40, ModelQuadFacing.ALL);
+        this.commands.endVisibilityUpdate();
+
+        assertEquals(1, this.getInstanceCount(commandIndex(3, ModelQuadFacing.POS_Y)));
+        assertEquals(0, this.getInstanceCount(commandIndex(3, ModelQuadFacing.NEG_Y)));
+        assertEquals(1, this.getInstanceCount(commandIndex(40, ModelQuadFacing.NEG_X)));
+
+        assertFalse(this.commands.isEmpty());
+        assertEquals((long) commandIndex(3, 0) * STRIDE, this.commands.getDrawOffset());
+        assertEquals((40 - 3 + 1) * ModelQuadFacing.COUNT, this.commands.getDrawCount());
+
+        this.commands.clearDirtyCommands();
+
+        // hiding one section only touches its own commands
+        this.commands.beginVisibilityUpdate();
+        this.commands.setVisibleSlices(3, 1 << ModelQuadFacing.POS_Y.ordinal());
+        this.commands.endVisibilityUpdate();
+
+        assertEquals(0, this.getInstanceCount(commandIndex(40, ModelQuadFacing.NEG_X)));
+        assertEquals(1, this.getInstanceCount(commandIndex(3, ModelQuadFacing.POS_Y)));
+        assertEquals(commandIndex(40, 0) * STRIDE, this.commands.getDirtyOffset());
+        assertEquals(ModelQuadFacing.COUNT * STRIDE, this.commands.getDirtyLength());
+
+        assertEquals(ModelQuadFacing.COUNT, this.commands.getDrawCount());
+
+        this.commands.beginVisibilityUpdate();
+        this.commands.endVisibilityUpdate();
+
+        assertTrue(this.commands.isEmpty());
+    }
+
+    @Test
+    void replacingTheStorageRegeneratesCommands() {
+        this.setVertexData(3, 0, ModelQuadFacing.POS_Y, 8);
+        this.commands.updateCommands(this.data);
+
+        var other = new SectionRenderDataStorage(false);
+
+        try {
+            this.commands.clearDirtyCommands();
+            this.commands.updateCommands(other);
+
+            assertEquals(0, this.getCount(commandIndex(3, ModelQuadFacing.POS_Y)));
+            assertEquals(0, this.commands.getMaxElementCount());
+            assertTrue(this.commands.hasDirtyCommands());
+        } finally {
+            other.delete();
+        }
+    }
+
+    private void setVertexData(int sectionIndex, int offset, Object... facingsAndCounts) {
+        var ranges = new VertexRange[ModelQuadFacing.COUNT];
+        int length = 0;
+
+        for (int i = 0; i < facingsAndCounts.length; i += 2) {
+            var facing = (ModelQuadFacing) facingsAndCounts[i];
+            int count = (Integer) facingsAndCounts[i + 1];
+
+            ranges[facing.ordinal()] = new VertexRange(0, count);
+            length += count;
+        }
+
+        var segment = new GlBufferSegment(Mockito.mock(GlBufferArena.class), offset, length);
+        this.data.setVertexData(sectionIndex, segment, ranges);
+    }
+
+    private int getCount(int commandIndex) {
+        return MemoryUtil.memGetInt(this.commands.getDataPointer() + (long) commandIndex * STRIDE);
+    }
+
+    private int getInstanceCount(int commandIndex) {
+        return MemoryUtil.memGetInt(this.commands.getDataPointer() + (long) commandIndex * STRIDE + 4);
+    }
+
+    private int getBaseVertex(int commandIndex) {
+        return MemoryUtil.memGetInt(this.commands.getDataPointer() + (long) commandIndex * STRIDE + 12);
+    }
+
+    private static int commandIndex(int sectionIndex, ModelQuadFacing facing) {
+        return commandIndex(sectionIndex, facing.ordinal());
+    }
+
+    private static int commandIndex(int sectionIndex, int facing) {
+        return sectionIndex * ModelQuadFacing.COUNT + facing;
+    }
+}
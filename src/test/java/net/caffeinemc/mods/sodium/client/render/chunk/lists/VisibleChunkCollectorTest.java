@@ -0,0 +1,127 @@
+package net.caffeinemc.mods.sodium.client.render.chunk.lists;
+
+import net.caffeinemc.mods.sodium.client.render.chunk.RenderSection;
+import net.caffeinemc.mods.sodium.client.render.chunk.RenderSectionFlags;
+import net.caffeinemc.mods.sodium.client.render.chunk.region.RenderRegion;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks that a search on the culling thread leaves the render lists which the render thread is drawing untouched.
+ */
+class VisibleChunkCollectorTest {
+    private static final int GEOMETRY = 1 << RenderSectionFlags.HAS_BLOCK_GEOMETRY;
+
+    private final RenderRegion regionA = new RenderRegion(0, 0, 0, null, null);
+    private final RenderRegion regionB = new RenderRegion(1, 0, 0, null, null);
+
+    @Test
+    void searchDoesNotModifyTheListsBeingIterated() {
+        var drawn = search(1, 0, this.sections(this.regionA, 0, 1, 2), this.sections(this.regionB, 3, 4))
+                .createRenderLists();
+
+        var iterator = drawn.iterator(false);
+        var first = iterator.next();
+        assertSame(this.regionA, first.getRegion());
+        assertEquals(List.of(0, 1, 2), geometry(first));
+
+        // the next search runs on another thread while the first region list is still being drawn
+        CompletableFuture.runAsync(() -> search(2, 1, this.sections(this.regionB, 7), this.sections(this.regionA, 5)))
+                .join();
+
+        assertEquals(List.of(0, 1, 2), geometry(first));
+
+        var second = iterator.next();
+        assertSame(this.regionB, second.getRegion());
+        assertEquals(List.of(3, 4), geometry(second));
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    void listsStayIntactWhileSearchesRunConcurrently() throws Exception {
+        var drawn = search(1, 0, this.sections(this.regionA, 0, 1, 2), this.sections(this.regionB, 3, 4))
+                .createRenderLists();
+
+        var visitedB = this.sections(this.regionB, 7, 8);
+        var visitedA = this.sections(this.regionA, 10, 11, 12, 13);
+
+        var running = new AtomicBoolean(true);
+        var searches = CompletableFuture.runAsync(() -> {
+            for (int frame = 2; running.get(); frame++) {
+                search(frame, 1, visitedB, visitedA);
+            }
+        });
+
+        try {
+            for (int i = 0; i < 10_000; i++) {
+                var iterator = drawn.iterator(false);
+
+                assertEquals(List.of(0, 1, 2), geometry(iterator.next()));
+                assertEquals(List.of(3, 4), geometry(iterator.next()));
+                assertFalse(iterator.hasNext());
+            }
+        } finally {
+            running.set(false);
+        }
+
+        searches.get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void searchesIntoTheSameBufferReplaceThePreviousLists() {
+        search(1, 0, this.sections(this.regionA, 0, 1, 2));
+        var lists = search(2, 0, this.sections(this.regionA, 3)).createRenderLists();
+
+        var iterator = lists.iterator(false);
+        assertEquals(List.of(3), geometry(iterator.next()));
+        assertFalse(iterator.hasNext());
+    }
+
+    @SafeVarargs
+    private static VisibleChunkCollector search(int frame, int buffer, List<RenderSection>... visited) {
+        var collector = new VisibleChunkCollector(frame, buffer);
+
+        for (var sections : visited) {
+            for (var section : sections) {
+                collector.visit(section, true);
+            }
+        }
+
+        return collector;
+    }
+
+    private List<RenderSection> sections(RenderRegion region, int... indices) {
+        var sections = new ArrayList<RenderSection>();
+
+        for (int index : indices) {
+            var section = mock(RenderSection.class);
+            when(section.getRegion()).thenReturn(region);
+            when(section.getSectionIndex()).thenReturn(index);
+            when(section.getFlags()).thenReturn(GEOMETRY);
+
+            sections.add(section);
+        }
+
+        return sections;
+    }
+
+    private static List<Integer> geometry(ChunkRenderList list) {
+        var indices = new ArrayList<Integer>();
+        var iterator = list.sectionsWithGeometryIterator(false);
+
+        while (iterator != null && iterator.hasNext()) {
+            indices.add(iterator.nextByteAsInt());
+        }
+
+        return indices;
+    }
+}
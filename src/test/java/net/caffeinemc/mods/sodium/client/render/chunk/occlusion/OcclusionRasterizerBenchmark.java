@@ -0,0 +1,101 @@
+package net.caffeinemc.mods.sodium.client.render.chunk.occlusion;
+
+import org.joml.Matrix4f;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures one frame of the occlusion rasterizer at different depth buffer resolutions: the opaque sections within
+ * the occluder distance are drawn, and the sections behind them are tested. Run with
+ * {@code gradlew jmh --args="OcclusionRasterizerBenchmark"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OcclusionRasterizerBenchmark {
+    private static final int TESTED_SECTIONS = 20_000;
+
+    // The fraction of the sections within the occluder distance which are opaque
+    private static final float OCCLUDER_FRACTION = 0.3f;
+
+    @Param({ "128", "256", "512" })
+    public int resolution;
+
+    @Param({ "4", "8", "16" })
+    public int occluderDistance;
+
+    private final Matrix4f viewProjection = new Matrix4f();
+
+    private OcclusionRasterizer rasterizer;
+
+    private float[] occluders;
+    private float[] tested;
+
+    @Setup
+    public void setup() {
+        this.rasterizer = new OcclusionRasterizer(this.resolution, this.resolution / 2);
+        this.viewProjection.perspective((float) Math.toRadians(70.0), 2.0f, 0.05f, 1024.0f);
+
+        var random = new Random(42L);
+
+        // the opaque sections in front of the camera, as the minimum corner of each
+        var occluders = new float[(this.occluderDistance * 2) * (this.occluderDistance * 2) * this.occluderDistance * 3];
+        int count = 0;
+
+        for (int x = -this.occluderDistance; x < this.occluderDistance; x++) {
+            for (int y = -this.occluderDistance; y < this.occluderDistance; y++) {
+                for (int z = 1; z <= this.occluderDistance; z++) {
+                    if (random.nextFloat() < OCCLUDER_FRACTION) {
+                        occluders[count++] = x * 16.0f;
+                        occluders[count++] = y * 16.0f;
+                        occluders[count++] = z * -16.0f;
+                    }
+                }
+            }
+        }
+
+        this.occluders = Arrays.copyOf(occluders, count);
+
+        this.tested = new float[TESTED_SECTIONS * 3];
+
+        for (int i = 0; i < TESTED_SECTIONS; i++) {
+            float z = -16.0f * (this.occluderDistance + 1 + random.nextInt(32));
+
+            // within the view frustum at that distance
+            this.tested[(i * 3)] = (random.nextFloat() * 2.0f - 1.0f) * -z;
+            this.tested[(i * 3) + 1] = (random.nextFloat() * 2.0f - 1.0f) * -z * 0.5f;
+            this.tested[(i * 3) + 2] = z;
+        }
+    }
+
+    @Benchmark
+    public int rasterizeAndTest() {
+        var rasterizer = this.rasterizer;
+        rasterizer.begin(this.viewProjection);
+
+        var occluders = this.occluders;
+
+        for (int i = 0; i < occluders.length; i += 3) {
+            rasterizer.drawOccluder(occluders[i], occluders[i + 1], occluders[i + 2],
+                    occluders[i] + 16.0f, occluders[i + 1] + 16.0f, occluders[i + 2] + 16.0f);
+        }
+
+        var tested = this.tested;
+        int occluded = 0;
+
+        for (int i = 0; i < tested.length; i += 3) {
+            if (rasterizer.isBoxOccluded(tested[i], tested[i + 1], tested[i + 2],
+                    tested[i] + 16.0f, tested[i + 1] + 16.0f, tested[i + 2] + 16.0f)) {
+                occluded++;
+            }
+        }
+
+        return occluded;
+    }
+}
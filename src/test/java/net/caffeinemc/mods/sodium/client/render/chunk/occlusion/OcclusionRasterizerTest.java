@@ -0,0 +1,90 @@
+package net.caffeinemc.mods.sodium.client.render.chunk.occlusion;
+
+import net.caffeinemc.mods.sodium.client.gui.SodiumGameOptions;
+import org.joml.Matrix4f;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OcclusionRasterizerTest {
+    private OcclusionRasterizer rasterizer;
+
+    @BeforeEach
+    void setUp() {
+        this.rasterizer = new OcclusionRasterizer(256, 128);
+
+        // the camera is at the origin and looks down the negative z axis
+        this.rasterizer.begin(new Matrix4f().perspective((float) Math.toRadians(70.0), 2.0f, 0.05f, 1024.0f));
+    }
+
+    @Test
+    void nothingIsOccludedWithoutOccluders() {
+        assertFalse(this.rasterizer.isBoxOccluded(-1, -1, -60, 1, 1, -58));
+    }
+
+    @Test
+    void boxesBehindAnOccluderAreOccluded() {
+        this.rasterizer.drawOccluder(-5, -5, -20, 5, 5, -16);
+
+        assertTrue(this.rasterizer.isBoxOccluded(-1, -1, -60, 1, 1, -58));
+    }
+
+    @Test
+    void boxesInFrontOfAnOccluderAreVisible() {
+        this.rasterizer.drawOccluder(-5, -5, -20, 5, 5, -16);
+
+        assertFalse(this.rasterizer.isBoxOccluded(-1, -1, -12, 1, 1, -10));
+
+        // overlaps the occluder in depth, so it may be in front of parts of it
+        assertFalse(this.rasterizer.isBoxOccluded(-1, -1, -18, 1, 1, -17));
+    }
+
+    @Test
+    void boxesOutsideTheSilhouetteAreVisible() {
+        this.rasterizer.drawOccluder(-5, -5, -20, 5, 5, -16);
+
+        // fully beside the occluder
+        assertFalse(this.rasterizer.isBoxOccluded(30, -1, -60, 32, 1, -58));
+
+        // partially covered by the occluder
+        assertFalse(this.rasterizer.isBoxOccluded(10, -1, -60, 22, 1, -58));
+    }
+
+    @Test
+    void boxesCrossingTheNearPlaneAreNeverOccludedOrDrawn() {
+        // an occluder around the camera can't be projected, so it must not hide anything
+        this.rasterizer.drawOccluder(-5, -5, -5, 5, 5, 5);
+        assertFalse(this.rasterizer.isBoxOccluded(-1, -1, -60, 1, 1, -58));
+
+        this.rasterizer.drawOccluder(-5, -5, -20, 5, 5, -16);
+        assertFalse(this.rasterizer.isBoxOccluded(-1, -1, -60, 1, 1, 1));
+    }
+
+    @Test
+    void beginClearsTheDepthBuffer() {
+        this.rasterizer.drawOccluder(-5, -5, -20, 5, 5, -16);
+        this.rasterizer.begin(new Matrix4f().perspective((float) Math.toRadians(70.0), 2.0f, 0.05f, 1024.0f));
+
+        assertFalse(this.rasterizer.isBoxOccluded(-1, -1, -60, 1, 1, -58));
+    }
+
+    @Test
+    void sizeMustBeAMultipleOfTheTileSize() {
+        assertThrows(IllegalArgumentException.class, () -> new OcclusionRasterizer(100, 64));
+    }
+
+    @Test
+    void settingsAreClampedToTheSupportedRange() {
+        var options = new SodiumGameOptions.AdvancedSettings();
+
+        options.occlusionRasterizerResolution = 4096;
+        options.occlusionRasterizerDistance = 0;
+        assertEquals(new OcclusionRasterizerSettings(512, 256, 2), OcclusionRasterizerSettings.fromOptions(options));
+
+        // the height must be a multiple of the tile size too
+        options.occlusionRasterizerResolution = 200;
+        options.occlusionRasterizerDistance = 64;
+        assertEquals(new OcclusionRasterizerSettings(192, 96, 16), OcclusionRasterizerSettings.fromOptions(options));
+    }
+}
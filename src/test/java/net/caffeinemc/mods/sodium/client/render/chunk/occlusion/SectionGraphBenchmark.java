@@ -0,0 +1,197 @@
+package net.caffeinemc.mods.sodium.client.render.chunk.occlusion;
+
+import it.unimi.dsi.fastutil.ints.IntArrayFIFOQueue;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayFIFOQueue;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import net.caffeinemc.mods.sodium.client.render.chunk.RenderSection;
+import net.caffeinemc.mods.sodium.client.render.chunk.region.RenderRegion;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares a breadth-first search over the {@link SectionGraph} with the same search over sections which reference
+ * their neighbors directly, as the graph was stored before. The sections of the object graph are allocated in a
+ * random order, like sections which are loaded while the player moves around. Run with
+ * {@code gradlew jmh --args="SectionGraphBenchmark"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SectionGraphBenchmark {
+    private static final int HEIGHT = 24;
+
+    // Every face is connected to every other face
+    private static final long OPEN = 0x3F3F3F3F3F3FL;
+
+    // The fraction of sections which can't be seen through, such as those filled with stone
+    private static final float SOLID_FRACTION = 0.2f;
+
+    @Param({ "12", "32" })
+    public int renderDistance;
+
+    private SectionGraph graph;
+    private int graphOrigin;
+
+    private ObjectSection objectOrigin;
+
+    private int frame;
+
+    @Setup
+    public void setup() {
+        int size = (this.renderDistance * 2) + 1;
+        var random = new Random(42L);
+
+        var positions = new ObjectArrayList<int[]>();
+
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < HEIGHT; y++) {
+                for (int z = 0; z < size; z++) {
+                    positions.add(new int[] { x, y, z });
+                }
+            }
+        }
+
+        Collections.shuffle(positions, random);
+
+        // the graph only uses the positions of the sections, so they can all refer to the same region
+        var region = new RenderRegion(0, 0, 0, null, null);
+
+        this.graph = new SectionGraph();
+        var objects = new Long2ObjectOpenHashMap<ObjectSection>();
+
+        for (int[] pos : positions) {
+            long visibilityData = random.nextFloat() < SOLID_FRACTION ? VisibilityEncoding.NULL : OPEN;
+
+            var section = new RenderSection(region, pos[0], pos[1], pos[2]);
+            this.graph.addSection(section);
+            this.graph.setVisibilityData(section, visibilityData);
+
+            objects.put(key(pos[0], pos[1], pos[2]), new ObjectSection(pos[0], pos[1], pos[2], visibilityData));
+        }
+
+        for (var section : objects.values()) {
+            for (int direction = 0; direction < GraphDirection.COUNT; direction++) {
+                section.adjacent[direction] = objects.get(key(section.x + GraphDirection.x(direction),
+                        section.y + GraphDirection.y(direction), section.z + GraphDirection.z(direction)));
+            }
+        }
+
+        int center = this.renderDistance;
+        this.graphOrigin = this.graph.getNode(center, HEIGHT / 2, center);
+        this.objectOrigin = objects.get(key(center, HEIGHT / 2, center));
+
+        // both searches have to do the same work for the comparison to be meaningful
+        int flatCount = this.searchSectionGraph();
+        int objectCount = this.searchObjectGraph();
+
+        if (flatCount != objectCount) {
+            throw new IllegalStateException("Searches reached %d and %d sections".formatted(flatCount, objectCount));
+        }
+    }
+
+    @Benchmark
+    public int searchSectionGraph() {
+        int frame = ++this.frame;
+        var graph = this.graph;
+        var queue = new IntArrayFIFOQueue();
+
+        graph.visit(this.graphOrigin, GraphDirectionSet.ALL, frame);
+        queue.enqueue(this.graphOrigin);
+
+        int count = 0;
+
+        while (!queue.isEmpty()) {
+            int node = queue.dequeueInt();
+            count++;
+
+            int connections = VisibilityEncoding.getConnections(graph.getVisibilityData(node), graph.getIncomingDirections(node));
+
+            while (connections != 0) {
+                int direction = Integer.numberOfTrailingZeros(connections);
+                int adjacent = graph.getAdjacent(node, direction);
+
+                if (adjacent != SectionGraph.NULL_NODE
+                        && graph.visit(adjacent, GraphDirectionSet.of(GraphDirection.opposite(direction)), frame)) {
+                    queue.enqueue(adjacent);
+                }
+
+                connections &= connections - 1;
+            }
+        }
+
+        return count;
+    }
+
+    @Benchmark
+    public int searchObjectGraph() {
+        int frame = ++this.frame;
+        var queue = new ObjectArrayFIFOQueue<ObjectSection>();
+
+        this.objectOrigin.visit(GraphDirectionSet.ALL, frame);
+        queue.enqueue(this.objectOrigin);
+
+        int count = 0;
+
+        while (!queue.isEmpty()) {
+            var section = queue.dequeue();
+            count++;
+
+            int connections = VisibilityEncoding.getConnections(section.visibilityData, section.incomingDirections);
+
+            while (connections != 0) {
+                int direction = Integer.numberOfTrailingZeros(connections);
+                var adjacent = section.adjacent[direction];
+
+                if (adjacent != null && adjacent.visit(GraphDirectionSet.of(GraphDirection.opposite(direction)), frame)) {
+                    queue.enqueue(adjacent);
+                }
+
+                connections &= connections - 1;
+            }
+        }
+
+        return count;
+    }
+
+    private static long key(int x, int y, int z) {
+        return ((x & 0xFFFFFL) << 40) | ((y & 0xFFFFFL) << 20) | (z & 0xFFFFFL);
+    }
+
+    /**
+     * The traversal state of a section as it was stored before the graph was flattened, with references to the
+     * adjacent sections.
+     */
+    private static class ObjectSection {
+        private final int x, y, z;
+        private final ObjectSection[] adjacent = new ObjectSection[GraphDirection.COUNT];
+        private final long visibilityData;
+
+        private int lastVisibleFrame = -1;
+        private int incomingDirections;
+
+        private ObjectSection(int x, int y, int z, long visibilityData) {
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.visibilityData = visibilityData;
+        }
+
+        private boolean visit(int incoming, int frame) {
+            if (this.lastVisibleFrame != frame) {
+                this.lastVisibleFrame = frame;
+                this.incomingDirections = incoming;
+                return true;
+            }
+
+            this.incomingDirections |= incoming;
+            return false;
+        }
+    }
+}
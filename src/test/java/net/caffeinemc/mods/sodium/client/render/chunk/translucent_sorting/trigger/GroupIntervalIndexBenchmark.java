@@ -0,0 +1,140 @@
+package net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.trigger;
+
+import com.lodborg.intervaltree.DoubleInterval;
+import com.lodborg.intervaltree.Interval;
+import com.lodborg.intervaltree.IntervalTree;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.objects.Object2ReferenceOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceArraySet;
+import it.unimi.dsi.fastutil.objects.ReferenceLinkedOpenHashSet;
+import org.joml.Vector3d;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collection;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the queries of the {@link GroupIntervalIndex} with those of the structure it replaced in the normal lists,
+ * an {@code IntervalTree<Double>} of the distinct group intervals plus a map from each interval to its groups. The
+ * queries are the small distance intervals covered by a camera movement within a single frame. Run with
+ * {@code gradlew jmh --args="GroupIntervalIndexBenchmark"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GroupIntervalIndexBenchmark {
+    private static final int QUERY_COUNT = 256;
+
+    // The largest distance the camera moves within a frame, in blocks
+    private static final double MAX_MOVEMENT = 1.0;
+
+    @Param({ "10000", "50000" })
+    public int groupCount;
+
+    // The size at which the previous normal lists switched the group set of an interval to a hash set
+    private static final int HASH_SET_THRESHOLD = 20;
+
+    private GroupIntervalIndex index;
+
+    private IntervalTree<Double> intervalTree;
+    private Object2ReferenceOpenHashMap<DoubleInterval, Collection<Group>> groupsByInterval;
+
+    private final SortTriggering triggering = new SortTriggering();
+    private int triggeredCount;
+
+    private double[] queries;
+
+    @Setup
+    public void setup() {
+        var random = new Random(42L);
+
+        // the sections are spread out so that the distances of the groups cover a render distance of 32 chunks
+        var positions = new LongOpenHashSet();
+        this.index = new GroupIntervalIndex();
+        this.intervalTree = new IntervalTree<>();
+        this.groupsByInterval = new Object2ReferenceOpenHashMap<>();
+
+        for (int i = 0; i < this.groupCount; ) {
+            var group = GroupIntervalIndexTest.createRandomGroup(random, 32);
+
+            if (positions.add(group.sectionPos)) {
+                this.index.add(group);
+                this.addToIntervalTree(group);
+                i++;
+            }
+        }
+
+        this.queries = new double[QUERY_COUNT * 2];
+
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            double start = (random.nextDouble() * 1024.0) - 512.0;
+            this.queries[i * 2] = start;
+            this.queries[(i * 2) + 1] = start + (random.nextDouble() * MAX_MOVEMENT);
+        }
+
+        // the callback is kept after the movement was processed, and receives the sections triggered by the groups
+        this.triggering.triggerSections((sectionPos, direct) -> this.triggeredCount++,
+                new CameraMovement(new Vector3d(), new Vector3d()));
+
+        this.triggeredCount = 0;
+        int indexCount = this.queryIndex();
+        int treeCount = this.queryIntervalTree();
+
+        if (indexCount != treeCount) {
+            throw new IllegalStateException("Queries triggered %d and %d groups".formatted(indexCount, treeCount));
+        }
+    }
+
+    // The same as the previous NormalList#addGroupInterval
+    private void addToIntervalTree(Group group) {
+        var interval = new DoubleInterval(group.minDistance, group.maxDistance, Interval.Bounded.CLOSED);
+        var groups = this.groupsByInterval.get(interval);
+
+        if (groups == null) {
+            groups = new ReferenceArraySet<>();
+            this.groupsByInterval.put(interval, groups);
+            this.intervalTree.add(interval);
+        } else if (groups.size() >= HASH_SET_THRESHOLD) {
+            groups = new ReferenceLinkedOpenHashSet<>(groups);
+            this.groupsByInterval.put(interval, groups);
+        }
+
+        groups.add(group);
+    }
+
+    @Benchmark
+    public int queryIndex() {
+        var queries = this.queries;
+        int before = this.triggeredCount;
+
+        for (int i = 0; i < queries.length; i += 2) {
+            this.index.triggerOverlapping(this.triggering, queries[i], queries[i + 1]);
+        }
+
+        return this.triggeredCount - before;
+    }
+
+    // The same as the previous NormalList#processMovement
+    @Benchmark
+    public int queryIntervalTree() {
+        var queries = this.queries;
+        int before = this.triggeredCount;
+
+        for (int i = 0; i < queries.length; i += 2) {
+            double start = queries[i], end = queries[i + 1];
+            var interval = new DoubleInterval(start, end, Interval.Bounded.CLOSED);
+
+            for (Interval<Double> groupInterval : this.intervalTree.query(interval)) {
+                for (Group group : this.groupsByInterval.get(groupInterval)) {
+                    group.triggerRange(this.triggering, start, end);
+                }
+            }
+        }
+
+        return this.triggeredCount - before;
+    }
+}
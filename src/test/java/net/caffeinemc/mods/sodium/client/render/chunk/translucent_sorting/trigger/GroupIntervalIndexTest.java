@@ -0,0 +1,152 @@
+package net.caffeinemc.mods.sodium.client.render.chunk.translucent_sorting.trigger;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import net.minecraft.core.SectionPos;
+import org.joml.Vector3d;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GroupIntervalIndexTest {
+    private final GroupIntervalIndex index = new GroupIntervalIndex();
+    private final SortTriggering triggering = new SortTriggering();
+    private final LongArrayList triggered = new LongArrayList();
+
+    @BeforeEach
+    void setUp() {
+        // the callback is kept after the movement was processed, and receives the sections triggered by the groups
+        this.triggering.triggerSections((sectionPos, direct) -> this.triggered.add(sectionPos.longValue()),
+                new CameraMovement(new Vector3d(), new Vector3d()));
+    }
+
+    @Test
+    void emptyIndexTriggersNothing() {
+        this.index.triggerOverlapping(this.triggering, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+
+        assertTrue(this.triggered.isEmpty());
+    }
+
+    @Test
+    void groupsAreTriggeredWhenAPlaneIsCrossed() {
+        var group = createGroup(0, 0, 0, 4.0f, 8.0f);
+        this.index.add(group);
+
+        this.index.triggerOverlapping(this.triggering, 3.0, 5.0);
+        this.index.triggerOverlapping(this.triggering, 5.0, 6.0);
+        this.index.triggerOverlapping(this.triggering, 8.5, 9.0);
+        this.index.triggerOverlapping(this.triggering, 7.5, 9.0);
+
+        assertEquals(LongArrayList.of(group.sectionPos, group.sectionPos), this.triggered);
+    }
+
+    @Test
+    void onlyTheRemovedGroupIsRemovedAmongGroupsWithTheSameStart() {
+        var a = createGroup(1, 0, 0, 2.0f, 10.0f);
+        var b = createGroup(1, 1, 0, 2.0f, 5.0f);
+        var c = createGroup(1, 2, 0, 2.0f, 12.0f);
+        this.index.add(a);
+        this.index.add(b);
+        this.index.add(c);
+
+        this.index.remove(b);
+        this.index.triggerOverlapping(this.triggering, 20.0, 30.0);
+
+        assertEquals(new LongOpenHashSet(new long[] { a.sectionPos, c.sectionPos }), new LongOpenHashSet(this.triggered));
+        assertEquals(2, this.triggered.size());
+
+        // removing a group which isn't in the index does nothing
+        this.index.remove(b);
+        this.index.remove(createGroup(1, 3, 0, 2.0f, 12.0f));
+
+        this.triggered.clear();
+        this.index.triggerOverlapping(this.triggering, 20.0, 30.0);
+        assertEquals(2, this.triggered.size());
+    }
+
+    @Test
+    void triggersTheSameGroupsAsAScanOfAllGroups() {
+        var random = new Random(42L);
+        var positions = new LongOpenHashSet();
+        List<Group> groups = new ObjectArrayList<>();
+
+        for (int i = 0; i < 2000; i++) {
+            var group = createRandomGroup(random, 64);
+
+            if (positions.add(group.sectionPos)) {
+                groups.add(group);
+                this.index.add(group);
+            }
+        }
+
+        for (int round = 0; round < 4; round++) {
+            for (int i = 0; i < 200; i++) {
+                double start = (random.nextDouble() * 2400.0) - 1200.0;
+                double end = start + (random.nextDouble() * (i % 10 == 0 ? 200.0 : 2.0));
+
+                this.triggered.clear();
+                this.index.triggerOverlapping(this.triggering, start, end);
+                var actual = new LongArrayList(this.triggered);
+
+                this.triggered.clear();
+                for (var group : groups) {
+                    group.triggerRange(this.triggering, start, end);
+                }
+
+                actual.sort(null);
+                this.triggered.sort(null);
+                assertEquals(this.triggered, actual);
+            }
+
+            // the index has to stay consistent as groups are removed and added
+            for (int i = 0; i < 300; i++) {
+                var group = groups.remove(random.nextInt(groups.size()));
+                positions.remove(group.sectionPos);
+                this.index.remove(group);
+            }
+
+            for (int i = 0; i < 300; i++) {
+                var group = createRandomGroup(random, 64);
+
+                if (positions.add(group.sectionPos)) {
+                    groups.add(group);
+                    this.index.add(group);
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates the group of a section with planes facing in the positive x direction.
+     */
+    static Group createGroup(int sectionX, int sectionY, int sectionZ, float... distances) {
+        var planes = new NormalPlanes(SectionPos.of(sectionX, sectionY, sectionZ), 0);
+
+        for (float distance : distances) {
+            planes.addPlaneMember(distance);
+        }
+
+        planes.prepareIntegration();
+
+        return new Group(planes);
+    }
+
+    /**
+     * Creates a group with a few planes in a random section within the given radius.
+     */
+    static Group createRandomGroup(Random random, int radius) {
+        var distances = new float[1 + random.nextInt(4)];
+
+        for (int i = 0; i < distances.length; i++) {
+            distances[i] = random.nextInt(17);
+        }
+
+        return createGroup(random.nextInt(radius * 2) - radius, random.nextInt(24), random.nextInt(radius * 2) - radius,
+                distances);
+    }
+}
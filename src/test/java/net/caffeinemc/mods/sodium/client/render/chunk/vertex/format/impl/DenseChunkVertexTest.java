@@ -0,0 +1,256 @@
+package net.caffeinemc.mods.sodium.client.render.chunk.vertex.format.impl;
+
+import net.caffeinemc.mods.sodium.client.render.chunk.terrain.material.Material;
+import net.caffeinemc.mods.sodium.client.render.chunk.vertex.format.ChunkVertexEncoder;
+import org.junit.jupiter.api.Test;
+import org.lwjgl.system.MemoryUtil;
+import org.mockito.Mockito;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Encodes quads with {@link DenseChunkVertex} and decodes the vertices the same way as {@code chunk_vertex.glsl}.
+ */
+class DenseChunkVertexTest {
+    private static final float POSITION_STEP = 1.0f / (1 << DenseChunkVertex.POSITION_OFFSET_BITS);
+
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(DenseChunkVertex.STRIDE * 4)
+            .order(ByteOrder.nativeOrder());
+
+    @Test
+    void positionsAtTheEdgesOfTheRangeRoundTrip() {
+        var vertices = createQuad();
+        vertices[0].x = -8.0f;
+        vertices[1].y = 24.0f - POSITION_STEP;
+        vertices[2].z = 0.0f;
+        vertices[3].x = 16.0f;
+
+        this.encode(vertices, 0, 0);
+
+        assertEquals(-8.0f, this.decodePosition(0, 0));
+        assertEquals(24.0f - POSITION_STEP, this.decodePosition(1, 1));
+        assertEquals(0.0f, this.decodePosition(2, 2));
+        assertEquals(16.0f, this.decodePosition(3, 0));
+    }
+
+    @Test
+    void positionsOutsideTheRangeAreClamped() {
+        var vertices = createQuad();
+        vertices[0].x = -9.0f;
+        vertices[1].x = 24.0f;
+        vertices[2].x = 100.0f;
+
+        this.encode(vertices, 0, 0);
+
+        assertEquals(-8.0f, this.decodePosition(0, 0));
+
+        // 24 itself can't be encoded, so it's off by one step
+        assertEquals(24.0f, this.decodePosition(1, 0), POSITION_STEP);
+        assertEquals(24.0f - POSITION_STEP, this.decodePosition(2, 0));
+    }
+
+    @Test
+    void positionsAreAccurateToHalfAStep() {
+        var random = new Random(42L);
+        var vertices = createQuad();
+
+        for (int i = 0; i < 1000; i++) {
+            for (var vertex : vertices) {
+                vertex.x = -8.0f + (random.nextFloat() * (32.0f - POSITION_STEP));
+                vertex.y = -8.0f + (random.nextFloat() * (32.0f - POSITION_STEP));
+                vertex.z = -8.0f + (random.nextFloat() * (32.0f - POSITION_STEP));
+            }
+
+            this.encode(vertices, 0, 0);
+
+            for (int v = 0; v < 4; v++) {
+                assertEquals(vertices[v].x, this.decodePosition(v, 0), POSITION_STEP * 0.5f + 1.0e-5f);
+                assertEquals(vertices[v].y, this.decodePosition(v, 1), POSITION_STEP * 0.5f + 1.0e-5f);
+                assertEquals(vertices[v].z, this.decodePosition(v, 2), POSITION_STEP * 0.5f + 1.0e-5f);
+            }
+        }
+    }
+
+    @Test
+    void adjacentStepsHaveDistinctEncodings() {
+        var vertices = createQuad();
+        vertices[0].x = 3.0f;
+        vertices[1].x = 3.0f + POSITION_STEP;
+        vertices[2].x = 3.0f + (2.0f * POSITION_STEP);
+
+        this.encode(vertices, 0, 0);
+
+        assertEquals(this.getPosition(0, 0) + 1, this.getPosition(1, 0));
+        assertEquals(this.getPosition(1, 0) + 1, this.getPosition(2, 0));
+    }
+
+    @Test
+    void colorExtremesAreExact() {
+        var vertices = createQuad();
+        vertices[0].color = 0xFFFFFFFF;
+        vertices[1].color = 0x00000000;
+        vertices[2].color = 0xFF0000FF; // red, full shade
+        vertices[3].color = 0x00FF00FF; // red and blue, no shade
+
+        this.encode(vertices, 0, 0);
+
+        assertArrayEquals(new float[] { 1.0f, 1.0f, 1.0f, 1.0f }, this.decodeColor(0));
+        assertArrayEquals(new float[] { 0.0f, 0.0f, 0.0f, 0.0f }, this.decodeColor(1));
+        assertArrayEquals(new float[] { 1.0f, 0.0f, 0.0f, 1.0f }, this.decodeColor(2));
+        assertArrayEquals(new float[] { 1.0f, 0.0f, 1.0f, 0.0f }, this.decodeColor(3));
+    }
+
+    @Test
+    void colorsAndShadeAreAccurateToHalfAStep() {
+        var random = new Random(42L);
+        var vertices = createQuad();
+
+        for (int i = 0; i < 1000; i++) {
+            for (var vertex : vertices) {
+                vertex.color = random.nextInt();
+            }
+
+            this.encode(vertices, 0, 0);
+
+            for (int v = 0; v < 4; v++) {
+                int color = vertices[v].color;
+                float[] decoded = this.decodeColor(v);
+
+                // red and blue have 5 bits, green has 6 bits, and the shade has 6 bits
+                assertEquals(((color >>>  0) & 0xFF) / 255.0f, decoded[0], 0.5f / 31.0f);
+                assertEquals(((color >>>  8) & 0xFF) / 255.0f, decoded[1], 0.5f / 63.0f);
+                assertEquals(((color >>> 16) & 0xFF) / 255.0f, decoded[2], 0.5f / 31.0f);
+                assertEquals(((color >>> 24) & 0xFF) / 255.0f, decoded[3], 0.5f / 63.0f);
+            }
+        }
+    }
+
+    @Test
+    void lightExtremesRoundTrip() {
+        var vertices = createQuad();
+        vertices[0].light = 0;
+        vertices[1].light = 240 | (240 << 16);
+        vertices[2].light = 240;
+        vertices[3].light = 240 << 16;
+
+        this.encode(vertices, 0, 0);
+
+        assertArrayEquals(new float[] { 0.0f, 0.0f }, this.decodeLight(0), 1.0e-4f);
+        assertArrayEquals(new float[] { 240.0f, 240.0f }, this.decodeLight(1), 1.0e-4f);
+        assertArrayEquals(new float[] { 240.0f, 0.0f }, this.decodeLight(2), 1.0e-4f);
+        assertArrayEquals(new float[] { 0.0f, 240.0f }, this.decodeLight(3), 1.0e-4f);
+    }
+
+    @Test
+    void lightIsAccurateToHalfAStep() {
+        var vertices = createQuad();
+
+        for (int block = 0; block <= 240; block++) {
+            int sky = 240 - block;
+
+            for (var vertex : vertices) {
+                vertex.light = block | (sky << 16);
+            }
+
+            this.encode(vertices, 0, 0);
+
+            float[] decoded = this.decodeLight(0);
+            assertEquals(block, decoded[0], 0.5f * (240.0f / 31.0f) + 1.0e-3f);
+            assertEquals(sky, decoded[1], 0.5f * (240.0f / 31.0f) + 1.0e-3f);
+        }
+    }
+
+    @Test
+    void materialAndSectionDontOverlapTheOtherFields() {
+        var vertices = createQuad();
+
+        for (var vertex : vertices) {
+            vertex.color = 0xFFFFFFFF;
+            vertex.light = 240 | (240 << 16);
+        }
+
+        this.encode(vertices, 0xA5, 0x5A);
+
+        for (int v = 0; v < 4; v++) {
+            int word = this.getLightAndData(v);
+
+            assertEquals(0xA5, (word >>> 16) & 0xFF);
+            assertEquals(0x5A, (word >>> 24) & 0xFF);
+            assertEquals(63, (word >>> 10) & 63);
+            assertArrayEquals(new float[] { 240.0f, 240.0f }, this.decodeLight(v), 1.0e-4f);
+        }
+
+        // and the other fields don't overlap the material and section
+        this.encode(vertices, 0, 0);
+        assertEquals(0, this.getLightAndData(0) >>> 16);
+
+        for (var vertex : vertices) {
+            vertex.color = 0;
+            vertex.light = 0;
+        }
+
+        this.encode(vertices, 0xFF, 0xFF);
+        assertEquals(0xFFFF0000, this.getLightAndData(0));
+    }
+
+    private void encode(ChunkVertexEncoder.Vertex[] vertices, int material, int section) {
+        var mat = Mockito.mock(Material.class);
+        Mockito.when(mat.bits()).thenReturn(material);
+
+        long ptr = MemoryUtil.memAddress(this.buffer);
+        long end = new DenseChunkVertex().getEncoder().write(ptr, mat, vertices, section);
+
+        assertEquals(ptr + (DenseChunkVertex.STRIDE * 4L), end);
+    }
+
+    private int getPosition(int vertex, int axis) {
+        return Short.toUnsignedInt(this.buffer.getShort((vertex * DenseChunkVertex.STRIDE) + (axis * 2)));
+    }
+
+    private int getLightAndData(int vertex) {
+        return this.buffer.getInt((vertex * DenseChunkVertex.STRIDE) + 12);
+    }
+
+    // _decode_position
+    private float decodePosition(int vertex, int axis) {
+        return (this.getPosition(vertex, axis) * POSITION_STEP) - 8.0f;
+    }
+
+    // _decode_color, with the shade taken from bits 10..15 of a_LightAndData
+    private float[] decodeColor(int vertex) {
+        int color = Short.toUnsignedInt(this.buffer.getShort((vertex * DenseChunkVertex.STRIDE) + 6));
+        int shade = (this.getLightAndData(vertex) >>> 10) & 63;
+
+        return new float[] {
+                ((color >>> 11) & 31) / 31.0f,
+                ((color >>>  5) & 63) / 63.0f,
+                ((color >>>  0) & 31) / 31.0f,
+                shade / 63.0f
+        };
+    }
+
+    // _decode_light, before it is clamped to the texel centers and normalized
+    private float[] decodeLight(int vertex) {
+        int value = this.getLightAndData(vertex);
+
+        return new float[] {
+                ((value >>> 0) & 31) * (240.0f / 31.0f),
+                ((value >>> 5) & 31) * (240.0f / 31.0f)
+        };
+    }
+
+    private static ChunkVertexEncoder.Vertex[] createQuad() {
+        var vertices = ChunkVertexEncoder.Vertex.uninitializedQuad();
+
+        for (int i = 0; i < 4; i++) {
+            vertices[i].u = (i & 1) * 0.0625f;
+            vertices[i].v = (i >> 1) * 0.0625f;
+        }
+
+        return vertices;
+    }
+}
@@ -0,0 +1,207 @@
+package net.caffeinemc.mods.sodium.client.render.chunk.vertex.format.impl;
+
+import net.caffeinemc.mods.sodium.client.render.chunk.terrain.material.Material;
+import net.caffeinemc.mods.sodium.client.render.chunk.vertex.format.ChunkVertexEncoder;
+import org.junit.jupiter.api.Test;
+import org.lwjgl.system.MemoryUtil;
+import org.mockito.Mockito;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Encodes quads with {@link QuadRecordChunkVertex} and decodes each corner the same way as the quad record path of
+ * {@code chunk_vertex.glsl}, which fetches the words of the quad through the geometry texture.
+ */
+class QuadRecordChunkVertexTest {
+    private static final float POSITION_STEP = 1.0f / (1 << DenseChunkVertex.POSITION_OFFSET_BITS);
+    private static final float TEXTURE_STEP = 1.0f / (1 << 15);
+    private static final float TEXTURE_GROW_FACTOR = (1.0f - (1.0f / 64.0f)) / (1 << 15);
+
+    // The shader's constants are in units of words
+    private static final int QUAD_WORDS = 13;
+
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(QuadRecordChunkVertex.QUAD_STRIDE * 2)
+            .order(ByteOrder.nativeOrder());
+
+    @Test
+    void strideMatchesTheShader() {
+        assertEquals(QUAD_WORDS * Integer.BYTES, QuadRecordChunkVertex.QUAD_STRIDE);
+        assertEquals(QuadRecordChunkVertex.QUAD_STRIDE, QuadRecordChunkVertex.STRIDE * 4);
+    }
+
+    @Test
+    void cornersRoundTrip() {
+        var random = new Random(42L);
+        var vertices = createQuad(0.25f, 0.5f, 0.3125f, 0.5625f);
+
+        for (int i = 0; i < 4; i++) {
+            vertices[i].x = -8.0f + (random.nextFloat() * 31.0f);
+            vertices[i].y = -8.0f + (random.nextFloat() * 31.0f);
+            vertices[i].z = -8.0f + (random.nextFloat() * 31.0f);
+            vertices[i].color = random.nextInt();
+            vertices[i].light = (i * 80) | ((240 - (i * 80)) << 16);
+        }
+
+        this.encode(vertices, 0x3C, 0xC3, 0);
+
+        for (int corner = 0; corner < 4; corner++) {
+            var decoded = this.decode(corner);
+            var vertex = vertices[corner];
+
+            assertEquals(vertex.x, decoded.x, (POSITION_STEP * 0.5f) + 1.0e-5f);
+            assertEquals(vertex.y, decoded.y, (POSITION_STEP * 0.5f) + 1.0e-5f);
+            assertEquals(vertex.z, decoded.z, (POSITION_STEP * 0.5f) + 1.0e-5f);
+
+            assertEquals(((vertex.color >>>  0) & 0xFF) / 255.0f, decoded.r, 0.5f / 31.0f);
+            assertEquals(((vertex.color >>>  8) & 0xFF) / 255.0f, decoded.g, 0.5f / 63.0f);
+            assertEquals(((vertex.color >>> 16) & 0xFF) / 255.0f, decoded.b, 0.5f / 31.0f);
+            assertEquals(((vertex.color >>> 24) & 0xFF) / 255.0f, decoded.shade, 0.5f / 63.0f);
+
+            assertEquals(corner * 80, decoded.blockLight, 0.5f * (240.0f / 31.0f) + 1.0e-3f);
+            assertEquals(240 - (corner * 80), decoded.skyLight, 0.5f * (240.0f / 31.0f) + 1.0e-3f);
+
+            assertEquals(0x3C, decoded.material);
+            assertEquals(0xC3, decoded.section);
+        }
+    }
+
+    @Test
+    void textureCoordinatesAreSelectedFromTheSpriteBounds() {
+        float minU = 0.25f, minV = 0.5f, maxU = 0.3125f, maxV = 0.5625f;
+
+        // the corners are rotated, so that the first vertex doesn't map to the minimum corner of the sprite
+        var vertices = createQuad(minU, minV, maxU, maxV);
+        float[][] uvs = { { maxU, minV }, { maxU, maxV }, { minU, maxV }, { minU, minV } };
+
+        for (int i = 0; i < 4; i++) {
+            vertices[i].u = uvs[i][0];
+            vertices[i].v = uvs[i][1];
+        }
+
+        this.encode(vertices, 0, 0, 0);
+
+        for (int corner = 0; corner < 4; corner++) {
+            var decoded = this.decode(corner);
+
+            assertEquals(uvs[corner][0], decoded.u, TEXTURE_STEP);
+            assertEquals(uvs[corner][1], decoded.v, TEXTURE_STEP);
+
+            // the coordinates are shrunk towards the center of the sprite, so they never sample its neighbours
+            assertTrue(decoded.u > minU && decoded.u < maxU);
+            assertTrue(decoded.v > minV && decoded.v < maxV);
+        }
+    }
+
+    @Test
+    void quadsAreLocatedByTheirVertexIndex() {
+        var first = createQuad(0.0f, 0.0f, 0.0625f, 0.0625f);
+        var second = createQuad(0.0f, 0.0f, 0.0625f, 0.0625f);
+
+        for (int i = 0; i < 4; i++) {
+            first[i].x = 1.0f;
+            second[i].x = 2.0f + i;
+        }
+
+        this.encode(first, 1, 2, 0);
+        this.encode(second, 3, 4, QuadRecordChunkVertex.QUAD_STRIDE);
+
+        // the vertices of the second quad are 4..7 in the buffer
+        for (int vertex = 4; vertex < 8; vertex++) {
+            var decoded = this.decode(vertex);
+
+            assertEquals(2.0f + (vertex & 3), decoded.x);
+            assertEquals(3, decoded.material);
+            assertEquals(4, decoded.section);
+        }
+
+        assertEquals(1.0f, this.decode(3).x);
+        assertEquals(2, this.decode(3).section);
+    }
+
+    private void encode(ChunkVertexEncoder.Vertex[] vertices, int material, int section, int offset) {
+        var mat = Mockito.mock(Material.class);
+        Mockito.when(mat.bits()).thenReturn(material);
+
+        long ptr = MemoryUtil.memAddress(this.buffer) + offset;
+        long end = new QuadRecordChunkVertex().getEncoder().write(ptr, mat, vertices, section);
+
+        assertEquals(ptr + QuadRecordChunkVertex.QUAD_STRIDE, end);
+    }
+
+    private int fetchWord(int index) {
+        return this.buffer.getInt(index * Integer.BYTES);
+    }
+
+    /**
+     * Decodes a vertex the same way as {@code _vert_init} does for the given {@code gl_VertexID}.
+     */
+    private DecodedVertex decode(int vertexId) {
+        int quad = vertexId >> 2;
+        int corner = vertexId & 3;
+
+        int base = quad * QUAD_WORDS;
+
+        int positionXY = this.fetchWord(base + (corner * 2) + 0);
+        int positionZAndLight = this.fetchWord(base + (corner * 2) + 1);
+
+        int record = this.fetchWord(base + 8);
+        int color = this.fetchWord(base + 11 + (corner >> 1)) >>> ((corner & 1) * 16);
+
+        int texMin = this.fetchWord(base + 9);
+        int texMax = this.fetchWord(base + 10);
+        int texCorner = (record >>> (16 + (corner * 2))) & 3;
+
+        var vertex = new DecodedVertex();
+        vertex.x = decodePosition(positionXY & 0xFFFF);
+        vertex.y = decodePosition(positionXY >>> 16);
+        vertex.z = decodePosition(positionZAndLight & 0xFFFF);
+
+        vertex.r = ((color >>> 11) & 31) / 31.0f;
+        vertex.g = ((color >>>  5) & 63) / 63.0f;
+        vertex.b = ((color >>>  0) & 31) / 31.0f;
+        vertex.shade = ((positionZAndLight >>> 26) & 63) / 63.0f;
+
+        vertex.u = decodeTexture((texCorner & 1) != 0 ? texMax & 0xFFFF : texMin & 0xFFFF);
+        vertex.v = decodeTexture((texCorner & 2) != 0 ? texMax >>> 16 : texMin >>> 16);
+
+        int light = positionZAndLight >>> 16;
+        vertex.blockLight = ((light >>> 0) & 31) * (240.0f / 31.0f);
+        vertex.skyLight = ((light >>> 5) & 31) * (240.0f / 31.0f);
+
+        vertex.material = (record >>> 0) & 0xFF;
+        vertex.section = (record >>> 8) & 0xFF;
+
+        return vertex;
+    }
+
+    private static float decodePosition(int value) {
+        return (value * POSITION_STEP) - 8.0f;
+    }
+
+    private static float decodeTexture(int value) {
+        return ((value >>> 1) * TEXTURE_STEP) + ((value & 1) != 0 ? TEXTURE_GROW_FACTOR : -TEXTURE_GROW_FACTOR);
+    }
+
+    private static ChunkVertexEncoder.Vertex[] createQuad(float minU, float minV, float maxU, float maxV) {
+        var vertices = ChunkVertexEncoder.Vertex.uninitializedQuad();
+
+        for (int i = 0; i < 4; i++) {
+            vertices[i].u = (i & 1) != 0 ? maxU : minU;
+            vertices[i].v = (i & 2) != 0 ? maxV : minV;
+        }
+
+        return vertices;
+    }
+
+    private static class DecodedVertex {
+        float x, y, z;
+        float r, g, b, shade;
+        float u, v;
+        float blockLight, skyLight;
+        int material, section;
+    }
+}
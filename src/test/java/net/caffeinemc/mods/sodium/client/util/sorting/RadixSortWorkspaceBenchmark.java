@@ -0,0 +1,66 @@
+package net.caffeinemc.mods.sodium.client.util.sorting;
+
+import net.caffeinemc.mods.sodium.client.util.MathUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link RadixSortWorkspace} with {@link RadixSort#sort(int[])}, and with the sort of packed keys and
+ * indices which is used for inputs below {@link RadixSort#RADIX_SORT_THRESHOLD}. The keys are the comparable bits of
+ * the dot products of quads, at the quad counts of translucent sections. Run with
+ * {@code gradlew jmh --args="RadixSortWorkspaceBenchmark"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RadixSortWorkspaceBenchmark {
+    @Param({ "16", "64", "256", "1024", "4096", "16384" })
+    public int length;
+
+    private int[] keys;
+    private long[] packed;
+
+    @Setup
+    public void setup() {
+        var random = new Random(42L);
+        this.keys = new int[this.length];
+        this.packed = new long[this.length];
+
+        // the distances of quad planes within a section, relative to the camera
+        for (int i = 0; i < this.length; i++) {
+            this.keys[i] = MathUtil.floatToComparableInt(20.0f + (random.nextFloat() * 16.0f));
+        }
+    }
+
+    @Benchmark
+    public int[] workspace() {
+        var workspace = RadixSortWorkspace.get();
+        System.arraycopy(this.keys, 0, workspace.getKeys(this.length), 0, this.length);
+
+        return workspace.sort(this.length);
+    }
+
+    @Benchmark
+    public int[] radixSort() {
+        return RadixSort.sort(this.keys);
+    }
+
+    @Benchmark
+    public long[] packedSort() {
+        var packed = this.packed;
+
+        for (int i = 0; i < this.length; i++) {
+            packed[i] = (long) this.keys[i] << 32 | i;
+        }
+
+        Arrays.sort(packed, 0, this.length);
+
+        return packed;
+    }
+}
@@ -0,0 +1,95 @@
+package net.caffeinemc.mods.sodium.client.util.sorting;
+
+import net.caffeinemc.mods.sodium.client.util.MathUtil;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RadixSortWorkspaceTest {
+    @Test
+    void sortsRandomKeysLikeAStableSort() {
+        var random = new Random(42L);
+
+        for (int length : new int[] { 0, 1, 2, 3, 63, 64, 65, 255, 256, 1000, 100_000 }) {
+            int[] keys = random.ints(length).toArray();
+
+            assertArrayEquals(referenceSort(keys), sort(keys), "length " + length);
+        }
+    }
+
+    @Test
+    void keysAreComparedAsUnsigned() {
+        int[] keys = { -1, 0, Integer.MIN_VALUE, Integer.MAX_VALUE, 1, -2 };
+
+        assertArrayEquals(new int[] { 1, 4, 3, 2, 5, 0 }, sort(keys));
+    }
+
+    @Test
+    void equalKeysStayInTheOrderOfTheirIndices() {
+        var random = new Random(42L);
+
+        // few distinct keys, so that there are many equal ones
+        int[] keys = random.ints(5000, 0, 8).map(key -> key * 0x01010101).toArray();
+
+        assertArrayEquals(referenceSort(keys), sort(keys));
+    }
+
+    @Test
+    void keysWhichOnlyDifferInSomeDigitsAreSorted() {
+        var random = new Random(42L);
+
+        // the upper digits of floats with a similar magnitude are the same, so those passes are skipped
+        int[] keys = new int[1000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = MathUtil.floatToComparableInt(100.0f + random.nextFloat());
+        }
+
+        assertArrayEquals(referenceSort(keys), sort(keys));
+
+        // all passes are skipped
+        int[] equal = new int[100];
+        Arrays.fill(equal, 0x12345678);
+        assertArrayEquals(IntStream.range(0, equal.length).toArray(), sort(equal));
+    }
+
+    @Test
+    void matchesRadixSort() {
+        var random = new Random(42L);
+        int[] keys = random.ints(4096).toArray();
+
+        assertArrayEquals(RadixSort.sort(keys), sort(keys));
+    }
+
+    @Test
+    void buffersCanBeReusedForSmallerInputs() {
+        var random = new Random(42L);
+        var workspace = RadixSortWorkspace.get();
+
+        for (int length : new int[] { 3000, 100, 2000, 64 }) {
+            int[] keys = random.ints(length).toArray();
+            System.arraycopy(keys, 0, workspace.getKeys(length), 0, length);
+
+            int[] indices = Arrays.copyOf(workspace.sort(length), length);
+            assertArrayEquals(referenceSort(keys), indices, "length " + length);
+        }
+    }
+
+    private static int[] sort(int[] keys) {
+        var workspace = RadixSortWorkspace.get();
+        System.arraycopy(keys, 0, workspace.getKeys(keys.length), 0, keys.length);
+
+        return Arrays.copyOf(workspace.sort(keys.length), keys.length);
+    }
+
+    private static int[] referenceSort(int[] keys) {
+        return IntStream.range(0, keys.length)
+                .boxed()
+                .sorted((a, b) -> Integer.compareUnsigned(keys[a], keys[b]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+}